@@ -1,8 +1,8 @@
 package entity;
 
+import game_logic.Aabb;
 import game_logic.GamePanel;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
 
 /**
@@ -21,9 +21,8 @@ public abstract class Entity {
         DOWN, LEFT, RIGHT, UP
     }
 
-    // HITBOX
-    private Rectangle solidArea;
-    private int solidAreaDefaultX, solidAreaDefaultY;
+    // HITBOX (relative to the world position, immutable)
+    private Aabb solidArea;
     private boolean collisionOn = false;
 
 
@@ -39,10 +38,8 @@ public abstract class Entity {
     public int getSpeed() { return speed; }
     public Direction getFacing() { return facing; }
     public boolean isMoving() { return isMoving; }
-    public Rectangle getSolidArea() { return solidArea; }
+    public Aabb getSolidArea() { return solidArea; }
     public boolean isCollisionOn() { return collisionOn; }
-    public int getSolidAreaDefaultX() { return solidAreaDefaultX; }
-    public int getSolidAreaDefaultY() { return solidAreaDefaultY; }
 
     /* ------------------------------------------------ */
 
@@ -56,10 +53,8 @@ public abstract class Entity {
     }
     public void setFacing(Entity.Direction facing) {this.facing = facing;}
     public void setMoving(boolean isMoving) { this.isMoving = isMoving; }
-    public void setSolidArea(Rectangle solidArea) { this.solidArea = solidArea; }
+    public void setSolidArea(Aabb solidArea) { this.solidArea = solidArea; }
     public void setCollisionOn(boolean collisionOn) { this.collisionOn = collisionOn; }
-    public void setSolidAreaDefaultY(int solidAreaDefaultY) { this.solidAreaDefaultY = solidAreaDefaultY; }
-    public void setSolidAreaDefaultX(int solidAreaDefaultX) { this.solidAreaDefaultX = solidAreaDefaultX; }
 
     /* ------------------------------------------------ */
 
@@ -1,10 +1,12 @@
 package entity;
 
+import game_logic.Aabb;
+import game_logic.Camera;
+import game_logic.CollisionChecker;
 import game_logic.GamePanel;
 import game_logic.KeyHandler;
 import game_logic.Sound;
 import object.Chest;
-import object.GameObject;
 import tile.Tile;
 import utils.GameUtils;
 
@@ -12,14 +14,19 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 public class Player extends RenderableEntity {
 
     /* --------------- [CONSTANTS] --------------- */
 
     // COORDINATES
-    private static final int DEFAULT_X = GamePanel.WORLD_WIDTH / 2;
-    private static final int DEFAULT_Y = GamePanel.WORLD_HEIGHT / 2;
+    public static final int SPAWN_COL = GamePanel.MAX_WORLD_COL / 2;            // spawn tile of the first player
+    public static final int SPAWN_ROW = GamePanel.MAX_WORLD_ROW / 2;
+    private static final int DEFAULT_X = SPAWN_COL * GamePanel.TILE_SIZE;
+    private static final int DEFAULT_Y = SPAWN_ROW * GamePanel.TILE_SIZE;
+    private static final int PLAYER_SPAWN_SPACING = GamePanel.TILE_SIZE;         // spawn offset between players
 
     // SPRITE SHEET
     private static final int NUM_ANIMATION_FRAMES = 4;
@@ -29,8 +36,8 @@ public class Player extends RenderableEntity {
     private static final int DEFAULT_ANIMATION_SPEED = 10;
 
     // COLLISION
-    private static final int COLLISION_BOX_WIDTH = 25;
-    private static final int COLLISION_BOX_HEIGHT = 28;
+    public static final int COLLISION_BOX_WIDTH = 25;
+    public static final int COLLISION_BOX_HEIGHT = 28;
 
     // GAME PARAMS
     private static final int DEFAULT_SPEED = 5;
@@ -39,23 +46,26 @@ public class Player extends RenderableEntity {
 
     /* ------------------------------------------- */
 
+    // SPRITES CACHE (sprite frames are loaded once and shared by all players)
+    private static final Map<String, BufferedImage[]> spriteSheetCache = new HashMap<>();
+
+    // PLAYER INDEX (selects input mapping and spawn position)
+    private final int playerIndex;
+
     // ANIMATION
     private int frameDelayCounter = 0;                          // to update player animation frames
     private int currentAnimationFrame = 0;
 
-    // COORDINATES
-    private final int screenX;
-    private final int screenY;
-
     // GAME PARAMS
     private int numKeys = 0;
 
+    // COLLISION (objects touched by the current move, buffer reused every tick)
+    private final CollisionChecker.ObjectHits objectHits = new CollisionChecker.ObjectHits();
 
-    public Player(GamePanel gamePanel) {
-        super(gamePanel);
 
-        screenX = (GamePanel.SCREEN_WIDTH / 2) - (GamePanel.TILE_SIZE / 2);
-        screenY = (GamePanel.SCREEN_HEIGHT / 2) - (GamePanel.TILE_SIZE / 2);
+    public Player(GamePanel gamePanel, int playerIndex) {
+        super(gamePanel);
+        this.playerIndex = playerIndex;
 
         setCollisionBox();
         setDefaultValues();
@@ -68,12 +78,10 @@ public class Player extends RenderableEntity {
     private void setCollisionBox() {
         int collisionBoxOffsetX = (GamePanel.TILE_SIZE - COLLISION_BOX_WIDTH) / 2;
         int collisionBoxOffsetY = (GamePanel.TILE_SIZE - COLLISION_BOX_HEIGHT) / 2;
-        this.setSolidAreaDefaultX(collisionBoxOffsetX);
-        this.setSolidAreaDefaultY(collisionBoxOffsetY);
 
-        Rectangle collisionBox = new Rectangle(
-                getSolidAreaDefaultX(),
-                getSolidAreaDefaultY(),
+        Aabb collisionBox = new Aabb(
+                collisionBoxOffsetX,
+                collisionBoxOffsetY,
                 COLLISION_BOX_WIDTH,
                 COLLISION_BOX_HEIGHT
         );
@@ -84,7 +92,7 @@ public class Player extends RenderableEntity {
      * Set player default position (X, Y world coordinates) and speed as game starts
      */
     private void setDefaultValues() {
-        setWorldX(DEFAULT_X);
+        setWorldX(DEFAULT_X + playerIndex * PLAYER_SPAWN_SPACING);
         setWorldY(DEFAULT_Y);
         setSpeed(DEFAULT_SPEED);
         setFacing(Direction.DOWN);
@@ -100,6 +108,18 @@ public class Player extends RenderableEntity {
         this.setRunFrames(loadPlayerSheet("/sprites/player/player_run.png"));
     }
 
+    /*
+     * Returns the scaled frames of the player sprite sheet at the given path.
+     * Sprite sheets are loaded only once and shared by all players
+     * @param path The path to the sprite sheet image file
+     * @return An array containing the scaled frames
+     */
+    private static BufferedImage[] loadPlayerSheet(String path) {
+        synchronized (spriteSheetCache) {
+            return spriteSheetCache.computeIfAbsent(path, Player::slicePlayerSheet);
+        }
+    }
+
     /*
      * Loads player sprite sheet from the given path, slices it into individual frames,
      * scales each frame to the game's tile size, and returns the resulting array.
@@ -107,7 +127,7 @@ public class Player extends RenderableEntity {
      * @return An array containing the scaled frames if loading was successfully,
      *         a placeholder sprites otherwise.
      */
-    private BufferedImage[] loadPlayerSheet(String path) {
+    private static BufferedImage[] slicePlayerSheet(String path) {
         try {
             BufferedImage sheet = GameUtils.loadImageSafe(path);
             BufferedImage[] sprites = GameUtils
@@ -158,12 +178,17 @@ public class Player extends RenderableEntity {
         }
 
         updateFacingDirection(dx, dy);
-        handleCollisions();
 
-        int[] Velocity = calculateFinalVelocity(dx, dy);
-        int vx = Velocity[0];
-        int vy = Velocity[1];
+        int[] velocity = normalizeDiagonalMovement(dx, dy, this.getSpeed());
 
+        // Swept movement: each axis moves as far as tiles and solid objects allow (slides along walls)
+        CollisionChecker collisionChecker = gamePanel.getCollisionChecker();
+        int vx = collisionChecker.sweep(this, getWorldX(), getWorldY(), velocity[0], true, objectHits);
+        int vy = collisionChecker.sweep(this, getWorldX() + vx, getWorldY(), velocity[1], false, objectHits);
+        this.setCollisionOn(vx != velocity[0] || vy != velocity[1]);
+
+        handleObjectCollisions(vx, vy, vx != velocity[0] ? Integer.signum(velocity[0]) : 0,
+                vy != velocity[1] ? Integer.signum(velocity[1]) : 0);
         updateWorldPosition(vx, vy);
 
         setMoving(vx != 0 || vy != 0);
@@ -177,10 +202,10 @@ public class Player extends RenderableEntity {
         int dx = 0, dy = 0;
         KeyHandler input = gamePanel.getGameKeyHandler();
 
-        if (input.isUpPressed()) dy--;
-        if (input.isDownPressed()) dy++;
-        if (input.isLeftPressed()) dx--;
-        if (input.isRightPressed()) dx++;
+        if (input.isUpPressed(playerIndex)) dy--;
+        if (input.isDownPressed(playerIndex)) dy++;
+        if (input.isLeftPressed(playerIndex)) dx--;
+        if (input.isRightPressed(playerIndex)) dx++;
 
         return new int[]{dx, dy};
     }
@@ -199,21 +224,6 @@ public class Player extends RenderableEntity {
         }
     }
 
-    /*
-     * Calculates the player final velocity based on speed and direction,
-     * unless player collision is enabled.
-     * @param dx horizontal movement direction
-     * @param dy vertical movement direction
-     * @return player movement velocity {vx, vy},
-     * {0, 0} if player collision is enabled
-     */
-    private int[] calculateFinalVelocity(int dx, int dy) {
-        if (isCollisionOn()) return new int[]{0, 0};
-
-        int speed = this.getSpeed();
-        return normalizeDiagonalMovement(dx, dy, speed);
-    }
-
     /*
      * Normalizes diagonal movement and applies speed.
      * @param dx horizontal movement direction
@@ -243,10 +253,10 @@ public class Player extends RenderableEntity {
         int newX = getWorldX() + dx;
         int newY = getWorldY() + dy;
 
-        int maxWorldWidth = GamePanel.MAX_WORLD_COL * GamePanel.TILE_SIZE;
-        int maxWorldHeight = GamePanel.MAX_WORLD_ROW * GamePanel.TILE_SIZE;
-        int playerWidth = this.getSolidArea().width;
-        int playerHeight = this.getSolidArea().height;
+        int maxWorldWidth = gamePanel.getTileManager().getWorldCols() * GamePanel.TILE_SIZE;
+        int maxWorldHeight = gamePanel.getTileManager().getWorldRows() * GamePanel.TILE_SIZE;
+        int playerWidth = this.getSolidArea().width();
+        int playerHeight = this.getSolidArea().height();
 
         newX = Math.max(0, Math.min(newX, maxWorldWidth - GamePanel.TILE_SIZE));
         newY = Math.max(0, Math.min(newY, maxWorldHeight - GamePanel.TILE_SIZE));
@@ -256,32 +266,19 @@ public class Player extends RenderableEntity {
     }
 
     /*
-     * Handles player collisions
+     * Handles player interaction with the game objects touched by the resolved move
+     * (see CollisionChecker.queryTouchedObjects)
+     * @param vx player horizontal velocity, after collisions
+     * @param vy player vertical velocity, after collisions
+     * @param blockedX the wanted horizontal direction if the move was shortened, 0 otherwise
+     * @param blockedY the wanted vertical direction if the move was shortened, 0 otherwise
      */
-    private void handleCollisions() {
-        handleTileCollisions();
-        handleObjectCollisions();
-    }
+    private void handleObjectCollisions(int vx, int vy, int blockedX, int blockedY) {
+        gamePanel.getCollisionChecker().queryTouchedObjects(this, vx, vy, blockedX, blockedY, objectHits);
 
-    /*
-     * Enables player collision if checked tiles are collidable
-     */
-    private void handleTileCollisions() {
-        this.setCollisionOn(false);
-        gamePanel.getCollisionChecker().checkTile(this);
-    }
-
-    /*
-     * Handles player interaction with game objects on collision.
-     * Enables player collision if checked object is collidable
-     */
-    private void handleObjectCollisions() {
-        int gameObjIndex = gamePanel.getCollisionChecker().checkObject(this, true);
-
-        if (gameObjIndex == -1) return;
-
-        GameObject gameObj = gamePanel.getGameObjects().get(gameObjIndex);
-        gameObj.onPlayerCollision(gamePanel);
+        for (int i = 0; i < objectHits.size(); i++) {
+            objectHits.get(i).onPlayerCollision(gamePanel, this);
+        }
     }
 
     /**
@@ -303,27 +300,31 @@ public class Player extends RenderableEntity {
     }
 
     /**
-     * Draws current player sprite to the screen
-     * @param g2 The Graphics2D context to draw on
+     * Draws current player sprite to the screen, if visible by the given camera
+     * @param g2 The Graphics2D context to draw on (relative to the camera viewport)
+     * @param camera The camera viewing the player
      */
     @Override
-    public void draw(Graphics2D g2) {
-        g2.drawImage(getCurrentSprite(), screenX, screenY,null);
+    public void draw(Graphics2D g2, Camera camera) {
+        if (!camera.isVisible(getWorldX(), getWorldY(), GamePanel.TILE_SIZE, GamePanel.TILE_SIZE)) return;
+
+        g2.drawImage(getCurrentSprite(), camera.toViewX(getWorldX()), camera.toViewY(getWorldY()),null);
     }
 
     /**
      * Draws player hitbox when in debug mode
-     * @param g2 The Graphics2D context to draw on
+     * @param g2 The Graphics2D context to draw on (relative to the camera viewport)
+     * @param camera The camera viewing the player
      */
     @Override
-    public void drawDebug(Graphics2D g2) {
+    public void drawDebug(Graphics2D g2, Camera camera) {
         // Get original color of Graphics context
         Color originalColor = g2.getColor();
 
         g2.setColor(Color.RED);
-        Rectangle hitbox = getSolidArea();
-        g2.drawRect(screenX + hitbox.x, screenY + hitbox.y,
-                hitbox.width, hitbox.height);
+        Aabb hitbox = getSolidArea();
+        g2.drawRect(camera.toViewX(getWorldX()) + hitbox.x(), camera.toViewY(getWorldY()) + hitbox.y(),
+                hitbox.width(), hitbox.height());
 
         // Restore original Graphics color after drawing operation
         g2.setColor(originalColor);
@@ -358,8 +359,7 @@ public class Player extends RenderableEntity {
 
     /* --------------- [GETTER METHODS] --------------- */
 
-    public int getScreenX() { return screenX; }
-    public int getScreenY() { return screenY; }
+    public int getPlayerIndex() { return playerIndex; }
     public int getNumKeys() { return numKeys; }
 
     /* ------------------------------------------------ */
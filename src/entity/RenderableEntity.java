@@ -1,5 +1,6 @@
 package entity;
 
+import game_logic.Camera;
 import game_logic.GamePanel;
 
 import java.awt.*;
@@ -36,8 +37,8 @@ public abstract class RenderableEntity extends Entity {
     /* -------------- [ABSTRACT METHODS] -------------- */
 
     protected abstract void loadSprites();
-    public abstract void draw(Graphics2D g2);
-    public abstract void drawDebug(Graphics2D g2);
+    public abstract void draw(Graphics2D g2, Camera camera);
+    public abstract void drawDebug(Graphics2D g2, Camera camera);
 
     /* ------------------------------------------------ */
 }
@@ -0,0 +1,51 @@
+package game_logic;
+
+/**
+ * Immutable axis-aligned bounding box (in pixels), e.g. a hitbox relative to its owner world position.
+ * Collision queries combine boxes with primitive world coordinates and never modify them,
+ * so they are reentrant and can run concurrently
+ * @author LC
+ */
+public record Aabb(int x, int y, int width, int height) {
+
+    public Aabb {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Negative box size: " + width + "x" + height);
+        }
+    }
+
+    /**
+     * Checks if two boxes overlap (boxes without area never overlap, touching edges do not count)
+     * @param ax The first box x
+     * @param ay The first box y
+     * @param aWidth The first box width
+     * @param aHeight The first box height
+     * @param bx The second box x
+     * @param by The second box y
+     * @param bWidth The second box width
+     * @param bHeight The second box height
+     * @return true if the boxes overlap, false otherwise
+     */
+    public static boolean overlaps(int ax, int ay, int aWidth, int aHeight, int bx, int by, int bWidth, int bHeight) {
+        return aWidth > 0 && aHeight > 0 && bWidth > 0 && bHeight > 0
+                && ax < bx + bWidth && bx < ax + aWidth
+                && ay < by + bHeight && by < ay + aHeight;
+    }
+
+    /**
+     * Checks if this box, placed at the given world position, overlaps another box placed at its own position
+     * @param worldX This box owner world x
+     * @param worldY This box owner world y
+     * @param other The other box
+     * @param otherWorldX The other box owner world x
+     * @param otherWorldY The other box owner world y
+     * @return true if the boxes overlap, false otherwise
+     */
+    public boolean overlaps(int worldX, int worldY, Aabb other, int otherWorldX, int otherWorldY) {
+        return overlaps(worldX + x, worldY + y, width, height,
+                otherWorldX + other.x, otherWorldY + other.y, other.width, other.height);
+    }
+
+    public int centerX() { return x + width / 2; }
+    public int centerY() { return y + height / 2; }
+}
@@ -1,51 +1,112 @@
 package game_logic;
 
+import entity.Player;
 import object.Boots;
 import object.Chest;
 import object.GameObject;
 import object.Key;
+import tile.TileManager;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AssetSetter {
+
+    // MAP OBJECT TYPES (placed by the map, see createGameObject)
+    public static final List<String> OBJECT_TYPES = List.of("key", "boots", "chest");
+    public static final List<String> SOLID_OBJECT_TYPES = List.of("chest");          // see GameObject.isCollidable
+
     private final GamePanel gamePanel;
+    private ObjectIndex objectIndex;                // placements of the loaded map (objects are created near viewers)
 
     public AssetSetter(GamePanel gamePanel) {
         this.gamePanel = gamePanel;
     }
 
-    /*
+    /**
      * Sets game object world coordinates based on tile location
      * and adds it to game objects list
      * @param gameObj The game object to be added
      * @param tileCol The world column (in tiles) where the object should be placed
      * @param tileRow The world row (in tiles) where the object should be placed.
      */
-    private void addGameObject(GameObject gameObj, int tileCol, int tileRow) {
+    public void addGameObject(GameObject gameObj, int tileCol, int tileRow) {
         gameObj.setWorldX(tileCol * GamePanel.TILE_SIZE);
         gameObj.setWorldY(tileRow * GamePanel.TILE_SIZE);
         gamePanel.getGameObjects().add(gameObj);
     }
 
     /**
-     * Sets all game objects position at the start of the game
+     * Indexes the object placements of the loaded map (see TiledImporter) by chunk,
+     * their game objects are created by updateObjects once a viewer comes near (see ObjectIndex)
      */
     public void setGameObjects() {
+        long start = System.nanoTime();
+        TileManager tileManager = gamePanel.getTileManager();
+        objectIndex = new ObjectIndex(this, gamePanel.getGameObjects(), tileManager.getMapObjects(),
+                tileManager.getWorldCols(), tileManager.getWorldRows());
+
+        System.out.printf("Indexed %d object placements (%.2f ms)%n", objectIndex.getPlacementCount(),
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /**
+     * Creates the game objects around the players (around the editor camera while editing)
+     * and releases the ones far from them
+     */
+    public void updateObjects() {
+        List<Point> viewers = new ArrayList<>();
+        if (gamePanel.getGameState() == GamePanel.GameState.EDITING) {
+            viewers.add(gamePanel.getMapEditor().getViewCenter());
+        } else {
+            for (Player p : gamePanel.getPlayers()) {
+                viewers.add(new Point(p.getWorldX() + p.getSolidArea().x(), p.getWorldY() + p.getSolidArea().y()));
+            }
+        }
+        objectIndex.update(viewers);
+    }
+
+    /**
+     * Creates the game object of the given map object type
+     * @param type The map object type (see OBJECT_TYPES)
+     * @return The game object, null if the type is unknown
+     */
+    public GameObject createGameObject(String type) {
+        return switch (type) {
+            case "key" -> new Key(gamePanel);
+            case "boots" -> new Boots(gamePanel);
+            case "chest" -> new Chest(gamePanel);
+            default -> null;
+        };
+    }
 
-        addGameObject(new Key(gamePanel), 58, 32);
-        addGameObject(new Key(gamePanel), 68, 60);
-        addGameObject(new Key(gamePanel), 54, 52);
-        addGameObject(new Key(gamePanel), 18, 34);
-        addGameObject(new Key(gamePanel), 9, 44);
-        addGameObject(new Key(gamePanel), 18, 34);
-        addGameObject(new Key(gamePanel), 10, 69);
-        addGameObject(new Key(gamePanel), 15, 10);
-        addGameObject(new Key(gamePanel), 64, 13);
-        addGameObject(new Key(gamePanel), 40, 31);
-
-        addGameObject(new Boots(gamePanel), 64, 49);
-        addGameObject(new Boots(gamePanel), 40, 62);
-        addGameObject(new Boots(gamePanel), 39, 31);
-
-        addGameObject(new Chest(gamePanel), 41, 15);
+    /**
+     * Returns the map object type of the given game object (e.g. to save it in a map file)
+     * @param gameObj The game object
+     * @return The map object type, null if the object has no map object type
+     */
+    public static String getObjectType(GameObject gameObj) {
+        return switch (gameObj) {
+            case Key key -> "key";
+            case Boots boots -> "boots";
+            case Chest chest -> "chest";
+            default -> null;
+        };
     }
 
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public ObjectIndex getObjectIndex() { return objectIndex; }
+
+    /* ------------------------------------------------ */
+
+
+    /* --------------- [SETTER METHODS] --------------- */
+
+    public void setObjectIndex(ObjectIndex objectIndex) { this.objectIndex = objectIndex; }
+
+    /* ------------------------------------------------ */
+
 }
@@ -0,0 +1,88 @@
+package game_logic;
+
+import entity.Entity;
+
+/**
+ * Viewport over the game world.
+ * Holds the world coordinates of the viewport top-left corner and the screen area the viewport is drawn on.
+ * Every player has its own camera (split-screen), while the world state is shared
+ * @author LC
+ */
+public class Camera {
+
+    // SCREEN AREA
+    private final int screenX, screenY;
+    private final int width, height;
+
+    // WORLD POSITION (top-left corner)
+    private int worldX, worldY;
+
+
+    public Camera(int screenX, int screenY, int width, int height) {
+        this.screenX = screenX;
+        this.screenY = screenY;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Centers the camera on the given entity
+     * @param entity The entity to follow
+     */
+    public void follow(Entity entity) {
+        worldX = entity.getWorldX() - (width / 2 - GamePanel.TILE_SIZE / 2);
+        worldY = entity.getWorldY() - (height / 2 - GamePanel.TILE_SIZE / 2);
+    }
+
+    /**
+     * Places the camera top-left corner at the given world position (e.g. map editor panning)
+     * @param worldX The world X coordinate
+     * @param worldY The world Y coordinate
+     */
+    public void setWorldPosition(int worldX, int worldY) {
+        this.worldX = worldX;
+        this.worldY = worldY;
+    }
+
+    /**
+     * Checks if the given world area is (even partially) inside the camera viewport
+     * @param areaWorldX The area world X coordinate
+     * @param areaWorldY The area world Y coordinate
+     * @param areaWidth The area width
+     * @param areaHeight The area height
+     * @return true if the area is visible,
+     *         false otherwise
+     */
+    public boolean isVisible(int areaWorldX, int areaWorldY, int areaWidth, int areaHeight) {
+        return areaWorldX + areaWidth > worldX &&
+               areaWorldX < worldX + width &&
+               areaWorldY + areaHeight > worldY &&
+               areaWorldY < worldY + height;
+    }
+
+    /**
+     * Converts a world X coordinate to a viewport X coordinate
+     * @param x The world X coordinate
+     * @return The X coordinate relative to the viewport
+     */
+    public int toViewX(int x) { return x - worldX; }
+
+    /**
+     * Converts a world Y coordinate to a viewport Y coordinate
+     * @param y The world Y coordinate
+     * @return The Y coordinate relative to the viewport
+     */
+    public int toViewY(int y) { return y - worldY; }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getScreenX() { return screenX; }
+    public int getScreenY() { return screenY; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getWorldX() { return worldX; }
+    public int getWorldY() { return worldY; }
+
+    /* ------------------------------------------------ */
+}
@@ -2,12 +2,44 @@ package game_logic;
 
 import entity.Entity;
 import object.GameObject;
-import tile.Tile;
+import tile.TileManager;
 
-import java.awt.*;
 import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Collision queries of entities against map tiles and game objects.
+ * Queries only read the entity (position, immutable hitbox, facing, speed) and return their result,
+ * object hits go to a caller-owned buffer: they allocate nothing, never modify the entity
+ * and can run concurrently (while the map and the objects are not modified)
+ * @author LC
+ */
 public class CollisionChecker {
+
+    /**
+     * Reusable result buffer of an object query (one per caller, or per thread for concurrent queries)
+     */
+    public static class ObjectHits {
+        private final ArrayList<GameObject> candidates = new ArrayList<>();
+        private final ArrayList<GameObject> hits = new ArrayList<>();
+        private boolean blocked;
+
+        /**
+         * Checks if a touched object is collidable (blocks the move)
+         * @return true if the move is blocked by an object, false otherwise
+         */
+        public boolean isBlocked() { return blocked; }
+
+        public int size() { return hits.size(); }
+        public GameObject get(int index) { return hits.get(index); }
+
+        private void clear() {
+            candidates.clear();
+            hits.clear();
+            blocked = false;
+        }
+    }
+
     private final GamePanel gamePanel;
 
     public CollisionChecker(GamePanel gamePanel) {
@@ -15,61 +47,140 @@ public class CollisionChecker {
     }
 
     /**
-     * Based on entity direction and speed, checks if updated position would cause a tile collision.
-     * In case one of the two tiles (at the ends of collisionBox) are collidable, set player collision on true
-     * @param entity the entity for which to check collisions
+     * Sweeps the entity hitbox along one axis and returns how far it can move before touching a solid tile
+     * or a collidable object (swept AABB). Every tile column (row) crossed by the sweep is checked once,
+     * nearest first, so fast entities cannot tunnel through thin walls. Tiles outside the map block like
+     * solid tiles. Tiles and objects the hitbox already overlaps do not block, so entities can always move out of them.
+     * Calling it for x, then for y from the moved position, slides along walls on diagonal moves
+     * @param entity the moving entity (only its hitbox is read)
+     * @param worldX the entity world x to sweep from
+     * @param worldY the entity world y to sweep from
+     * @param distance the wanted displacement (in pixels, signed)
+     * @param horizontal true to sweep along x, false along y
+     * @param scratch buffer reused for the object query
+     * @return the allowed displacement, between 0 and distance
      */
-    public void checkTile(Entity entity) {
-
-        // Calculate entity's collision box world coordinates
-        Rectangle solidArea = entity.getSolidArea();
-        int entityLeftWorldX = entity.getWorldX() + solidArea.x;
-        int entityRightWorldX = entityLeftWorldX + solidArea.width;
-        int entityTopWorldY = entity.getWorldY() + solidArea.y;
-        int entityBottomWorldY = entityTopWorldY + solidArea.height;
-
-        // Get tiles data
-        int[][] tileMap = gamePanel.getTileManager().getMapTileNum();
-        ArrayList<Tile> tiles = gamePanel.getTileManager().getTiles();
-
-        int checkedTileIndex1, checkedTileIndex2;
-        int maxCols = tileMap.length;
-        int maxRows = tileMap[0].length;
-
-        // Tile coordinates to check for collision
-        int checkCol1 = entityLeftWorldX / GamePanel.TILE_SIZE;
-        int checkRow1 = entityTopWorldY / GamePanel.TILE_SIZE;
-        int checkCol2 = entityRightWorldX / GamePanel.TILE_SIZE;
-        int checkRow2 = entityBottomWorldY / GamePanel.TILE_SIZE;
-
-        // Calculates which tiles to check
-        switch (entity.getFacing()) {
-            case UP -> {
-                int newTopRow = (entityTopWorldY - entity.getSpeed()) / GamePanel.TILE_SIZE;
-                checkRow1 = checkRow2 = newTopRow;
-            }
-            case DOWN -> {
-                int newBottomRow = (entityBottomWorldY + entity.getSpeed()) / GamePanel.TILE_SIZE;
-                checkRow1 = checkRow2 = newBottomRow;
-            }
-            case LEFT -> {
-                int newLeftCol = (entityLeftWorldX - entity.getSpeed()) / GamePanel.TILE_SIZE;
-                checkCol1 = checkCol2 = newLeftCol;
+    public int sweep(Entity entity, int worldX, int worldY, int distance, boolean horizontal, ObjectHits scratch) {
+        if (distance == 0) return 0;
+
+        Aabb solidArea = entity.getSolidArea();
+        // Box edges along the sweep axis (min, max) and across it (first, last pixel)
+        int min = horizontal ? worldX + solidArea.x() : worldY + solidArea.y();
+        int max = min + (horizontal ? solidArea.width() : solidArea.height());
+        int crossMin = horizontal ? worldY + solidArea.y() : worldX + solidArea.x();
+        int crossMax = crossMin + (horizontal ? solidArea.height() : solidArea.width());
+
+        int allowed = sweepTiles(min, max, crossMin, crossMax, distance, horizontal);
+        return sweepObjects(min, max, crossMin, crossMax, allowed, horizontal, scratch);
+    }
+
+    /*
+     * Sweeps a box over the tile grid, stopping at the first solid tile line (tiles outside the map are solid)
+     * @return the allowed displacement
+     */
+    private int sweepTiles(int min, int max, int crossMin, int crossMax, int distance, boolean horizontal) {
+        TileManager tileManager = gamePanel.getTileManager();
+        int maxCols = tileManager.getWorldCols();
+        int maxRows = tileManager.getWorldRows();
+
+        int firstCross = Math.floorDiv(crossMin, GamePanel.TILE_SIZE);
+        int lastCross = Math.floorDiv(crossMax - 1, GamePanel.TILE_SIZE);
+
+        // Tile lines entered by the leading edge, nearest first
+        int step = distance > 0 ? 1 : -1;
+        int edge = distance > 0 ? max - 1 : min;
+        int firstLine = Math.floorDiv(edge, GamePanel.TILE_SIZE) + step;
+        int lastLine = Math.floorDiv(edge + distance, GamePanel.TILE_SIZE);
+
+        for (int line = firstLine; line != lastLine + step; line += step) {
+            for (int cross = firstCross; cross <= lastCross; cross++) {
+                int col = horizontal ? line : cross;
+                int row = horizontal ? cross : line;
+
+                // Every map layer is taken into account (see TileManager.isSolidUnchecked)
+                if (!isInsideMap(col, row, maxCols, maxRows) || tileManager.isSolidUnchecked(col, row)) {
+                    return distance > 0 ? line * GamePanel.TILE_SIZE - max : (line + 1) * GamePanel.TILE_SIZE - min;
+                }
             }
-            case RIGHT -> {
-                int newRightCol = (entityRightWorldX + entity.getSpeed()) / GamePanel.TILE_SIZE;
-                checkCol1 = checkCol2 = newRightCol;
+        }
+        return distance;
+    }
+
+    /*
+     * Shortens a sweep to the nearest collidable object ahead of the box (objects are queried from the swept strip)
+     * @return the allowed displacement
+     */
+    private int sweepObjects(int min, int max, int crossMin, int crossMax, int distance, boolean horizontal,
+                             ObjectHits scratch) {
+        if (distance == 0) return 0;
+
+        // Strip covered by the leading edge
+        int stripMin = distance > 0 ? max : min + distance;
+        int stripLength = Math.abs(distance);
+
+        scratch.clear();
+        if (horizontal) {
+            gamePanel.getGameObjects().query(stripMin, crossMin, stripLength, crossMax - crossMin, scratch.candidates);
+        } else {
+            gamePanel.getGameObjects().query(crossMin, stripMin, crossMax - crossMin, stripLength, scratch.candidates);
+        }
+
+        int allowed = distance;
+        for (int i = 0; i < scratch.candidates.size(); i++) {
+            GameObject gameObj = scratch.candidates.get(i);
+            if (!gameObj.isCollidable()) continue;
+
+            Aabb solidArea = gameObj.getSolidArea();
+            int objMin = horizontal ? gameObj.getWorldX() + solidArea.x() : gameObj.getWorldY() + solidArea.y();
+            int objMax = objMin + (horizontal ? solidArea.width() : solidArea.height());
+            int objCrossMin = horizontal ? gameObj.getWorldY() + solidArea.y() : gameObj.getWorldX() + solidArea.x();
+            int objCrossMax = objCrossMin + (horizontal ? solidArea.height() : solidArea.width());
+            if (objCrossMin >= crossMax || crossMin >= objCrossMax) continue;
+
+            if (distance > 0 && objMin >= max) {
+                allowed = Math.min(allowed, objMin - max);
+            } else if (distance < 0 && objMax <= min) {
+                allowed = Math.max(allowed, objMax - min);
             }
         }
+        return allowed;
+    }
+
+    /**
+     * Pushes apart the entities of the overlapping pairs found by the broadphase: both entities move back
+     * by half the overlap along the axis where it is smallest, as far as tiles and solid objects allow
+     * @param entities The moving entities (entity i is box i of the broadphase)
+     * @param broadphase The broadphase, updated with the current entity positions
+     * @param scratch buffer reused for the sweeps
+     */
+    public void separateEntities(List<? extends Entity> entities, SweepAndPrune broadphase, ObjectHits scratch) {
+        for (int pair = 0; pair < broadphase.getPairCount(); pair++) {
+            Entity a = entities.get(broadphase.getPairFirst(pair));
+            Entity b = entities.get(broadphase.getPairSecond(pair));
+            Aabb areaA = a.getSolidArea();
+            Aabb areaB = b.getSolidArea();
 
-        // Common collision check.
-        // Performed only if entity is within world boundaries
-        if (isInsideMap(checkCol1, checkRow1, maxCols, maxRows) && isInsideMap(checkCol2, checkRow2, maxCols, maxRows)) {
-            int tileIndex1 = tileMap[checkCol1][checkRow1];
-            int tileIndex2 = tileMap[checkCol2][checkRow2];
+            // Overlap and separation direction (from a to b) along each axis
+            int ax = a.getWorldX() + areaA.x(), ay = a.getWorldY() + areaA.y();
+            int bx = b.getWorldX() + areaB.x(), by = b.getWorldY() + areaB.y();
+            int overlapX = Math.min(ax + areaA.width(), bx + areaB.width()) - Math.max(ax, bx);
+            int overlapY = Math.min(ay + areaA.height(), by + areaB.height()) - Math.max(ay, by);
+            if (overlapX <= 0 || overlapY <= 0) continue;           // separated by an earlier pair
 
-            if (isValidTile(tileIndex1, tiles) || isValidTile(tileIndex2, tiles)) {
-                entity.setCollisionOn(true);
+            boolean horizontal = overlapX <= overlapY;
+            int direction = horizontal
+                    ? (ax + areaA.width() / 2 <= bx + areaB.width() / 2 ? 1 : -1)
+                    : (ay + areaA.height() / 2 <= by + areaB.height() / 2 ? 1 : -1);
+            int overlap = horizontal ? overlapX : overlapY;
+
+            int pushA = sweep(a, a.getWorldX(), a.getWorldY(), -direction * (overlap / 2), horizontal, scratch);
+            int pushB = sweep(b, b.getWorldX(), b.getWorldY(), direction * (overlap - overlap / 2), horizontal, scratch);
+            if (horizontal) {
+                a.setWorldX(a.getWorldX() + pushA);
+                b.setWorldX(b.getWorldX() + pushB);
+            } else {
+                a.setWorldY(a.getWorldY() + pushA);
+                b.setWorldY(b.getWorldY() + pushB);
             }
         }
     }
@@ -87,108 +198,77 @@ public class CollisionChecker {
         return col >= 0 && col < maxCols && row >= 0 && row < maxRows;
     }
 
-    /*
-     * Checks if given tile index is within game tiles list and is therefore valid
-     * @param tileIndex The tile index to check
-     * @param tiles The game tiles list
-     * @return true if tile is valid,
-     *         false otherwise
+    /**
+     * Collects the objects touched by a resolved move (see sweep): objects the moved hitbox intersects
+     * (e.g. picked up by players) and collidable objects it rests against along an axis where the move
+     * was shortened (e.g. a chest that stopped the player). Objects beyond what stopped the move are never touched.
+     * Only the objects in the grid cells touched by the moved solid area are tested (see ObjectGrid)
+     * @param entity the entity for which to check collisions
+     * @param dx the resolved horizontal displacement
+     * @param dy the resolved vertical displacement
+     * @param blockedX the direction of the wanted horizontal move (-1, 1) if it was shortened, 0 otherwise
+     * @param blockedY the direction of the wanted vertical move if it was shortened, 0 otherwise
+     * @param result the buffer receiving the touched objects (cleared first),
+     *               blocked if one of them is collidable
      */
-    private boolean isValidTile(int tileIndex, ArrayList<Tile> tiles) {
-        return tileIndex >= 0 && tileIndex < tiles.size() && tiles.get(tileIndex).isCollidable();
+    public void queryTouchedObjects(Entity entity, int dx, int dy, int blockedX, int blockedY, ObjectHits result) {
+        queryObjects(entity, dx, dy, result);
+        if (blockedX == 0 && blockedY == 0) return;
+
+        // Contact test: the solid objects one pixel further along each blocked axis
+        Aabb solidArea = entity.getSolidArea();
+        int movedX = entity.getWorldX() + solidArea.x() + dx;
+        int movedY = entity.getWorldY() + solidArea.y() + dy;
+        if (blockedX != 0) collectOverlaps(movedX + blockedX, movedY, solidArea, true, result);
+        if (blockedY != 0) collectOverlaps(movedX, movedY + blockedY, solidArea, true, result);
     }
 
     /**
-     * Based on entity direction and speed, checks if updated position would cause an object collision.
-     * In case entity solid area intersects object solid area, set entity collision on true if object is collidable
-     * and return object index if entity is player
+     * Collects the objects whose solid area the entity hitbox would intersect after the given move.
+     * Only the objects in the grid cells touched by the moved solid area are tested (see ObjectGrid)
      * @param entity the entity for which to check collisions
-     * @param isPlayer flag to check if entity is player
-     * @return Object index if entity is player, -1 otherwise
+     * @param dx the horizontal displacement
+     * @param dy the vertical displacement
+     * @param result the buffer receiving the intersected objects (cleared first),
+     *               blocked if one of them is collidable
      */
-    public int checkObject(Entity entity, boolean isPlayer) {
-        int index = -1;
+    public void queryObjects(Entity entity, int dx, int dy, ObjectHits result) {
+        result.clear();
 
         int entityX = entity.getWorldX();
         int entityY = entity.getWorldY();
 
-        int mapWidth = GamePanel.MAX_WORLD_COL * GamePanel.TILE_SIZE;
-        int mapHeight = GamePanel.MAX_WORLD_ROW * GamePanel.TILE_SIZE;
+        int mapWidth = gamePanel.getTileManager().getWorldCols() * GamePanel.TILE_SIZE;
+        int mapHeight = gamePanel.getTileManager().getWorldRows() * GamePanel.TILE_SIZE;
 
         // If entity is outside the world map, skip collision detection
         if (entityX < 0 || entityY < 0 || entityX >= mapWidth || entityY >= mapHeight) {
-            return index;
+            return;
         }
 
-        ArrayList<GameObject> gameObjects = gamePanel.getGameObjects();
-
-        for (int i = 0; i < gameObjects.size(); i++) {
-            GameObject gameObj = gameObjects.get(i);
-
-            // Get entity's solid area world position
-            Rectangle entitySolidArea = entity.getSolidArea();
-            entitySolidArea.x += entityX;
-            entitySolidArea.y += entityY;
-
-            // Get object's solid area world position
-            Rectangle gameObjSolidArea =  gameObj.getSolidArea();
-            gameObjSolidArea.x += gameObj.getWorldX();
-            gameObjSolidArea.y += gameObj.getWorldY();
-
-            switch (entity.getFacing()) {
-                case UP -> {
-                    entitySolidArea.y -= entity.getSpeed();
-                    if (entitySolidArea.intersects(gameObjSolidArea)) {
-                        if (gameObj.isCollidable()) {
-                            entity.setCollisionOn(true);
-                        }
-                        if (isPlayer) {
-                            index = i;
-                        }
-                    }
-                }
-                case DOWN -> {
-                    entitySolidArea.y += entity.getSpeed();
-                    if (entitySolidArea.intersects(gameObjSolidArea)) {
-                        if (gameObj.isCollidable()) {
-                            entity.setCollisionOn(true);
-                        }
-                        if (isPlayer) {
-                            index = i;
-                        }
-                    }
-                }
-                case LEFT -> {
-                    entitySolidArea.x -= entity.getSpeed();
-                    if (entitySolidArea.intersects(gameObjSolidArea)) {
-                        if (gameObj.isCollidable()) {
-                            entity.setCollisionOn(true);
-                        }
-                        if (isPlayer) {
-                            index = i;
-                        }
-                    }
-                }
-                case RIGHT -> {
-                    entitySolidArea.x += entity.getSpeed();
-                    if (entitySolidArea.intersects(gameObjSolidArea)) {
-                        if (gameObj.isCollidable()) {
-                            entity.setCollisionOn(true);
-                        }
-                        if (isPlayer) {
-                            index = i;
-                        }
-                    }
-                }
-            }
+        // Entity's solid area world position after the move
+        Aabb solidArea = entity.getSolidArea();
+        collectOverlaps(entityX + solidArea.x() + dx, entityY + solidArea.y() + dy, solidArea, false, result);
+    }
 
-            entitySolidArea.x = entity.getSolidAreaDefaultX();
-            entitySolidArea.y = entity.getSolidAreaDefaultY();
+    /*
+     * Adds the objects intersecting a box of the given solid area size to the hits (once each)
+     * @param collidableOnly true to skip objects that do not block moves
+     */
+    private void collectOverlaps(int x, int y, Aabb solidArea, boolean collidableOnly, ObjectHits result) {
+        result.candidates.clear();
+        gamePanel.getGameObjects().query(x, y, solidArea.width(), solidArea.height(), result.candidates);
+        for (int i = 0; i < result.candidates.size(); i++) {
+            GameObject gameObj = result.candidates.get(i);
+            if (collidableOnly && !gameObj.isCollidable()) continue;
 
-            gameObjSolidArea.x = gameObj.getSolidAreaDefaultX();
-            gameObjSolidArea.y = gameObj.getSolidAreaDefaultY();
+            Aabb gameObjSolidArea = gameObj.getSolidArea();
+            if (Aabb.overlaps(x, y, solidArea.width(), solidArea.height(),
+                    gameObj.getWorldX() + gameObjSolidArea.x(), gameObj.getWorldY() + gameObjSolidArea.y(),
+                    gameObjSolidArea.width(), gameObjSolidArea.height()) && !result.hits.contains(gameObj)) {
+                result.hits.add(gameObj);
+                result.blocked |= gameObj.isCollidable();
+            }
         }
-
-        return index;
     }
 }
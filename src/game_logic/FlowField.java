@@ -0,0 +1,219 @@
+package game_logic;
+
+import entity.Entity;
+import tile.ChunkStore;
+import tile.NavigationGrid;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared navigation towards one target (e.g. monsters chasing the player): a single reverse Dijkstra
+ * from the target tile, limited to a square of ACTIVITY_RADIUS tiles around it, gives every cell
+ * its first move on a cheapest path to the target, so any number of agents steer by an O(1) lookup.
+ * The field is only rebuilt while agents sample it (see sample), when the target enters another tile
+ * (or the tiles change), on a background thread, into the back one of two fields: the front field stays readable
+ * meanwhile and is swapped once the build is over. Builds only read the chunks around the target
+ * (see NavigationGrid.buildRegion), whatever the map size.
+ * The old front is rewritten by the next build, so agents must fetch the field (sample) every frame and not keep it
+ * @author LC
+ */
+public class FlowField {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final int ACTIVITY_RADIUS = 48;                               // field reach around the target (in tiles)
+    public static final int DEFAULT_FOOTPRINT = 1;                              // agents of up to one tile
+
+    /* ------------------------------------------- */
+
+    private final ChunkStore chunkStore;
+    private final int footprint;
+
+    // DOUBLE BUFFER (the back field is only touched by the builder thread)
+    private volatile Field front = null;
+    private Field back = new Field();
+
+    // BUILD REQUESTS (game thread)
+    private int requestedCol = -1, requestedRow = -1, requestedRevision = -1;
+    private volatile boolean building = false;
+    private volatile boolean sampled = false;   // agents fetched the field since the last update
+
+    // BACKGROUND BUILDER
+    private final GridSearch gridSearch = new GridSearch();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Flow Field Builder");
+        thread.setDaemon(true);                 // pending builds must not keep the game alive
+        return thread;
+    });
+
+
+    public FlowField(ChunkStore chunkStore, int footprint) {
+        this.chunkStore = chunkStore;
+        this.footprint = footprint;
+    }
+
+    /**
+     * Requests a new field if agents sampled the field since the last call and the target entered another tile
+     * or the tiles changed since the last build. At most one build runs at a time: a target moving during a build
+     * is caught up by the next call
+     * @param target The chased entity (its hitbox center tile is the field target)
+     */
+    public void update(Entity target) {
+        if (!sampled || building) return;
+        sampled = false;
+
+        Aabb solidArea = target.getSolidArea();
+        int col = Math.floorDiv(target.getWorldX() + solidArea.centerX(), GamePanel.TILE_SIZE);
+        int row = Math.floorDiv(target.getWorldY() + solidArea.centerY(), GamePanel.TILE_SIZE);
+        int revision = chunkStore.getRevision();
+        if (col == requestedCol && row == requestedRow && revision == requestedRevision) return;
+
+        requestedCol = col;
+        requestedRow = row;
+        requestedRevision = revision;
+        building = true;
+        builder.execute(() -> {
+            try {
+                build(col, row);
+            } finally {
+                building = false;
+            }
+        });
+    }
+
+    /*
+     * Floods the cells around the target into the back field and swaps it to the front (builder thread)
+     */
+    private void build(int targetCol, int targetRow) {
+        if (!chunkStore.isInsideWorld(targetCol, targetRow)) return;
+
+        int minCol = Math.max(0, targetCol - ACTIVITY_RADIUS);
+        int minRow = Math.max(0, targetRow - ACTIVITY_RADIUS);
+        int width = Math.min(chunkStore.getWorldCols(), targetCol + ACTIVITY_RADIUS + 1) - minCol;
+        int height = Math.min(chunkStore.getWorldRows(), targetRow + ACTIVITY_RADIUS + 1) - minRow;
+
+        // Grid of the field area only (local cells), with the cells the clearances of its edges depend on
+        NavigationGrid grid = NavigationGrid.buildRegion(chunkStore, minCol, minRow, width + footprint - 1, height + footprint - 1);
+        int target = (targetRow - minRow) * grid.getCols() + targetCol - minCol;
+        gridSearch.setBounds(0, 0, width, height);
+        gridSearch.flood(grid, target, footprint, true);
+
+        Field field = back;
+        field.resize(minCol, minRow, width, height, targetCol, targetRow);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int cell = row * grid.getCols() + col;
+                field.steps[row * width + col] = (byte) gridSearch.getFloodStep(grid, cell);
+                field.costs[row * width + col] = gridSearch.getFloodCost(grid, cell);
+            }
+        }
+
+        // The old front is only rewritten by the next build, requested by the game thread in a later frame
+        back = front != null ? front : new Field();
+        front = field;
+    }
+
+    /**
+     * Returns the last built field, to sample during the current frame only.
+     * Agents call it every frame: the field is kept up to date only while it is sampled
+     * @return The field, null until the first build is over
+     */
+    public Field sample() {
+        sampled = true;
+        return front;
+    }
+
+    /**
+     * Stops the builder thread (e.g. on shutdown)
+     */
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+
+    /**
+     * Moves towards the target of the cells around it, as built for one target tile
+     */
+    public static class Field {
+        private int minCol, minRow, width, height;
+        private int targetCol, targetRow;
+        private byte[] steps = new byte[0];                 // direction index of the first move, -1: target or unreachable
+        private int[] costs = new int[0];                   // cost to the target, -1 if unreachable
+
+        private void resize(int minCol, int minRow, int width, int height, int targetCol, int targetRow) {
+            this.minCol = minCol;
+            this.minRow = minRow;
+            this.width = width;
+            this.height = height;
+            this.targetCol = targetCol;
+            this.targetRow = targetRow;
+            if (steps.length < width * height) {
+                steps = new byte[width * height];
+                costs = new int[width * height];
+            }
+        }
+
+        /**
+         * Checks if a cell lies in the field and reaches the target
+         * @param col The cell column
+         * @param row The cell row
+         * @return true if the target can be reached from the cell, false otherwise
+         */
+        public boolean isReachable(int col, int row) {
+            return getCost(col, row) >= 0;
+        }
+
+        /**
+         * Returns the cost of the cheapest path from a cell to the target
+         * @param col The cell column
+         * @param row The cell row
+         * @return The cost, -1 if outside the field or unreachable
+         */
+        public int getCost(int col, int row) {
+            col -= minCol;
+            row -= minRow;
+            if (col < 0 || col >= width || row < 0 || row >= height) return -1;
+            return costs[row * width + col];
+        }
+
+        /**
+         * Returns the column offset of the first move from a cell towards the target
+         * @param col The cell column
+         * @param row The cell row
+         * @return -1, 0 or 1 (0 if the cell is the target, outside the field or unreachable)
+         */
+        public int getStepCol(int col, int row) {
+            int step = getStep(col, row);
+            return step < 0 ? 0 : GridSearch.DIRECTION_COLS[step];
+        }
+
+        /**
+         * Returns the row offset of the first move from a cell towards the target
+         * @param col The cell column
+         * @param row The cell row
+         * @return -1, 0 or 1 (0 if the cell is the target, outside the field or unreachable)
+         */
+        public int getStepRow(int col, int row) {
+            int step = getStep(col, row);
+            return step < 0 ? 0 : GridSearch.DIRECTION_ROWS[step];
+        }
+
+        private int getStep(int col, int row) {
+            col -= minCol;
+            row -= minRow;
+            if (col < 0 || col >= width || row < 0 || row >= height) return -1;
+            return steps[row * width + col];
+        }
+
+        public int getTargetCol() { return targetCol; }
+        public int getTargetRow() { return targetRow; }
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public boolean isBuilding() { return building; }
+
+    /* ------------------------------------------------ */
+}
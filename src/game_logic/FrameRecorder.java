@@ -0,0 +1,323 @@
+package game_logic;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captures frames from the game back buffer and encodes them in the background.
+ * The rendering thread only copies pixels into a pooled int[] buffer: PNG/JPEG encoding
+ * and disk writes run on encoder threads fed by bounded queues.
+ * When no buffer or queue slot is free the frame is dropped instead of stalling the game loop
+ * @author LC
+ */
+public class FrameRecorder {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // OUTPUT
+    private static final Path OUTPUT_DIR = Path.of("captures");
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS");
+
+    // BUFFER POOL
+    private static final int BUFFER_POOL_SIZE = 8;
+
+    // ENCODERS
+    private static final int ENCODER_THREADS = 2;
+    private static final int ENCODER_QUEUE_CAPACITY = 4;
+    private static final int STREAM_QUEUE_CAPACITY = 4;
+
+    // PIXEL FORMAT (TYPE_INT_RGB)
+    private static final DirectColorModel RGB_COLOR_MODEL = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+
+    /* ------------------------------------------- */
+
+    // RECORDING FORMAT
+    public enum Format {
+        PNG_SEQUENCE,
+        MJPEG
+    }
+
+    // FRAME SIZE
+    private final int width, height;
+
+    // PIXEL BUFFER POOL
+    private final ArrayBlockingQueue<int[]> freeBuffers = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+
+    // ENCODER POOLS
+    private final ThreadPoolExecutor imageEncoders;         // screenshots and PNG sequence frames (unordered)
+    private final ThreadPoolExecutor streamEncoder;         // MJPEG frames (single thread, keeps frame order)
+
+    // CAPTURE STATE
+    private volatile boolean screenshotRequested = false;
+    private volatile Format recordingFormat = null;         // null when not recording
+    private Path recordingPath;
+    private OutputStream mjpegStream;
+    private int recordedFrames = 0;
+    private final AtomicInteger droppedFrames = new AtomicInteger();
+
+
+    public FrameRecorder(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        for (int i = 0; i < BUFFER_POOL_SIZE; i++) {
+            freeBuffers.add(new int[width * height]);
+        }
+
+        imageEncoders = createEncoderPool("Capture Encoder", ENCODER_THREADS, ENCODER_QUEUE_CAPACITY);
+        streamEncoder = createEncoderPool("Capture Stream Encoder", 1, STREAM_QUEUE_CAPACITY);
+    }
+
+    /*
+     * Creates a fixed size pool of daemon encoder threads backed by a bounded task queue.
+     * Submitting to a full queue throws RejectedExecutionException (frame is dropped by the caller).
+     * Threads are started up front, so tasks put straight in the queue (see submitBlocking) are run too
+     * @param name The encoder threads name
+     * @param threads The number of encoder threads
+     * @param queueCapacity The max number of frames waiting to be encoded
+     * @return The encoder pool
+     */
+    private static ThreadPoolExecutor createEncoderPool(String name, int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + " " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);             // pending captures must not keep the game alive
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        pool.prestartAllCoreThreads();
+        return pool;
+    }
+
+    /**
+     * Requests a PNG screenshot of the next rendered frame
+     */
+    public void requestScreenshot() {
+        screenshotRequested = true;
+    }
+
+    /**
+     * Starts recording in the given format, or stops the current recording if one is running
+     * @param format The recording format
+     */
+    public synchronized void toggleRecording(Format format) {
+        if (recordingFormat != null) {
+            stopRecording();
+        } else {
+            startRecording(format);
+        }
+    }
+
+    /*
+     * Starts a new recording session in the given format
+     * @param format The recording format
+     */
+    private void startRecording(Format format) {
+        try {
+            Files.createDirectories(OUTPUT_DIR);
+            String sessionName = "recording_" + LocalDateTime.now().format(FILE_TIME_FORMAT);
+
+            if (format == Format.MJPEG) {
+                recordingPath = OUTPUT_DIR.resolve(sessionName + ".mjpeg");
+                mjpegStream = new BufferedOutputStream(Files.newOutputStream(recordingPath));
+            } else {
+                recordingPath = Files.createDirectories(OUTPUT_DIR.resolve(sessionName));
+            }
+
+            recordedFrames = 0;
+            droppedFrames.set(0);
+            recordingFormat = format;
+            System.out.println("Recording started: " + recordingPath);
+
+        } catch (IOException e) {
+            System.err.println("Failed to start recording:\n" + e.getMessage());
+        }
+    }
+
+    /*
+     * Stops the current recording session.
+     * The MJPEG stream is closed by the stream encoder, after all queued frames are written
+     */
+    private void stopRecording() {
+        Format format = recordingFormat;
+        recordingFormat = null;
+
+        if (format == Format.MJPEG) {
+            OutputStream stream = mjpegStream;
+            mjpegStream = null;
+            submitBlocking(() -> closeQuietly(stream));
+        }
+
+        System.out.println("Recording stopped: " + recordingPath + " (" + recordedFrames + " frames, "
+                + droppedFrames.get() + " dropped)");
+    }
+
+    /*
+     * Submits a task that must not be dropped (e.g. closing a stream) to the stream encoder,
+     * blocking until a queue slot is free (at most one frame encoding). Only used on user actions, never per frame
+     * @param task The task to submit
+     */
+    private void submitBlocking(Runnable task) {
+        try {
+            streamEncoder.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while stopping recording, the stream is left open");
+        }
+    }
+
+    /**
+     * Captures the given frame if a screenshot was requested or a recording is running.
+     * Only copies pixels into a pooled buffer: encoding is handed off to background encoders.
+     * The frame is dropped if no buffer or encoder queue slot is available
+     * @param frame The rendered back buffer (TYPE_INT_RGB, same size as this recorder)
+     */
+    public void captureFrame(BufferedImage frame) {
+        if (!screenshotRequested && recordingFormat == null) return;
+
+        if (screenshotRequested) {
+            screenshotRequested = false;
+            Path file = OUTPUT_DIR.resolve("screenshot_" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".png");
+            submitFrame(frame, imageEncoders, pixels -> writeImage(pixels, "png", file));
+        }
+
+        synchronized (this) {
+            if (recordingFormat == null) return;
+
+            switch (recordingFormat) {
+                case PNG_SEQUENCE -> {
+                    Path file = recordingPath.resolve(String.format("frame_%06d.png", recordedFrames));
+                    if (submitFrame(frame, imageEncoders, pixels -> writeImage(pixels, "png", file))) {
+                        recordedFrames++;
+                    }
+                }
+                case MJPEG -> {
+                    OutputStream stream = mjpegStream;
+                    if (submitFrame(frame, streamEncoder, pixels -> writeStreamFrame(pixels, stream))) {
+                        recordedFrames++;
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Copies the frame pixels into a pooled buffer and submits the encoding task.
+     * The buffer is given back to the pool once the task is done (or rejected)
+     * @param frame The frame to capture
+     * @param encoder The encoder pool to submit to
+     * @param encodeTask The encoding task, run on the encoder thread
+     * @return true if the frame was submitted, false if it was dropped
+     */
+    private boolean submitFrame(BufferedImage frame, ThreadPoolExecutor encoder, PixelTask encodeTask) {
+        int[] pixels = freeBuffers.poll();
+        if (pixels == null) {
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+
+        // Copy only (no encoding on the rendering thread)
+        frame.getRaster().getDataElements(0, 0, width, height, pixels);
+
+        try {
+            encoder.execute(() -> {
+                try {
+                    encodeTask.run(pixels);
+                } catch (IOException e) {
+                    System.err.println("Failed to write captured frame:\n" + e.getMessage());
+                } finally {
+                    freeBuffers.offer(pixels);
+                }
+            });
+            return true;
+
+        } catch (RejectedExecutionException e) {
+            freeBuffers.offer(pixels);
+            droppedFrames.incrementAndGet();
+            return false;
+        }
+    }
+
+    /*
+     * Wraps given pixels in an image without copying them
+     * @param pixels The RGB pixels of the frame
+     * @return The image backed by given pixels
+     */
+    private BufferedImage wrapPixels(int[] pixels) {
+        DataBufferInt dataBuffer = new DataBufferInt(pixels, pixels.length);
+        WritableRaster raster = Raster.createPackedRaster(dataBuffer, width, height, width,
+                RGB_COLOR_MODEL.getMasks(), null);
+        return new BufferedImage(RGB_COLOR_MODEL, raster, false, null);
+    }
+
+    /*
+     * Encodes given pixels and writes them to a single image file
+     * @param pixels The RGB pixels of the frame
+     * @param formatName The ImageIO format name
+     * @param file The output file
+     */
+    private void writeImage(int[] pixels, String formatName, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        ImageIO.write(wrapPixels(pixels), formatName, file.toFile());
+    }
+
+    /*
+     * Encodes given pixels as JPEG and appends them to the MJPEG stream
+     * @param pixels The RGB pixels of the frame
+     * @param stream The MJPEG output stream
+     */
+    private void writeStreamFrame(int[] pixels, OutputStream stream) throws IOException {
+        ImageIO.write(wrapPixels(pixels), "jpg", stream);
+    }
+
+    /*
+     * Closes given stream, logging errors
+     * @param stream The stream to close
+     */
+    private static void closeQuietly(OutputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close recording:\n" + e.getMessage());
+        }
+    }
+
+    /*
+     * Encoding task run on a pooled pixel buffer
+     */
+    @FunctionalInterface
+    private interface PixelTask {
+        void run(int[] pixels) throws IOException;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public boolean isRecording() { return recordingFormat != null; }
+    public int getDroppedFrames() { return droppedFrames.get(); }
+
+    /* ------------------------------------------------ */
+}
@@ -2,11 +2,16 @@ package game_logic;
 
 import entity.Player;
 import object.GameObject;
+import tile.FogOfWar;
+import tile.MapHotReloader;
 import tile.TileManager;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Game panel where all game components are displayed.
@@ -26,7 +31,7 @@ public class GamePanel extends JPanel implements Runnable{
     public static final int SCREEN_WIDTH = MAX_SCREEN_COL * TILE_SIZE;        // 768x576 pixels
     public static final int SCREEN_HEIGHT = MAX_SCREEN_ROW * TILE_SIZE;
 
-    // WORLD SETTINGS
+    // WORLD SETTINGS (default world, actual world size is taken from the loaded map)
     public static final int MAX_WORLD_COL = 80;
     public static final int MAX_WORLD_ROW = 80;
     public static final int WORLD_WIDTH = MAX_WORLD_COL * TILE_SIZE;
@@ -35,9 +40,16 @@ public class GamePanel extends JPanel implements Runnable{
     // FPS
     public static final int FPS = 60;
 
+    // PLAYERS
+    public static final int MAX_PLAYERS = 2;
+
+    // SPLIT-SCREEN
+    private static final int SPLIT_DIVIDER_WIDTH = 4;
+    private static final Color SPLIT_DIVIDER_COLOR = Color.BLACK;
+
     // DEBUG
     private static final int DEBUG_TEXT_INITIAL_X = 20;
-    private static final int DEBUG_TEXT_INITIAL_Y = 450;
+    private static final int DEBUG_TEXT_INITIAL_Y = 390;
     private static final int DEBUG_TEXT_SPACING = 20;
     private final Font debugFont = new Font("Monospaced", Font.BOLD, 25);
     private final Color debugColor = Color.WHITE;
@@ -49,24 +61,56 @@ public class GamePanel extends JPanel implements Runnable{
     private final KeyHandler gameKeyHandler = new KeyHandler(this);
     private final TileManager tileManager = new TileManager(this);
     private final CollisionChecker collisionChecker = new CollisionChecker(this);
+    private final SweepAndPrune entityBroadphase = new SweepAndPrune();
+    private final CollisionChecker.ObjectHits separationHits = new CollisionChecker.ObjectHits();
+    private final Pathfinder pathfinder = new Pathfinder(tileManager);
+    private final HierarchicalPathfinder hierarchicalPathfinder = new HierarchicalPathfinder(pathfinder, tileManager.getChunkStore());
+    private final FlowField playerFlowField = new FlowField(tileManager.getChunkStore(), FlowField.DEFAULT_FOOTPRINT);
     private final AssetSetter assetSetter = new AssetSetter(this);
+    private final FrameRecorder frameRecorder = new FrameRecorder(SCREEN_WIDTH, SCREEN_HEIGHT);
+    private final QualityGovernor qualityGovernor = new QualityGovernor();
+    private final FogOfWar fogOfWar = new FogOfWar(tileManager.getWorldCols(), tileManager.getWorldRows());
+    private final MapHotReloader mapHotReloader = new MapHotReloader(tileManager, this::requestRedraw);
+    private final WorldManager worldManager = new WorldManager(this);
+    private final MapEditor mapEditor = new MapEditor(this);
+
+    // BACK BUFFER (every frame is rendered here, then copied to the screen and to the frame recorder)
+    private final BufferedImage backBuffer = new BufferedImage(SCREEN_WIDTH, SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+    // ON-DEMAND RENDERING (non-playing states: loop is parked until a redraw is requested)
+    private final BufferedImage frozenWorldFrame = new BufferedImage(SCREEN_WIDTH, SCREEN_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    private volatile boolean frozenWorldFrameValid = false;       // cleared when the map or its tiles change
+    private volatile boolean redrawRequested = true;
 
     // GAME ELEMENTS
-    private final Player player = new Player(this);
-    private final ArrayList<GameObject> gameObjects = new ArrayList<>();
+    private final List<Player> allPlayers = List.of(new Player(this, 0), new Player(this, 1));
+    private final Player player = allPlayers.get(0);
+    private int numPlayers = 1;
+    private final ObjectGrid gameObjects = new ObjectGrid();
+    private final ArrayList<GameObject> visibleObjects = new ArrayList<>();     // render culling buffer
     private final Sound music = new Sound();
     private final Sound SE = new Sound();
     private final UI ui = new UI(this);
 
+    // CAMERAS (one viewport in single player, one per player in split-screen co-op)
+    private final Camera[] singleViewCameras = {
+            new Camera(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT)
+    };
+    private final Camera[] splitViewCameras = {
+            new Camera(0, 0, SCREEN_WIDTH / 2, SCREEN_HEIGHT),
+            new Camera(SCREEN_WIDTH / 2, 0, SCREEN_WIDTH / 2, SCREEN_HEIGHT)
+    };
+
     // GAME STATE
     public enum GameState {
         PLAYING,
         PAUSED,
         TITLE,
         OPTIONS,
-        ENDING
+        ENDING,
+        EDITING
     }
-    private GameState gameState;
+    private volatile GameState gameState;
 
 
     public GamePanel() {
@@ -74,8 +118,16 @@ public class GamePanel extends JPanel implements Runnable{
         this.setBackground(Color.BLACK);
         this.setDoubleBuffered(true);               // component drawing will be done in an offscreen painting buffer (improves game's rendering performance)
         this.addKeyListener(gameKeyHandler);
+        this.addMouseListener(mapEditor);
+        this.addMouseMotionListener(mapEditor);
         this.setFocusable(true);                    // GamePanel can be "focused" to receive key input
         requestFocusInWindow();                     // Request input focus for GamePanel
+
+        // The frozen world frame shows the map being left
+        tileManager.addMapListener(this::invalidateFrozenWorldFrame);
+
+        // Start map (generated in procedural world mode)
+        worldManager.reset();
     }
 
     /**
@@ -96,7 +148,15 @@ public class GamePanel extends JPanel implements Runnable{
     }
 
     /**
-     * GameThread: fixed timestep game loop with a delta accumulator
+     * Stops the background workers that outlive a frame, before the game exits
+     */
+    public void shutdown() {
+        playerFlowField.shutdown();
+    }
+
+    /**
+     * GameThread: fixed timestep game loop with a delta accumulator.
+     * While not playing (or editing the map), the loop is parked and updates/repaints only on request (input events, state changes)
      */
     @Override
     public void run() {
@@ -107,12 +167,27 @@ public class GamePanel extends JPanel implements Runnable{
 
         while (!Thread.currentThread().isInterrupted()) {
 
+            // ON-DEMAND MODE
+            if (!isRealTimeState()) {
+                waitForRedrawRequest();
+                update();
+                repaint();
+
+                // Do not catch up on the time spent parked
+                lastTime = System.nanoTime();
+                delta = 0;
+                continue;
+            }
+
             long currentTime = System.nanoTime();
             delta += (currentTime - lastTime) / drawInterval;
             lastTime = currentTime;
 
             if (delta >= 1) {
+                long updateStart = System.nanoTime();
                 update();
+                qualityGovernor.recordUpdate(System.nanoTime() - updateStart);
+
                 repaint();
                 delta--;
             }
@@ -127,15 +202,76 @@ public class GamePanel extends JPanel implements Runnable{
         }
     }
 
+    /*
+     * Parks the game thread until a redraw is requested, the game goes back to playing or the thread is interrupted
+     */
+    private void waitForRedrawRequest() {
+        while (!redrawRequested && !isRealTimeState() && !Thread.currentThread().isInterrupted()) {
+            LockSupport.park(this);
+        }
+        redrawRequested = false;
+    }
+
+    /*
+     * Checks if the game loop runs at FPS in the current game state (playing, editing the map)
+     */
+    private boolean isRealTimeState() {
+        return gameState == GameState.PLAYING || gameState == GameState.EDITING;
+    }
+
+    /*
+     * Re-renders the frozen world frame on the next repaint (the map or its tiles changed)
+     */
+    private void invalidateFrozenWorldFrame() {
+        frozenWorldFrameValid = false;
+        requestRedraw();
+    }
+
+    /**
+     * Requests the game loop to update and repaint once (wakes it up if parked in on-demand mode)
+     */
+    public void requestRedraw() {
+        redrawRequested = true;
+        if (gameThread != null) {
+            LockSupport.unpark(gameThread);
+        }
+    }
+
     /**
      * Updates game state based on current input
      */
     public void update() {
+        // Map edits saved while developing (the game window usually has no focus)
+        if (mapHotReloader.applyPendingChanges()) {
+            frozenWorldFrameValid = false;
+        }
+
         // Prevent key events to get "stuck" if the window loses focus while a key is pressed
         if (this.isFocusOwner()) {
             switch (gameState) {
                 case PLAYING -> {
-                    player.update();
+                    // Stream map chunks ahead of the players
+                    tileManager.update(getPlayers());
+                    for (Player p : getPlayers()) {
+                        p.update();
+                    }
+
+                    // Keep moving entities from overlapping each other
+                    entityBroadphase.update(getPlayers());
+                    collisionChecker.separateEntities(getPlayers(), entityBroadphase, separationHits);
+
+                    worldManager.update();
+                    fogOfWar.update(getPlayers());
+
+                    // Steering towards the first player, shared by every chaser (rebuilt only while chasers sample it)
+                    playerFlowField.update(player);
+
+                    // Create the objects around the players, release the far ones
+                    assetSetter.updateObjects();
+                }
+                case EDITING -> {
+                    mapEditor.update();
+                    assetSetter.updateObjects();
                 }
                 case PAUSED, OPTIONS, ENDING -> {
                     // No updates
@@ -149,6 +285,8 @@ public class GamePanel extends JPanel implements Runnable{
     /**
      * Handles custom rendering of game elements.
      * This method is automatically called by Swing when the component needs to be redrawn.
+     * The frame is rendered into the back buffer, handed to the frame recorder (pixel copy only)
+     * and then drawn to the screen.
      * Disposal of Graphics object and release of system resources that it is using is handled by Swing
      * @param g The Graphics2D context to draw on
      */
@@ -156,12 +294,28 @@ public class GamePanel extends JPanel implements Runnable{
     public void paintComponent(Graphics g) {
         super.paintComponent(g);                    // to ensure proper rendering hierarchy and clear background
 
-        Graphics2D g2 = (Graphics2D) g;            // extends Graphics providing more advanced features
+        long renderStart = System.nanoTime();
+
+        Graphics2D g2 = backBuffer.createGraphics();            // extends Graphics providing more advanced features
+        qualityGovernor.applyRenderingHints(g2);
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
 
         switch (gameState) {
             case TITLE -> drawTitleScreen(g2);
-            case PLAYING, PAUSED, OPTIONS, ENDING -> drawGame(g2);
+            case PLAYING, PAUSED, OPTIONS, ENDING, EDITING -> drawGame(g2);
         }
+        g2.dispose();
+
+        // Quality is adapted to gameplay frame times only
+        if (gameState == GameState.PLAYING) {
+            qualityGovernor.recordFrame(renderStart, System.nanoTime() - renderStart);
+        } else {
+            qualityGovernor.pauseFrameClock();
+        }
+
+        frameRecorder.captureFrame(backBuffer);
+        g.drawImage(backBuffer, 0, 0, null);
     }
 
     /*
@@ -174,31 +328,109 @@ public class GamePanel extends JPanel implements Runnable{
 
     /*
      * Draws all game elements such as player sprites, tiles, object, UI, ...
+     * The world is drawn once per camera viewport (split-screen), UI is drawn on the whole screen
      * @param g2 The Graphics2D context to draw on
      */
     private void drawGame(Graphics2D g2) {
         // DEBUG
-        boolean debug = gameKeyHandler.isDebugModeOn();
+        boolean debug = gameKeyHandler.isDebugModeOn() && gameState == GameState.PLAYING;
         long drawStart = debug ? System.nanoTime() : 0;
 
-        // TILES
-        tileManager.draw(g2);
-
-        // OBJECTS
-        for (GameObject gameObject : gameObjects) {
-            gameObject.draw(g2);
+        if (isRealTimeState()) {
+            frozenWorldFrameValid = false;
+            drawViewports(g2, debug);
+        } else {
+            // World is frozen: render it once, then reuse it while menus/overlays change
+            if (!frozenWorldFrameValid) {
+                frozenWorldFrameValid = true;       // set first, a map change while drawing invalidates it again
+                Graphics2D frozenG2 = frozenWorldFrame.createGraphics();
+                qualityGovernor.applyRenderingHints(frozenG2);
+                frozenG2.setColor(getBackground());
+                frozenG2.fillRect(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+                drawViewports(frozenG2, false);
+                frozenG2.dispose();
+            }
+            g2.drawImage(frozenWorldFrame, 0, 0, null);
         }
 
-        // PLAYER
-        player.draw(g2);
-
         // UI
         ui.draw(g2);
+        if (gameState == GameState.EDITING) {
+            mapEditor.draw(g2);
+        }
 
         // DEBUG
-        if (debug && gameState == GameState.PLAYING) {
+        if (debug) {
             drawDebugInfo(drawStart, g2);
-            player.drawDebug(g2);
+        }
+    }
+
+    /*
+     * Draws the world once per camera viewport, followed by the split-screen divider
+     * @param g2 The Graphics2D context to draw on
+     * @param debug true to draw players hitboxes
+     */
+    private void drawViewports(Graphics2D g2, boolean debug) {
+        List<Player> players = getPlayers();
+        Camera[] cameras = getCameras();
+
+        for (int i = 0; i < cameras.length; i++) {
+            Camera camera = cameras[i];
+            if (gameState == GameState.EDITING) {
+                mapEditor.positionCamera(camera);
+            } else {
+                camera.follow(players.get(i));
+            }
+
+            // Viewport graphics: translated to camera screen area and clipped to it
+            Graphics2D viewG2 = (Graphics2D) g2.create(camera.getScreenX(), camera.getScreenY(),
+                                                       camera.getWidth(), camera.getHeight());
+            drawWorld(viewG2, camera, players, debug);
+            viewG2.dispose();
+        }
+
+        // SPLIT-SCREEN DIVIDER
+        if (cameras.length > 1) {
+            g2.setColor(SPLIT_DIVIDER_COLOR);
+            g2.fillRect(SCREEN_WIDTH / 2 - SPLIT_DIVIDER_WIDTH / 2, 0, SPLIT_DIVIDER_WIDTH, SCREEN_HEIGHT);
+        }
+    }
+
+    /*
+     * Draws the world (tiles, objects, players, overhead tiles) as seen by the given camera
+     * @param g2 The Graphics2D context of the camera viewport
+     * @param camera The camera viewing the world
+     * @param players The players to draw
+     * @param debug true to draw players hitboxes
+     */
+    private void drawWorld(Graphics2D g2, Camera camera, List<Player> players, boolean debug) {
+        // TILES
+        tileManager.draw(g2, camera);
+
+        // OBJECTS (only the ones in the grid cells seen by the camera)
+        visibleObjects.clear();
+        gameObjects.query(camera.getWorldX(), camera.getWorldY(), camera.getWidth(), camera.getHeight(), visibleObjects);
+        for (GameObject gameObject : visibleObjects) {
+            gameObject.draw(g2, camera);
+        }
+
+        // PLAYERS
+        for (Player p : players) {
+            p.draw(g2, camera);
+        }
+
+        // OVERHEAD TILES (tree tops, roofs: drawn over players)
+        tileManager.drawOverhead(g2, camera);
+
+        // FOG OF WAR (covers every layer, players always stand in explored tiles, the whole map is shown while editing)
+        if (gameState != GameState.EDITING) {
+            fogOfWar.draw(g2, camera);
+        }
+
+        if (debug) {
+            for (Player p : players) {
+                p.drawDebug(g2, camera);
+            }
         }
     }
 
@@ -226,9 +458,13 @@ public class GamePanel extends JPanel implements Runnable{
 
         g2.drawString("WorldX: " + player.getWorldX(), x, y); y += spacing;
         g2.drawString("WorldY: " + player.getWorldY(), x, y); y += spacing;
-        g2.drawString("Col: " + ((player.getWorldX() + player.getSolidArea().x) / TILE_SIZE), x, y); y += spacing;
-        g2.drawString("Row: " + ((player.getWorldY() + player.getSolidArea().y) / TILE_SIZE), x, y); y += spacing * 2;
-        g2.drawString("Draw Time: " + timePassed + " µs", x, y);
+        g2.drawString("Col: " + ((player.getWorldX() + player.getSolidArea().x()) / TILE_SIZE), x, y); y += spacing;
+        g2.drawString("Row: " + ((player.getWorldY() + player.getSolidArea().y()) / TILE_SIZE), x, y); y += spacing * 2;
+        g2.drawString("Draw Time: " + timePassed + " µs", x, y); y += spacing;
+        g2.drawString("Avg Frame: " + qualityGovernor.getAverageFrameNanos() / 1_000 + " µs", x, y); y += spacing;
+        g2.drawString("Avg Work: " + qualityGovernor.getAverageWorkNanos() / 1_000 + " µs", x, y); y += spacing;
+        g2.drawString("Quality: " + qualityGovernor.getLevel(), x, y); y += spacing;
+        g2.drawString("Changed: " + qualityGovernor.getLastChange(), x, y);
 
         // Restore font properties
         g2.setFont(originalFont);
@@ -276,14 +512,42 @@ public class GamePanel extends JPanel implements Runnable{
      */
     public void setGameState(GameState gameState) {
         this.gameState = gameState;
+        requestRedraw();
+    }
+
+    /**
+     * Enables/disables local split-screen co-op (two players, two cameras, split key mapping)
+     * @param coopMode true to enable co-op mode
+     */
+    public void setCoopMode(boolean coopMode) {
+        numPlayers = coopMode ? MAX_PLAYERS : 1;
+        gameKeyHandler.setSplitKeyMapping(coopMode);
+    }
+
+    /**
+     * Returns the keys collected by all the players
+     * @return The total number of keys
+     */
+    public int getTeamKeys() {
+        int keys = 0;
+        for (Player p : getPlayers()) {
+            keys += p.getNumKeys();
+        }
+        return keys;
     }
 
     /**
      * Reset game state
      */
     public void resetGame() {
-        // Reset player state
-        player.reset();
+        // Reset players state
+        for (Player p : allPlayers) {
+            p.reset();
+        }
+        setCoopMode(false);
+
+        // Back to the start map, reset explored tiles
+        worldManager.reset();
 
         // Clear all existing objects
         gameObjects.clear();
@@ -301,11 +565,23 @@ public class GamePanel extends JPanel implements Runnable{
     /* --------------- [GETTER METHODS] --------------- */
 
     public Player getPlayer() { return player; }
+    public List<Player> getPlayers() { return allPlayers.subList(0, numPlayers); }
+    public Camera[] getCameras() { return numPlayers > 1 && gameState != GameState.EDITING ? splitViewCameras : singleViewCameras; }
+    public boolean isCoopMode() { return numPlayers > 1; }
     public TileManager getTileManager() { return tileManager; }
     public CollisionChecker getCollisionChecker() { return collisionChecker; }
+    public Pathfinder getPathfinder() { return pathfinder; }
+    public HierarchicalPathfinder getHierarchicalPathfinder() { return hierarchicalPathfinder; }
+    public FlowField getPlayerFlowField() { return playerFlowField; }
     public KeyHandler getGameKeyHandler() { return gameKeyHandler; }
     public AssetSetter getAssetSetter() { return assetSetter; }
-    public ArrayList<GameObject> getGameObjects() { return gameObjects; }
+    public FrameRecorder getFrameRecorder() { return frameRecorder; }
+    public QualityGovernor getQualityGovernor() { return qualityGovernor; }
+    public FogOfWar getFogOfWar() { return fogOfWar; }
+    public MapHotReloader getMapHotReloader() { return mapHotReloader; }
+    public WorldManager getWorldManager() { return worldManager; }
+    public MapEditor getMapEditor() { return mapEditor; }
+    public ObjectGrid getGameObjects() { return gameObjects; }
     public UI getUi() { return ui; }
     public GameState getGameState() { return gameState; }
     public Sound getMusic() { return music; }
@@ -0,0 +1,296 @@
+package game_logic;
+
+import tile.NavigationGrid;
+
+import java.util.Arrays;
+
+/**
+ * Node state of the cell searches of one thread: A* between two cells, or Dijkstra from one cell to every cell,
+ * within a rectangle of a navigation grid (the whole map, or a cluster of the hierarchical pathfinder).
+ * Moves are 8-directional without corner cutting: a diagonal step needs both orthogonal neighbours free.
+ * Node state is stored by pages of 16x16 cells, given storage the first time a search reaches them:
+ * memory follows the area searches explore, not the rectangle (a search across a 2048x2048 map
+ * usually reaches a small part of it). Storage is reused across searches and reset by a generation stamp
+ * @author LC
+ */
+class GridSearch {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // NEIGHBOUR OFFSETS (orthogonal directions first)
+    static final int[] DIRECTION_COLS = {1, -1, 0, 0, 1, 1, -1, -1};
+    static final int[] DIRECTION_ROWS = {0, 0, 1, -1, 1, -1, 1, -1};
+    private static final int[] OPPOSITE_DIRECTIONS = {1, 0, 3, 2, 7, 6, 5, 4};
+    private static final int FIRST_DIAGONAL = 4;
+
+    // PAGES (square blocks of cells sharing node storage)
+    private static final int PAGE_SHIFT = 4;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+    private static final int PAGE_CELLS = 1 << (2 * PAGE_SHIFT);
+    private static final int INITIAL_PAGE_SLOTS = 16;
+
+    /* ------------------------------------------- */
+
+    // SEARCHED RECTANGLE (in cells)
+    private int minCol, minRow, width = 0, height = 0;
+    private int pageCols = 0;                           // pages per rectangle row
+
+    // PAGES OF THE RECTANGLE (by page index within the rectangle)
+    private int[] pageSlots = new int[0];               // storage slot of the page, valid if marked
+    private int[] pageMarks = new int[0];               // generation: reached by the current search
+
+    // STORAGE SLOTS (one page each, handed out in order during a search)
+    private int[] slotCols = new int[INITIAL_PAGE_SLOTS];   // first cell of the stored page
+    private int[] slotRows = new int[INITIAL_PAGE_SLOTS];
+    private int slotCount = 0;
+
+    // NODES (slot * PAGE_CELLS + cell index within the page)
+    private int[] costs = new int[INITIAL_PAGE_SLOTS * PAGE_CELLS];     // cost from the start (valid once marked)
+    private int[] marks = new int[INITIAL_PAGE_SLOTS * PAGE_CELLS];     // generation: open, generation + 1: closed
+    private byte[] parents = new byte[INITIAL_PAGE_SLOTS * PAGE_CELLS]; // direction the node was reached from
+    private int generation = 0;
+    private int startNode = -1;                         // source of the last search
+
+    private final NodeHeap open = new NodeHeap();
+
+
+    /**
+     * Sets the rectangle the next searches are limited to, growing the page table if needed.
+     * Node storage is not tied to the rectangle (see class comment)
+     * @param minCol The first column
+     * @param minRow The first row
+     * @param width The rectangle width (in cells)
+     * @param height The rectangle height (in cells)
+     */
+    void setBounds(int minCol, int minRow, int width, int height) {
+        this.minCol = minCol;
+        this.minRow = minRow;
+        this.width = width;
+        this.height = height;
+        this.pageCols = (width + PAGE_MASK) >> PAGE_SHIFT;
+
+        int pageCount = pageCols * ((height + PAGE_MASK) >> PAGE_SHIFT);
+        if (pageSlots.length < pageCount) {
+            pageSlots = new int[pageCount];
+            pageMarks = new int[pageCount];          // 0 never matches a generation
+        }
+    }
+
+    /**
+     * Finds the cheapest path between two cells of the rectangle (A*, octile heuristic)
+     * @param grid The navigation grid
+     * @param start The start cell (row * cols + col)
+     * @param goal The goal cell
+     * @param footprint The entity hitbox side (in tiles)
+     * @param path The buffer receiving the path cells, start and goal included
+     * @return true if a path was found, false otherwise
+     */
+    boolean findPath(NavigationGrid grid, int start, int goal, int footprint, Pathfinder.PathBuffer path) {
+        if (!run(grid, start, goal, footprint, false)) return false;
+
+        // Follow the parent directions back from the goal
+        int goalNode = findNode(goal % grid.getCols(), goal / grid.getCols());
+        int length = 1;
+        for (int node = goalNode; node != startNode; node = parentOf(node)) length++;
+
+        path.setLength(length);
+        int node = goalNode;
+        for (int i = length - 1; i >= 0; i--) {
+            path.cells[i] = nodeRow(node) * grid.getCols() + nodeCol(node);
+            if (i > 0) node = parentOf(node);
+        }
+        return true;
+    }
+
+    /**
+     * Computes the cost of the cheapest path between a cell and every cell of the rectangle (Dijkstra),
+     * readable with getFloodCost until the next search
+     * @param grid The navigation grid
+     * @param source The source cell (row * cols + col)
+     * @param footprint The entity hitbox side (in tiles)
+     * @param reverse false for the costs from the source, true for the costs to the source
+     */
+    void flood(NavigationGrid grid, int source, int footprint, boolean reverse) {
+        run(grid, source, -1, footprint, reverse);
+    }
+
+    /**
+     * Returns the cost computed by the last flood for a cell
+     * @param grid The navigation grid
+     * @param cell The cell (row * cols + col)
+     * @return The cost, -1 if the cell is outside the rectangle or unreachable
+     */
+    int getFloodCost(NavigationGrid grid, int cell) {
+        int col = cell % grid.getCols();
+        int row = cell / grid.getCols();
+        if (col < minCol || col >= minCol + width || row < minRow || row >= minRow + height) return -1;
+
+        int node = findNode(col, row);
+        return node >= 0 && marks[node] == generation + 1 ? costs[node] : -1;
+    }
+
+    /**
+     * Returns the first move of the cheapest path from a cell to the source of the last reverse flood
+     * @param grid The navigation grid
+     * @param cell The cell (row * cols + col)
+     * @return The direction index (see DIRECTION_COLS / DIRECTION_ROWS), -1 if the cell is the source,
+     *         outside the rectangle or unreachable
+     */
+    int getFloodStep(NavigationGrid grid, int cell) {
+        if (getFloodCost(grid, cell) < 0) return -1;
+
+        int node = findNode(cell % grid.getCols(), cell / grid.getCols());
+        return node == startNode ? -1 : OPPOSITE_DIRECTIONS[parents[node]];
+    }
+
+    /*
+     * Searches from the start until the goal is closed, or until every reachable cell is closed if goal is -1
+     */
+    private boolean run(NavigationGrid grid, int start, int goal, int footprint, boolean reverse) {
+        int openMark = nextGeneration();
+        int closedMark = openMark + 1;
+
+        int cols = grid.getCols();
+        int goalCol = goal >= 0 ? goal % cols : 0;
+        int goalRow = goal >= 0 ? goal / cols : 0;
+        int heuristicScale = goal >= 0 ? grid.getMinCost() : 0;
+
+        slotCount = 0;
+        open.clear(costs.length);
+        startNode = nodeAt(start % cols, start / cols);
+        costs[startNode] = 0;
+        marks[startNode] = openMark;
+        open.push(heuristic(start % cols, start / cols, goalCol, goalRow, heuristicScale), 0, startNode);
+
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            marks[node] = closedMark;
+
+            int col = nodeCol(node);
+            int row = nodeRow(node);
+            int cell = row * cols + col;
+            if (cell == goal) return true;
+
+            for (int direction = 0; direction < DIRECTION_COLS.length; direction++) {
+                int nextCol = col + DIRECTION_COLS[direction];
+                int nextRow = row + DIRECTION_ROWS[direction];
+                if (nextCol < minCol || nextCol >= minCol + width || nextRow < minRow || nextRow >= minRow + height) continue;
+
+                int nextCell = nextRow * cols + nextCol;
+                if (!grid.isWalkableUnchecked(nextCell, footprint)) continue;
+
+                int step = Pathfinder.ORTHOGONAL_STEP;
+                if (direction >= FIRST_DIAGONAL) {
+                    // No corner cutting: both orthogonal neighbours must be free too
+                    if (!grid.isWalkableUnchecked(row * cols + nextCol, footprint)
+                            || !grid.isWalkableUnchecked(nextRow * cols + col, footprint)) continue;
+                    step = Pathfinder.DIAGONAL_STEP;
+                }
+
+                // Only walkable cells are given storage
+                int next = nodeAt(nextCol, nextRow);
+                if (marks[next] == closedMark) continue;
+
+                // Moves cost the cell they enter: walking backwards, that is the current cell
+                int nextCost = costs[node] + grid.getCostUnchecked(reverse ? cell : nextCell) * step;
+                boolean isOpen = marks[next] == openMark;
+                if (isOpen && costs[next] <= nextCost) continue;
+
+                costs[next] = nextCost;
+                marks[next] = openMark;
+                parents[next] = (byte) direction;
+                int f = nextCost + heuristic(nextCol, nextRow, goalCol, goalRow, heuristicScale);
+                if (isOpen) open.decrease(f, nextCost, next);
+                else open.push(f, nextCost, next);
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Moves to the next generation, clearing the marks only when the generation wraps around
+     */
+    private int nextGeneration() {
+        generation += 2;
+        if (generation < 0) {
+            Arrays.fill(marks, 0);
+            Arrays.fill(pageMarks, 0);
+            generation = 2;
+        }
+        return generation;
+    }
+
+    /*
+     * Returns the node of a cell of the rectangle, giving its page storage if the current search did not reach it yet
+     */
+    private int nodeAt(int col, int row) {
+        int localCol = col - minCol;
+        int localRow = row - minRow;
+        int page = (localRow >> PAGE_SHIFT) * pageCols + (localCol >> PAGE_SHIFT);
+        if (pageMarks[page] != generation) {
+            pageMarks[page] = generation;
+            pageSlots[page] = newSlot(col - (localCol & PAGE_MASK), row - (localRow & PAGE_MASK));
+        }
+        return (pageSlots[page] << (2 * PAGE_SHIFT)) | ((localRow & PAGE_MASK) << PAGE_SHIFT) | (localCol & PAGE_MASK);
+    }
+
+    /*
+     * Returns the node of a cell of the rectangle, -1 if the last search did not reach its page
+     */
+    private int findNode(int col, int row) {
+        int localCol = col - minCol;
+        int localRow = row - minRow;
+        int page = (localRow >> PAGE_SHIFT) * pageCols + (localCol >> PAGE_SHIFT);
+        if (pageMarks[page] != generation) return -1;
+
+        return (pageSlots[page] << (2 * PAGE_SHIFT)) | ((localRow & PAGE_MASK) << PAGE_SHIFT) | (localCol & PAGE_MASK);
+    }
+
+    /*
+     * Hands out the next storage slot for the page starting at the given cell, growing the node arrays if needed.
+     * Nodes of a reused slot keep marks of older generations, so they read as unreached
+     */
+    private int newSlot(int pageCol, int pageRow) {
+        if (slotCount == slotCols.length) {
+            int slots = slotCount * 2;
+            slotCols = Arrays.copyOf(slotCols, slots);
+            slotRows = Arrays.copyOf(slotRows, slots);
+            costs = Arrays.copyOf(costs, slots * PAGE_CELLS);
+            marks = Arrays.copyOf(marks, slots * PAGE_CELLS);
+            parents = Arrays.copyOf(parents, slots * PAGE_CELLS);
+            open.ensureNodeCapacity(slots * PAGE_CELLS);
+        }
+
+        slotCols[slotCount] = pageCol;
+        slotRows[slotCount] = pageRow;
+        return slotCount++;
+    }
+
+    private int nodeCol(int node) {
+        return slotCols[node >> (2 * PAGE_SHIFT)] + (node & PAGE_MASK);
+    }
+
+    private int nodeRow(int node) {
+        return slotRows[node >> (2 * PAGE_SHIFT)] + ((node >> PAGE_SHIFT) & PAGE_MASK);
+    }
+
+    /**
+     * Octile distance, scaled by the cheapest cell cost so it never overestimates
+     * @param col The cell column
+     * @param row The cell row
+     * @param goalCol The goal column
+     * @param goalRow The goal row
+     * @param scale The cheapest cell cost (0 for no heuristic)
+     * @return The estimated cost to the goal
+     */
+    static int heuristic(int col, int row, int goalCol, int goalRow, int scale) {
+        int dx = Math.abs(col - goalCol);
+        int dy = Math.abs(row - goalRow);
+        return scale * (Pathfinder.DIAGONAL_STEP * Math.min(dx, dy) + Pathfinder.ORTHOGONAL_STEP * Math.abs(dx - dy));
+    }
+
+    private int parentOf(int node) {
+        int direction = parents[node];
+        return findNode(nodeCol(node) - DIRECTION_COLS[direction], nodeRow(node) - DIRECTION_ROWS[direction]);
+    }
+}
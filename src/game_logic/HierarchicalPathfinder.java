@@ -0,0 +1,592 @@
+package game_logic;
+
+import entity.Entity;
+import tile.ChunkStore;
+import tile.NavigationGrid;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hierarchical pathfinding (HPA*) for large worlds, on top of the navigation grid of the Pathfinder.
+ * The map is split in clusters, one per map chunk. Entrances are placed along the free runs of each cluster border
+ * (one in the middle of a short run, one at each end of a wide run), and the costs between the entrances
+ * of a cluster are computed by searches limited to the cluster. Long-range queries search this abstract graph
+ * (a few nodes per chunk) instead of the cells, connecting the start and the goal to the entrances of their
+ * clusters, and return waypoints: the cells of the next segment are only computed when the entity gets there
+ * (see refineNext), by a search limited to one cluster. Paths are near-optimal, not always the cheapest:
+ * the abstract search also weights its heuristic, so long-range queries only visit nodes close to the straight line.
+ * The abstract graph of each hitbox footprint is built on first use, in parallel, and when tiles change
+ * only the clusters around the changed chunks are rebuilt. Queries can run on several threads at once
+ * @author LC
+ */
+public class HierarchicalPathfinder {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final int CLUSTER_SIZE = ChunkStore.CHUNK_SIZE;             // tile changes dirty their chunk only
+    private static final int MAX_CLUSTER_NODES = 4 * CLUSTER_SIZE / 2;         // at most one entrance every other border cell
+    private static final int WIDE_ENTRANCE = 6;                                 // free runs this long get an entrance at each end
+    private static final int SPLIT_THRESHOLD = 16;                              // clusters built by each fork/join task
+    private static final int HEURISTIC_WEIGHT = 2;                              // abstract paths are approximate anyway:
+                                                                                // trades a few % of cost for far fewer nodes
+
+    /* ------------------------------------------- */
+
+    private final Pathfinder pathfinder;
+    private final ChunkStore chunkStore;
+
+    // ABSTRACT GRAPHS OF THE CURRENT GRID, BY FOOTPRINT (replaced together with the grid)
+    private volatile Hierarchy hierarchy;
+
+    private record Hierarchy(NavigationGrid grid, AtomicReferenceArray<ClusterGraph> graphs) {}
+
+    // SEARCH STATE OF EACH QUERYING THREAD
+    private final ThreadLocal<AbstractSearch> abstractSearches = ThreadLocal.withInitial(AbstractSearch::new);
+
+
+    public HierarchicalPathfinder(Pathfinder pathfinder, ChunkStore chunkStore) {
+        this.pathfinder = pathfinder;
+        this.chunkStore = chunkStore;
+    }
+
+    /**
+     * Finds the waypoints of an entity from the cell of its hitbox top-left corner to the given cell
+     * @param entity The moving entity
+     * @param goalCol The goal column (of the hitbox top-left corner)
+     * @param goalRow The goal row
+     * @param path The buffer receiving the waypoints, start and goal included (cleared if there is no path)
+     * @return true if a path was found, false otherwise
+     */
+    public boolean findPath(Entity entity, int goalCol, int goalRow, HierarchicalPath path) {
+        Aabb solidArea = entity.getSolidArea();
+        int startCol = Math.floorDiv(entity.getWorldX() + solidArea.x(), GamePanel.TILE_SIZE);
+        int startRow = Math.floorDiv(entity.getWorldY() + solidArea.y(), GamePanel.TILE_SIZE);
+        return findPath(startCol, startRow, goalCol, goalRow, Pathfinder.getFootprint(solidArea), path);
+    }
+
+    /**
+     * Finds the waypoints between two cells on the abstract graph. Consecutive waypoints lie in the same cluster
+     * or on both sides of a cluster border
+     * @param startCol The start column
+     * @param startRow The start row
+     * @param goalCol The goal column
+     * @param goalRow The goal row
+     * @param footprint The side of the square of tiles the entity covers (see Pathfinder.getFootprint)
+     * @param path The buffer receiving the waypoints, start and goal included (cleared if there is no path)
+     * @return true if a path was found, false otherwise
+     */
+    public boolean findPath(int startCol, int startRow, int goalCol, int goalRow, int footprint, HierarchicalPath path) {
+        Hierarchy current = getHierarchy();
+        NavigationGrid grid = current.grid();
+        path.clear(grid.getCols(), footprint);
+        if (!grid.isWalkable(startCol, startRow, footprint) || !grid.isWalkable(goalCol, goalRow, footprint)) return false;
+
+        return abstractSearches.get().search(grid, getGraph(current, footprint),
+                startRow * grid.getCols() + startCol, goalRow * grid.getCols() + goalCol, path);
+    }
+
+    /**
+     * Computes the cells of the next segment of a path (between its next two waypoints) and moves past it
+     * @param path The path found by findPath
+     * @param segment The buffer receiving the segment cells, both waypoints included
+     * @return true if the segment was computed, false if the path is over or blocked by a tile change (find it again)
+     */
+    public boolean refineNext(HierarchicalPath path, Pathfinder.PathBuffer segment) {
+        NavigationGrid grid = getHierarchy().grid();
+        segment.clear(grid.getCols());
+        if (!path.hasNextSegment() || path.cols != grid.getCols()) return false;
+
+        int from = path.waypoints[path.nextWaypoint];
+        int to = path.waypoints[path.nextWaypoint + 1];
+        if (!grid.isWalkableUnchecked(from, path.footprint) || !grid.isWalkableUnchecked(to, path.footprint)) return false;
+
+        int fromCluster = clusterOf(grid, from);
+        if (fromCluster == clusterOf(grid, to)) {
+            GridSearch gridSearch = abstractSearches.get().gridSearch;
+            setClusterBounds(gridSearch, grid, fromCluster);
+            if (!gridSearch.findPath(grid, from, to, path.footprint, segment)) return false;
+        } else {
+            // Entrances on both sides of a border: a single step
+            segment.setLength(2);
+            segment.cells[0] = from;
+            segment.cells[1] = to;
+        }
+
+        path.nextWaypoint++;
+        return true;
+    }
+
+    /*
+     * Returns the graphs of the current grid, updating the built graphs around the changed chunks
+     */
+    private Hierarchy getHierarchy() {
+        NavigationGrid grid = pathfinder.getGrid();
+        Hierarchy current = hierarchy;
+        if (current != null && current.grid() == grid) return current;
+
+        synchronized (this) {
+            current = hierarchy;
+            if (current != null && current.grid() == grid) return current;
+
+            AtomicReferenceArray<ClusterGraph> graphs = new AtomicReferenceArray<>(NavigationGrid.MAX_CLEARANCE + 1);
+            List<Point> changedChunks = new ArrayList<>();
+            if (current != null && current.grid().getCols() == grid.getCols() && current.grid().getRows() == grid.getRows()
+                    && chunkStore.getChangedChunks(current.grid().getRevision(), changedChunks) >= 0) {
+                for (int footprint = 1; footprint < graphs.length(); footprint++) {
+                    ClusterGraph graph = current.graphs().get(footprint);
+                    if (graph != null) graphs.set(footprint, graph.update(grid, changedChunks));
+                }
+            }
+
+            current = new Hierarchy(grid, graphs);
+            hierarchy = current;
+            return current;
+        }
+    }
+
+    /*
+     * Returns the graph of a footprint, building it on first use
+     */
+    private ClusterGraph getGraph(Hierarchy current, int footprint) {
+        ClusterGraph graph = current.graphs().get(footprint);
+        if (graph != null) return graph;
+
+        synchronized (current.graphs()) {
+            graph = current.graphs().get(footprint);
+            if (graph == null) {
+                graph = ClusterGraph.build(current.grid(), footprint);
+                current.graphs().set(footprint, graph);
+            }
+            return graph;
+        }
+    }
+
+    private static int clusterOf(NavigationGrid grid, int cell) {
+        int clusterCols = Math.ceilDiv(grid.getCols(), CLUSTER_SIZE);
+        return (cell / grid.getCols() / CLUSTER_SIZE) * clusterCols + cell % grid.getCols() / CLUSTER_SIZE;
+    }
+
+    private static void setClusterBounds(GridSearch gridSearch, NavigationGrid grid, int cluster) {
+        int clusterCols = Math.ceilDiv(grid.getCols(), CLUSTER_SIZE);
+        int minCol = cluster % clusterCols * CLUSTER_SIZE;
+        int minRow = cluster / clusterCols * CLUSTER_SIZE;
+        gridSearch.setBounds(minCol, minRow,
+                Math.min(CLUSTER_SIZE, grid.getCols() - minCol), Math.min(CLUSTER_SIZE, grid.getRows() - minRow));
+    }
+
+
+    /**
+     * Reusable hierarchical path: waypoints from start to goal (indexes row * cols + col)
+     * and the progress of their refinement
+     */
+    public static class HierarchicalPath {
+        private static final int INITIAL_CAPACITY = 32;
+
+        private int[] waypoints = new int[INITIAL_CAPACITY];
+        private int length = 0;
+        private int cols = 1;
+        private int footprint = 1;
+        private int nextWaypoint = 0;                       // first waypoint of the next segment to refine
+
+        public int size() { return length; }
+        public boolean isEmpty() { return length == 0; }
+        public int getCol(int i) { return waypoints[i] % cols; }
+        public int getRow(int i) { return waypoints[i] / cols; }
+        public boolean hasNextSegment() { return nextWaypoint + 1 < length; }
+
+        private void clear(int cols, int footprint) {
+            this.cols = cols;
+            this.footprint = footprint;
+            length = 0;
+            nextWaypoint = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (waypoints.length < capacity) waypoints = new int[Math.max(capacity, waypoints.length * 2)];
+        }
+    }
+
+
+    /*
+     * Entrances of a cluster and the costs between them. Immutable
+     */
+    private record Cluster(int[] nodeCells, int[] partnerCells, int[] intraCosts) {
+        // nodeCells: entrance cells; partnerCells: the entrance cells across the border (two per node, -1 if none);
+        // intraCosts: cost between each pair of entrances within the cluster (n x n, -1 if not connected)
+
+        int size() { return nodeCells.length; }
+
+        int indexOf(int cell) {
+            for (int i = 0; i < nodeCells.length; i++) {
+                if (nodeCells[i] == cell) return i;
+            }
+            return -1;
+        }
+    }
+
+
+    /*
+     * Abstract graph of a footprint: the clusters of the grid (row-major). Abstract node IDs are
+     * cluster * MAX_CLUSTER_NODES + entrance index. Immutable: updates copy the cluster array
+     */
+    private static class ClusterGraph {
+        private final NavigationGrid grid;
+        private final int footprint;
+        private final int clusterCols, clusterRows;
+        private final Cluster[] clusters;
+
+        private ClusterGraph(NavigationGrid grid, int footprint, Cluster[] clusters) {
+            this.grid = grid;
+            this.footprint = footprint;
+            this.clusterCols = Math.ceilDiv(grid.getCols(), CLUSTER_SIZE);
+            this.clusterRows = Math.ceilDiv(grid.getRows(), CLUSTER_SIZE);
+            this.clusters = clusters;
+        }
+
+        static ClusterGraph build(NavigationGrid grid, int footprint) {
+            Cluster[] clusters = new Cluster[Math.ceilDiv(grid.getCols(), CLUSTER_SIZE) * Math.ceilDiv(grid.getRows(), CLUSTER_SIZE)];
+            ClusterGraph graph = new ClusterGraph(grid, footprint, clusters);
+            ForkJoinPool.commonPool().invoke(new BuildClusters(graph, 0, clusters.length));
+            return graph;
+        }
+
+        /*
+         * Copies the graph onto a newer grid, rebuilding the clusters whose cells may have changed
+         * (a changed chunk, and the clusters above and to the left whose clearances depend on it)
+         * and their neighbours, whose entrances on the shared borders may have changed
+         */
+        ClusterGraph update(NavigationGrid newGrid, List<Point> changedChunks) {
+            boolean[] dirty = new boolean[clusters.length];
+            for (Point chunk : changedChunks) {
+                for (int row = chunk.y - 1; row <= chunk.y; row++) {
+                    for (int col = chunk.x - 1; col <= chunk.x; col++) {
+                        markWithNeighbours(dirty, col, row);
+                    }
+                }
+            }
+
+            ClusterGraph graph = new ClusterGraph(newGrid, footprint, clusters.clone());
+            GridSearch gridSearch = new GridSearch();
+            for (int cluster = 0; cluster < dirty.length; cluster++) {
+                if (dirty[cluster]) graph.clusters[cluster] = graph.buildCluster(cluster, gridSearch);
+            }
+            return graph;
+        }
+
+        private void markWithNeighbours(boolean[] dirty, int col, int row) {
+            if (col < 0 || row < 0 || col >= clusterCols || row >= clusterRows) return;
+
+            dirty[row * clusterCols + col] = true;
+            if (col > 0) dirty[row * clusterCols + col - 1] = true;
+            if (col < clusterCols - 1) dirty[row * clusterCols + col + 1] = true;
+            if (row > 0) dirty[(row - 1) * clusterCols + col] = true;
+            if (row < clusterRows - 1) dirty[(row + 1) * clusterCols + col] = true;
+        }
+
+        /*
+         * Places the entrances on the borders of a cluster and computes the costs between them
+         */
+        Cluster buildCluster(int cluster, GridSearch gridSearch) {
+            int cols = grid.getCols();
+            int minCol = cluster % clusterCols * CLUSTER_SIZE;
+            int minRow = cluster / clusterCols * CLUSTER_SIZE;
+            int maxCol = Math.min(cols, minCol + CLUSTER_SIZE) - 1;
+            int maxRow = Math.min(grid.getRows(), minRow + CLUSTER_SIZE) - 1;
+
+            int[] nodeCells = new int[MAX_CLUSTER_NODES];
+            int[] partnerCells = new int[MAX_CLUSTER_NODES * 2];
+            Arrays.fill(partnerCells, -1);
+            int nodeCount = 0;
+
+            // Borders shared with a neighbour cluster: left, right, top, bottom
+            int height = maxRow - minRow + 1;
+            int width = maxCol - minCol + 1;
+            if (minCol > 0) {
+                nodeCount = addEntrances(minRow * cols + minCol, cols, height, -1, nodeCells, partnerCells, nodeCount);
+            }
+            if (maxCol < cols - 1) {
+                nodeCount = addEntrances(minRow * cols + maxCol, cols, height, 1, nodeCells, partnerCells, nodeCount);
+            }
+            if (minRow > 0) {
+                nodeCount = addEntrances(minRow * cols + minCol, 1, width, -cols, nodeCells, partnerCells, nodeCount);
+            }
+            if (maxRow < grid.getRows() - 1) {
+                nodeCount = addEntrances(maxRow * cols + minCol, 1, width, cols, nodeCells, partnerCells, nodeCount);
+            }
+
+            int[] intraCosts = new int[nodeCount * nodeCount];
+            gridSearch.setBounds(minCol, minRow, width, height);
+            for (int i = 0; i < nodeCount; i++) {
+                gridSearch.flood(grid, nodeCells[i], footprint, false);
+                for (int j = 0; j < nodeCount; j++) {
+                    intraCosts[i * nodeCount + j] = gridSearch.getFloodCost(grid, nodeCells[j]);
+                }
+            }
+
+            return new Cluster(Arrays.copyOf(nodeCells, nodeCount), Arrays.copyOf(partnerCells, nodeCount * 2), intraCosts);
+        }
+
+        /*
+         * Adds the entrances of a border: the free runs of cells whose neighbour across the border is free too.
+         * Both clusters of a border scan it in the same order, so they agree on its entrances
+         */
+        private int addEntrances(int firstCell, int step, int length, int across,
+                                 int[] nodeCells, int[] partnerCells, int nodeCount) {
+            int runStart = -1;
+            for (int i = 0; i <= length; i++) {
+                int cell = firstCell + i * step;
+                boolean free = i < length && grid.isWalkableUnchecked(cell, footprint)
+                        && grid.isWalkableUnchecked(cell + across, footprint);
+
+                if (free && runStart < 0) {
+                    runStart = i;
+                } else if (!free && runStart >= 0) {
+                    int runLength = i - runStart;
+                    if (runLength < WIDE_ENTRANCE) {
+                        int middle = firstCell + (runStart + runLength / 2) * step;
+                        nodeCount = addNode(middle, middle + across, nodeCells, partnerCells, nodeCount);
+                    } else {
+                        int first = firstCell + runStart * step;
+                        int last = firstCell + (i - 1) * step;
+                        nodeCount = addNode(first, first + across, nodeCells, partnerCells, nodeCount);
+                        nodeCount = addNode(last, last + across, nodeCells, partnerCells, nodeCount);
+                    }
+                    runStart = -1;
+                }
+            }
+            return nodeCount;
+        }
+
+        /*
+         * Adds an entrance, or a second partner to an entrance already placed (corner cells lie on two borders)
+         */
+        private static int addNode(int cell, int partner, int[] nodeCells, int[] partnerCells, int nodeCount) {
+            for (int i = 0; i < nodeCount; i++) {
+                if (nodeCells[i] == cell) {
+                    partnerCells[i * 2 + 1] = partner;
+                    return nodeCount;
+                }
+            }
+
+            nodeCells[nodeCount] = cell;
+            partnerCells[nodeCount * 2] = partner;
+            return nodeCount + 1;
+        }
+    }
+
+    /*
+     * Builds a range of clusters, splitting it in halves
+     */
+    @SuppressWarnings("serial")                 // never serialized
+    private static class BuildClusters extends RecursiveAction {
+        private final ClusterGraph graph;
+        private final int from, to;
+
+        BuildClusters(ClusterGraph graph, int from, int to) {
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                GridSearch gridSearch = new GridSearch();
+                for (int cluster = from; cluster < to; cluster++) {
+                    graph.clusters[cluster] = graph.buildCluster(cluster, gridSearch);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new BuildClusters(graph, from, middle), new BuildClusters(graph, middle, to));
+        }
+    }
+
+
+    /*
+     * A* node state of a thread on the abstract graph, sized to the largest graph searched and reused across queries.
+     * The start and the goal are two extra nodes, linked to the entrances of their clusters
+     */
+    private static class AbstractSearch {
+        private final GridSearch gridSearch = new GridSearch();       // cluster searches
+
+        // NODES (by abstract node ID)
+        private int[] costs = new int[0];
+        private int[] marks = new int[0];                   // generation: open, generation + 1: closed
+        private int[] parents = new int[0];
+        private int generation = 0;
+        private final NodeHeap open = new NodeHeap();
+
+        // COSTS BETWEEN THE START / GOAL AND THE ENTRANCES OF THEIR CLUSTERS
+        private final int[] startCosts = new int[MAX_CLUSTER_NODES];
+        private final int[] goalCosts = new int[MAX_CLUSTER_NODES];
+        private ClusterGraph goalCostsGraph;                // goal costs are kept for the next queries to the same goal
+        private int goalCostsCell = -1;
+
+        // SEARCH INPUT
+        private ClusterGraph graph;
+        private int startNode, goalNode, startCell, goalCell, goalCol, goalRow, heuristicScale;
+
+
+        boolean search(NavigationGrid grid, ClusterGraph graph, int start, int goal, HierarchicalPath path) {
+            this.graph = graph;
+            int startCluster = clusterOf(grid, start);
+            int goalCluster = clusterOf(grid, goal);
+            Cluster startEntrances = graph.clusters[startCluster];
+            Cluster goalEntrances = graph.clusters[goalCluster];
+
+            // Connect the start and the goal to the entrances of their clusters
+            setClusterBounds(gridSearch, grid, startCluster);
+            gridSearch.flood(grid, start, graph.footprint, false);
+            for (int i = 0; i < startEntrances.size(); i++) {
+                startCosts[i] = gridSearch.getFloodCost(grid, startEntrances.nodeCells()[i]);
+            }
+            int directCost = startCluster == goalCluster ? gridSearch.getFloodCost(grid, goal) : -1;
+
+            if (goalCostsGraph != graph || goalCostsCell != goal) {
+                setClusterBounds(gridSearch, grid, goalCluster);
+                gridSearch.flood(grid, goal, graph.footprint, true);
+                for (int i = 0; i < goalEntrances.size(); i++) {
+                    goalCosts[i] = gridSearch.getFloodCost(grid, goalEntrances.nodeCells()[i]);
+                }
+                goalCostsGraph = graph;
+                goalCostsCell = goal;
+            }
+
+            // A* on the abstract graph
+            startNode = graph.clusters.length * MAX_CLUSTER_NODES;
+            goalNode = startNode + 1;
+            startCell = start;
+            goalCell = goal;
+            goalCol = goal % grid.getCols();
+            goalRow = goal / grid.getCols();
+            heuristicScale = grid.getMinCost() * HEURISTIC_WEIGHT;
+            int openMark = nextGeneration(goalNode + 1);
+            int closedMark = openMark + 1;
+
+            open.clear(goalNode + 1);
+            costs[startNode] = 0;
+            marks[startNode] = openMark;
+            open.push(heuristic(start, grid), 0, startNode);
+
+            while (!open.isEmpty()) {
+                int node = open.pop();
+                marks[node] = closedMark;
+                if (node == goalNode) {
+                    buildPath(path);
+                    return true;
+                }
+
+                if (node == startNode) {
+                    for (int i = 0; i < startEntrances.size(); i++) {
+                        if (startCosts[i] >= 0) relax(grid, node, startCluster * MAX_CLUSTER_NODES + i, startCosts[i], openMark);
+                    }
+                    if (directCost >= 0) relax(grid, node, goalNode, directCost, openMark);
+                    continue;
+                }
+
+                int cluster = node / MAX_CLUSTER_NODES;
+                int index = node % MAX_CLUSTER_NODES;
+                Cluster entrances = graph.clusters[cluster];
+                int size = entrances.size();
+
+                // Entrances of the same cluster
+                for (int j = 0; j < size; j++) {
+                    int cost = entrances.intraCosts()[index * size + j];
+                    if (j != index && cost >= 0) relax(grid, node, cluster * MAX_CLUSTER_NODES + j, cost, openMark);
+                }
+
+                // Entrances across the borders
+                for (int k = 0; k < 2; k++) {
+                    int partner = entrances.partnerCells()[index * 2 + k];
+                    if (partner < 0) continue;
+
+                    int partnerCluster = clusterOf(grid, partner);
+                    int partnerIndex = graph.clusters[partnerCluster].indexOf(partner);
+                    if (partnerIndex >= 0) {
+                        relax(grid, node, partnerCluster * MAX_CLUSTER_NODES + partnerIndex,
+                                grid.getCostUnchecked(partner) * Pathfinder.ORTHOGONAL_STEP, openMark);
+                    }
+                }
+
+                if (cluster == goalCluster && goalCosts[index] >= 0) relax(grid, node, goalNode, goalCosts[index], openMark);
+            }
+            return false;
+        }
+
+        private void relax(NavigationGrid grid, int node, int next, int edgeCost, int openMark) {
+            if (marks[next] == openMark + 1) return;
+
+            int nextCost = costs[node] + edgeCost;
+            boolean isOpen = marks[next] == openMark;
+            if (isOpen && costs[next] <= nextCost) return;
+
+            costs[next] = nextCost;
+            marks[next] = openMark;
+            parents[next] = node;
+            int f = nextCost + heuristic(cellOf(next), grid);
+            if (isOpen) open.decrease(f, nextCost, next);
+            else open.push(f, nextCost, next);
+        }
+
+        private int heuristic(int cell, NavigationGrid grid) {
+            return GridSearch.heuristic(cell % grid.getCols(), cell / grid.getCols(), goalCol, goalRow, heuristicScale);
+        }
+
+        private int cellOf(int node) {
+            if (node == startNode) return startCell;
+            if (node == goalNode) return goalCell;
+            return graph.clusters[node / MAX_CLUSTER_NODES].nodeCells()[node % MAX_CLUSTER_NODES];
+        }
+
+        /*
+         * Writes the waypoints by following the parents back from the goal, skipping repeated cells
+         * (the start or the goal may be an entrance)
+         */
+        private void buildPath(HierarchicalPath path) {
+            int length = 1;
+            for (int node = goalNode; node != startNode; node = parents[node]) length++;
+            path.ensureCapacity(length);
+
+            int count = 0;
+            for (int node = goalNode; ; node = parents[node]) {
+                int cell = cellOf(node);
+                if (count == 0 || path.waypoints[count - 1] != cell) path.waypoints[count++] = cell;
+                if (node == startNode) break;
+            }
+
+            for (int i = 0, j = count - 1; i < j; i++, j--) {
+                int cell = path.waypoints[i];
+                path.waypoints[i] = path.waypoints[j];
+                path.waypoints[j] = cell;
+            }
+            path.length = count;
+        }
+
+        /*
+         * Starts a new search: grows the node arrays to the graph and moves to the next generation
+         */
+        private int nextGeneration(int nodeCount) {
+            if (costs.length < nodeCount) {
+                costs = new int[nodeCount];
+                marks = new int[nodeCount];
+                parents = new int[nodeCount];
+                generation = 0;
+            }
+
+            generation += 2;
+            if (generation < 0) {
+                Arrays.fill(marks, 0);
+                generation = 2;
+            }
+            return generation;
+        }
+    }
+}
@@ -1,25 +1,61 @@
 package game_logic;
 
+import tile.FogOfWar;
+import tile.MapHotReloader;
+
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class KeyHandler extends KeyAdapter {
 
+    // SAVE FILES
+    private static final Path FOG_SAVE_PATH = Path.of("saves", "fog.dat");
+
     private final GamePanel gamePanel;
 
     // KEY FLAGS
-    private boolean upPressed, downPressed, leftPressed, rightPressed;
+    private final DirectionKeys[] playerKeys = new DirectionKeys[GamePanel.MAX_PLAYERS];
     private boolean enterPressed = false;
     private boolean debugMode = false;
 
+    // KEY MAPPING (split: player 1 moves with WASD, player 2 with arrow keys)
+    private boolean splitKeyMapping = false;
+
+    /*
+     * Directional keys pressed state of a single player
+     */
+    private static class DirectionKeys {
+        private boolean upPressed, downPressed, leftPressed, rightPressed;
+
+        private void reset() {
+            upPressed = false;
+            downPressed = false;
+            leftPressed = false;
+            rightPressed = false;
+        }
+    }
+
     public KeyHandler(GamePanel gamePanel) {
         this.gamePanel = gamePanel;
+
+        for (int i = 0; i < playerKeys.length; i++) {
+            playerKeys[i] = new DirectionKeys();
+        }
     }
 
     @Override
     public void keyPressed(KeyEvent e) {
         int code = e.getKeyCode();
 
+        // Capture keys work in every game state
+        if (handleCaptureInput(code)) {
+            gamePanel.requestRedraw();
+            return;
+        }
+
         GamePanel.GameState currentState = gamePanel.getGameState();
         UI ui = gamePanel.getUi();
 
@@ -28,7 +64,32 @@ public class KeyHandler extends KeyAdapter {
             case PLAYING, PAUSED -> { handleGameInput(code, currentState); }
             case OPTIONS -> { handleOptionsInput(code, ui); }
             case ENDING -> { handleEndingInput(code); }
+            case EDITING -> { handleEditorInput(code, e.isControlDown()); }
         }
+
+        // Input may change what is on screen (menus are redrawn only on demand)
+        gamePanel.requestRedraw();
+    }
+
+    /*
+     * Handles screenshot and recording input
+     * @param code The code of the pressed key
+     * @return true if the key was a capture key, false otherwise
+     */
+    private boolean handleCaptureInput(int code) {
+        FrameRecorder recorder = gamePanel.getFrameRecorder();
+
+        switch (code) {
+            // Take a screenshot when F12 key is pressed
+            case KeyEvent.VK_F12 -> recorder.requestScreenshot();
+
+            // Start/stop recording when F11 (PNG sequence) or F10 (MJPEG) key is pressed
+            case KeyEvent.VK_F11 -> recorder.toggleRecording(FrameRecorder.Format.PNG_SEQUENCE);
+            case KeyEvent.VK_F10 -> recorder.toggleRecording(FrameRecorder.Format.MJPEG);
+
+            default -> { return false; }
+        }
+        return true;
     }
 
     /*
@@ -101,9 +162,37 @@ public class KeyHandler extends KeyAdapter {
             // Refresh game world map when K key is pressed
             case KeyEvent.VK_K -> {
                 System.out.println("Reloading map...");
-                gamePanel.getTileManager().loadTileMap("res/maps/world01.txt");
+                gamePanel.getTileManager().loadTileMap(gamePanel.getTileManager().getMapPath());
+            }
+
+            // Enable/disable map hot reload (development mode) when F6 key is pressed
+            case KeyEvent.VK_F6 -> {
+                MapHotReloader hotReloader = gamePanel.getMapHotReloader();
+                if (hotReloader.isRunning()) {
+                    hotReloader.stop();
+                } else {
+                    hotReloader.start();
+                }
+            }
+
+            // Open map editor when F2 key is pressed
+            case KeyEvent.VK_F2 -> {
+                if (currentState == GamePanel.GameState.PLAYING) {
+                    resetAllKeys();
+                    gamePanel.getMapEditor().open();
+                }
             }
 
+            // Enable/disable fog of war when F key is pressed
+            case KeyEvent.VK_F -> {
+                FogOfWar fog = gamePanel.getFogOfWar();
+                fog.setEnabled(!fog.isEnabled());
+            }
+
+            // Save/load explored tiles when F5/F9 key is pressed
+            case KeyEvent.VK_F5 -> saveFogOfWar();
+            case KeyEvent.VK_F9 -> loadFogOfWar();
+
             // Open/Close option menu when Esc key is pressed
             case KeyEvent.VK_ESCAPE -> {
                 gamePanel.setGameState(GamePanel.GameState.OPTIONS);
@@ -111,6 +200,72 @@ public class KeyHandler extends KeyAdapter {
         }
     }
 
+    /*
+     * Handles map editor input (EDITING game state). Direction keys pan the editor camera
+     * @param code The code of the pressed key
+     * @param controlDown true if the Ctrl key is down
+     */
+    private void handleEditorInput(int code, boolean controlDown) {
+        MapEditor editor = gamePanel.getMapEditor();
+
+        if (controlDown) {
+            switch (code) {
+                case KeyEvent.VK_Z -> editor.undo();
+                case KeyEvent.VK_Y -> editor.redo();
+                case KeyEvent.VK_S -> editor.save();
+            }
+            return;
+        }
+
+        updateDirKeyState(code, true);
+
+        switch (code) {
+            // Close map editor when F2 or Esc key is pressed
+            case KeyEvent.VK_F2, KeyEvent.VK_ESCAPE -> {
+                resetAllKeys();
+                editor.close();
+            }
+
+            // Select next tool when T key is pressed
+            case KeyEvent.VK_T -> editor.nextTool();
+
+            // Validate edited map when V key is pressed
+            case KeyEvent.VK_V -> editor.validate();
+
+            // Select terrain or object type with number keys
+            default -> {
+                if (code >= KeyEvent.VK_1 && code <= KeyEvent.VK_9) {
+                    editor.select(code - KeyEvent.VK_1);
+                }
+            }
+        }
+    }
+
+    /*
+     * Saves fog of war explored tiles to the save file
+     */
+    private void saveFogOfWar() {
+        try {
+            Files.createDirectories(FOG_SAVE_PATH.getParent());
+            gamePanel.getFogOfWar().save(FOG_SAVE_PATH);
+            System.out.println("Saved explored map to " + FOG_SAVE_PATH);
+        } catch (IOException e) {
+            System.err.println("Failed to save explored map:\n" + e.getMessage());
+        }
+    }
+
+    /*
+     * Loads fog of war explored tiles from the save file
+     */
+    private void loadFogOfWar() {
+        try {
+            gamePanel.getFogOfWar().load(FOG_SAVE_PATH);
+            System.out.println("Loaded explored map from " + FOG_SAVE_PATH);
+        } catch (IOException e) {
+            System.err.println("Failed to load explored map:\n" + e.getMessage());
+        }
+    }
+
     /*
      * Handles input in the options state
      * @param code The code of the pressed key
@@ -179,22 +334,40 @@ public class KeyHandler extends KeyAdapter {
     @Override
     public void keyReleased(KeyEvent e) {
         updateDirKeyState(e.getKeyCode(), false);
+        gamePanel.requestRedraw();
     }
 
     /**
-     * Updates the key press state for directional keys (WASD / directional arrows)
+     * Updates the key press state for directional keys (WASD / directional arrows).
+     * With split key mapping arrow keys are routed to the second player
      * @param keyCode the key code of the key event
      * @param isPressed true if the key is pressed, false if released
      */
     private void updateDirKeyState(int keyCode, boolean isPressed) {
+        DirectionKeys wasdKeys = playerKeys[0];
+        DirectionKeys arrowKeys = playerKeys[splitKeyMapping ? 1 : 0];
+
         switch (keyCode) {
-            case KeyEvent.VK_W, KeyEvent.VK_UP -> upPressed = isPressed;
-            case KeyEvent.VK_S, KeyEvent.VK_DOWN  -> downPressed = isPressed;
-            case KeyEvent.VK_A, KeyEvent.VK_LEFT -> leftPressed = isPressed;
-            case KeyEvent.VK_D, KeyEvent.VK_RIGHT -> rightPressed = isPressed;
+            case KeyEvent.VK_W -> wasdKeys.upPressed = isPressed;
+            case KeyEvent.VK_S -> wasdKeys.downPressed = isPressed;
+            case KeyEvent.VK_A -> wasdKeys.leftPressed = isPressed;
+            case KeyEvent.VK_D -> wasdKeys.rightPressed = isPressed;
+            case KeyEvent.VK_UP -> arrowKeys.upPressed = isPressed;
+            case KeyEvent.VK_DOWN  -> arrowKeys.downPressed = isPressed;
+            case KeyEvent.VK_LEFT -> arrowKeys.leftPressed = isPressed;
+            case KeyEvent.VK_RIGHT -> arrowKeys.rightPressed = isPressed;
         }
     }
 
+    /**
+     * Enables/disables split key mapping (player 1: WASD, player 2: arrow keys)
+     * @param splitKeyMapping true to route arrow keys to the second player
+     */
+    public void setSplitKeyMapping(boolean splitKeyMapping) {
+        this.splitKeyMapping = splitKeyMapping;
+        resetAllKeys();
+    }
+
     /**
      * Set enter key pressed state to false
      */
@@ -206,19 +379,18 @@ public class KeyHandler extends KeyAdapter {
      * Set all keys pressed state to false
      */
     public void resetAllKeys() {
-        upPressed = false;
-        downPressed = false;
-        leftPressed = false;
-        rightPressed = false;
+        for (DirectionKeys keys : playerKeys) {
+            keys.reset();
+        }
         enterPressed = false;
     }
 
     /* --------------- [GETTER METHODS] --------------- */
 
-    public boolean isUpPressed() { return upPressed; }
-    public boolean isDownPressed() { return downPressed; }
-    public boolean isLeftPressed() { return leftPressed; }
-    public boolean isRightPressed() { return rightPressed; }
+    public boolean isUpPressed(int playerIndex) { return playerKeys[playerIndex].upPressed; }
+    public boolean isDownPressed(int playerIndex) { return playerKeys[playerIndex].downPressed; }
+    public boolean isLeftPressed(int playerIndex) { return playerKeys[playerIndex].leftPressed; }
+    public boolean isRightPressed(int playerIndex) { return playerKeys[playerIndex].rightPressed; }
     public boolean isEnterPressed() { return enterPressed; }
     public boolean isDebugModeOn() {return debugMode;}
 
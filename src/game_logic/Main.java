@@ -1,6 +1,8 @@
 package game_logic;
 
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 public class Main {
 
@@ -12,6 +14,12 @@ public class Main {
 
         GamePanel gamePanel = new GamePanel();
         window.add(gamePanel);
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                gamePanel.shutdown();           // runs before EXIT_ON_CLOSE exits
+            }
+        });
 
         window.pack();                  // to fit layout of gamePanel
 
@@ -0,0 +1,633 @@
+package game_logic;
+
+import entity.Player;
+import object.GameObject;
+import tile.Autotiler;
+import tile.BinaryMapFormat;
+import tile.MapData;
+import tile.MapObject;
+import tile.MapValidator;
+import tile.Terrain;
+import tile.TileChange;
+import tile.TileManager;
+
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-game map editor (EDITING game state, toggled with F2 while playing).
+ * Paints terrain with the mouse (edges resolved by the Autotiler), flood-fills terrain regions,
+ * places, moves and removes game objects, with undo/redo, and saves the edited map to its compiled file
+ * (res/maps/*.jtm, the Tiled sources in maps-src are not updated), and checks it with the MapValidator.
+ * Every edit goes through TileManager.setTiles, so only the changed cells attributes and their render chunks are rebuilt.
+ * Mouse input arrives on the Swing thread and is queued, edits are applied by the game thread between ticks
+ * (see MapHotReloader)
+ * @author LC
+ */
+public class MapEditor extends MouseAdapter {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // EDITING
+    private static final int MAX_UNDO_EDITS = 100;
+    private static final int MAX_FILL_CELLS = 1 << 16;
+    private static final int PAN_SPEED = 12;                                    // camera pixels per tick
+
+    // SAVING
+    private static final Path MAP_SOURCE_DIR = Path.of("res");                  // relative to working dir
+
+    // DRAWING
+    private static final Color CURSOR_COLOR = Color.WHITE;
+    private static final Stroke CURSOR_STROKE = new BasicStroke(2);
+    private static final Color HUD_BACKGROUND_COLOR = new Color(0, 0, 0, 170);
+    private static final Color HUD_TEXT_COLOR = Color.WHITE;
+    private static final Font HUD_FONT = new Font("Monospaced", Font.BOLD, 14);
+    private static final int HUD_PADDING = 6;
+    private static final String HUD_HELP = "T tool  1-7 select  Ctrl+Z/Y undo/redo  Ctrl+S save  V validate  F2 exit";
+
+    /* ------------------------------------------- */
+
+    // TOOLS
+    public enum Tool {
+        BRUSH,              // paints the selected terrain under the mouse
+        FILL,               // fills the terrain region under the mouse with the selected terrain
+        OBJECTS             // places (left), drags (left) and removes (right) objects
+    }
+
+    // A terrain change of a cell and a move of an object (null position: not in the map)
+    private record TerrainChange(int col, int row, Terrain oldTerrain, Terrain newTerrain) {}
+    private record ObjectChange(GameObject object, Point oldPosition, Point newPosition) {}
+
+    // An undoable edit (one mouse stroke): changes are undone in reverse order
+    private static class Edit {
+        final List<TerrainChange> terrainChanges = new ArrayList<>();
+        final List<TileChange> oldTiles = new ArrayList<>();
+        final List<TileChange> newTiles = new ArrayList<>();
+        final List<ObjectChange> objectChanges = new ArrayList<>();
+
+        boolean isEmpty() {
+            return terrainChanges.isEmpty() && newTiles.isEmpty() && objectChanges.isEmpty();
+        }
+    }
+
+    private final GamePanel gamePanel;
+
+    // EDITED MAP (terrain and edit history are dropped when the map changes)
+    private MapData editedMap;
+    private Autotiler autotiler;
+    private final Deque<Edit> undoEdits = new ArrayDeque<>();
+    private final Deque<Edit> redoEdits = new ArrayDeque<>();
+    private final MapValidator validator = new MapValidator(TileManager.getSolidTiles(),
+            Player.COLLISION_BOX_WIDTH, Player.COLLISION_BOX_HEIGHT);
+
+    // SELECTION
+    private Tool tool = Tool.BRUSH;
+    private Terrain terrain = Terrain.PATH;
+    private int objectTypeIndex = 0;
+
+    // CURRENT STROKE (from mouse press to release)
+    private Edit stroke;
+    private int lastCol, lastRow;
+    private GameObject draggedObject;
+    private Point draggedFrom;
+
+    // CAMERA (world position of the top-left corner)
+    private int cameraX, cameraY;
+
+    // INPUT WAITING FOR THE GAME THREAD
+    private final ConcurrentLinkedQueue<Runnable> pendingInput = new ConcurrentLinkedQueue<>();
+    private volatile int mouseX = -1, mouseY = -1;
+
+
+    public MapEditor(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+    }
+
+    /**
+     * Opens the editor (EDITING game state), with the camera where the first player is
+     */
+    public void open() {
+        Camera camera = gamePanel.getCameras()[0];
+        Player player = gamePanel.getPlayer();
+        cameraX = player.getWorldX() - (camera.getWidth() / 2 - GamePanel.TILE_SIZE / 2);
+        cameraY = player.getWorldY() - (camera.getHeight() / 2 - GamePanel.TILE_SIZE / 2);
+
+        gamePanel.setGameState(GamePanel.GameState.EDITING);
+        System.out.println("Map editor opened");
+    }
+
+    /**
+     * Closes the editor, back to playing
+     */
+    public void close() {
+        submit(() -> {
+            endStroke();
+            gamePanel.setGameState(GamePanel.GameState.PLAYING);
+            System.out.println("Map editor closed");
+        });
+    }
+
+    /**
+     * Applies queued input and pans the camera. Must be called by the game thread while editing
+     */
+    public void update() {
+        TileManager tileManager = gamePanel.getTileManager();
+        if (tileManager.getMapData() != editedMap) {
+            editedMap = tileManager.getMapData();
+            autotiler = new Autotiler(tileManager);
+            undoEdits.clear();
+            redoEdits.clear();
+            stroke = null;
+            draggedObject = null;
+        }
+
+        // Pan with any player direction keys
+        KeyHandler keyHandler = gamePanel.getGameKeyHandler();
+        for (int i = 0; i < GamePanel.MAX_PLAYERS; i++) {
+            if (keyHandler.isUpPressed(i)) cameraY -= PAN_SPEED;
+            if (keyHandler.isDownPressed(i)) cameraY += PAN_SPEED;
+            if (keyHandler.isLeftPressed(i)) cameraX -= PAN_SPEED;
+            if (keyHandler.isRightPressed(i)) cameraX += PAN_SPEED;
+        }
+
+        Runnable input;
+        while ((input = pendingInput.poll()) != null) {
+            input.run();
+        }
+    }
+
+    /*
+     * Queues input for the game thread and wakes it up
+     */
+    private void submit(Runnable input) {
+        pendingInput.add(input);
+        gamePanel.requestRedraw();
+    }
+
+
+    /* --------------- [MOUSE INPUT] --------------- */
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        if (gamePanel.getGameState() != GamePanel.GameState.EDITING) return;
+
+        int x = e.getX();
+        int y = e.getY();
+        boolean remove = e.getButton() == MouseEvent.BUTTON3;
+        submit(() -> onPress(toCol(x), toRow(y), remove));
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        mouseMoved(e);
+        if (gamePanel.getGameState() != GamePanel.GameState.EDITING) return;
+
+        int x = e.getX();
+        int y = e.getY();
+        submit(() -> onDrag(toCol(x), toRow(y)));
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        if (gamePanel.getGameState() != GamePanel.GameState.EDITING) return;
+        submit(this::endStroke);
+    }
+
+    @Override
+    public void mouseMoved(MouseEvent e) {
+        mouseX = e.getX();
+        mouseY = e.getY();
+        if (gamePanel.getGameState() == GamePanel.GameState.EDITING) {
+            gamePanel.requestRedraw();
+        }
+    }
+
+    /* --------------------------------------------- */
+
+
+    /*
+     * Starts a stroke at the given cell
+     */
+    private void onPress(int col, int row, boolean remove) {
+        endStroke();
+        if (!gamePanel.getTileManager().getChunkStore().isInsideWorld(col, row)) return;
+
+        stroke = new Edit();
+        lastCol = col;
+        lastRow = row;
+
+        switch (tool) {
+            case BRUSH -> paint(new int[] {cellIndex(col, row)}, 1);
+            case FILL -> fill(col, row);
+            case OBJECTS -> {
+                GameObject gameObj = getObjectAt(col, row);
+                if (remove) {
+                    if (gameObj != null) moveObject(gameObj, null);
+                } else if (gameObj != null) {
+                    draggedObject = gameObj;
+                    draggedFrom = new Point(gameObj.getWorldX(), gameObj.getWorldY());
+                } else {
+                    placeObject(col, row);
+                }
+            }
+        }
+    }
+
+    /*
+     * Continues the current stroke to the given cell
+     */
+    private void onDrag(int col, int row) {
+        if (stroke == null || (col == lastCol && row == lastRow)) return;
+        if (!gamePanel.getTileManager().getChunkStore().isInsideWorld(col, row)) return;
+
+        if (tool == Tool.BRUSH) {
+            // Paint every cell on the line from the last cell (fast drags skip cells)
+            int steps = Math.max(Math.abs(col - lastCol), Math.abs(row - lastRow));
+            int[] cells = new int[steps];
+            for (int step = 1; step <= steps; step++) {
+                int x = lastCol + Math.round((col - lastCol) * step / (float) steps);
+                int y = lastRow + Math.round((row - lastRow) * step / (float) steps);
+                cells[step - 1] = cellIndex(x, y);
+            }
+            paint(cells, steps);
+        } else if (tool == Tool.OBJECTS && draggedObject != null && getObjectAt(col, row) == null) {
+            setObjectPosition(draggedObject, new Point(col * GamePanel.TILE_SIZE, row * GamePanel.TILE_SIZE));
+        }
+
+        lastCol = col;
+        lastRow = row;
+    }
+
+    /*
+     * Ends the current stroke, recording it as one undoable edit
+     */
+    private void endStroke() {
+        if (stroke == null) return;
+
+        if (draggedObject != null) {
+            Point draggedTo = new Point(draggedObject.getWorldX(), draggedObject.getWorldY());
+            if (!draggedTo.equals(draggedFrom)) {
+                stroke.objectChanges.add(new ObjectChange(draggedObject, draggedFrom, draggedTo));
+            }
+            draggedObject = null;
+        }
+
+        if (!stroke.isEmpty()) {
+            undoEdits.push(stroke);
+            if (undoEdits.size() > MAX_UNDO_EDITS) undoEdits.removeLast();
+            redoEdits.clear();
+        }
+        stroke = null;
+    }
+
+    /*
+     * Sets the selected terrain on the given cells, resolving their edges and the ones of their neighbours
+     * @param cells The cell indexes (overwritten with the cells actually changed)
+     * @param count The number of cells
+     */
+    private void paint(int[] cells, int count) {
+        int changed = 0;
+        for (int i = 0; i < count; i++) {
+            int col = cells[i] % editedMap.getCols();
+            int row = cells[i] / editedMap.getCols();
+            Terrain oldTerrain = autotiler.getTerrain(col, row);
+            if (oldTerrain == terrain) continue;
+
+            stroke.terrainChanges.add(new TerrainChange(col, row, oldTerrain, terrain));
+            cells[changed++] = cells[i];
+        }
+        if (changed == 0) return;
+
+        applyTiles(autotiler.setTerrain(cells, changed, terrain));
+    }
+
+    /*
+     * Fills the region of same terrain cells (4-connected) containing the given cell with the selected terrain
+     */
+    private void fill(int col, int row) {
+        Terrain target = autotiler.getTerrain(col, row);
+        if (target == terrain) return;
+
+        long start = System.nanoTime();
+        int cols = editedMap.getCols();
+        int rows = editedMap.getRows();
+        int[] cells = new int[MAX_FILL_CELLS];
+        BitSet visited = new BitSet();
+        int count = 0;
+
+        // Breadth-first search, the cells array is the queue
+        cells[count++] = cellIndex(col, row);
+        visited.set(cells[0]);
+        for (int head = 0; head < count; head++) {
+            int x = cells[head] % cols;
+            int y = cells[head] / cols;
+            int[][] neighbours = {{x, y - 1}, {x + 1, y}, {x, y + 1}, {x - 1, y}};
+
+            for (int[] neighbour : neighbours) {
+                int nx = neighbour[0];
+                int ny = neighbour[1];
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows) continue;
+
+                int cell = cellIndex(nx, ny);
+                if (visited.get(cell) || autotiler.getTerrain(nx, ny) != target) continue;
+                if (count == MAX_FILL_CELLS) {
+                    System.err.println("Fill area too large (more than " + MAX_FILL_CELLS + " tiles)");
+                    return;
+                }
+                visited.set(cell);
+                cells[count++] = cell;
+            }
+        }
+
+        paint(cells, count);
+        System.out.printf("Filled %d tiles with %s (%.2f ms)%n", count, terrain, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /*
+     * Applies ground tile changes, recording the replaced tiles in the current stroke
+     */
+    private void applyTiles(List<TileChange> changes) {
+        TileManager tileManager = gamePanel.getTileManager();
+        for (TileChange change : changes) {
+            int oldTile = tileManager.getTileUnchecked(change.getLayerType(), change.getWorldCol(), change.getWorldRow());
+            stroke.oldTiles.add(new TileChange(change.getLayerType(), change.getWorldCol(), change.getWorldRow(), oldTile));
+        }
+
+        tileManager.setTiles(changes);
+        stroke.newTiles.addAll(changes);
+    }
+
+    /*
+     * Places a new object of the selected type at the given cell
+     */
+    private void placeObject(int col, int row) {
+        GameObject gameObj = gamePanel.getAssetSetter().createGameObject(AssetSetter.OBJECT_TYPES.get(objectTypeIndex));
+        if (gameObj == null) return;
+
+        moveObject(gameObj, new Point(col * GamePanel.TILE_SIZE, row * GamePanel.TILE_SIZE));
+    }
+
+    /*
+     * Moves an object to the given world position (null removes it), recording the move in the current stroke
+     */
+    private void moveObject(GameObject gameObj, Point position) {
+        boolean inMap = gamePanel.getGameObjects().contains(gameObj);
+        Point oldPosition = inMap ? new Point(gameObj.getWorldX(), gameObj.getWorldY()) : null;
+
+        setObjectPosition(gameObj, position);
+        stroke.objectChanges.add(new ObjectChange(gameObj, oldPosition, position));
+    }
+
+    private void setObjectPosition(GameObject gameObj, Point position) {
+        // Edited objects no longer follow their placement chunk (see ObjectIndex)
+        gamePanel.getAssetSetter().getObjectIndex().detach(gameObj);
+
+        ObjectGrid gameObjects = gamePanel.getGameObjects();
+        if (position == null) {
+            gameObjects.remove(gameObj);
+            return;
+        }
+
+        gameObjects.place(gameObj, position.x, position.y);
+    }
+
+    /**
+     * Undoes the last edit
+     */
+    public void undo() {
+        submit(() -> {
+            endStroke();
+            Edit edit = undoEdits.poll();
+            if (edit == null) return;
+
+            apply(edit, true);
+            redoEdits.push(edit);
+        });
+    }
+
+    /**
+     * Redoes the last undone edit
+     */
+    public void redo() {
+        submit(() -> {
+            endStroke();
+            Edit edit = redoEdits.poll();
+            if (edit == null) return;
+
+            apply(edit, false);
+            undoEdits.push(edit);
+        });
+    }
+
+    /*
+     * Applies the old (undo) or new (redo) state of an edit. Undo walks the changes backwards,
+     * so cells changed more than once in a stroke end up with their first old value
+     */
+    private void apply(Edit edit, boolean undo) {
+        for (TerrainChange change : undo ? edit.terrainChanges.reversed() : edit.terrainChanges) {
+            autotiler.putTerrain(change.col(), change.row(), undo ? change.oldTerrain() : change.newTerrain());
+        }
+
+        gamePanel.getTileManager().setTiles(undo ? edit.oldTiles.reversed() : edit.newTiles);
+
+        for (ObjectChange change : undo ? edit.objectChanges.reversed() : edit.objectChanges) {
+            setObjectPosition(change.object(), undo ? change.oldPosition() : change.newPosition());
+        }
+    }
+
+    /**
+     * Saves the edited map (tiles and the objects currently in the map) to its compiled file in res/maps
+     */
+    public void save() {
+        submit(() -> {
+            endStroke();
+            TileManager tileManager = gamePanel.getTileManager();
+
+            // "maps/world01.jtm" -> "res/maps/world01.jtm"
+            String mapPath = tileManager.getMapPath();
+            if (mapPath == null || mapPath.lastIndexOf('.') == -1) {
+                System.err.println("Map save unavailable, the loaded map has no source file");
+                return;
+            }
+            Path path = MAP_SOURCE_DIR.resolve(mapPath.substring(0, mapPath.lastIndexOf('.')) + BinaryMapFormat.FILE_EXTENSION);
+
+            long start = System.nanoTime();
+            MapData mapData = buildMapData();
+            try {
+                Files.createDirectories(path.getParent());
+                BinaryMapFormat.write(mapData, path);
+                System.out.printf("Saved map to %s (%.0f ms)%n", path, (System.nanoTime() - start) / 1_000_000.0);
+            } catch (IOException e) {
+                System.err.println("Error saving map:\n" + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Validates the edited map from the players tiles (see MapValidator) and prints the report:
+     * unreachable objects, objects sharing a tile and keys left to collect
+     */
+    public void validate() {
+        submit(() -> {
+            endStroke();
+            TileManager tileManager = gamePanel.getTileManager();
+
+            List<Point> spawns = new ArrayList<>();
+            for (Player p : gamePanel.getPlayers()) {
+                spawns.add(new Point((p.getWorldX() + p.getSolidArea().x()) / GamePanel.TILE_SIZE,
+                        (p.getWorldY() + p.getSolidArea().y()) / GamePanel.TILE_SIZE));
+            }
+
+            MapValidator.Report report = validator.validate(buildMapData(), spawns);
+            report.print(tileManager.getMapPath());
+
+            int missingKeys = Player.REQUIRED_KEYS - gamePanel.getTeamKeys();
+            System.out.println("  " + report.getReachableKeys() + " reachable keys in this map, "
+                    + Math.max(0, missingKeys) + " left to collect");
+        });
+    }
+
+    /*
+     * Builds the edited map: tiles, placements the game does not turn into objects (doors),
+     * placements of the inactive chunks and the objects currently in the map
+     */
+    private MapData buildMapData() {
+        TileManager tileManager = gamePanel.getTileManager();
+        MapData mapData = tileManager.getChunkStore().snapshot();
+
+        // Doors and other placements the game does not turn into objects are kept as they are
+        for (MapObject mapObject : tileManager.getMapObjects()) {
+            if (!AssetSetter.OBJECT_TYPES.contains(mapObject.getType())) mapData.getObjects().add(mapObject);
+        }
+        mapData.getObjects().addAll(gamePanel.getAssetSetter().getObjectIndex().getInactivePlacements());
+        for (GameObject gameObj : gamePanel.getGameObjects()) {
+            String type = AssetSetter.getObjectType(gameObj);
+            if (type == null) continue;
+
+            mapData.getObjects().add(new MapObject(type,
+                    gameObj.getWorldX() / GamePanel.TILE_SIZE, gameObj.getWorldY() / GamePanel.TILE_SIZE));
+        }
+        return mapData;
+    }
+
+    /**
+     * Selects the next tool
+     */
+    public void nextTool() {
+        submit(() -> {
+            endStroke();
+            tool = Tool.values()[(tool.ordinal() + 1) % Tool.values().length];
+        });
+    }
+
+    /**
+     * Selects the terrain (brush and fill tools) or the object type (objects tool) with the given index
+     * @param index The terrain index (see Terrain) or object type index (see AssetSetter.OBJECT_TYPES)
+     */
+    public void select(int index) {
+        submit(() -> {
+            if (tool == Tool.OBJECTS) {
+                if (index < AssetSetter.OBJECT_TYPES.size()) objectTypeIndex = index;
+            } else if (index < Terrain.values().length) {
+                terrain = Terrain.values()[index];
+            }
+        });
+    }
+
+    /**
+     * Returns the world position (in pixels) at the center of the editor view
+     * @return The view center
+     */
+    public Point getViewCenter() {
+        return new Point(cameraX + GamePanel.SCREEN_WIDTH / 2, cameraY + GamePanel.SCREEN_HEIGHT / 2);
+    }
+
+    /**
+     * Places the given camera on the editor camera position
+     * @param camera The camera viewing the edited map
+     */
+    public void positionCamera(Camera camera) {
+        camera.setWorldPosition(cameraX, cameraY);
+    }
+
+    /**
+     * Draws the cell under the mouse and the editor HUD (tool, selection, controls)
+     * @param g2 The Graphics2D context to draw on (whole screen)
+     */
+    public void draw(Graphics2D g2) {
+        Color originalColor = g2.getColor();
+        Font originalFont = g2.getFont();
+        Stroke originalStroke = g2.getStroke();
+
+        // CURSOR
+        if (mouseX >= 0 && mouseY >= 0) {
+            g2.setColor(CURSOR_COLOR);
+            g2.setStroke(CURSOR_STROKE);
+            g2.drawRect(toCol(mouseX) * GamePanel.TILE_SIZE - cameraX, toRow(mouseY) * GamePanel.TILE_SIZE - cameraY,
+                    GamePanel.TILE_SIZE, GamePanel.TILE_SIZE);
+        }
+
+        // HUD
+        String selection = tool == Tool.OBJECTS ? AssetSetter.OBJECT_TYPES.get(objectTypeIndex) : terrain.name();
+        String status = "EDITOR  " + tool + ": " + selection + "  undo " + undoEdits.size() + "/redo " + redoEdits.size();
+
+        g2.setFont(HUD_FONT);
+        FontMetrics metrics = g2.getFontMetrics();
+        int lineHeight = metrics.getHeight();
+        int width = Math.max(metrics.stringWidth(status), metrics.stringWidth(HUD_HELP)) + HUD_PADDING * 2;
+
+        g2.setColor(HUD_BACKGROUND_COLOR);
+        g2.fillRect(0, 0, width, lineHeight * 2 + HUD_PADDING * 2);
+        g2.setColor(HUD_TEXT_COLOR);
+        g2.drawString(status, HUD_PADDING, HUD_PADDING + metrics.getAscent());
+        g2.drawString(HUD_HELP, HUD_PADDING, HUD_PADDING + lineHeight + metrics.getAscent());
+
+        g2.setColor(originalColor);
+        g2.setFont(originalFont);
+        g2.setStroke(originalStroke);
+    }
+
+    /*
+     * Returns the object at the given cell, null if none
+     */
+    private GameObject getObjectAt(int col, int row) {
+        List<GameObject> candidates = new ArrayList<>();
+        gamePanel.getGameObjects().query(col * GamePanel.TILE_SIZE, row * GamePanel.TILE_SIZE,
+                GamePanel.TILE_SIZE, GamePanel.TILE_SIZE, candidates);
+
+        for (GameObject gameObj : candidates) {
+            if (gameObj.getWorldX() / GamePanel.TILE_SIZE == col && gameObj.getWorldY() / GamePanel.TILE_SIZE == row) {
+                return gameObj;
+            }
+        }
+        return null;
+    }
+
+    // Screen coordinates to world cell (the editor uses a single full screen camera)
+    private int toCol(int screenX) { return Math.floorDiv(cameraX + screenX, GamePanel.TILE_SIZE); }
+    private int toRow(int screenY) { return Math.floorDiv(cameraY + screenY, GamePanel.TILE_SIZE); }
+
+    private int cellIndex(int col, int row) {
+        return row * editedMap.getCols() + col;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public Tool getTool() { return tool; }
+    public Terrain getTerrain() { return terrain; }
+    public int getUndoCount() { return undoEdits.size(); }
+    public int getRedoCount() { return redoEdits.size(); }
+
+    /* ------------------------------------------------ */
+}
@@ -0,0 +1,118 @@
+package game_logic;
+
+import java.util.Arrays;
+
+/**
+ * Open set of the graph searches: indexed binary min-heap of nodes on primitive arrays.
+ * Nodes are ordered by f cost, then by larger cost from the start (nodes closer to the goal first).
+ * The heap position of each node is kept, so a cheaper path to an open node moves it up in place
+ * instead of adding it again: the heap never holds more than the open nodes
+ * @author LC
+ */
+class NodeHeap {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /* ------------------------------------------- */
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] nodes = new int[INITIAL_CAPACITY];
+    private int[] positions = new int[0];               // heap position of each open node
+    private int size = 0;
+
+
+    /**
+     * Empties the heap, growing the position array to the given number of nodes if needed
+     * @param nodeCount The number of nodes of the searched graph
+     */
+    void clear(int nodeCount) {
+        ensureNodeCapacity(nodeCount);
+        size = 0;
+    }
+
+    /**
+     * Grows the position array to the given number of nodes if needed, keeping the open nodes
+     * (graphs whose nodes are added during the search)
+     * @param nodeCount The number of nodes of the searched graph
+     */
+    void ensureNodeCapacity(int nodeCount) {
+        if (positions.length < nodeCount) positions = Arrays.copyOf(positions, nodeCount);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a node that is not in the heap
+     * @param f The estimated cost of the whole path through the node
+     * @param cost The cost from the start to the node
+     * @param node The node
+     */
+    void push(int f, int cost, int node) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+
+        siftUp(size++, key(f, cost), node);
+    }
+
+    /**
+     * Lowers the cost of a node in the heap
+     * @param f The new estimated cost of the whole path through the node
+     * @param cost The new cost from the start to the node
+     * @param node The node
+     */
+    void decrease(int f, int cost, int node) {
+        siftUp(positions[node], key(f, cost), node);
+    }
+
+    /**
+     * Removes the node with the lowest key
+     * @return The node
+     */
+    int pop() {
+        int top = nodes[0];
+        long key = keys[--size];
+        int node = nodes[size];
+
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (key <= keys[child]) break;
+            move(child, i);
+            i = child;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+        positions[node] = i;
+        return top;
+    }
+
+    private void siftUp(int i, long key, int node) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            move(parent, i);
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+        positions[node] = i;
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        nodes[to] = nodes[from];
+        positions[nodes[to]] = to;
+    }
+
+    private static long key(int f, int cost) {
+        return ((long) f << 32) | (~cost & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,325 @@
+package game_logic;
+
+import object.GameObject;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Game objects in the map, bucketed in a uniform spatial hash grid keyed by tile cell.
+ * An object is stored in every cell its bounds (drawn tile and solid area) touch, so area queries
+ * (collision, render culling) only visit the objects of the cells they overlap, whatever the object count.
+ * Cell buckets are found by open addressing on primitive cell keys, so queries allocate nothing.
+ * Queries hold a read lock and modifications a write lock: queries run concurrently with each other,
+ * and the renderer (EDT) can query while the game thread adds and removes objects.
+ * Objects keep their insertion order when iterated; iteration is not locked, so only the thread
+ * modifying the grid (the game thread) iterates it. Objects must be moved with place (not with
+ * GameObject.setWorldX/Y) while in the grid, so their cells stay up to date
+ * @author LC
+ */
+public class ObjectGrid extends AbstractCollection<GameObject> {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final int INITIAL_CELL_CAPACITY = 64;                        // power of two, grows at half load
+
+    /* ------------------------------------------- */
+
+    // OBJECTS (insertion ordered) AND THE CELLS THEY OCCUPY: {firstCol, firstRow, lastCol, lastRow}
+    private final LinkedHashMap<GameObject, int[]> objects = new LinkedHashMap<>();
+
+    // CELL BUCKETS (linear probing, null bucket: free slot, empty buckets are dropped)
+    private long[] cellKeys = new long[INITIAL_CELL_CAPACITY];
+    private List<GameObject>[] cellBuckets = newBuckets(INITIAL_CELL_CAPACITY);
+    private int cellCount = 0;
+
+    // QUERIES (read) VS MODIFICATIONS (write)
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+
+    /**
+     * Adds an object at its current world position
+     * @param gameObj The game object
+     * @return true if added, false if already in the grid
+     */
+    @Override
+    public boolean add(GameObject gameObj) {
+        lock.writeLock().lock();
+        try {
+            if (objects.containsKey(gameObj)) return false;
+
+            int[] cellRange = getCellRange(gameObj);
+            objects.put(gameObj, cellRange);
+            for (int row = cellRange[1]; row <= cellRange[3]; row++) {
+                for (int col = cellRange[0]; col <= cellRange[2]; col++) {
+                    getOrCreateBucket(cellKey(col, row)).add(gameObj);
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an object
+     * @param o The game object
+     * @return true if removed, false if not in the grid
+     */
+    @Override
+    public boolean remove(Object o) {
+        lock.writeLock().lock();
+        try {
+            int[] cellRange = objects.remove(o);
+            if (cellRange == null) return false;
+
+            removeFromCells(o, cellRange);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves an object to the given world position, adding it if not in the grid
+     * @param gameObj The game object
+     * @param worldX The new world x (in pixels)
+     * @param worldY The new world y (in pixels)
+     */
+    public void place(GameObject gameObj, int worldX, int worldY) {
+        lock.writeLock().lock();                    // reentrant: the move is seen by queries as a whole
+        try {
+            remove(gameObj);
+            gameObj.setWorldX(worldX);
+            gameObj.setWorldY(worldY);
+            add(gameObj);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the objects whose cells overlap the given world area to a buffer, each one once.
+     * The test is per cell: callers check the exact bounds. Allocates nothing once the buffer has grown
+     * @param worldX The area world x (in pixels)
+     * @param worldY The area world y (in pixels)
+     * @param width The area width (in pixels)
+     * @param height The area height (in pixels)
+     * @param result The buffer receiving the objects (not cleared)
+     * @return The number of objects appended
+     */
+    public int query(int worldX, int worldY, int width, int height, List<GameObject> result) {
+        if (width <= 0 || height <= 0) return 0;
+
+        int firstCol = Math.floorDiv(worldX, GamePanel.TILE_SIZE);
+        int firstRow = Math.floorDiv(worldY, GamePanel.TILE_SIZE);
+        int lastCol = Math.floorDiv(worldX + width - 1, GamePanel.TILE_SIZE);
+        int lastRow = Math.floorDiv(worldY + height - 1, GamePanel.TILE_SIZE);
+
+        int found = 0;
+        lock.readLock().lock();
+        try {
+            if (objects.isEmpty()) return 0;
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    int slot = findSlot(cellKey(col, row));
+                    if (slot < 0) continue;
+
+                    List<GameObject> bucket = cellBuckets[slot];
+                    for (int i = 0; i < bucket.size(); i++) {
+                        GameObject gameObj = bucket.get(i);
+                        int[] cellRange = objects.get(gameObj);
+                        if (cellRange == null) continue;
+
+                        // An object spanning several cells is reported from its first cell inside the area only
+                        if (Math.max(cellRange[0], firstCol) == col && Math.max(cellRange[1], firstRow) == row) {
+                            result.add(gameObj);
+                            found++;
+                        }
+                    }
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        lock.readLock().lock();
+        try {
+            return objects.containsKey(o);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            objects.clear();
+            Arrays.fill(cellBuckets, null);
+            cellCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return objects.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<GameObject> iterator() {
+        Iterator<Map.Entry<GameObject, int[]>> entries = objects.entrySet().iterator();
+
+        return new Iterator<>() {
+            private Map.Entry<GameObject, int[]> current;
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public GameObject next() {
+                current = entries.next();
+                return current.getKey();
+            }
+
+            @Override
+            public void remove() {
+                lock.writeLock().lock();
+                try {
+                    entries.remove();
+                    removeFromCells(current.getKey(), current.getValue());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    /*
+     * Removes an object from the buckets of the given cells
+     */
+    private void removeFromCells(Object gameObj, int[] cellRange) {
+        for (int row = cellRange[1]; row <= cellRange[3]; row++) {
+            for (int col = cellRange[0]; col <= cellRange[2]; col++) {
+                int slot = findSlot(cellKey(col, row));
+                cellBuckets[slot].remove(gameObj);
+                if (cellBuckets[slot].isEmpty()) removeSlot(slot);
+            }
+        }
+    }
+
+    /*
+     * Returns the slot of the given cell key, -1 if the cell has no bucket
+     */
+    private int findSlot(long key) {
+        int mask = cellKeys.length - 1;
+        for (int slot = hashSlot(key, mask); cellBuckets[slot] != null; slot = (slot + 1) & mask) {
+            if (cellKeys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    private List<GameObject> getOrCreateBucket(long key) {
+        int slot = findSlot(key);
+        if (slot >= 0) return cellBuckets[slot];
+
+        if ((cellCount + 1) * 2 > cellKeys.length) resize(cellKeys.length * 2);
+
+        int mask = cellKeys.length - 1;
+        slot = hashSlot(key, mask);
+        while (cellBuckets[slot] != null) slot = (slot + 1) & mask;
+
+        cellKeys[slot] = key;
+        cellBuckets[slot] = new ArrayList<>(1);
+        cellCount++;
+        return cellBuckets[slot];
+    }
+
+    /*
+     * Frees a slot, shifting back the following entries of its probe run so lookups never stop early
+     */
+    private void removeSlot(int slot) {
+        int mask = cellKeys.length - 1;
+        int hole = slot;
+        cellBuckets[hole] = null;
+        cellCount--;
+
+        for (int next = (hole + 1) & mask; cellBuckets[next] != null; next = (next + 1) & mask) {
+            // The entry may fill the hole if the hole lies between its home slot and its current slot
+            int home = hashSlot(cellKeys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                cellKeys[hole] = cellKeys[next];
+                cellBuckets[hole] = cellBuckets[next];
+                cellBuckets[next] = null;
+                hole = next;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = cellKeys;
+        List<GameObject>[] oldBuckets = cellBuckets;
+        cellKeys = new long[capacity];
+        cellBuckets = newBuckets(capacity);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldBuckets[i] == null) continue;
+
+            int slot = hashSlot(oldKeys[i], mask);
+            while (cellBuckets[slot] != null) slot = (slot + 1) & mask;
+            cellKeys[slot] = oldKeys[i];
+            cellBuckets[slot] = oldBuckets[i];
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<GameObject>[] newBuckets(int capacity) {
+        return (List<GameObject>[]) new List[capacity];
+    }
+
+    private static int hashSlot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;              // Fibonacci hashing: spreads neighbour cells
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /*
+     * Returns the cells touched by the object bounds: the drawn tile and the solid area
+     */
+    private static int[] getCellRange(GameObject gameObj) {
+        Aabb solidArea = gameObj.getSolidArea();
+        int left = gameObj.getWorldX() + Math.min(0, solidArea.x());
+        int top = gameObj.getWorldY() + Math.min(0, solidArea.y());
+        int right = gameObj.getWorldX() + Math.max(GamePanel.TILE_SIZE, solidArea.x() + solidArea.width());
+        int bottom = gameObj.getWorldY() + Math.max(GamePanel.TILE_SIZE, solidArea.y() + solidArea.height());
+
+        return new int[] {
+                Math.floorDiv(left, GamePanel.TILE_SIZE), Math.floorDiv(top, GamePanel.TILE_SIZE),
+                Math.floorDiv(right - 1, GamePanel.TILE_SIZE), Math.floorDiv(bottom - 1, GamePanel.TILE_SIZE)
+        };
+    }
+
+    private static long cellKey(int col, int row) {
+        return ((long) col << 32) | (row & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,248 @@
+package game_logic;
+
+import object.GameObject;
+import tile.ChunkStore;
+import tile.MapObject;
+import tile.TileManager;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object placements of a map, indexed by chunk (ChunkStore.CHUNK_SIZE x CHUNK_SIZE tiles).
+ * Game objects of a chunk are created when a viewer (player, editor camera) comes within ACTIVE_RADIUS chunks
+ * and released once every viewer is further than RELEASE_RADIUS, so off-screen placements only cost their entry.
+ * Placements are stored sorted by chunk (chunk i owns placements[chunkStarts[i]..chunkStarts[i + 1]]),
+ * built with a counting sort in linear time. Placements whose object left the map (picked up, removed or
+ * moved by the editor) are remembered, so released chunks come back without them
+ * @author LC
+ */
+public class ObjectIndex {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final int ACTIVE_RADIUS = 1;                                 // chunks active around each viewer
+    private static final int RELEASE_RADIUS = ACTIVE_RADIUS + 1;                // chunks kept around each viewer
+    private static final int CHUNK_PIXELS = ChunkStore.CHUNK_SIZE * GamePanel.TILE_SIZE;
+
+    /* ------------------------------------------- */
+
+    private final AssetSetter assetSetter;
+    private final Collection<GameObject> gameObjects;           // game objects in the map (see GamePanel)
+
+    // PLACEMENTS (sorted by chunk)
+    private final int chunkCols, chunkRows;
+    private final int[] chunkStarts;
+    private final MapObject[] placements;
+    private final BitSet removed = new BitSet();                // placements whose object left the map
+
+    // ACTIVE CHUNKS (game object of each placement of the chunk, null if removed)
+    private final Map<Integer, GameObject[]> activeChunks = new HashMap<>();
+
+    // LAST CHUNK OF EACH VIEWER (chunks are only activated and released on chunk change)
+    private int[] lastChunks = new int[0];
+
+
+    /**
+     * Indexes the object placements of a map (doors and unknown types are skipped)
+     * @param assetSetter The asset setter creating the game objects
+     * @param gameObjects The game objects in the map, active objects are added to and removed from it
+     * @param mapObjects The object placements of the map
+     * @param worldCols The map width (in tiles)
+     * @param worldRows The map height (in tiles)
+     */
+    public ObjectIndex(AssetSetter assetSetter, Collection<GameObject> gameObjects, List<MapObject> mapObjects,
+                       int worldCols, int worldRows) {
+        this.assetSetter = assetSetter;
+        this.gameObjects = gameObjects;
+        this.chunkCols = Math.max(1, (worldCols + ChunkStore.CHUNK_SIZE - 1) / ChunkStore.CHUNK_SIZE);
+        this.chunkRows = Math.max(1, (worldRows + ChunkStore.CHUNK_SIZE - 1) / ChunkStore.CHUNK_SIZE);
+
+        // COUNTING SORT (placement count per chunk, then chunk start offsets)
+        chunkStarts = new int[chunkCols * chunkRows + 1];
+        int[] chunkIndexes = new int[mapObjects.size()];
+        for (int i = 0; i < mapObjects.size(); i++) {
+            MapObject mapObject = mapObjects.get(i);
+            chunkIndexes[i] = -1;
+            if (mapObject.getType().equals(TileManager.DOOR_OBJECT_TYPE)) continue;      // see WorldManager
+
+            if (!AssetSetter.OBJECT_TYPES.contains(mapObject.getType())) {
+                System.err.println("Unknown map object type: " + mapObject.getType());
+                continue;
+            }
+            if (mapObject.getWorldCol() < 0 || mapObject.getWorldCol() >= worldCols
+                    || mapObject.getWorldRow() < 0 || mapObject.getWorldRow() >= worldRows) {
+                System.err.println("Map object outside the map: " + mapObject.getType()
+                        + " at (" + mapObject.getWorldCol() + "," + mapObject.getWorldRow() + ")");
+                continue;
+            }
+
+            chunkIndexes[i] = chunkIndex(mapObject.getWorldCol() / ChunkStore.CHUNK_SIZE,
+                    mapObject.getWorldRow() / ChunkStore.CHUNK_SIZE);
+            chunkStarts[chunkIndexes[i] + 1]++;
+        }
+        for (int chunk = 0; chunk < chunkCols * chunkRows; chunk++) {
+            chunkStarts[chunk + 1] += chunkStarts[chunk];
+        }
+
+        placements = new MapObject[chunkStarts[chunkCols * chunkRows]];
+        int[] nextSlots = new int[chunkCols * chunkRows];
+        System.arraycopy(chunkStarts, 0, nextSlots, 0, nextSlots.length);
+        for (int i = 0; i < mapObjects.size(); i++) {
+            if (chunkIndexes[i] != -1) placements[nextSlots[chunkIndexes[i]]++] = mapObjects.get(i);
+        }
+    }
+
+    /**
+     * Activates the chunks around the given viewers and releases the chunks far from all of them.
+     * Work is done only when a viewer enters a new chunk (or the viewer count changes)
+     * @param viewers The world positions (in pixels) the objects must exist around
+     */
+    public void update(List<Point> viewers) {
+        boolean changed = viewers.size() != lastChunks.length;
+        if (changed) lastChunks = new int[viewers.size()];
+
+        for (int i = 0; i < viewers.size(); i++) {
+            int chunk = chunkIndex(Math.floorDiv(viewers.get(i).x, CHUNK_PIXELS), Math.floorDiv(viewers.get(i).y, CHUNK_PIXELS));
+            if (chunk != lastChunks[i]) {
+                lastChunks[i] = chunk;
+                changed = true;
+            }
+        }
+        if (!changed) return;
+
+        // RELEASE FAR CHUNKS
+        Iterator<Map.Entry<Integer, GameObject[]>> iterator = activeChunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, GameObject[]> entry = iterator.next();
+            if (!isNearViewer(entry.getKey(), RELEASE_RADIUS)) {
+                release(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        // ACTIVATE NEAR CHUNKS
+        for (int viewerChunk : lastChunks) {
+            int viewerCol = viewerChunk % chunkCols;
+            int viewerRow = viewerChunk / chunkCols;
+
+            for (int row = Math.max(0, viewerRow - ACTIVE_RADIUS); row <= Math.min(chunkRows - 1, viewerRow + ACTIVE_RADIUS); row++) {
+                for (int col = Math.max(0, viewerCol - ACTIVE_RADIUS); col <= Math.min(chunkCols - 1, viewerCol + ACTIVE_RADIUS); col++) {
+                    int chunk = chunkIndex(col, row);
+                    if (!activeChunks.containsKey(chunk)) activeChunks.put(chunk, activate(chunk));
+                }
+            }
+        }
+    }
+
+    /*
+     * Creates the game objects of the placements of the given chunk still in the map
+     * @return The game object of each placement of the chunk (null if removed)
+     */
+    private GameObject[] activate(int chunk) {
+        int start = chunkStarts[chunk];
+        GameObject[] chunkObjects = new GameObject[chunkStarts[chunk + 1] - start];
+
+        for (int i = 0; i < chunkObjects.length; i++) {
+            if (removed.get(start + i)) continue;
+
+            MapObject placement = placements[start + i];
+            GameObject gameObj = assetSetter.createGameObject(placement.getType());
+            gameObj.setWorldX(placement.getWorldCol() * GamePanel.TILE_SIZE);
+            gameObj.setWorldY(placement.getWorldRow() * GamePanel.TILE_SIZE);
+            gameObjects.add(gameObj);
+            chunkObjects[i] = gameObj;
+        }
+        return chunkObjects;
+    }
+
+    /*
+     * Removes the game objects of the given chunk from the map, remembering the ones already gone (picked up)
+     */
+    private void release(int chunk, GameObject[] chunkObjects) {
+        int start = chunkStarts[chunk];
+        for (int i = 0; i < chunkObjects.length; i++) {
+            if (chunkObjects[i] != null && !gameObjects.remove(chunkObjects[i])) removed.set(start + i);
+        }
+    }
+
+    /**
+     * Releases every active chunk (e.g. when the players leave the map), the next update activates them again
+     */
+    public void releaseAll() {
+        for (Map.Entry<Integer, GameObject[]> entry : activeChunks.entrySet()) {
+            release(entry.getKey(), entry.getValue());
+        }
+        activeChunks.clear();
+        lastChunks = new int[0];
+    }
+
+    /**
+     * Detaches a game object from its placement: the object is no longer released with its chunk
+     * and its placement is not created again (e.g. an object moved by the map editor)
+     * @param gameObj The game object
+     */
+    public void detach(GameObject gameObj) {
+        int chunk = chunkIndex(Math.floorDiv(gameObj.getWorldX(), CHUNK_PIXELS), Math.floorDiv(gameObj.getWorldY(), CHUNK_PIXELS));
+        GameObject[] chunkObjects = activeChunks.get(chunk);
+        if (chunkObjects == null) return;
+
+        for (int i = 0; i < chunkObjects.length; i++) {
+            if (chunkObjects[i] == gameObj) {
+                chunkObjects[i] = null;
+                removed.set(chunkStarts[chunk] + i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the placements still in the map whose chunk is not active (their game objects do not exist)
+     * @return The inactive placements
+     */
+    public List<MapObject> getInactivePlacements() {
+        List<MapObject> inactive = new ArrayList<>();
+        for (int chunk = 0; chunk < chunkCols * chunkRows; chunk++) {
+            if (activeChunks.containsKey(chunk)) continue;
+
+            for (int i = chunkStarts[chunk]; i < chunkStarts[chunk + 1]; i++) {
+                if (!removed.get(i)) inactive.add(placements[i]);
+            }
+        }
+        return inactive;
+    }
+
+    /*
+     * Checks if the given chunk is within the given radius (in chunks) of a viewer
+     */
+    private boolean isNearViewer(int chunk, int radius) {
+        for (int viewerChunk : lastChunks) {
+            if (Math.abs(chunk % chunkCols - viewerChunk % chunkCols) <= radius
+                    && Math.abs(chunk / chunkCols - viewerChunk / chunkCols) <= radius) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns the index of the given chunk, clamped to the map (viewers may stand outside of it)
+     */
+    private int chunkIndex(int chunkCol, int chunkRow) {
+        return Math.clamp(chunkRow, 0, chunkRows - 1) * chunkCols + Math.clamp(chunkCol, 0, chunkCols - 1);
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getPlacementCount() { return placements.length; }
+    public int getActiveChunkCount() { return activeChunks.size(); }
+
+    /* ------------------------------------------------ */
+}
@@ -0,0 +1,202 @@
+package game_logic;
+
+import entity.Entity;
+import tile.NavigationGrid;
+import tile.TileManager;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pathfinding service: A* over the navigation grid of the current map (see NavigationGrid), with 8-directional
+ * moves (no corner cutting), the octile distance as heuristic and a binary heap on primitive arrays.
+ * Paths account for the entity hitbox: only cells where its whole footprint is free are used.
+ * The node state (see GridSearch) is kept per thread, sized to the cells its searches reach and reset by a generation stamp,
+ * so queries allocate nothing but the cached copy of new paths, and any number of threads
+ * (e.g. a worker pool) can query at once, each one into its own reusable PathBuffer.
+ * Paths are cached by (start region, goal) in a direct-mapped table (a new path replaces the one in its slot):
+ * a later query from a cell of a cached path reuses its remaining part, still the cheapest path. The grid and the cache are rebuilt when the map or its tiles change
+ * @author LC
+ */
+public class Pathfinder {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final int ORTHOGONAL_STEP = 10;                               // step lengths (diagonal ~ sqrt(2))
+    public static final int DIAGONAL_STEP = 14;
+    private static final int REGION_SIZE = 8;                                   // start cells sharing cached paths (in tiles)
+    private static final int CACHE_SLOTS = 4096;                                // power of two
+
+    /* ------------------------------------------- */
+
+    private final TileManager tileManager;
+
+    // GRID OF THE CURRENT MAP AND ITS CACHED PATHS (replaced together)
+    private volatile Navigation navigation;
+
+    private record Navigation(NavigationGrid grid, AtomicReferenceArray<CachedPath> cachedPaths) {}
+
+    private record CachedPath(long key, int[] cells) {}
+
+    // NODE STATE OF EACH QUERYING THREAD
+    private final ThreadLocal<GridSearch> gridSearches = ThreadLocal.withInitial(GridSearch::new);
+
+    // STATS
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+
+
+    public Pathfinder(TileManager tileManager) {
+        this.tileManager = tileManager;
+    }
+
+    /**
+     * Finds the cheapest path of an entity from the cell of its hitbox top-left corner to the given cell
+     * @param entity The moving entity
+     * @param goalCol The goal column (of the hitbox top-left corner)
+     * @param goalRow The goal row
+     * @param path The buffer receiving the path cells, start and goal included (cleared if there is no path)
+     * @return true if a path was found, false otherwise
+     */
+    public boolean findPath(Entity entity, int goalCol, int goalRow, PathBuffer path) {
+        Aabb solidArea = entity.getSolidArea();
+        int startCol = Math.floorDiv(entity.getWorldX() + solidArea.x(), GamePanel.TILE_SIZE);
+        int startRow = Math.floorDiv(entity.getWorldY() + solidArea.y(), GamePanel.TILE_SIZE);
+        return findPath(startCol, startRow, goalCol, goalRow, getFootprint(solidArea), path);
+    }
+
+    /**
+     * Finds the cheapest path between two cells
+     * @param startCol The start column
+     * @param startRow The start row
+     * @param goalCol The goal column
+     * @param goalRow The goal row
+     * @param footprint The side of the square of tiles the entity covers (see getFootprint)
+     * @param path The buffer receiving the path cells, start and goal included (cleared if there is no path)
+     * @return true if a path was found, false otherwise
+     */
+    public boolean findPath(int startCol, int startRow, int goalCol, int goalRow, int footprint, PathBuffer path) {
+        Navigation current = getNavigation();
+        NavigationGrid grid = current.grid();
+        path.clear(grid.getCols());
+        if (!grid.isWalkable(startCol, startRow, footprint) || !grid.isWalkable(goalCol, goalRow, footprint)) return false;
+
+        int start = startRow * grid.getCols() + startCol;
+        int goal = goalRow * grid.getCols() + goalCol;
+        if (!grid.isConnected(start, goal, footprint)) return false;           // would search the whole region
+        long key = cacheKey(grid, startCol, startRow, goal, footprint);
+
+        // Any part of a cheapest path is a cheapest path itself
+        int slot = cacheSlot(key);
+        CachedPath cachedPath = current.cachedPaths().get(slot);
+        if (cachedPath != null && cachedPath.key() == key) {
+            int[] cells = cachedPath.cells();
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] == start) {
+                    path.copy(cells, i);
+                    cacheHits.increment();
+                    return true;
+                }
+            }
+        }
+
+        searches.increment();
+        GridSearch gridSearch = gridSearches.get();
+        gridSearch.setBounds(0, 0, grid.getCols(), grid.getRows());
+        if (!gridSearch.findPath(grid, start, goal, footprint, path)) return false;
+
+        current.cachedPaths().set(slot, new CachedPath(key, Arrays.copyOf(path.cells, path.length)));
+        return true;
+    }
+
+    /**
+     * Returns the navigation grid of the current map, updating it (and dropping the cached paths)
+     * if the map or its tiles changed since it was built
+     * @return The navigation grid
+     */
+    public NavigationGrid getGrid() {
+        return getNavigation().grid();
+    }
+
+    private Navigation getNavigation() {
+        Navigation current = navigation;
+        if (current != null && current.grid().getRevision() == tileManager.getChunkStore().getRevision()) return current;
+
+        synchronized (this) {
+            current = navigation;
+            if (current == null || current.grid().getRevision() != tileManager.getChunkStore().getRevision()) {
+                NavigationGrid grid = current == null ? NavigationGrid.build(tileManager.getChunkStore())
+                        : NavigationGrid.update(current.grid(), tileManager.getChunkStore());
+                current = new Navigation(grid,
+                        new AtomicReferenceArray<>(CACHE_SLOTS));
+                navigation = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Returns the side of the square of tiles a hitbox covers at most when aligned to the grid
+     * @param solidArea The hitbox
+     * @return The footprint (in tiles, 1 to NavigationGrid.MAX_CLEARANCE)
+     */
+    public static int getFootprint(Aabb solidArea) {
+        int side = Math.max(solidArea.width(), solidArea.height());
+        return Math.clamp(Math.ceilDiv(side, GamePanel.TILE_SIZE), 1, NavigationGrid.MAX_CLEARANCE);
+    }
+
+    /*
+     * Packs the start region, the footprint and the goal cell in a single cache key
+     */
+    private static long cacheKey(NavigationGrid grid, int startCol, int startRow, int goal, int footprint) {
+        int regionCols = Math.ceilDiv(grid.getCols(), REGION_SIZE);
+        int region = (startRow / REGION_SIZE) * regionCols + startCol / REGION_SIZE;
+        return ((long) (region * (NavigationGrid.MAX_CLEARANCE + 1) + footprint) << 32) | goal;
+    }
+
+    private static int cacheSlot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;              // Fibonacci hashing: spreads neighbour goals
+        return (int) (hash ^ (hash >>> 32)) & (CACHE_SLOTS - 1);
+    }
+
+
+    /**
+     * Reusable path: cells from start to goal, stored as indexes (row * cols + col)
+     */
+    public static class PathBuffer {
+        private static final int INITIAL_CAPACITY = 64;
+
+        int[] cells = new int[INITIAL_CAPACITY];
+        int length = 0;
+        private int cols = 1;
+
+        public int size() { return length; }
+        public boolean isEmpty() { return length == 0; }
+        public int getCol(int i) { return cells[i] % cols; }
+        public int getRow(int i) { return cells[i] / cols; }
+
+        void clear(int cols) {
+            this.cols = cols;
+            length = 0;
+        }
+
+        void setLength(int length) {
+            if (length > cells.length) cells = new int[Math.max(length, cells.length * 2)];
+            this.length = length;
+        }
+
+        void copy(int[] source, int from) {
+            setLength(source.length - from);
+            System.arraycopy(source, from, cells, 0, length);
+        }
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public long getSearchCount() { return searches.sum(); }
+    public long getCacheHitCount() { return cacheHits.sum(); }
+
+    /* ------------------------------------------------ */
+}
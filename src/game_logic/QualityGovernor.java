@@ -0,0 +1,176 @@
+package game_logic;
+
+import java.awt.*;
+
+/**
+ * Adaptive rendering quality governor.
+ * Watches recent frame times (wall-clock interval between presented frames) and steps quality down
+ * when frames miss the budget, then back up when the work of a frame (update + render) leaves enough headroom
+ * @author LC
+ */
+public class QualityGovernor {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // FRAME BUDGET
+    public static final long FRAME_BUDGET_NANOS = 1_000_000_000L / GamePanel.FPS;
+    private static final double STEP_DOWN_THRESHOLD = 1.1;                  // avg frame interval > 110% of budget
+    private static final double STEP_UP_THRESHOLD = 0.5;                    // avg update + render < 50% of budget
+
+    // SAMPLING
+    private static final int SAMPLE_WINDOW = GamePanel.FPS;                 // frames per evaluation (~1 second)
+    private static final int STEP_UP_WINDOWS = 3;                           // consecutive good windows before stepping up
+
+    /* ------------------------------------------- */
+
+    // QUALITY LEVELS
+    public enum QualityLevel {
+        HIGH(false, true),
+        MEDIUM(false, false),
+        LOW(true, false);
+
+        private final boolean nativeTileRendering;          // tile chunks rendered at native resolution and upscaled
+        private final boolean qualityRenderingHints;        // quality (instead of speed) rendering/compositing hints
+
+        QualityLevel(boolean nativeTileRendering, boolean qualityRenderingHints) {
+            this.nativeTileRendering = nativeTileRendering;
+            this.qualityRenderingHints = qualityRenderingHints;
+        }
+
+        public boolean isNativeTileRendering() { return nativeTileRendering; }
+        public boolean hasQualityRenderingHints() { return qualityRenderingHints; }
+    }
+
+    // CURRENT LEVEL
+    private volatile QualityLevel level = QualityLevel.HIGH;
+    private volatile String lastChange = "none";
+
+    // FRAME TIMES
+    private volatile long lastUpdateNanos = 0;              // written by the game thread
+    private long lastFrameStartNanos = 0;                   // 0: frame clock paused
+    private final long[] frameIntervals = new long[SAMPLE_WINDOW];
+    private final long[] workTimes = new long[SAMPLE_WINDOW];
+    private int sampleCount = 0;
+    private int goodWindows = 0;
+    private volatile long averageFrameNanos = 0;
+    private volatile long averageWorkNanos = 0;
+
+
+    /**
+     * Records the duration of the last game update (game thread)
+     * @param updateNanos The update duration in nanoseconds
+     */
+    public void recordUpdate(long updateNanos) {
+        this.lastUpdateNanos = updateNanos;
+    }
+
+    /**
+     * Records a rendered frame and, once per sample window, re-evaluates the quality level (rendering thread).
+     * Its frame time is the wall-clock interval since the previous frame started, so update, render, blit
+     * and game loop sleep jitter all count
+     * @param frameStartNanos The time the frame started rendering (System.nanoTime)
+     * @param renderNanos The render duration in nanoseconds
+     */
+    public void recordFrame(long frameStartNanos, long renderNanos) {
+        long previousFrameStartNanos = lastFrameStartNanos;
+        lastFrameStartNanos = frameStartNanos;
+        if (previousFrameStartNanos == 0) return;
+
+        frameIntervals[sampleCount] = frameStartNanos - previousFrameStartNanos;
+        workTimes[sampleCount] = renderNanos + lastUpdateNanos;
+
+        if (++sampleCount == SAMPLE_WINDOW) {
+            evaluate();
+            sampleCount = 0;
+        }
+    }
+
+    /**
+     * Pauses the frame clock while frames are not paced (menus, on-demand rendering),
+     * so the time until the next recorded frame is not taken as a frame time (rendering thread)
+     */
+    public void pauseFrameClock() {
+        lastFrameStartNanos = 0;
+    }
+
+    /*
+     * Steps quality down if the average frame interval of the last window exceeds the budget,
+     * steps it up after a few consecutive windows on budget with enough headroom
+     */
+    private void evaluate() {
+        long averageInterval = average(frameIntervals);
+        long averageWork = average(workTimes);
+        averageFrameNanos = averageInterval;
+        averageWorkNanos = averageWork;
+
+        QualityLevel[] levels = QualityLevel.values();
+        int current = level.ordinal();
+
+        if (averageInterval > FRAME_BUDGET_NANOS * STEP_DOWN_THRESHOLD) {
+            goodWindows = 0;
+            if (current < levels.length - 1) {
+                setLevel(levels[current + 1], formatMillis(averageInterval) + " ms frames");
+            }
+        } else if (averageWork < FRAME_BUDGET_NANOS * STEP_UP_THRESHOLD) {
+            if (++goodWindows >= STEP_UP_WINDOWS && current > 0) {
+                goodWindows = 0;
+                setLevel(levels[current - 1], formatMillis(averageWork) + " ms work");
+            }
+        } else {
+            goodWindows = 0;
+        }
+    }
+
+    private static long average(long[] samples) {
+        long total = 0;
+        for (long sample : samples) {
+            total += sample;
+        }
+        return total / samples.length;
+    }
+
+    /*
+     * Changes quality level, keeping track of the change for the debug overlay
+     * @param newLevel The new quality level
+     * @param reason The reason of the change (average frame interval or work time)
+     */
+    private void setLevel(QualityLevel newLevel, String reason) {
+        lastChange = level + "->" + newLevel + " (" + reason + ")";
+        level = newLevel;
+    }
+
+    /**
+     * Applies the rendering hints of the current quality level to the given graphics context
+     * @param g2 The Graphics2D context to configure
+     */
+    public void applyRenderingHints(Graphics2D g2) {
+        boolean quality = level.hasQualityRenderingHints();
+
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING,
+                quality ? RenderingHints.VALUE_RENDER_QUALITY : RenderingHints.VALUE_RENDER_SPEED);
+        g2.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING,
+                quality ? RenderingHints.VALUE_COLOR_RENDER_QUALITY : RenderingHints.VALUE_COLOR_RENDER_SPEED);
+        g2.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION,
+                quality ? RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY : RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED);
+
+        // Pixel art: scaled blits always use nearest neighbor
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    }
+
+    /*
+     * Formats nanoseconds as milliseconds with one decimal digit
+     */
+    private static String formatMillis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public QualityLevel getLevel() { return level; }
+    public String getLastChange() { return lastChange; }
+    public long getAverageFrameNanos() { return averageFrameNanos; }
+    public long getAverageWorkNanos() { return averageWorkNanos; }
+
+    /* ------------------------------------------------ */
+}
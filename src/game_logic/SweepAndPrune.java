@@ -0,0 +1,156 @@
+package game_logic;
+
+import entity.Entity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entity-vs-entity broadphase (sort and sweep): finds the pairs of moving boxes that overlap.
+ * Boxes are kept in primitive arrays and their order along x is kept between updates, so the
+ * insertion sort only moves the few boxes that crossed a neighbour since the last frame (near O(n)).
+ * The sweep walks the sorted boxes once, each box meeting only the following boxes overlapping it along x,
+ * and the narrowphase (y overlap) keeps the actual pairs in a reusable buffer. Nothing is allocated
+ * once the arrays have grown
+ * @author LC
+ */
+public class SweepAndPrune {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /* ------------------------------------------- */
+
+    // BOXES (by box index, max edges are exclusive)
+    private int count = 0;
+    private int[] minX = new int[INITIAL_CAPACITY];
+    private int[] minY = new int[INITIAL_CAPACITY];
+    private int[] maxX = new int[INITIAL_CAPACITY];
+    private int[] maxY = new int[INITIAL_CAPACITY];
+
+    // BOX INDEXES SORTED BY MIN X (kept between updates)
+    private int[] order = new int[INITIAL_CAPACITY];
+
+    // OVERLAPPING PAIRS (box indexes, two per pair)
+    private int[] pairs = new int[INITIAL_CAPACITY * 2];
+    private int pairCount = 0;
+
+
+    /**
+     * Updates the boxes from the hitboxes of the given entities (box i is entity i) and finds the overlapping pairs
+     * @param entities The moving entities
+     * @return The number of overlapping pairs
+     */
+    public int update(List<? extends Entity> entities) {
+        setCount(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            Aabb solidArea = entity.getSolidArea();
+            int x = entity.getWorldX() + solidArea.x();
+            int y = entity.getWorldY() + solidArea.y();
+            setBounds(i, x, y, x + solidArea.width(), y + solidArea.height());
+        }
+        return findPairs();
+    }
+
+    /**
+     * Sets the number of boxes: new boxes are appended (empty until their bounds are set),
+     * removed boxes are the last ones
+     * @param count The number of boxes
+     */
+    public void setCount(int count) {
+        if (count == this.count) return;
+
+        if (count > minX.length) {
+            int capacity = Math.max(count, minX.length * 2);
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+            order = Arrays.copyOf(order, capacity);
+        }
+
+        if (count > this.count) {
+            // New boxes are sorted in by the next update
+            for (int box = this.count; box < count; box++) {
+                order[box] = box;
+                minX[box] = minY[box] = maxX[box] = maxY[box] = 0;
+            }
+        } else {
+            // Keep the remaining boxes in their current order
+            int kept = 0;
+            for (int i = 0; i < this.count; i++) {
+                if (order[i] < count) order[kept++] = order[i];
+            }
+        }
+        this.count = count;
+    }
+
+    /**
+     * Sets the bounds of a box
+     * @param box The box index
+     * @param minX The left edge (in pixels)
+     * @param minY The top edge
+     * @param maxX The right edge (exclusive)
+     * @param maxY The bottom edge (exclusive)
+     */
+    public void setBounds(int box, int minX, int minY, int maxX, int maxY) {
+        this.minX[box] = minX;
+        this.minY[box] = minY;
+        this.maxX[box] = maxX;
+        this.maxY[box] = maxY;
+    }
+
+    /**
+     * Sorts the boxes by their left edge (insertion sort on the previous order)
+     * and sweeps them to find the overlapping pairs
+     * @return The number of overlapping pairs
+     */
+    public int findPairs() {
+        // INSERTION SORT (boxes mostly keep their place from one frame to the next)
+        for (int i = 1; i < count; i++) {
+            int box = order[i];
+            int boxMinX = minX[box];
+            int j = i - 1;
+            while (j >= 0 && minX[order[j]] > boxMinX) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = box;
+        }
+
+        // SWEEP (x overlap), NARROWPHASE (y overlap)
+        pairCount = 0;
+        for (int i = 0; i < count; i++) {
+            int a = order[i];
+            if (maxX[a] <= minX[a] || maxY[a] <= minY[a]) continue;            // empty box
+
+            for (int j = i + 1; j < count && minX[order[j]] < maxX[a]; j++) {
+                int b = order[j];
+                if (minY[b] < maxY[a] && minY[a] < maxY[b] && maxX[b] > minX[b] && maxY[b] > minY[b]) {
+                    addPair(a, b);
+                }
+            }
+        }
+        return pairCount;
+    }
+
+    private void addPair(int a, int b) {
+        if (pairCount * 2 == pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+
+        pairs[pairCount * 2] = a;
+        pairs[pairCount * 2 + 1] = b;
+        pairCount++;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getCount() { return count; }
+    public int getPairCount() { return pairCount; }
+    public int getPairFirst(int pair) { return pairs[pair * 2]; }
+    public int getPairSecond(int pair) { return pairs[pair * 2 + 1]; }
+
+    /* ------------------------------------------------ */
+}
@@ -30,13 +30,14 @@ public class UI {
     private final static String CURSOR = ">";
 
     // COMMANDS NUM
-    public static final int MENU_COMMANDS_NUM = 2;
+    public static final int MENU_COMMANDS_NUM = 3;
     public static final int MAIN_OPTION_COMMANDS_NUM = 4;
     public static final int END_CONFIRM_OPTION_COMMANDS_NUM = 2;
 
     // SELECTED COMMAND INDEXES
     public final static int TITLE_START_GAME_COMMAND = 0;                               // Title state
-    public final static int TITLE_QUIT_COMMAND = 1;
+    public final static int TITLE_COOP_GAME_COMMAND = 1;
+    public final static int TITLE_QUIT_COMMAND = 2;
     public final static int OPTIONS_MUSIC_COMMAND = 0;                                  // Options state
     public final static int OPTIONS_SE_COMMAND = 1;
     public final static int OPTIONS_QUIT_COMMAND = 2;
@@ -81,6 +82,7 @@ public class UI {
     private final static int GAME_IMAGE_SCALE = GamePanel.TILE_SIZE * 2;
     private static final String[] COMMAND_LINES = {                                                             // Commands
             "START GAME",
+            "CO-OP GAME",
             "QUIT"
     };
 
@@ -95,6 +97,8 @@ public class UI {
             "(Press enter to start game)"
     };
     private final static int INITIAL_CONTROLS_Y = GamePanel.TILE_SIZE * 2;
+    private final static int CONTROLS_MOVE_LINE = 2;
+    private final static String COOP_MOVE_LINE = "Move: P1 [WASD] / P2 [ArrowKeys]";
 
     // PLAYING STATE
     private final static int KEY_STRING_X = (int) (GamePanel.TILE_SIZE * 1.8);                      // Key object
@@ -319,7 +323,7 @@ public class UI {
      */
     private void drawMenuCommands(Graphics2D g2) {
         g2.setFont(secondaryFont.deriveFont(MENU_COMMANDS_FONT_SIZE));
-        int y = (int) (TITLE_Y + TEXT_SPACING * 6.5);
+        int y = TITLE_Y + TEXT_SPACING * 6;
 
         String[] commandLines = COMMAND_LINES;
 
@@ -334,9 +338,18 @@ public class UI {
 
                 if (gamePanel.getGameKeyHandler().isEnterPressed()) {
                     switch (selectedCommand) {
-                        case UI.TITLE_START_GAME_COMMAND -> { setTitleScreenState(UI.TitleScreenState.COMMANDS_SCREEN);
+                        case UI.TITLE_START_GAME_COMMAND -> {
+                            gamePanel.setCoopMode(false);
+                            setTitleScreenState(UI.TitleScreenState.COMMANDS_SCREEN);
+                        }
+                        case UI.TITLE_COOP_GAME_COMMAND -> {
+                            gamePanel.setCoopMode(true);
+                            setTitleScreenState(UI.TitleScreenState.COMMANDS_SCREEN);
+                        }
+                        case UI.TITLE_QUIT_COMMAND -> {
+                            gamePanel.shutdown();
+                            System.exit(0);
                         }
-                        case UI.TITLE_QUIT_COMMAND -> System.exit(0);
                     }
                 }
             }
@@ -368,7 +381,7 @@ public class UI {
 
         // CONTROLS LINES
         for (int i = 1; i < CONTROLS_SCREEN_LINES.length - 1; i++) {
-            String line = CONTROLS_SCREEN_LINES[i];
+            String line = (i == CONTROLS_MOVE_LINE && gamePanel.isCoopMode()) ? COOP_MOVE_LINE : CONTROLS_SCREEN_LINES[i];
             x = getXForCenteredText(line, g2);
             g2.drawString(line, x, y); y += spacing;
         }
@@ -412,7 +425,7 @@ public class UI {
     }
 
     /*
-     * Draws key icon and number of keys collected
+     * Draws key icon and number of keys collected (by all players in co-op mode)
      * @param g2 The Graphics2D context to draw on
      */
     private void drawKeyIconAndCount(Graphics2D g2) {
@@ -422,7 +435,7 @@ public class UI {
             g2.drawImage(keyImage, KEY_X, KEY_Y, GamePanel.TILE_SIZE, GamePanel.TILE_SIZE, null);
         }
 
-        int numKeys = gamePanel.getPlayer().getNumKeys();
+        int numKeys = gamePanel.getTeamKeys();
         g2.drawString("x " + numKeys, KEY_STRING_X, KEY_STRING_Y);
     }
 
@@ -0,0 +1,185 @@
+package game_logic;
+
+import entity.Player;
+import object.GameObject;
+import tile.MapData;
+import tile.MapObject;
+import tile.TileManager;
+import tile.WorldGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the players between the maps of the world through doors (see TileManager.DOOR_OBJECT_TYPE).
+ * A transition swaps in the target map (preloaded in the background by the TileManager)
+ * and keeps the state of the map being left (remaining objects, explored tiles) for the next visit.
+ * Optionally, the start map is a procedural world (see WorldGenerator) generated from the seed given
+ * with -Dworld.seed=&lt;seed&gt; (and -Dworld.size=&lt;tiles&gt;)
+ * @author LC
+ */
+public class WorldManager {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final long NO_CELL = Long.MIN_VALUE;
+
+    // PROCEDURAL WORLD
+    public static final String SEED_PROPERTY = "world.seed";
+    public static final String SIZE_PROPERTY = "world.size";
+    private static final int DEFAULT_GENERATED_SIZE = 1024;                     // in tiles
+    private static final String GENERATED_MAP_PREFIX = "generated/seed-";
+
+    /* ------------------------------------------- */
+
+    private final GamePanel gamePanel;
+
+    // OBJECTS LEFT IN THE OTHER VISITED MAPS (by map path): placements and objects added at runtime
+    private final Map<String, ObjectIndex> objectIndexesByMap = new HashMap<>();
+    private final Map<String, List<GameObject>> objectsByMap = new HashMap<>();
+
+    // LAST TILE OF EACH PLAYER (doors only trigger when a player steps on them)
+    private final long[] lastCells = new long[GamePanel.MAX_PLAYERS];
+
+    // PROCEDURAL WORLD (seed is null if disabled)
+    private final Long generatedSeed = Long.getLong(SEED_PROPERTY);
+    private final int generatedSize = Integer.getInteger(SIZE_PROPERTY, DEFAULT_GENERATED_SIZE);
+
+
+    public WorldManager(GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+        Arrays.fill(lastCells, NO_CELL);
+    }
+
+    /**
+     * Moves the players to the target map of the door a player just stepped on, if any
+     */
+    public void update() {
+        TileManager tileManager = gamePanel.getTileManager();
+
+        for (Player p : gamePanel.getPlayers()) {
+            int col = (p.getWorldX() + p.getSolidArea().centerX()) / GamePanel.TILE_SIZE;
+            int row = (p.getWorldY() + p.getSolidArea().centerY()) / GamePanel.TILE_SIZE;
+
+            long cell = ((long) col << 32) | (row & 0xFFFFFFFFL);
+            if (cell == lastCells[p.getPlayerIndex()]) continue;
+            lastCells[p.getPlayerIndex()] = cell;
+
+            MapObject door = tileManager.getDoorAt(col, row);
+            if (door != null) {
+                changeMap(door.getProperty(TileManager.DOOR_TARGET_MAP),
+                        door.getIntProperty(TileManager.DOOR_TARGET_COL, col),
+                        door.getIntProperty(TileManager.DOOR_TARGET_ROW, row));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves every player to the given tile of the given map
+     * @param mapName The target map name (e.g. "world02")
+     * @param arrivalCol The arrival tile column
+     * @param arrivalRow The arrival tile row
+     */
+    public void changeMap(String mapName, int arrivalCol, int arrivalRow) {
+        TileManager tileManager = gamePanel.getTileManager();
+        String leftMap = tileManager.getMapPath();
+        String enteredMap = TileManager.resolveMapPath(mapName);
+
+        long start = System.nanoTime();
+        if (enteredMap.equals(leftMap) || !tileManager.loadTileMap(enteredMap)) {
+            moveTo(arrivalCol, arrivalRow);
+            return;
+        }
+
+        // Keep the objects of the map being left, restore (or place) the ones of the entered map
+        AssetSetter assetSetter = gamePanel.getAssetSetter();
+        ObjectGrid gameObjects = gamePanel.getGameObjects();
+        assetSetter.getObjectIndex().releaseAll();
+        objectIndexesByMap.put(leftMap, assetSetter.getObjectIndex());
+        objectsByMap.put(leftMap, new ArrayList<>(gameObjects));
+        gameObjects.clear();
+
+        ObjectIndex enteredIndex = objectIndexesByMap.remove(enteredMap);
+        if (enteredIndex != null) {
+            assetSetter.setObjectIndex(enteredIndex);
+            gameObjects.addAll(objectsByMap.remove(enteredMap));
+        } else {
+            assetSetter.setGameObjects();
+        }
+
+        gamePanel.getFogOfWar().switchMap(leftMap, enteredMap, tileManager.getWorldCols(), tileManager.getWorldRows());
+        moveTo(arrivalCol, arrivalRow);
+
+        System.out.printf("Entered %s (%.2f ms)%n", enteredMap, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    /*
+     * Places every player on the given tile
+     */
+    private void moveTo(int col, int row) {
+        for (Player p : gamePanel.getPlayers()) {
+            p.setWorldX(col * GamePanel.TILE_SIZE);
+            p.setWorldY(row * GamePanel.TILE_SIZE);
+            p.setMoving(false);
+
+            // Arriving on a door does not trigger it
+            lastCells[p.getPlayerIndex()] = ((long) col << 32) | (row & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Resets the world: goes back to the start map (generating it in procedural mode)
+     * and forgets the state of every visited map, explored tiles included
+     */
+    public void reset() {
+        objectIndexesByMap.clear();
+        objectsByMap.clear();
+        Arrays.fill(lastCells, NO_CELL);
+
+        TileManager tileManager = gamePanel.getTileManager();
+        if (generatedSeed != null) {
+            if (!getGeneratedMapPath().equals(tileManager.getMapPath())) {
+                generateWorld();
+            }
+        } else {
+            String startMap = TileManager.resolveMapPath(TileManager.START_MAP);
+            if (!startMap.equals(tileManager.getMapPath())) {
+                tileManager.loadTileMap(startMap);
+            }
+        }
+
+        gamePanel.getFogOfWar().reset(tileManager.getWorldCols(), tileManager.getWorldRows());
+    }
+
+    /*
+     * Generates the procedural world and swaps it in, with the objects needed to finish the game
+     */
+    private void generateWorld() {
+        Map<String, Integer> objectCounts = new LinkedHashMap<>();
+        objectCounts.put("key", Player.REQUIRED_KEYS);
+        objectCounts.put("boots", 3);
+        objectCounts.put("chest", 1);
+
+        long start = System.nanoTime();
+        MapData mapData;
+        try {
+            mapData = new WorldGenerator(generatedSeed).generate(generatedSize, generatedSize, objectCounts);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error generating world:\n" + e.getMessage());
+            return;
+        }
+
+        gamePanel.getTileManager().setMap(getGeneratedMapPath(), mapData);
+        System.out.printf("Generated %dx%d world from seed %d (%.0f ms)%n", generatedSize, generatedSize, generatedSeed,
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private String getGeneratedMapPath() {
+        return GENERATED_MAP_PREFIX + generatedSeed;
+    }
+}
@@ -15,8 +15,8 @@ public class Boots extends GameObject {
 
         // Load image
         try {
-            BufferedImage img = GameUtils.scaleImage(GameUtils.loadImageSafe("/objects/boots.png"),
-                                                     GamePanel.TILE_SIZE, GamePanel.TILE_SIZE);
+            BufferedImage img = GameUtils.loadScaledImageCached("/objects/boots.png",
+                    GamePanel.TILE_SIZE, GamePanel.TILE_SIZE);
             this.setImage(img);
         } catch (IOException e) {
             System.err.println("Error loading image:\n" + e.getMessage());
@@ -24,11 +24,11 @@ public class Boots extends GameObject {
     }
 
     @Override
-    public void onPlayerCollision(GamePanel gamePanel) {
+    public void onPlayerCollision(GamePanel gamePanel, Player player) {
         gamePanel.playSE(Sound.POWER_UP);
         gamePanel.getGameObjects().remove(this);
 
-        gamePanel.getPlayer().setSpeed((int) (gamePanel.getPlayer().getSpeed() * Player.SPEED_BOOST_MULTIPLIER));
+        player.setSpeed((int) (player.getSpeed() * Player.SPEED_BOOST_MULTIPLIER));
         gamePanel.getUi().showMessage("Speed up!");
     }
 }
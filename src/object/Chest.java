@@ -19,12 +19,12 @@ public class Chest extends GameObject {
 
         // Load images
         try {
-            closedImage = GameUtils.scaleImage(
-                    GameUtils.loadImageSafe("/objects/chest_closed.png"),
+            closedImage = GameUtils.loadScaledImageCached(
+                    "/objects/chest_closed.png",
                     GamePanel.TILE_SIZE, GamePanel.TILE_SIZE
             );
-            openImage = GameUtils.scaleImage(
-                    GameUtils.loadImageSafe("/objects/chest_open.png"),
+            openImage = GameUtils.loadScaledImageCached(
+                    "/objects/chest_open.png",
                     GamePanel.TILE_SIZE, GamePanel.TILE_SIZE
             );
 
@@ -38,15 +38,18 @@ public class Chest extends GameObject {
     }
 
     @Override
-    public void onPlayerCollision(GamePanel gamePanel) {
+    public void onPlayerCollision(GamePanel gamePanel, Player player) {
 
-        if (gamePanel.getPlayer().getNumKeys() >= Player.REQUIRED_KEYS) {
+        // Keys collected by all players count towards opening the chest
+        int teamKeys = gamePanel.getTeamKeys();
+
+        if (teamKeys >= Player.REQUIRED_KEYS) {
             gamePanel.stopMusic();
             gamePanel.playSE(Sound.VICTORY);
             gamePanel.setGameState(GamePanel.GameState.ENDING);
             this.open();
         } else {
-            int remaining = Player.REQUIRED_KEYS - gamePanel.getPlayer().getNumKeys();
+            int remaining = Player.REQUIRED_KEYS - teamKeys;
             gamePanel.getUi().showMessage("You need " + remaining + " more key" + (remaining > 1 ? "s" : "") + " to open the chest!");
         }
     }
@@ -15,7 +15,7 @@ public class Key extends GameObject {
 
         // Load images
         try {
-            BufferedImage img = GameUtils.scaleImage(GameUtils.loadImageSafe("/objects/key.png"),
+            BufferedImage img = GameUtils.loadScaledImageCached("/objects/key.png",
                     GamePanel.TILE_SIZE, GamePanel.TILE_SIZE);
             this.setImage(img);
 
@@ -25,10 +25,10 @@ public class Key extends GameObject {
     }
 
     @Override
-    public void onPlayerCollision(GamePanel gamePanel) {
+    public void onPlayerCollision(GamePanel gamePanel, Player player) {
         gamePanel.playSE(Sound.PICK_UP_KEY);
         gamePanel.getGameObjects().remove(this);
-        gamePanel.getPlayer().addKey();
+        player.addKey();
 
         gamePanel.getUi().showMessage("You got a key!");
     }
@@ -0,0 +1,281 @@
+package tile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bitmask autotiler: resolves a terrain grid (see Terrain) to ground tile IDs.
+ * Each cell looks at its 8 neighbours, builds an 8-bit mask of the ones that continue its terrain
+ * and reads its tile from a lookup table precomputed for every terrain and mask.
+ * Edge sheets share the same 3x5 layout (see TileManager.loadTilesFromSpriteSheet):
+ * <pre>
+ * 0 1 2      outer corners and edges      9  10  11      inner corners (outside at SE, SW),
+ * 3 4 5      (4 = center)                 12 13  14      (outside at NE, NW), 11/14 = center variants
+ * 6 7 8
+ * </pre>
+ * Works in bulk (whole grids, generated chunks) and incrementally on a live map (see MapEditor),
+ * where changing one cell only resolves that cell and its 8 neighbours
+ * @author LC
+ */
+public class Autotiler {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // NEIGHBOUR MASK BITS (set when the neighbour continues the cell terrain)
+    public static final int N = 1, NE = 1 << 1, E = 1 << 2, SE = 1 << 3, S = 1 << 4, SW = 1 << 5, W = 1 << 6, NW = 1 << 7;
+    private static final int MASK_COUNT = 256;
+    private static final int[][] NEIGHBOUR_OFFSETS = {{0, -1}, {1, -1}, {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}};    // by mask bit
+
+    // LIVE MAP TERRAIN CHUNKS (in tiles)
+    private static final int CHUNK_SIZE = ChunkStore.CHUNK_SIZE;
+
+    // TERRAINS
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    // NEIGHBOUR TERRAINS CONTINUING EACH TERRAIN (bit i = Terrain ordinal i)
+    private static final int[] CONTINUES = new int[TERRAINS.length];
+
+    // TILE OF EACH TERRAIN AND NEIGHBOUR MASK (index = terrain ordinal * MASK_COUNT + mask)
+    private static final short[] TILE_BY_MASK = new short[TERRAINS.length * MASK_COUNT];
+
+    static {
+        CONTINUES[Terrain.GRASS.ordinal()] = ~0;
+        CONTINUES[Terrain.TREE.ordinal()] = ~0;
+        CONTINUES[Terrain.BRIDGE.ordinal()] = ~0;
+        CONTINUES[Terrain.WATER.ordinal()] = bits(Terrain.WATER, Terrain.BEACH, Terrain.BRIDGE);     // sand edges are on beach cells
+        CONTINUES[Terrain.BEACH.ordinal()] = ~bits(Terrain.WATER, Terrain.BRIDGE);                  // bridges stand on water
+        CONTINUES[Terrain.PATH.ordinal()] = bits(Terrain.PATH, Terrain.BEACH, Terrain.BRIDGE);
+        CONTINUES[Terrain.CLIFF.ordinal()] = bits(Terrain.CLIFF);
+
+        for (Terrain terrain : TERRAINS) {
+            for (int mask = 0; mask < MASK_COUNT; mask++) {
+                TileSet sheet = terrain.getEdgeSheet();
+                int tileId = sheet == null ? terrain.getDefaultTile() : sheet.fromSheetCell(sheetCell(mask));
+                TILE_BY_MASK[terrain.ordinal() * MASK_COUNT + mask] = (short) tileId;
+            }
+        }
+    }
+
+    /* ------------------------------------------- */
+
+    private final TileManager tileManager;
+
+    // TERRAIN OF THE LIVE MAP (per chunk, derived from the ground tiles when first needed, row-major Terrain ordinals)
+    private final int cols, rows;
+    private final int chunkCols;
+    private final byte[][] terrainChunks;
+
+
+    /**
+     * Creates an autotiler for the ground layer of the map loaded by the given tile manager.
+     * The terrain of a cell is derived from its current tile the first time its chunk is needed
+     * @param tileManager The tile manager
+     */
+    public Autotiler(TileManager tileManager) {
+        this.tileManager = tileManager;
+        this.cols = tileManager.getWorldCols();
+        this.rows = tileManager.getWorldRows();
+        this.chunkCols = (cols + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.terrainChunks = new byte[chunkCols * ((rows + CHUNK_SIZE - 1) / CHUNK_SIZE)][];
+    }
+
+    /**
+     * Sets the terrain of the given live map cells, then resolves the ground tiles of those cells and of their
+     * neighbours (each once). Cells resolving to the center of their terrain keep their current variant
+     * (e.g. decorated grass, bridge rails). The tile changes are returned, not applied (see TileManager.setTiles)
+     * @param cells The cell indexes (row * world cols + col)
+     * @param count The number of cells
+     * @param newTerrain The terrain to set
+     * @return The ground tile changes
+     */
+    public List<TileChange> setTerrain(int[] cells, int count, Terrain newTerrain) {
+        for (int i = 0; i < count; i++) {
+            putTerrain(cells[i] % cols, cells[i] / cols, newTerrain);
+        }
+
+        Set<Integer> resolved = new HashSet<>();
+        List<TileChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int col = cells[i] % cols;
+            int row = cells[i] / cols;
+
+            for (int y = Math.max(0, row - 1); y <= Math.min(rows - 1, row + 1); y++) {
+                for (int x = Math.max(0, col - 1); x <= Math.min(cols - 1, col + 1); x++) {
+                    if (resolved.add(y * cols + x)) {
+                        resolveCell(x, y, changes);
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    /*
+     * Resolves the ground tile of a live map cell, adding it to the given changes if different from the current one
+     */
+    private void resolveCell(int col, int row, List<TileChange> changes) {
+        Terrain cellTerrain = getTerrain(col, row);
+        int continues = CONTINUES[cellTerrain.ordinal()];
+
+        int mask = 0;
+        for (int bit = 0; bit < NEIGHBOUR_OFFSETS.length; bit++) {
+            int x = col + NEIGHBOUR_OFFSETS[bit][0];
+            int y = row + NEIGHBOUR_OFFSETS[bit][1];
+            if (x < 0 || x >= cols || y < 0 || y >= rows || ((continues >>> getTerrain(x, y).ordinal()) & 1) != 0) {
+                mask |= 1 << bit;
+            }
+        }
+
+        int tileId = TILE_BY_MASK[cellTerrain.ordinal() * MASK_COUNT + mask];
+        int currentTile = tileManager.getTileUnchecked(MapData.LAYER_GROUND, col, row);
+        if (currentTile == tileId) return;
+
+        // Keep center variants and unedged terrain variants (bridge rails)
+        if (cellTerrain == Terrain.fromTile(currentTile) && cellTerrain.isCenterTile(tileId) && cellTerrain.isCenterTile(currentTile)) {
+            return;
+        }
+        changes.add(new TileChange(MapData.LAYER_GROUND, col, row, tileId));
+    }
+
+    /**
+     * Returns the terrain of a live map cell
+     * @param col The cell column (0 <= col < world cols)
+     * @param row The cell row (0 <= row < world rows)
+     * @return The cell terrain
+     */
+    public Terrain getTerrain(int col, int row) {
+        return TERRAINS[getTerrainChunk(col, row)[(row % CHUNK_SIZE) * CHUNK_SIZE + col % CHUNK_SIZE]];
+    }
+
+    /**
+     * Sets the terrain of a live map cell without resolving any tile (e.g. undoing an edit whose tiles are restored separately)
+     * @param col The cell column (0 <= col < world cols)
+     * @param row The cell row (0 <= row < world rows)
+     * @param newTerrain The terrain to set
+     */
+    public void putTerrain(int col, int row, Terrain newTerrain) {
+        getTerrainChunk(col, row)[(row % CHUNK_SIZE) * CHUNK_SIZE + col % CHUNK_SIZE] = (byte) newTerrain.ordinal();
+    }
+
+    /*
+     * Returns the terrain of the chunk containing the given cell, deriving it from the ground tiles if needed
+     */
+    private byte[] getTerrainChunk(int col, int row) {
+        int chunk = (row / CHUNK_SIZE) * chunkCols + col / CHUNK_SIZE;
+        byte[] terrain = terrainChunks[chunk];
+        if (terrain != null) return terrain;
+
+        terrain = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        int x0 = col - col % CHUNK_SIZE;
+        int y0 = row - row % CHUNK_SIZE;
+        for (int y = 0; y < Math.min(CHUNK_SIZE, rows - y0); y++) {
+            for (int x = 0; x < Math.min(CHUNK_SIZE, cols - x0); x++) {
+                int tileId = tileManager.getTileUnchecked(MapData.LAYER_GROUND, x0 + x, y0 + y);
+                terrain[y * CHUNK_SIZE + x] = (byte) Terrain.fromTile(tileId).ordinal();
+            }
+        }
+        terrainChunks[chunk] = terrain;
+        return terrain;
+    }
+
+    /**
+     * Resolves every cell of a terrain grid. Cells outside the grid continue any terrain (no edges at the borders)
+     * @param terrain The terrain grid (row-major, Terrain ordinals)
+     * @param cols The grid width
+     * @param rows The grid height
+     * @param tiles The output tile IDs (row-major, same size as the grid)
+     */
+    public static void resolveAll(byte[] terrain, int cols, int rows, short[] tiles) {
+        for (int row = 0; row < rows; row++) {
+            if (row == 0 || row == rows - 1) {
+                for (int col = 0; col < cols; col++) {
+                    tiles[row * cols + col] = (short) resolve(terrain, cols, rows, col, row);
+                }
+                continue;
+            }
+
+            int index = row * cols;
+            tiles[index] = (short) resolve(terrain, cols, rows, 0, row);
+            for (int col = 1; col < cols - 1; col++) {
+                index++;
+                tiles[index] = resolveInner(terrain, cols, index);
+            }
+            tiles[index + 1] = (short) resolve(terrain, cols, rows, cols - 1, row);
+        }
+    }
+
+    /**
+     * Resolves the tile of a cell whose 8 neighbours are all inside the grid (no bounds checks)
+     * @param terrain The terrain grid (row-major, Terrain ordinals)
+     * @param stride The grid width
+     * @param index The cell index
+     * @return The tile ID
+     */
+    public static short resolveInner(byte[] terrain, int stride, int index) {
+        int cellTerrain = terrain[index];
+        int continues = CONTINUES[cellTerrain];
+
+        int mask = (continues >>> terrain[index - stride]) & 1
+                | ((continues >>> terrain[index - stride + 1]) & 1) << 1
+                | ((continues >>> terrain[index + 1]) & 1) << 2
+                | ((continues >>> terrain[index + stride + 1]) & 1) << 3
+                | ((continues >>> terrain[index + stride]) & 1) << 4
+                | ((continues >>> terrain[index + stride - 1]) & 1) << 5
+                | ((continues >>> terrain[index - 1]) & 1) << 6
+                | ((continues >>> terrain[index - stride - 1]) & 1) << 7;
+
+        return TILE_BY_MASK[cellTerrain * MASK_COUNT + mask];
+    }
+
+    /*
+     * Resolves the tile of any cell of the grid, neighbours outside the grid continue the cell terrain
+     */
+    private static int resolve(byte[] terrain, int cols, int rows, int col, int row) {
+        int cellTerrain = terrain[row * cols + col];
+        int continues = CONTINUES[cellTerrain];
+
+        int mask = 0;
+        mask |= continues(terrain, cols, rows, col, row - 1, continues) ? N : 0;
+        mask |= continues(terrain, cols, rows, col + 1, row - 1, continues) ? NE : 0;
+        mask |= continues(terrain, cols, rows, col + 1, row, continues) ? E : 0;
+        mask |= continues(terrain, cols, rows, col + 1, row + 1, continues) ? SE : 0;
+        mask |= continues(terrain, cols, rows, col, row + 1, continues) ? S : 0;
+        mask |= continues(terrain, cols, rows, col - 1, row + 1, continues) ? SW : 0;
+        mask |= continues(terrain, cols, rows, col - 1, row, continues) ? W : 0;
+        mask |= continues(terrain, cols, rows, col - 1, row - 1, continues) ? NW : 0;
+
+        return TILE_BY_MASK[cellTerrain * MASK_COUNT + mask];
+    }
+
+    private static boolean continues(byte[] terrain, int cols, int rows, int col, int row, int continues) {
+        if (col < 0 || col >= cols || row < 0 || row >= rows) return true;
+        return ((continues >>> terrain[row * cols + col]) & 1) != 0;
+    }
+
+    /*
+     * Returns the edge sheet cell for the given neighbour mask.
+     * Missing cardinal neighbours pick the outer edge/corner, otherwise a missing diagonal picks an inner corner.
+     * Shapes the sheets cannot draw (1 tile wide strips) fall back to the closest edge
+     */
+    private static int sheetCell(int mask) {
+        int sheetRow = (mask & N) == 0 ? 0 : (mask & S) == 0 ? 2 : 1;
+        int sheetCol = (mask & W) == 0 ? 0 : (mask & E) == 0 ? 2 : 1;
+        if (sheetRow != 1 || sheetCol != 1) return sheetRow * 3 + sheetCol;
+
+        if ((mask & SE) == 0) return 9;
+        if ((mask & SW) == 0) return 10;
+        if ((mask & NE) == 0) return 12;
+        if ((mask & NW) == 0) return 13;
+        return Terrain.SHEET_CENTER;
+    }
+
+    private static int bits(Terrain... terrains) {
+        int bits = 0;
+        for (Terrain terrain : terrains) {
+            bits |= 1 << terrain.ordinal();
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,320 @@
+package tile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled binary map format (.jtm), little-endian:
+ * <pre>
+ * magic          4 bytes   "JTMP"
+ * version        u16
+ * layer count    u16
+ * cols, rows     i32, i32
+ * tile set count u16
+ * tile sets      [first ID u16, tile count u16, name length u16, name UTF-8 bytes] * tile set count
+ * layers         [layer type u16, cells i16 * cols * rows (row-major)] * layer count
+ * object count   u16 (version 2-3), u32 (version 4+)                        (version 2+)
+ * objects        [type length u16, type UTF-8 bytes, col i32, row i32,
+ *                 property count u16,                                      (version 3+)
+ *                 [name length u16, name UTF-8 bytes, value length u16, value UTF-8 bytes] * property count
+ *                ] * object count
+ * </pre>
+ * Files on disk are memory-mapped: cells are read straight from the mapping, with no parsing.
+ * Strings and property counts are limited to 65535 (bytes, properties): larger values are refused on write
+ * @author LC
+ */
+public class BinaryMapFormat {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final String FILE_EXTENSION = ".jtm";
+    private static final byte[] MAGIC = {'J', 'T', 'M', 'P'};
+    private static final int VERSION = 4;
+    private static final int MIN_VERSION = 1;                                   // version 1: no objects
+    private static final int MAX_U16 = 0xFFFF;                                  // string lengths, property counts
+
+    /* ------------------------------------------- */
+
+    /**
+     * Opens the binary map at the given classpath resource path.
+     * Maps stored as files are memory-mapped, maps packed in a jar are read into memory
+     * @param resourcePath The classpath resource path (e.g. "maps/world01.jtm")
+     * @return The map data
+     * @throws IOException if the map cannot be read or is invalid
+     */
+    public static MapData openResource(String resourcePath) throws IOException {
+        URL url = BinaryMapFormat.class.getClassLoader().getResource(resourcePath);
+        if (url == null) {
+            throw new IOException("File not found: " + resourcePath);
+        }
+
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Path.of(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid map path: " + url, e);
+            }
+        }
+
+        try (InputStream is = url.openStream()) {
+            return read(ByteBuffer.wrap(is.readAllBytes()));
+        }
+    }
+
+    /**
+     * Opens the binary map at the given file path, memory-mapping it
+     * @param path The map file path
+     * @return The map data (layers are views over the mapping)
+     * @throws IOException if the map cannot be read or is invalid
+     */
+    public static MapData open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a binary map from the given buffer. Layers are views over the buffer (no copy)
+     * @param buffer The buffer containing the map file
+     * @return The map data
+     * @throws IOException if the map is invalid
+     */
+    public static MapData read(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) {
+                    throw new IOException("Not a binary map file");
+                }
+            }
+
+            int version = Short.toUnsignedInt(buffer.getShort());
+            if (version < MIN_VERSION || version > VERSION) {
+                throw new IOException("Unsupported map version: " + version);
+            }
+
+            int layerCount = Short.toUnsignedInt(buffer.getShort());
+            int cols = buffer.getInt();
+            int rows = buffer.getInt();
+            if (cols <= 0 || rows <= 0) {
+                throw new IOException("Invalid map size: " + cols + "x" + rows);
+            }
+
+            readTileSets(buffer);
+
+            MapData mapData = new MapData(cols, rows);
+            int layerBytes = Math.multiplyExact(Math.multiplyExact(cols, rows), Short.BYTES);
+
+            for (int i = 0; i < layerCount; i++) {
+                int layerType = Short.toUnsignedInt(buffer.getShort());
+
+                ByteBuffer layerBuffer = buffer.slice(buffer.position(), layerBytes).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.position(buffer.position() + layerBytes);
+
+                // Unknown (newer) layer types are skipped
+                if (layerType < MapData.MAX_LAYERS) {
+                    mapData.setLayer(layerType, layerBuffer.asShortBuffer());
+                }
+            }
+
+            if (!mapData.hasLayer(MapData.LAYER_GROUND)) {
+                throw new IOException("Map has no ground layer");
+            }
+
+            if (version >= 2) {
+                readObjects(buffer, mapData, version);
+            }
+
+            return mapData;
+
+        } catch (RuntimeException e) {
+            // Buffer underflow, out of bounds slices, overflowing sizes
+            throw new IOException("Corrupted map file: " + e, e);
+        }
+    }
+
+    /*
+     * Reads tile set references, warning if they do not match the runtime tile sets
+     * @param buffer The map buffer, positioned at the tile sets
+     */
+    private static void readTileSets(ByteBuffer buffer) {
+        int tileSetCount = Short.toUnsignedInt(buffer.getShort());
+
+        for (int i = 0; i < tileSetCount; i++) {
+            int firstId = Short.toUnsignedInt(buffer.getShort());
+            int tileCount = Short.toUnsignedInt(buffer.getShort());
+            byte[] nameBytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            TileSet tileSet = TileSet.fromName(name);
+            if (tileSet == null || tileSet.getFirstId() != firstId || tileSet.getTileCount() != tileCount) {
+                System.err.println("Map tile set '" + name + "' [" + firstId + ", " + tileCount
+                        + "] does not match runtime tile sets");
+            }
+        }
+    }
+
+    /*
+     * Reads object placements into the given map
+     * @param buffer The map buffer, positioned at the objects
+     * @param mapData The map to add objects to
+     * @param version The map file version
+     */
+    private static void readObjects(ByteBuffer buffer, MapData mapData, int version) {
+        int objectCount = version >= 4 ? buffer.getInt() : Short.toUnsignedInt(buffer.getShort());
+        if (objectCount < 0) {
+            throw new IllegalStateException("Invalid object count: " + Integer.toUnsignedString(objectCount));
+        }
+
+        for (int i = 0; i < objectCount; i++) {
+            String type = getString(buffer);
+            int col = buffer.getInt();
+            int row = buffer.getInt();
+
+            Map<String, String> properties = new LinkedHashMap<>();
+            if (version >= 3) {
+                int propertyCount = Short.toUnsignedInt(buffer.getShort());
+                for (int j = 0; j < propertyCount; j++) {
+                    properties.put(getString(buffer), getString(buffer));
+                }
+            }
+            mapData.getObjects().add(new MapObject(type, col, row, properties));
+        }
+    }
+
+    /*
+     * Reads a string (length u16, UTF-8 bytes)
+     */
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Writes a string (length u16, UTF-8 bytes)
+     */
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /*
+     * Encodes a string, checking that its length fits in a u16
+     * @throws IOException if the string is too long
+     */
+    private static byte[] encodeString(String value, String what) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_U16) {
+            throw new IOException(what + " too long (" + bytes.length + " bytes, max " + MAX_U16 + ")");
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the given map to a binary map file
+     * @param mapData The map to write
+     * @param path The output file path
+     * @throws IOException if the file cannot be written, or a string or property count is too large for the format
+     */
+    public static void write(MapData mapData, Path path) throws IOException {
+        int cols = mapData.getCols();
+        int rows = mapData.getRows();
+
+        // Header size
+        int size = MAGIC.length + Short.BYTES * 2 + Integer.BYTES * 2 + Short.BYTES;
+        for (TileSet tileSet : TileSet.values()) {
+            size += Short.BYTES * 3 + tileSet.getName().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        // Layers size
+        int layerCount = 0;
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (mapData.hasLayer(layerType)) {
+                layerCount++;
+                size += Short.BYTES + cols * rows * Short.BYTES;
+            }
+        }
+
+        // Objects size (strings are encoded once, in object order, and checked against the format limits)
+        List<byte[]> objectStrings = new ArrayList<>();
+        size += Integer.BYTES;
+        for (MapObject object : mapData.getObjects()) {
+            if (object.getProperties().size() > MAX_U16) {
+                throw new IOException("Too many properties on object '" + object.getType() + "' ("
+                        + object.getProperties().size() + ", max " + MAX_U16 + ")");
+            }
+
+            byte[] type = encodeString(object.getType(), "Object type");
+            objectStrings.add(type);
+            size = Math.addExact(size, Short.BYTES + type.length + Integer.BYTES * 2 + Short.BYTES);
+            for (Map.Entry<String, String> property : object.getProperties().entrySet()) {
+                byte[] name = encodeString(property.getKey(), "Property name");
+                byte[] value = encodeString(property.getValue(), "Property '" + property.getKey() + "' value");
+                objectStrings.add(name);
+                objectStrings.add(value);
+                size = Math.addExact(size, Short.BYTES * 2 + name.length + value.length);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) layerCount);
+        buffer.putInt(cols);
+        buffer.putInt(rows);
+
+        buffer.putShort((short) TileSet.values().length);
+        for (TileSet tileSet : TileSet.values()) {
+            byte[] nameBytes = tileSet.getName().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) tileSet.getFirstId());
+            buffer.putShort((short) tileSet.getTileCount());
+            buffer.putShort((short) nameBytes.length);
+            buffer.put(nameBytes);
+        }
+
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (!mapData.hasLayer(layerType)) continue;
+
+            buffer.putShort((short) layerType);
+            ShortBuffer cells = mapData.getLayer(layerType).duplicate();
+            cells.rewind();
+            buffer.asShortBuffer().put(cells);
+            buffer.position(buffer.position() + cols * rows * Short.BYTES);
+        }
+
+        buffer.putInt(mapData.getObjects().size());
+        Iterator<byte[]> strings = objectStrings.iterator();
+        for (MapObject object : mapData.getObjects()) {
+            putString(buffer, strings.next());
+            buffer.putInt(object.getWorldCol());
+            buffer.putInt(object.getWorldRow());
+
+            buffer.putShort((short) object.getProperties().size());
+            for (int i = 0; i < object.getProperties().size(); i++) {
+                putString(buffer, strings.next());
+                putString(buffer, strings.next());
+            }
+        }
+
+        Files.write(path, buffer.array());
+    }
+}
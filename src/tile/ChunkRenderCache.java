@@ -0,0 +1,160 @@
+package tile;
+
+import game_logic.GamePanel;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of pre-rendered tile map chunks (square blocks of CHUNK_SIZE x CHUNK_SIZE tiles).
+ * A chunk image is rendered once, compositing all the static map layers of the cache, and then shared
+ * by every viewport drawing it, so each view draws a handful of chunk images instead of hundreds of tiles per layer.
+ * Least recently used chunks are evicted (and their image reused) when the cache is full.
+ * Chunks can be rendered at native tile resolution (ORIGINAL_TILE_SIZE) to be upscaled when drawn
+ * @author LC
+ */
+public class ChunkRenderCache {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final int CHUNK_SIZE = 8;                                        // chunk side (in tiles)
+    public static final int CHUNK_PIXEL_SIZE = CHUNK_SIZE * GamePanel.TILE_SIZE;   // chunk side (in pixels)
+    private static final int NATIVE_CHUNK_PIXEL_SIZE = CHUNK_SIZE * GamePanel.ORIGINAL_TILE_SIZE;
+    private static final int MAX_CACHED_CHUNKS = 32;
+
+    /* ------------------------------------------- */
+
+    private final TileManager tileManager;
+
+    // COMPOSITED LAYERS (map layer types, bottom to top)
+    private final int[] layerTypes;
+    private final boolean transparent;          // true for layers drawn over entities (empty cells stay see-through)
+
+    // CACHED CHUNKS (access ordered: eldest entry is the least recently drawn chunk)
+    private final LinkedHashMap<Long, BufferedImage> chunks = new LinkedHashMap<>(MAX_CACHED_CHUNKS, 0.75f, true);
+
+    // RENDER RESOLUTION
+    private boolean nativeResolution = false;
+
+
+    public ChunkRenderCache(TileManager tileManager, int[] layerTypes, boolean transparent) {
+        this.tileManager = tileManager;
+        this.layerTypes = layerTypes;
+        this.transparent = transparent;
+    }
+
+    /**
+     * Returns the rendered image of the given chunk, rendering it if not cached
+     * @param chunkCol The chunk column
+     * @param chunkRow The chunk row
+     * @return The chunk image
+     */
+    public synchronized BufferedImage getChunk(int chunkCol, int chunkRow) {
+        long key = chunkKey(chunkCol, chunkRow);
+        BufferedImage image = chunks.get(key);
+
+        if (image == null) {
+            image = takeImage();
+            renderChunk(image, chunkCol, chunkRow);
+            chunks.put(key, image);
+        }
+
+        return image;
+    }
+
+    /*
+     * Returns an image for a new chunk: reuses the least recently used chunk image if the cache is full
+     * @return The chunk image to render on
+     */
+    private BufferedImage takeImage() {
+        if (chunks.size() >= MAX_CACHED_CHUNKS) {
+            Iterator<Map.Entry<Long, BufferedImage>> eldest = chunks.entrySet().iterator();
+            BufferedImage image = eldest.next().getValue();
+            eldest.remove();
+            return image;
+        }
+        int size = nativeResolution ? NATIVE_CHUNK_PIXEL_SIZE : CHUNK_PIXEL_SIZE;
+        return new BufferedImage(size, size, transparent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    }
+
+    /*
+     * Renders the tiles of every composited layer of the given chunk into the given image
+     * @param image The image to render on
+     * @param chunkCol The chunk column
+     * @param chunkRow The chunk row
+     */
+    private void renderChunk(BufferedImage image, int chunkCol, int chunkRow) {
+        Graphics2D g2 = image.createGraphics();
+        if (transparent) {
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g2.setComposite(AlphaComposite.SrcOver);
+        } else {
+            g2.setColor(Color.BLACK);
+            g2.fillRect(0, 0, image.getWidth(), image.getHeight());
+        }
+
+        int tileSize = nativeResolution ? GamePanel.ORIGINAL_TILE_SIZE : GamePanel.TILE_SIZE;
+
+        int firstCol = chunkCol * CHUNK_SIZE;
+        int firstRow = chunkRow * CHUNK_SIZE;
+        int lastCol = Math.min(firstCol + CHUNK_SIZE, tileManager.getWorldCols());
+        int lastRow = Math.min(firstRow + CHUNK_SIZE, tileManager.getWorldRows());
+
+        for (int layerType : layerTypes) {
+            for (int worldRow = firstRow; worldRow < lastRow; worldRow++) {
+                for (int worldCol = firstCol; worldCol < lastCol; worldCol++) {
+                    int tileNum = tileManager.getTileUnchecked(layerType, worldCol, worldRow);
+                    BufferedImage tileImage = nativeResolution ? tileManager.getNativeTileImage(tileNum)
+                                                               : tileManager.getTileImage(tileNum);
+
+                    // Skip empty cells and invalid tile indexes
+                    if (tileImage == null) continue;
+
+                    int x = (worldCol - firstCol) * tileSize;
+                    int y = (worldRow - firstRow) * tileSize;
+                    g2.drawImage(tileImage, x, y, null);
+                }
+            }
+        }
+
+        g2.dispose();
+    }
+
+    /**
+     * Sets chunks render resolution. Cached chunks are dropped if the resolution changes
+     * @param nativeResolution true to render chunks at native tile resolution, false at scaled resolution
+     */
+    public synchronized void setNativeResolution(boolean nativeResolution) {
+        if (this.nativeResolution != nativeResolution) {
+            this.nativeResolution = nativeResolution;
+            chunks.clear();
+        }
+    }
+
+    /**
+     * Invalidates the chunk containing the given tile (e.g. after the tile changed)
+     * @param worldCol The tile world column
+     * @param worldRow The tile world row
+     */
+    public synchronized void invalidateTile(int worldCol, int worldRow) {
+        chunks.remove(chunkKey(worldCol / CHUNK_SIZE, worldRow / CHUNK_SIZE));
+    }
+
+    /**
+     * Invalidates all cached chunks (e.g. after the map is reloaded)
+     */
+    public synchronized void clear() {
+        chunks.clear();
+    }
+
+    /*
+     * Packs chunk coordinates in a single map key
+     */
+    private static long chunkKey(int chunkCol, int chunkRow) {
+        return ((long) chunkCol << 32) | (chunkRow & 0xFFFFFFFFL);
+    }
+}
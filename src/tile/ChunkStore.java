@@ -0,0 +1,621 @@
+package tile;
+
+import entity.Entity;
+import game_logic.GamePanel;
+
+import java.awt.Point;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Streams the layers of a map in square chunks of CHUNK_SIZE x CHUNK_SIZE tiles (see MapChunk).
+ * The map source (usually a memory-mapped binary map) is never fully decoded: chunks around the players
+ * are decoded on a background thread before they are needed, kept in an LRU with a configurable budget
+ * and evicted once every player is far away. A tile read from a chunk that is not resident yet
+ * decodes that single chunk on the calling thread, so reads never block on the loader.
+ * Resident chunks are published in a chunk table read without locking: a tile read is a volatile
+ * array read plus the chunk cell read, so the renderer and concurrent collision queries never contend
+ * with each other or with the loader. Writers (loads, evictions, tile changes) hold the store lock;
+ * changed chunks are copied, changed and published as a whole, so readers never see half a change.
+ * The LRU order is refreshed once per frame (see update) rather than on every read.
+ * Chunks changed at runtime are pinned, since the map source does not hold their changes
+ * @author LC
+ */
+public class ChunkStore {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final int CHUNK_SIZE = 32;                                    // chunk side (in tiles)
+    public static final int DEFAULT_MAX_RESIDENT_CHUNKS = 64;                   // 64 * 1 KB per layer (byte cells)
+    private static final int PRELOAD_RADIUS = 1;                                // chunks loaded around each player
+    private static final int EVICT_RADIUS = PRELOAD_RADIUS + 2;                 // chunks kept around each player
+    private static final short INVALID_TILE_REPLACEMENT = 0;
+
+    /* ------------------------------------------- */
+
+    // MAP SOURCE
+    private MapData map;
+    private int worldCols, worldRows;           // read under the lock, lock-free readers use the chunk table
+    private int[] tileAttributes;               // attribute word of each valid tile ID
+    private final boolean[] layerPresent = new boolean[MapData.MAX_LAYERS];
+    private int generation = 0;                 // incremented on map change, discards outdated background loads
+    private volatile int revision = 0;          // incremented on every map or tile change
+    private int mapRevision = 0;                // revision of the last map change
+
+    // CHUNK TABLE (read without locking, slot = chunkRow * chunkCols + chunkCol, null: not resident).
+    // Each lock-free access reads the table once and checks bounds against its own size, so a map switch
+    // never mixes the size of one map with the chunks of another
+    private volatile ChunkTable table = new ChunkTable(0, null, new int[0], 0, 0, 0, new AtomicReferenceArray<>(0));
+
+    private record ChunkTable(int generation, MapData map, int[] tileAttributes, int cols, int rows, int chunkCols,
+                              AtomicReferenceArray<MapChunk> chunks) {
+        boolean contains(int worldCol, int worldRow) {
+            return worldCol >= 0 && worldCol < cols && worldRow >= 0 && worldRow < rows;
+        }
+    }
+
+    // RESIDENT CHUNKS (access ordered: eldest entry is the least recently used chunk)
+    private final LinkedHashMap<Long, MapChunk> resident = new LinkedHashMap<>(DEFAULT_MAX_RESIDENT_CHUNKS, 0.75f, true);
+    private final Map<Long, MapChunk> modifiedChunks = new HashMap<>();
+    private final Map<Long, Integer> chunkRevisions = new HashMap<>();   // revision of the last change of each modified chunk
+    private final Set<Long> pendingLoads = new HashSet<>();
+    private int maxResidentChunks;
+
+    // LAST CHUNK OF EACH TRACKED ENTITY (streaming only runs on chunk change)
+    private final Map<Entity, Long> lastChunks = new HashMap<>();
+
+    // BACKGROUND LOADER
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Chunk Loader");
+        thread.setDaemon(true);                 // pending loads must not keep the game alive
+        return thread;
+    });
+
+    // STATS
+    private int syncLoads = 0;
+
+
+    public ChunkStore(int maxResidentChunks) {
+        this.maxResidentChunks = maxResidentChunks;
+    }
+
+    /**
+     * Sets the map to stream from. Resident chunks are dropped
+     * @param mapData The map data
+     * @param tileAttributes The attribute word of each valid tile ID (see TileAttributes).
+     *                       Invalid IDs are replaced by a placeholder tile [ID = 0] on the ground layer,
+     *                       and cleared on the other layers
+     */
+    public synchronized void setMap(MapData mapData, int[] tileAttributes) {
+        this.map = mapData;
+        this.worldCols = mapData.getCols();
+        this.worldRows = mapData.getRows();
+        this.tileAttributes = tileAttributes;
+        this.generation++;
+        this.revision++;
+        this.mapRevision = revision;
+
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            layerPresent[layerType] = mapData.hasLayer(layerType);
+        }
+
+        int chunkCols = Math.ceilDiv(worldCols, CHUNK_SIZE);
+        int chunkRows = Math.ceilDiv(worldRows, CHUNK_SIZE);
+        table = new ChunkTable(generation, mapData, tileAttributes, worldCols, worldRows, chunkCols,
+                new AtomicReferenceArray<>(chunkCols * chunkRows));
+
+        resident.clear();
+        modifiedChunks.clear();
+        chunkRevisions.clear();
+        pendingLoads.clear();
+        lastChunks.clear();
+    }
+
+    /**
+     * Returns the tile ID at the given world tile, decoding its chunk if not resident
+     * @param layerType The map layer type (see MapData)
+     * @param worldCol The tile world column
+     * @param worldRow The tile world row
+     * @return The tile ID, -1 if outside the world or empty
+     */
+    public int getTile(int layerType, int worldCol, int worldRow) {
+        ChunkTable current = table;
+        if (!current.contains(worldCol, worldRow)) return TileGrid.EMPTY_TILE;
+        return getChunk(current, worldCol / CHUNK_SIZE, worldRow / CHUNK_SIZE)
+                .getTile(layerType, worldCol % CHUNK_SIZE, worldRow % CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the tile ID at the given world tile, without bounds checks
+     * @param layerType The map layer type (see MapData)
+     * @param worldCol The tile world column (0 <= worldCol < worldCols)
+     * @param worldRow The tile world row (0 <= worldRow < worldRows)
+     * @return The tile ID, -1 if empty
+     */
+    public int getTileUnchecked(int layerType, int worldCol, int worldRow) {
+        return getChunk(table, worldCol / CHUNK_SIZE, worldRow / CHUNK_SIZE)
+                .getTile(layerType, worldCol % CHUNK_SIZE, worldRow % CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the attribute word of the given world tile, without bounds checks
+     * @param worldCol The tile world column (0 <= worldCol < worldCols)
+     * @param worldRow The tile world row (0 <= worldRow < worldRows)
+     * @return The cell attributes (see TileAttributes)
+     */
+    public int getAttributesUnchecked(int worldCol, int worldRow) {
+        return getChunk(table, worldCol / CHUNK_SIZE, worldRow / CHUNK_SIZE)
+                .getAttributes(worldCol % CHUNK_SIZE, worldRow % CHUNK_SIZE);
+    }
+
+    /**
+     * Checks if the given world tile blocks movement, without bounds checks
+     * @param worldCol The tile world column (0 <= worldCol < worldCols)
+     * @param worldRow The tile world row (0 <= worldRow < worldRows)
+     * @return true if the tile is solid, false otherwise
+     */
+    public boolean isSolidUnchecked(int worldCol, int worldRow) {
+        return getChunk(table, worldCol / CHUNK_SIZE, worldRow / CHUNK_SIZE)
+                .isSolid(worldCol % CHUNK_SIZE, worldRow % CHUNK_SIZE);
+    }
+
+    /**
+     * Sets the tile of the given layer at the given world tile, rebuilding the cell attributes.
+     * Invalid tile IDs are replaced as when decoding the map. The chunk is pinned until the next map change
+     * @param layerType The map layer type (see MapData)
+     * @param worldCol The tile world column
+     * @param worldRow The tile world row
+     * @param tileId The tile ID (TileGrid.EMPTY_TILE to clear the cell)
+     * @throws IndexOutOfBoundsException if the tile is outside the world
+     */
+    public synchronized void setTile(int layerType, int worldCol, int worldRow, int tileId) {
+        if (!isInsideWorld(worldCol, worldRow)) {
+            throw new IndexOutOfBoundsException("Tile (" + worldCol + "," + worldRow + ") outside the world");
+        }
+
+        Map<Long, MapChunk> changedChunks = new HashMap<>(1);
+        changeTile(layerType, worldCol, worldRow, tileId, changedChunks);
+        publishChanges(changedChunks);
+    }
+
+    /**
+     * Applies the given tile changes at once: readers see either none or all of them.
+     * Changes outside the world are ignored
+     * @param changes The tile changes to apply
+     */
+    public synchronized void setTiles(List<TileChange> changes) {
+        Map<Long, MapChunk> changedChunks = new HashMap<>();
+        for (TileChange change : changes) {
+            if (isInsideWorld(change.getWorldCol(), change.getWorldRow())) {
+                changeTile(change.getLayerType(), change.getWorldCol(), change.getWorldRow(), change.getTileNum(), changedChunks);
+            }
+        }
+        publishChanges(changedChunks);
+    }
+
+    /*
+     * Sets a tile in a private copy of its chunk (copied on the first change of the batch)
+     * @param changedChunks The copies of the chunks changed by the batch, by chunk key
+     */
+    private void changeTile(int layerType, int worldCol, int worldRow, int tileId, Map<Long, MapChunk> changedChunks) {
+        int layerTileCount = layerType == MapData.LAYER_COLLISION ? MapData.COLLISION_VALUES : tileAttributes.length;
+        if (tileId != TileGrid.EMPTY_TILE && (tileId < 0 || tileId >= layerTileCount)) {
+            System.err.println("Invalid tile index at (" + worldCol + "," + worldRow + "): " + tileId);
+            tileId = layerType == MapData.LAYER_GROUND ? INVALID_TILE_REPLACEMENT : TileGrid.EMPTY_TILE;
+        }
+
+        int chunkCol = worldCol / CHUNK_SIZE;
+        int chunkRow = worldRow / CHUNK_SIZE;
+        MapChunk chunk = changedChunks.get(chunkKey(chunkCol, chunkRow));
+        if (chunk == null) {
+            chunk = getChunk(table, chunkCol, chunkRow).copy();
+            changedChunks.put(chunkKey(chunkCol, chunkRow), chunk);
+        }
+        chunk.setTile(layerType, worldCol % CHUNK_SIZE, worldRow % CHUNK_SIZE, tileId, tileAttributes);
+        layerPresent[layerType] |= tileId != TileGrid.EMPTY_TILE;
+    }
+
+    /*
+     * Publishes changed chunks, pinning them. A change spanning several chunks is published in a new table,
+     * so readers see all of its chunks or none
+     */
+    private void publishChanges(Map<Long, MapChunk> changedChunks) {
+        if (changedChunks.isEmpty()) return;
+
+        ChunkTable current = table;
+        AtomicReferenceArray<MapChunk> chunks = current.chunks();
+        if (changedChunks.size() > 1) {
+            chunks = new AtomicReferenceArray<>(chunks.length());
+            for (int slot = 0; slot < chunks.length(); slot++) {
+                chunks.setPlain(slot, current.chunks().getPlain(slot));
+            }
+        }
+
+        revision++;
+        for (Map.Entry<Long, MapChunk> entry : changedChunks.entrySet()) {
+            long key = entry.getKey();
+            resident.remove(key);
+            modifiedChunks.put(key, entry.getValue());
+            chunkRevisions.put(key, revision);
+            chunks.set(slotOf(current, key), entry.getValue());
+        }
+
+        if (chunks != current.chunks()) {
+            table = new ChunkTable(current.generation(), current.map(), current.tileAttributes(),
+                    current.cols(), current.rows(), current.chunkCols(), chunks);
+        }
+    }
+
+    /**
+     * Copies the attribute word of every cell of the map, runtime changes included (e.g. to build a navigation grid).
+     * Chunks are decoded on the calling thread outside the lock and never enter the LRU,
+     * so copying a large map neither blocks tile reads nor evicts the chunks around the players
+     * @param attributes The buffer receiving the cell attributes (row-major, at least worldCols * worldRows)
+     * @return The revision of the copied cells (see getRevision)
+     */
+    public int copyAttributes(int[] attributes) {
+        MapData source;
+        int[] sourceAttributes;
+        Map<Long, MapChunk> changedChunks;
+        int copiedRevision;
+        synchronized (this) {
+            source = map;
+            sourceAttributes = tileAttributes;
+            changedChunks = new HashMap<>(modifiedChunks);
+            copiedRevision = revision;
+        }
+
+        int cols = source.getCols();
+        int rows = source.getRows();
+        for (int chunkRow = 0; chunkRow * CHUNK_SIZE < rows; chunkRow++) {
+            for (int chunkCol = 0; chunkCol * CHUNK_SIZE < cols; chunkCol++) {
+                MapChunk chunk = changedChunks.get(chunkKey(chunkCol, chunkRow));
+                if (chunk == null) chunk = decodeChunk(source, sourceAttributes, chunkCol, chunkRow);
+
+                int firstCol = chunkCol * CHUNK_SIZE;
+                int firstRow = chunkRow * CHUNK_SIZE;
+                copyChunkAttributes(chunk, Math.min(CHUNK_SIZE, cols - firstCol), Math.min(CHUNK_SIZE, rows - firstRow),
+                        attributes, firstRow * cols + firstCol, cols);
+            }
+        }
+        return copiedRevision;
+    }
+
+    /**
+     * Lists the chunks changed at runtime after the given revision (e.g. to update a navigation grid built then)
+     * @param sinceRevision The revision of the last copy (see getRevision)
+     * @param changedChunks The list receiving the chunk coordinates (not cleared)
+     * @return The current revision, -1 if the map itself changed since (every chunk must be copied again)
+     */
+    public synchronized int getChangedChunks(int sinceRevision, List<Point> changedChunks) {
+        if (sinceRevision < mapRevision) return -1;
+
+        for (Map.Entry<Long, Integer> entry : chunkRevisions.entrySet()) {
+            if (entry.getValue() > sinceRevision) {
+                long key = entry.getKey();
+                changedChunks.add(new Point((int) (key >> 32), (int) key));
+            }
+        }
+        return revision;
+    }
+
+    /**
+     * Copies the attribute word of every cell of a chunk
+     * @param chunkCol The chunk column
+     * @param chunkRow The chunk row
+     * @param attributes The buffer receiving the cell attributes (row-major, CHUNK_SIZE x CHUNK_SIZE,
+     *                   cells beyond the world edge are left as they are)
+     */
+    public synchronized void copyChunkAttributes(int chunkCol, int chunkRow, int[] attributes) {
+        MapChunk chunk = modifiedChunks.get(chunkKey(chunkCol, chunkRow));
+        if (chunk == null) chunk = decodeChunk(chunkCol, chunkRow);
+
+        copyChunkAttributes(chunk, Math.min(CHUNK_SIZE, worldCols - chunkCol * CHUNK_SIZE),
+                Math.min(CHUNK_SIZE, worldRows - chunkRow * CHUNK_SIZE), attributes, 0, CHUNK_SIZE);
+    }
+
+    private static void copyChunkAttributes(MapChunk chunk, int width, int height, int[] attributes, int offset, int stride) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                attributes[offset + y * stride + x] = chunk.getAttributes(x, y);
+            }
+        }
+    }
+
+    /**
+     * Copies the current cells of every layer of the map: the map source with the runtime changes applied
+     * (e.g. to save an edited map). Invalid tile IDs of chunks never read are copied as they are
+     * @return The map data, without object placements
+     */
+    public synchronized MapData snapshot() {
+        MapData snapshot = new MapData(worldCols, worldRows);
+        short[][] layerCells = new short[MapData.MAX_LAYERS][];
+
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (!layerPresent[layerType]) continue;
+
+            short[] cells = new short[worldCols * worldRows];
+            ShortBuffer source = map.getLayer(layerType);
+            if (source != null) {
+                source.get(0, cells);
+            } else {
+                Arrays.fill(cells, (short) TileGrid.EMPTY_TILE);
+            }
+            layerCells[layerType] = cells;
+            snapshot.setLayer(layerType, ShortBuffer.wrap(cells));
+        }
+
+        for (Map.Entry<Long, MapChunk> entry : modifiedChunks.entrySet()) {
+            int firstCol = (int) (entry.getKey() >> 32) * CHUNK_SIZE;
+            int firstRow = (int) (long) entry.getKey() * CHUNK_SIZE;
+            int width = Math.min(CHUNK_SIZE, worldCols - firstCol);
+            int height = Math.min(CHUNK_SIZE, worldRows - firstRow);
+
+            for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+                short[] cells = layerCells[layerType];
+                if (cells == null) continue;
+
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        cells[(firstRow + y) * worldCols + firstCol + x] = (short) entry.getValue().getTile(layerType, x, y);
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Checks if the loaded map has the given layer
+     * @param layerType The map layer type (see MapData)
+     * @return true if the map has the layer, false otherwise
+     */
+    public synchronized boolean hasLayer(int layerType) {
+        return layerPresent[layerType];
+    }
+
+    /*
+     * Returns the given chunk from a chunk table read by the caller (no locking), decoding it if not resident
+     */
+    private MapChunk getChunk(ChunkTable current, int chunkCol, int chunkRow) {
+        MapChunk chunk = current.chunks().get(chunkRow * current.chunkCols() + chunkCol);
+        return chunk != null ? chunk : loadChunkNow(current, chunkCol, chunkRow);
+    }
+
+    /*
+     * Not preloaded (e.g. teleport, first frame): decodes the chunk now rather than return a wrong tile
+     * @param readTable The table the chunk was missing from
+     */
+    private synchronized MapChunk loadChunkNow(ChunkTable readTable, int chunkCol, int chunkRow) {
+        // The map changed since the read (e.g. renderer during a map switch): decode from the map it was read on
+        if (readTable.generation() != generation) {
+            return decodeChunk(readTable.map(), readTable.tileAttributes(), chunkCol, chunkRow);
+        }
+
+        long key = chunkKey(chunkCol, chunkRow);
+        MapChunk chunk = table.chunks().get(slotOf(table, key));
+        if (chunk != null) return chunk;        // loaded or changed meanwhile
+
+        chunk = decodeChunk(chunkCol, chunkRow);
+        putChunk(key, chunk);
+        syncLoads++;
+        return chunk;
+    }
+
+    /**
+     * Streams chunks around the given entities: chunks within PRELOAD_RADIUS are queued for background loading,
+     * chunks beyond EVICT_RADIUS from every entity are evicted. Work is done only when an entity enters a new chunk
+     * @param entities The entities streaming the map (players)
+     */
+    public synchronized void update(List<? extends Entity> entities) {
+        if (map == null) return;
+
+        boolean changed = false;
+        for (Entity entity : entities) {
+            int chunkCol = Math.floorDiv(entity.getWorldX() + entity.getSolidArea().x(), GamePanel.TILE_SIZE * CHUNK_SIZE);
+            int chunkRow = Math.floorDiv(entity.getWorldY() + entity.getSolidArea().y(), GamePanel.TILE_SIZE * CHUNK_SIZE);
+            touchAround(chunkCol, chunkRow);
+
+            long chunk = chunkKey(chunkCol, chunkRow);
+            Long lastChunk = lastChunks.put(entity, chunk);
+
+            if (lastChunk == null || lastChunk != chunk) {
+                changed = true;
+                preloadAround(chunkCol, chunkRow);
+            }
+        }
+
+        if (changed) {
+            evictFarChunks();
+        }
+    }
+
+    /*
+     * Marks the resident chunks within PRELOAD_RADIUS of the given chunk as recently used
+     * (reads do not touch the LRU, the chunks around the players are the ones being read)
+     */
+    private void touchAround(int chunkCol, int chunkRow) {
+        for (int row = chunkRow - PRELOAD_RADIUS; row <= chunkRow + PRELOAD_RADIUS; row++) {
+            for (int col = chunkCol - PRELOAD_RADIUS; col <= chunkCol + PRELOAD_RADIUS; col++) {
+                resident.get(chunkKey(col, row));
+            }
+        }
+    }
+
+    /*
+     * Queues background loads for the chunks within PRELOAD_RADIUS of the given chunk
+     */
+    private void preloadAround(int chunkCol, int chunkRow) {
+        int maxChunkCol = (worldCols - 1) / CHUNK_SIZE;
+        int maxChunkRow = (worldRows - 1) / CHUNK_SIZE;
+
+        for (int row = Math.max(0, chunkRow - PRELOAD_RADIUS); row <= Math.min(maxChunkRow, chunkRow + PRELOAD_RADIUS); row++) {
+            for (int col = Math.max(0, chunkCol - PRELOAD_RADIUS); col <= Math.min(maxChunkCol, chunkCol + PRELOAD_RADIUS); col++) {
+                long key = chunkKey(col, row);
+
+                if (resident.containsKey(key) || modifiedChunks.containsKey(key) || !pendingLoads.add(key)) continue;
+
+                int loadCol = col;
+                int loadRow = row;
+                int loadGeneration = generation;
+                loader.execute(() -> loadChunk(loadCol, loadRow, loadGeneration));
+            }
+        }
+    }
+
+    /*
+     * Background task: decodes the given chunk and makes it resident, unless the map changed meanwhile
+     */
+    private void loadChunk(int chunkCol, int chunkRow, int loadGeneration) {
+        MapData loadMap;
+        int[] loadTileAttributes;
+        synchronized (this) {
+            if (loadGeneration != generation) return;
+            loadMap = map;
+            loadTileAttributes = tileAttributes;
+        }
+
+        // Decoding (page faults on the mapped file included) runs outside the lock
+        MapChunk chunk = decodeChunk(loadMap, loadTileAttributes, chunkCol, chunkRow);
+
+        synchronized (this) {
+            long key = chunkKey(chunkCol, chunkRow);
+            if (loadGeneration != generation || !pendingLoads.remove(key)) return;
+            if (!resident.containsKey(key) && !modifiedChunks.containsKey(key)) {
+                putChunk(key, chunk);
+            }
+        }
+    }
+
+    /*
+     * Decodes the given chunk from the current map source
+     */
+    private MapChunk decodeChunk(int chunkCol, int chunkRow) {
+        return decodeChunk(map, tileAttributes, chunkCol, chunkRow);
+    }
+
+    /*
+     * Copies the tiles of the given chunk out of every map layer, replacing invalid tile IDs,
+     * and computes the chunk cell attributes. Tiles beyond the world edge (partial chunks) are left empty
+     * @return The chunk
+     */
+    private static MapChunk decodeChunk(MapData map, int[] tileAttributes, int chunkCol, int chunkRow) {
+        TileGrid[] layers = new TileGrid[MapData.MAX_LAYERS];
+        int validTileCount = tileAttributes.length;
+
+        int cols = map.getCols();
+        int firstCol = chunkCol * CHUNK_SIZE;
+        int firstRow = chunkRow * CHUNK_SIZE;
+        int width = Math.min(CHUNK_SIZE, cols - firstCol);
+        int height = Math.min(CHUNK_SIZE, map.getRows() - firstRow);
+        int invalidTiles = 0;
+
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            ShortBuffer source = map.getLayer(layerType);
+            if (source == null) continue;
+
+            int layerTileCount = layerType == MapData.LAYER_COLLISION ? MapData.COLLISION_VALUES : validTileCount;
+            int replacement = layerType == MapData.LAYER_GROUND ? INVALID_TILE_REPLACEMENT : TileGrid.EMPTY_TILE;
+            TileGrid grid = new TileGrid(CHUNK_SIZE, CHUNK_SIZE, layerTileCount);
+
+            for (int y = 0; y < height; y++) {
+                // Absolute gets: no shared buffer position, safe for concurrent readers
+                invalidTiles += grid.copyRow(source, (firstRow + y) * cols + firstCol, 0, y, width,
+                        layerTileCount, replacement);
+            }
+            layers[layerType] = grid;
+        }
+
+        if (invalidTiles > 0) {
+            System.err.println("Replaced " + invalidTiles + " invalid tile indexes in chunk (" + chunkCol + "," + chunkRow + ")");
+        }
+
+        return new MapChunk(layers, tileAttributes);
+    }
+
+    /*
+     * Makes the given chunk resident, evicting least recently read chunks over budget
+     */
+    private void putChunk(long key, MapChunk chunk) {
+        resident.put(key, chunk);
+        table.chunks().set(slotOf(table, key), chunk);
+
+        Iterator<Long> eldest = resident.keySet().iterator();
+        while (resident.size() > maxResidentChunks && eldest.hasNext()) {
+            table.chunks().set(slotOf(table, eldest.next()), null);
+            eldest.remove();
+        }
+    }
+
+    /*
+     * Evicts resident chunks further than EVICT_RADIUS from every tracked entity
+     */
+    private void evictFarChunks() {
+        resident.keySet().removeIf(key -> {
+            int chunkCol = (int) (key >> 32);
+            int chunkRow = (int) (long) key;
+
+            for (long entityChunk : lastChunks.values()) {
+                int entityCol = (int) (entityChunk >> 32);
+                int entityRow = (int) entityChunk;
+                if (Math.abs(chunkCol - entityCol) <= EVICT_RADIUS && Math.abs(chunkRow - entityRow) <= EVICT_RADIUS) {
+                    return false;
+                }
+            }
+            table.chunks().set(slotOf(table, key), null);
+            return true;
+        });
+    }
+
+    /**
+     * Checks if the given tile is within world boundaries
+     * @param worldCol The tile world column
+     * @param worldRow The tile world row
+     * @return true if inside the world, false otherwise
+     */
+    public boolean isInsideWorld(int worldCol, int worldRow) {
+        return table.contains(worldCol, worldRow);
+    }
+
+    /*
+     * Packs chunk coordinates in a single map key
+     */
+    private static long chunkKey(int chunkCol, int chunkRow) {
+        return ((long) chunkCol << 32) | (chunkRow & 0xFFFFFFFFL);
+    }
+
+    private static int slotOf(ChunkTable chunkTable, long key) {
+        return (int) key * chunkTable.chunkCols() + (int) (key >> 32);
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getWorldCols() { return table.cols(); }
+    public int getWorldRows() { return table.rows(); }
+    public synchronized int getResidentChunkCount() { return resident.size(); }
+    public synchronized int getSyncLoads() { return syncLoads; }
+    public int getMaxResidentChunks() { return maxResidentChunks; }
+    public int getRevision() { return revision; }
+
+    /* ------------------------------------------------ */
+
+
+    /* --------------- [SETTER METHODS] --------------- */
+
+    public synchronized void setMaxResidentChunks(int maxResidentChunks) {
+        this.maxResidentChunks = Math.max(1, maxResidentChunks);
+    }
+
+    /* ------------------------------------------------ */
+}
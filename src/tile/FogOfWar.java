@@ -0,0 +1,322 @@
+package tile;
+
+import entity.Entity;
+import game_logic.Camera;
+import game_logic.GamePanel;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fog of war exploration layer.
+ * Explored tiles are stored in a packed bitset (one bit per tile, row-major) and revealed incrementally
+ * in a radius around each player, only when the player enters a new tile.
+ * The fog overlay is cached in small per-chunk images (one pixel per tile, upscaled when drawn)
+ * that are patched only where a tile flips to explored
+ * @author LC
+ */
+public class FogOfWar {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // REVEAL
+    public static final int REVEAL_RADIUS = 5;                                  // in tiles
+
+    // OVERLAY
+    private static final int FOG_CHUNK_SIZE = 32;                               // overlay chunk side (in tiles)
+    private static final int FOG_CHUNK_PIXEL_SIZE = FOG_CHUNK_SIZE * GamePanel.TILE_SIZE;
+    private static final int MAX_CACHED_CHUNKS = 32;
+    private static final int FOG_COLOR = 0xFF000000;                            // opaque black (ARGB)
+    private static final int CLEAR_COLOR = 0x00000000;                          // transparent (ARGB)
+
+    // SAVE FILE
+    private static final int SAVE_MAGIC = 0x464F4731;                           // "FOG1"
+
+    /* ------------------------------------------- */
+
+    // WORLD SIZE
+    private int worldCols, worldRows;
+
+    // EXPLORED TILES (bit index = row * worldCols + col)
+    private long[] explored;
+
+    // EXPLORED TILES OF THE OTHER VISITED MAPS (see switchMap)
+    private final Map<String, long[]> exploredByMap = new HashMap<>();
+
+    // REVEAL DISC (tile offsets within REVEAL_RADIUS)
+    private final int[] revealOffsetsX, revealOffsetsY;
+
+    // LAST TILE OF EACH TRACKED ENTITY (reveal only runs on tile change)
+    private final Map<Entity, Long> lastTiles = new HashMap<>();
+
+    // OVERLAY CACHE (access ordered: eldest entry is the least recently drawn chunk)
+    private final LinkedHashMap<Long, BufferedImage> overlayChunks = new LinkedHashMap<>(MAX_CACHED_CHUNKS, 0.75f, true);
+
+    // MODE
+    private boolean enabled = false;
+
+
+    public FogOfWar(int worldCols, int worldRows) {
+        // Precompute disc offsets
+        int count = 0;
+        int[] offsetsX = new int[(2 * REVEAL_RADIUS + 1) * (2 * REVEAL_RADIUS + 1)];
+        int[] offsetsY = new int[offsetsX.length];
+
+        for (int dy = -REVEAL_RADIUS; dy <= REVEAL_RADIUS; dy++) {
+            for (int dx = -REVEAL_RADIUS; dx <= REVEAL_RADIUS; dx++) {
+                if (dx * dx + dy * dy <= REVEAL_RADIUS * REVEAL_RADIUS) {
+                    offsetsX[count] = dx;
+                    offsetsY[count] = dy;
+                    count++;
+                }
+            }
+        }
+        revealOffsetsX = Arrays.copyOf(offsetsX, count);
+        revealOffsetsY = Arrays.copyOf(offsetsY, count);
+
+        reset(worldCols, worldRows);
+    }
+
+    /**
+     * Clears explored state of every map, for a world of the given size
+     * @param worldCols The world width (in tiles)
+     * @param worldRows The world height (in tiles)
+     */
+    public synchronized void reset(int worldCols, int worldRows) {
+        exploredByMap.clear();
+        clear(worldCols, worldRows);
+    }
+
+    /**
+     * Switches to the explored tiles of another map, keeping the ones of the map being left
+     * @param leftMap The map being left
+     * @param enteredMap The map being entered
+     * @param worldCols The entered map width (in tiles)
+     * @param worldRows The entered map height (in tiles)
+     */
+    public synchronized void switchMap(String leftMap, String enteredMap, int worldCols, int worldRows) {
+        exploredByMap.put(leftMap, explored);
+
+        long[] enteredExplored = exploredByMap.remove(enteredMap);
+        clear(worldCols, worldRows);
+        if (enteredExplored != null && enteredExplored.length == explored.length) {
+            explored = enteredExplored;
+        }
+    }
+
+    /*
+     * Clears explored tiles and caches for a world of the given size
+     */
+    private void clear(int worldCols, int worldRows) {
+        this.worldCols = worldCols;
+        this.worldRows = worldRows;
+        this.explored = new long[(int) (((long) worldCols * worldRows + 63) >>> 6)];
+        lastTiles.clear();
+        overlayChunks.clear();
+    }
+
+    /**
+     * Reveals tiles around the given entities. Work is done only for entities that entered a new tile
+     * @param entities The entities revealing the map (players)
+     */
+    public synchronized void update(List<? extends Entity> entities) {
+        for (Entity entity : entities) {
+            int col = (entity.getWorldX() + entity.getSolidArea().centerX()) / GamePanel.TILE_SIZE;
+            int row = (entity.getWorldY() + entity.getSolidArea().centerY()) / GamePanel.TILE_SIZE;
+
+            long tile = ((long) col << 32) | (row & 0xFFFFFFFFL);
+            Long lastTile = lastTiles.put(entity, tile);
+
+            if (lastTile == null || lastTile != tile) {
+                revealAround(col, row);
+            }
+        }
+    }
+
+    /*
+     * Reveals all tiles within REVEAL_RADIUS of the given tile
+     * @param col The center tile column
+     * @param row The center tile row
+     */
+    private void revealAround(int col, int row) {
+        for (int i = 0; i < revealOffsetsX.length; i++) {
+            int revealCol = col + revealOffsetsX[i];
+            int revealRow = row + revealOffsetsY[i];
+
+            if (revealCol >= 0 && revealCol < worldCols && revealRow >= 0 && revealRow < worldRows) {
+                reveal(revealCol, revealRow);
+            }
+        }
+    }
+
+    /*
+     * Marks the given tile as explored, patching its overlay pixel if it flipped
+     * @param col The tile column
+     * @param row The tile row
+     */
+    private void reveal(int col, int row) {
+        long index = (long) row * worldCols + col;
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;                    // shift distance is taken modulo 64
+
+        if ((explored[word] & mask) != 0) return;
+        explored[word] |= mask;
+
+        BufferedImage overlay = overlayChunks.get(chunkKey(col / FOG_CHUNK_SIZE, row / FOG_CHUNK_SIZE));
+        if (overlay != null) {
+            overlay.setRGB(col % FOG_CHUNK_SIZE, row % FOG_CHUNK_SIZE, CLEAR_COLOR);
+        }
+    }
+
+    /**
+     * Checks if the given tile has been explored
+     * @param col The tile column
+     * @param row The tile row
+     * @return true if explored (or outside the world), false otherwise
+     */
+    public synchronized boolean isExplored(int col, int row) {
+        if (col < 0 || col >= worldCols || row < 0 || row >= worldRows) return true;
+
+        long index = (long) row * worldCols + col;
+        return (explored[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Draws the fog overlay visible by the given camera, if fog of war mode is enabled
+     * @param g2 Graphics context used for drawing (relative to the camera viewport)
+     * @param camera The camera viewing the map
+     */
+    public synchronized void draw(Graphics2D g2, Camera camera) {
+        if (!enabled) return;
+
+        int chunkSize = FOG_CHUNK_PIXEL_SIZE;
+        int maxChunkCol = (worldCols - 1) / FOG_CHUNK_SIZE;
+        int maxChunkRow = (worldRows - 1) / FOG_CHUNK_SIZE;
+
+        int firstChunkCol = Math.max(0, Math.floorDiv(camera.getWorldX(), chunkSize));
+        int firstChunkRow = Math.max(0, Math.floorDiv(camera.getWorldY(), chunkSize));
+        int lastChunkCol = Math.min(maxChunkCol, Math.floorDiv(camera.getWorldX() + camera.getWidth() - 1, chunkSize));
+        int lastChunkRow = Math.min(maxChunkRow, Math.floorDiv(camera.getWorldY() + camera.getHeight() - 1, chunkSize));
+
+        for (int chunkRow = firstChunkRow; chunkRow <= lastChunkRow; chunkRow++) {
+            for (int chunkCol = firstChunkCol; chunkCol <= lastChunkCol; chunkCol++) {
+                int viewX = camera.toViewX(chunkCol * chunkSize);
+                int viewY = camera.toViewY(chunkRow * chunkSize);
+
+                // One pixel per tile, upscaled (nearest neighbor) to tile size
+                g2.drawImage(getOverlayChunk(chunkCol, chunkRow), viewX, viewY, chunkSize, chunkSize, null);
+            }
+        }
+    }
+
+    /*
+     * Returns the overlay image of the given chunk, building it from the explored bitset if not cached
+     * @param chunkCol The overlay chunk column
+     * @param chunkRow The overlay chunk row
+     * @return The overlay chunk image
+     */
+    private BufferedImage getOverlayChunk(int chunkCol, int chunkRow) {
+        long key = chunkKey(chunkCol, chunkRow);
+        BufferedImage overlay = overlayChunks.get(key);
+        if (overlay != null) return overlay;
+
+        // Reuse least recently used image if the cache is full
+        if (overlayChunks.size() >= MAX_CACHED_CHUNKS) {
+            Iterator<Map.Entry<Long, BufferedImage>> eldest = overlayChunks.entrySet().iterator();
+            overlay = eldest.next().getValue();
+            eldest.remove();
+        } else {
+            overlay = new BufferedImage(FOG_CHUNK_SIZE, FOG_CHUNK_SIZE, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        int firstCol = chunkCol * FOG_CHUNK_SIZE;
+        int firstRow = chunkRow * FOG_CHUNK_SIZE;
+
+        for (int y = 0; y < FOG_CHUNK_SIZE; y++) {
+            for (int x = 0; x < FOG_CHUNK_SIZE; x++) {
+                int col = firstCol + x;
+                int row = firstRow + y;
+                overlay.setRGB(x, y, isExplored(col, row) ? CLEAR_COLOR : FOG_COLOR);
+            }
+        }
+
+        overlayChunks.put(key, overlay);
+        return overlay;
+    }
+
+    /**
+     * Saves explored state to the given file
+     * @param path The save file path
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(SAVE_MAGIC);
+            out.writeInt(worldCols);
+            out.writeInt(worldRows);
+            for (long word : explored) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * Loads explored state from the given file
+     * @param path The save file path
+     * @throws IOException if the file cannot be read or does not match the current world size
+     */
+    public synchronized void load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SAVE_MAGIC) {
+                throw new IOException("Invalid fog of war save file: " + path);
+            }
+
+            int cols = in.readInt();
+            int rows = in.readInt();
+            if (cols != worldCols || rows != worldRows) {
+                throw new IOException("Fog of war save size (" + cols + "x" + rows + ") does not match the world ("
+                        + worldCols + "x" + worldRows + ")");
+            }
+
+            for (int i = 0; i < explored.length; i++) {
+                explored[i] = in.readLong();
+            }
+        }
+
+        overlayChunks.clear();
+    }
+
+    /*
+     * Packs chunk coordinates in a single map key
+     */
+    private static long chunkKey(int chunkCol, int chunkRow) {
+        return ((long) chunkCol << 32) | (chunkRow & 0xFFFFFFFFL);
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public boolean isEnabled() { return enabled; }
+
+    /* ------------------------------------------------ */
+
+
+    /* --------------- [SETTER METHODS] --------------- */
+
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    /* ------------------------------------------------ */
+}
@@ -0,0 +1,144 @@
+package tile;
+
+/**
+ * A square block of ChunkStore.CHUNK_SIZE x ChunkStore.CHUNK_SIZE map cells:
+ * the tile grid of each map layer plus the precomputed attribute word of every cell (see TileAttributes)
+ * and a solid bitset for collision-only queries. Both are derived from the layers when the chunk is built
+ * and patched cell by cell when a tile changes. Chunks shared with other threads are never changed:
+ * changes are applied to a copy (see copy)
+ * @author LC
+ */
+public class MapChunk {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final int SIZE = ChunkStore.CHUNK_SIZE;
+
+    /* ------------------------------------------- */
+
+    // LAYERS (indexed by layer type, null if the chunk has no such layer)
+    private final TileGrid[] layers;
+
+    // CELL ATTRIBUTES (row-major, index = y * SIZE + x)
+    private final int[] attributes = new int[SIZE * SIZE];
+    private final long[] solidBits = new long[SIZE * SIZE / Long.SIZE];
+
+
+    /**
+     * Creates a chunk from its layers, computing every cell attributes
+     * @param layers The chunk layer grids, indexed by layer type
+     * @param tileAttributes The attribute word of each tile ID
+     */
+    public MapChunk(TileGrid[] layers, int[] tileAttributes) {
+        this.layers = layers;
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                rebuildCell(x, y, tileAttributes);
+            }
+        }
+    }
+
+    /*
+     * Copies the layers and the cell attributes of the given chunk
+     */
+    private MapChunk(MapChunk source) {
+        this.layers = new TileGrid[source.layers.length];
+        for (int layerType = 0; layerType < layers.length; layerType++) {
+            if (source.layers[layerType] != null) layers[layerType] = new TileGrid(source.layers[layerType]);
+        }
+        System.arraycopy(source.attributes, 0, attributes, 0, attributes.length);
+        System.arraycopy(source.solidBits, 0, solidBits, 0, solidBits.length);
+    }
+
+    /**
+     * Returns a copy of this chunk, to change without affecting its readers
+     * @return The copy
+     */
+    public MapChunk copy() {
+        return new MapChunk(this);
+    }
+
+    /**
+     * Sets the tile of the given layer at the given cell, then rebuilds the cell attributes
+     * @param layerType The map layer type (see MapData)
+     * @param x The cell column within the chunk
+     * @param y The cell row within the chunk
+     * @param tileId The tile ID (TileGrid.EMPTY_TILE to clear the cell)
+     * @param tileAttributes The attribute word of each tile ID
+     */
+    public void setTile(int layerType, int x, int y, int tileId, int[] tileAttributes) {
+        if (layers[layerType] == null) {
+            int tileCount = layerType == MapData.LAYER_COLLISION ? MapData.COLLISION_VALUES : tileAttributes.length;
+            layers[layerType] = new TileGrid(SIZE, SIZE, tileCount);
+        }
+
+        layers[layerType].set(x, y, tileId);
+        rebuildCell(x, y, tileAttributes);
+    }
+
+    /*
+     * Computes the attribute word of the given cell from its layers:
+     * ground and decoration tile attributes are stacked, the collision layer overrides the solid flag
+     */
+    private void rebuildCell(int x, int y, int[] tileAttributes) {
+        int cellAttributes = TileAttributes.NONE;
+
+        int ground = getTile(MapData.LAYER_GROUND, x, y);
+        if (ground >= 0 && ground < tileAttributes.length) {
+            cellAttributes = tileAttributes[ground];
+        }
+
+        int decoration = getTile(MapData.LAYER_DECORATION, x, y);
+        if (decoration >= 0 && decoration < tileAttributes.length) {
+            cellAttributes = TileAttributes.stack(cellAttributes, tileAttributes[decoration]);
+        }
+
+        int collision = getTile(MapData.LAYER_COLLISION, x, y);
+        if (collision != TileGrid.EMPTY_TILE) {
+            cellAttributes = TileAttributes.withSolid(cellAttributes, collision == MapData.COLLISION_SOLID);
+        }
+
+        int index = y * SIZE + x;
+        attributes[index] = cellAttributes;
+
+        if (TileAttributes.isSolid(cellAttributes)) {
+            solidBits[index >>> 6] |= 1L << index;
+        } else {
+            solidBits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Returns the tile of the given layer at the given cell
+     * @param layerType The map layer type (see MapData)
+     * @param x The cell column within the chunk
+     * @param y The cell row within the chunk
+     * @return The tile ID, TileGrid.EMPTY_TILE if empty or if the chunk has no such layer
+     */
+    public int getTile(int layerType, int x, int y) {
+        TileGrid layer = layers[layerType];
+        return layer == null ? TileGrid.EMPTY_TILE : layer.getUnchecked(x, y);
+    }
+
+    /**
+     * Returns the attribute word of the given cell
+     * @param x The cell column within the chunk
+     * @param y The cell row within the chunk
+     * @return The cell attributes (see TileAttributes)
+     */
+    public int getAttributes(int x, int y) {
+        return attributes[y * SIZE + x];
+    }
+
+    /**
+     * Checks if the given cell blocks movement (single bitset read)
+     * @param x The cell column within the chunk
+     * @param y The cell row within the chunk
+     * @return true if the cell is solid, false otherwise
+     */
+    public boolean isSolid(int x, int y) {
+        int index = y * SIZE + x;
+        return (solidBits[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,87 @@
+package tile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line converter from text maps (.txt) to compiled binary maps (.jtm).
+ * The input text map is the ground layer, other layers are read from optional sibling files
+ * named after the layer (e.g. world01_overhead.txt), where -1 marks an empty cell.
+ * Usage: MapConverter &lt;input.txt&gt; [output.jtm]
+ * @author LC
+ */
+public class MapConverter {
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: MapConverter <input.txt> [output" + BinaryMapFormat.FILE_EXTENSION + "]");
+            System.exit(1);
+        }
+
+        Path input = Path.of(args[0]);
+        Path output = args.length == 2 ? Path.of(args[1]) : defaultOutputPath(input);
+
+        try {
+            convert(input, output);
+        } catch (IOException e) {
+            System.err.println("Error converting map:\n" + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts the given text map (and its optional layer files) to a binary map
+     * @param input The text map path (ground layer)
+     * @param output The binary map path
+     * @throws IOException if the map cannot be read or written
+     */
+    public static void convert(Path input, Path output) throws IOException {
+        MapData mapData = readTextMap(input);
+
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (layerType == MapData.LAYER_GROUND) continue;
+
+            Path layerPath = input.resolveSibling(baseName(input) + "_" + MapData.LAYER_NAMES[layerType] + ".txt");
+            if (!Files.exists(layerPath)) continue;
+
+            MapData layerData = readTextMap(layerPath);
+            if (layerData.getCols() != mapData.getCols() || layerData.getRows() != mapData.getRows()) {
+                throw new IOException("Layer " + layerPath + " size (" + layerData.getCols() + "x" + layerData.getRows()
+                        + ") does not match map size (" + mapData.getCols() + "x" + mapData.getRows() + ")");
+            }
+
+            mapData.setLayer(layerType, layerData.getLayer(MapData.LAYER_GROUND));
+            System.out.println("Added " + MapData.LAYER_NAMES[layerType] + " layer from " + layerPath);
+        }
+
+        BinaryMapFormat.write(mapData, output);
+        System.out.println("Converted " + input + " (" + mapData.getCols() + "x" + mapData.getRows() + ") to " + output);
+    }
+
+    /*
+     * Reads a single text map file
+     */
+    private static MapData readTextMap(Path path) throws IOException {
+        try (InputStream is = Files.newInputStream(path)) {
+            return TextMapFormat.read(is);
+        }
+    }
+
+    /*
+     * Returns the file name without extension
+     */
+    private static String baseName(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot == -1 ? name : name.substring(0, dot);
+    }
+
+    /*
+     * Returns the default output path: same name as input, with binary map extension
+     */
+    private static Path defaultOutputPath(Path input) {
+        return input.resolveSibling(baseName(input) + BinaryMapFormat.FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,85 @@
+package tile;
+
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tile map data as read from a map file: size, per-layer tile IDs (row-major) and object placements.
+ * Layer buffers may be views over a memory-mapped file, so cells are decoded only when read
+ * @author LC
+ */
+public class MapData {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // LAYER TYPES
+    public static final int LAYER_GROUND = 0;               // drawn below everything, every cell has a tile
+    public static final int LAYER_DECORATION = 1;           // drawn over ground, below objects and players
+    public static final int LAYER_OVERHEAD = 2;             // drawn above players (tree tops, roofs, bridge rails)
+    public static final int LAYER_COLLISION = 3;            // not drawn, overrides tile collision flags
+    public static final int MAX_LAYERS = 4;
+    public static final String[] LAYER_NAMES = {"ground", "decoration", "overhead", "collision"};
+
+    // COLLISION LAYER VALUES (empty cells use tile collision flags)
+    public static final short COLLISION_PASSABLE = 0;
+    public static final short COLLISION_SOLID = 1;
+    public static final int COLLISION_VALUES = 2;
+
+    // EMPTY CELL (layers other than ground may have no tile)
+    public static final short EMPTY_TILE = -1;
+
+    /* ------------------------------------------- */
+
+    // MAP SIZE (in tiles)
+    private final int cols, rows;
+
+    // LAYERS (indexed by layer type, null if the map has no such layer)
+    private final ShortBuffer[] layers = new ShortBuffer[MAX_LAYERS];
+
+    // OBJECT PLACEMENTS
+    private final List<MapObject> objects = new ArrayList<>();
+
+
+    public MapData(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+    }
+
+    /**
+     * Returns the tile ID of the given cell
+     * @param layerType The layer type
+     * @param col The cell column
+     * @param row The cell row
+     * @return The tile ID, EMPTY_TILE if the map has no such layer
+     */
+    public short getTile(int layerType, int col, int row) {
+        ShortBuffer layer = layers[layerType];
+        if (layer == null) return EMPTY_TILE;
+        return layer.get(row * cols + col);
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public ShortBuffer getLayer(int layerType) { return layers[layerType]; }
+    public boolean hasLayer(int layerType) { return layers[layerType] != null; }
+    public List<MapObject> getObjects() { return objects; }
+
+    /* ------------------------------------------------ */
+
+
+    /* --------------- [SETTER METHODS] --------------- */
+
+    public void setLayer(int layerType, ShortBuffer cells) {
+        if (cells.remaining() != cols * rows) {
+            throw new IllegalArgumentException("Layer size (" + cells.remaining() + ") does not match map size ("
+                    + cols + "x" + rows + ")");
+        }
+        layers[layerType] = cells;
+    }
+
+    /* ------------------------------------------------ */
+}
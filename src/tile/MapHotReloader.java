@@ -0,0 +1,275 @@
+package tile;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Development mode map hot reload.
+ * Watches the text sources of the loaded map (ground file and layer files, see MapConverter) and,
+ * when one is saved, re-parses only the rows whose text changed and diffs them against the live map.
+ * The resulting tile changes are queued and applied by the game thread between ticks in a single batch,
+ * so only the changed cells attributes and their render chunks are rebuilt
+ * @author LC
+ */
+public class MapHotReloader {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    private static final Path MAP_SOURCE_DIR = Path.of("res");                  // relative to working dir
+    private static final String TEXT_MAP_EXTENSION = ".txt";
+
+    /* ------------------------------------------- */
+
+    private final TileManager tileManager;
+    private final Runnable changeListener;          // wakes up the game loop (e.g. while paused)
+
+    // WATCHED FILES
+    private Path sourceDir;
+    private String baseName;
+    private final String[][] lastLines = new String[MapData.MAX_LAYERS][];      // per layer, null if never read
+
+    // WATCHER
+    private WatchService watchService;
+    private Thread watcherThread;
+    private volatile long watchGeneration;          // incremented on every start, tags the batches of each watch
+
+    // CHANGES WAITING FOR THE GAME THREAD (each batch is applied at once)
+    private final ConcurrentLinkedQueue<PendingBatch> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    /*
+     * Tile changes read from one source save, with the watch they were read in
+     */
+    private record PendingBatch(long generation, List<TileChange> changes, long eventNanos) {}
+
+
+    public MapHotReloader(TileManager tileManager, Runnable changeListener) {
+        this.tileManager = tileManager;
+        this.changeListener = changeListener;
+
+        // Every map change (doors, reset, generated world, reload) moves the watch to the new map sources
+        tileManager.addMapListener(this::restart);
+    }
+
+    /**
+     * Starts watching the text sources of the currently loaded map
+     * @return true if watching started, false if the map sources cannot be found or watched
+     */
+    public synchronized boolean start() {
+        if (isRunning()) return true;
+
+        // "maps/world01.jtm" -> "res/maps/world01.txt"
+        String mapPath = tileManager.getMapPath();
+        if (mapPath == null || mapPath.lastIndexOf('.') == -1) {
+            System.err.println("Map hot reload unavailable, the loaded map has no source file");
+            return false;
+        }
+        Path groundSource = MAP_SOURCE_DIR.resolve(mapPath.substring(0, mapPath.lastIndexOf('.')) + TEXT_MAP_EXTENSION);
+
+        if (!Files.isRegularFile(groundSource)) {
+            System.err.println("Map hot reload unavailable, source not found: " + groundSource.toAbsolutePath());
+            return false;
+        }
+
+        sourceDir = groundSource.getParent();
+        String fileName = groundSource.getFileName().toString();
+        baseName = fileName.substring(0, fileName.length() - TEXT_MAP_EXTENSION.length());
+
+        // Baseline: rows are re-parsed only when their text differs from the last read
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            lastLines[layerType] = readRows(sourceFile(layerType));
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            sourceDir.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            System.err.println("Map hot reload unavailable:\n" + e.getMessage());
+            return false;
+        }
+
+        WatchService service = watchService;
+        long generation = ++watchGeneration;
+        watcherThread = new Thread(() -> watchLoop(service, generation), "Map Watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+
+        System.out.println("Map hot reload enabled, watching " + groundSource);
+        return true;
+    }
+
+    /**
+     * Stops watching map sources. Changes queued and not applied yet are dropped,
+     * the watcher thread is stopped before returning
+     */
+    public synchronized void stop() {
+        if (!isRunning()) return;
+
+        try {
+            watchService.close();               // wakes up the watcher thread
+        } catch (IOException e) {
+            System.err.println("Error closing map watcher:\n" + e.getMessage());
+        }
+
+        // The watcher reads sourceDir/baseName and the baseline, wait for it before they are reset by start
+        try {
+            watcherThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        watchService = null;
+        watcherThread = null;
+        pendingChanges.clear();
+
+        System.out.println("Map hot reload disabled");
+    }
+
+    /**
+     * Watches the sources of the currently loaded map instead, if watching
+     */
+    public synchronized void restart() {
+        if (!isRunning()) return;
+
+        stop();
+        start();
+    }
+
+    /**
+     * Applies queued tile changes. Must be called by the game thread between ticks.
+     * Batches read before the last map change (previous watch) are dropped
+     * @return true if any tile changed
+     */
+    public boolean applyPendingChanges() {
+        boolean applied = false;
+        PendingBatch batch;
+        while ((batch = pendingChanges.poll()) != null) {
+            if (batch.generation() != watchGeneration) continue;
+
+            tileManager.setTiles(batch.changes());
+            applied = true;
+
+            double latencyMs = (System.nanoTime() - batch.eventNanos()) / 1_000_000.0;
+            System.out.printf("Hot reloaded %d tiles (%.2f ms)%n", batch.changes().size(), latencyMs);
+        }
+        return applied;
+    }
+
+    /*
+     * Watcher thread: waits for file system events on the map source directory
+     * @param service The watch service of this watch (closed by stop)
+     * @param generation The generation of this watch, tags the queued batches
+     */
+    private void watchLoop(WatchService service, long generation) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                long eventNanos = System.nanoTime();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+
+                    int layerType = layerOf((Path) event.context());
+                    if (layerType != -1) {
+                        onSourceChanged(layerType, eventNanos, generation);
+                    }
+                }
+
+                if (!key.reset()) break;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /*
+     * Re-parses the changed rows of the given layer source and queues the cells that differ from the live map
+     */
+    private void onSourceChanged(int layerType, long eventNanos, long generation) {
+        String[] lines = readRows(sourceFile(layerType));
+        if (lines == null) return;
+
+        int cols = tileManager.getWorldCols();
+        int rows = tileManager.getWorldRows();
+        if (lines.length != rows) {
+            // Editors may save in several writes: keep the baseline and wait for the next event
+            System.err.println("Map hot reload skipped: " + sourceFile(layerType).getFileName() + " has " + lines.length
+                    + " rows (expected " + rows + "), size changes need a restart");
+            return;
+        }
+
+        String[] previousLines = lastLines[layerType];
+        List<TileChange> changes = new ArrayList<>();
+
+        try {
+            for (int row = 0; row < rows; row++) {
+                if (previousLines != null && lines[row].equals(previousLines[row])) continue;
+
+                short[] rowTiles = TextMapFormat.parseRow(lines[row], cols, row);
+                for (int col = 0; col < cols; col++) {
+                    if (rowTiles[col] != tileManager.getTileUnchecked(layerType, col, row)) {
+                        changes.add(new TileChange(layerType, col, row, rowTiles[col]));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Map hot reload skipped: " + e.getMessage());
+            return;
+        }
+
+        lastLines[layerType] = lines;
+
+        if (!changes.isEmpty()) {
+            pendingChanges.add(new PendingBatch(generation, changes, eventNanos));
+            changeListener.run();
+        }
+    }
+
+    /*
+     * Reads the non-blank rows of the given text map file
+     * @return The rows, null if the file does not exist or cannot be read
+     */
+    private static String[] readRows(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+
+        try {
+            return Files.readAllLines(file).stream().filter(line -> !line.isBlank()).toArray(String[]::new);
+        } catch (IOException e) {
+            System.err.println("Error reading map source " + file + ":\n" + e.getMessage());
+            return null;
+        }
+    }
+
+    /*
+     * Returns the text source file of the given layer (e.g. world01.txt, world01_overhead.txt)
+     */
+    private Path sourceFile(int layerType) {
+        String suffix = layerType == MapData.LAYER_GROUND ? "" : "_" + MapData.LAYER_NAMES[layerType];
+        return sourceDir.resolve(baseName + suffix + TEXT_MAP_EXTENSION);
+    }
+
+    /*
+     * Returns the layer type of the given source file name, -1 if it is not a source of the watched map
+     */
+    private int layerOf(Path fileName) {
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (sourceFile(layerType).getFileName().equals(fileName)) return layerType;
+        }
+        return -1;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public synchronized boolean isRunning() { return watchService != null; }
+
+    /* ------------------------------------------------ */
+}
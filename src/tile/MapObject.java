@@ -0,0 +1,57 @@
+package tile;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An object placement stored in a map file (e.g. a key, boots or chest from a Tiled object layer),
+ * with optional string properties (e.g. the target map of a door)
+ * @author LC
+ */
+public class MapObject {
+
+    private final String type;
+    private final int worldCol, worldRow;
+    private final Map<String, String> properties;
+
+
+    public MapObject(String type, int worldCol, int worldRow) {
+        this(type, worldCol, worldRow, Map.of());
+    }
+
+    public MapObject(String type, int worldCol, int worldRow, Map<String, String> properties) {
+        this.type = type;
+        this.worldCol = worldCol;
+        this.worldRow = worldRow;
+        this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));     // keeps file order
+    }
+
+    /**
+     * Returns the integer value of the given property
+     * @param name The property name
+     * @param defaultValue The value returned if the property is missing or not an integer
+     * @return The property value
+     */
+    public int getIntProperty(String name, int defaultValue) {
+        String value = properties.get(name);
+        if (value == null) return defaultValue;
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public String getType() { return type; }
+    public int getWorldCol() { return worldCol; }
+    public int getWorldRow() { return worldRow; }
+    public Map<String, String> getProperties() { return properties; }
+    public String getProperty(String name) { return properties.get(name); }
+
+    /* ------------------------------------------------ */
+}
@@ -0,0 +1,218 @@
+package tile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ShortBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads maps in the background (one virtual thread per map), so that a map transition
+ * only swaps in a map that is already in memory.
+ * Preloaded maps are kept in an LRU bounded by a memory budget (estimated from their cells):
+ * when the budget is exceeded the least recently requested maps are dropped, and taking a map
+ * that is not preloaded falls back to a synchronous load
+ * @author LC
+ */
+public class MapPreloader {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final long DEFAULT_MAX_PRELOADED_BYTES = 8L * 1024 * 1024;    // about 4 layers of 1024x1024 tiles
+    private static final int PAGE_CELLS = 4096 / Short.BYTES;                   // cells per memory page
+
+    /* ------------------------------------------- */
+
+    // A preloaded map: loading or loaded (size is known once loaded)
+    private static class PreloadedMap {
+        final CompletableFuture<MapData> future;
+        long bytes = 0;
+
+        PreloadedMap(CompletableFuture<MapData> future) {
+            this.future = future;
+        }
+    }
+
+    // PRELOADED MAPS (access ordered: eldest entry is the least recently requested map)
+    private final LinkedHashMap<String, PreloadedMap> preloaded = new LinkedHashMap<>(8, 0.75f, true);
+    private long preloadedBytes = 0;
+    private long maxPreloadedBytes;
+
+    // LOADER
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+
+    // STATS
+    private int hits = 0, misses = 0;
+    private volatile int pageTouchSink;         // keeps page touching reads alive
+
+
+    public MapPreloader(long maxPreloadedBytes) {
+        this.maxPreloadedBytes = maxPreloadedBytes;
+    }
+
+    /**
+     * Loads a map from the given classpath path.
+     * Binary maps (.jtm) are memory-mapped, any other map is imported from the text format
+     * @param mapPath The classpath path of the map
+     * @return The map data
+     * @throws IOException if the map cannot be read or is invalid
+     */
+    public static MapData load(String mapPath) throws IOException {
+        return mapPath.endsWith(BinaryMapFormat.FILE_EXTENSION)
+                ? BinaryMapFormat.openResource(mapPath)
+                : TextMapFormat.openResource(mapPath);
+    }
+
+    /**
+     * Starts loading the given map in the background, unless already preloaded
+     * @param mapPath The classpath path of the map
+     */
+    public synchronized void preload(String mapPath) {
+        if (preloaded.get(mapPath) != null) return;         // marks it as recently requested
+
+        CompletableFuture<MapData> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                MapData mapData = load(mapPath);
+                touchPages(mapData);
+                return mapData;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, loader);
+
+        PreloadedMap entry = new PreloadedMap(future);
+        preloaded.put(mapPath, entry);
+
+        future.whenComplete((mapData, error) -> {
+            if (error != null) {
+                System.err.println("Error preloading map " + mapPath + ":\n" + error.getCause().getMessage());
+                synchronized (this) {
+                    if (preloaded.get(mapPath) == entry) remove(mapPath);      // retried by the next preload
+                }
+                return;
+            }
+            onLoaded(mapPath, entry, mapData);
+        });
+    }
+
+    /**
+     * Keeps an already loaded map as preloaded (e.g. the map the players are leaving)
+     * @param mapPath The classpath path of the map
+     * @param mapData The map data
+     */
+    public synchronized void put(String mapPath, MapData mapData) {
+        remove(mapPath);
+
+        PreloadedMap entry = new PreloadedMap(CompletableFuture.completedFuture(mapData));
+        preloaded.put(mapPath, entry);
+        onLoaded(mapPath, entry, mapData);
+    }
+
+    /**
+     * Takes the given map out of the preloaded maps, waiting for it if still loading,
+     * or loads it on the calling thread if it was not preloaded
+     * @param mapPath The classpath path of the map
+     * @return The map data
+     * @throws IOException if the map cannot be read or is invalid
+     */
+    public MapData take(String mapPath) throws IOException {
+        PreloadedMap entry;
+        synchronized (this) {
+            entry = remove(mapPath);
+            if (entry != null) hits++; else misses++;
+        }
+
+        if (entry == null) return load(mapPath);
+
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIO) throw uncheckedIO.getCause();
+            throw e;
+        }
+    }
+
+    /*
+     * Accounts for a loaded map, then drops the least recently requested maps while over budget
+     */
+    private synchronized void onLoaded(String mapPath, PreloadedMap entry, MapData mapData) {
+        if (preloaded.get(mapPath) != entry) return;        // taken or dropped while loading
+
+        entry.bytes = estimateBytes(mapData);
+        preloadedBytes += entry.bytes;
+
+        Iterator<Map.Entry<String, PreloadedMap>> iterator = preloaded.entrySet().iterator();
+        while (preloadedBytes > maxPreloadedBytes && iterator.hasNext()) {
+            Map.Entry<String, PreloadedMap> eldest = iterator.next();
+            if (!eldest.getValue().future.isDone()) continue;
+
+            iterator.remove();
+            preloadedBytes -= eldest.getValue().bytes;
+            System.out.println("Dropped preloaded map " + eldest.getKey() + " (over budget)");
+        }
+    }
+
+    /*
+     * Removes the given map from the preloaded maps
+     * @return The removed entry, null if the map was not preloaded
+     */
+    private PreloadedMap remove(String mapPath) {
+        PreloadedMap entry = preloaded.remove(mapPath);
+        if (entry != null) {
+            preloadedBytes -= entry.bytes;
+        }
+        return entry;
+    }
+
+    /*
+     * Estimates the memory used by the given map (cells of every layer)
+     */
+    private static long estimateBytes(MapData mapData) {
+        long layerBytes = (long) mapData.getCols() * mapData.getRows() * Short.BYTES;
+        long bytes = 0;
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (mapData.hasLayer(layerType)) bytes += layerBytes;
+        }
+        return bytes;
+    }
+
+    /*
+     * Reads one cell per memory page of every layer, so a memory-mapped map is paged in
+     * by the loader thread rather than by the game thread after the transition
+     */
+    private void touchPages(MapData mapData) {
+        int sum = 0;
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (!mapData.hasLayer(layerType)) continue;
+
+            ShortBuffer cells = mapData.getLayer(layerType);
+            for (int i = 0; i < cells.limit(); i += PAGE_CELLS) {
+                sum += cells.get(i);
+            }
+        }
+        pageTouchSink = sum;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public synchronized boolean isPreloaded(String mapPath) { return preloaded.containsKey(mapPath); }
+    public synchronized int getPreloadedCount() { return preloaded.size(); }
+    public synchronized long getPreloadedBytes() { return preloadedBytes; }
+    public synchronized int getHits() { return hits; }
+    public synchronized int getMisses() { return misses; }
+
+    /* ------------------------------------------------ */
+
+
+    /* --------------- [SETTER METHODS] --------------- */
+
+    public synchronized void setMaxPreloadedBytes(long maxPreloadedBytes) { this.maxPreloadedBytes = maxPreloadedBytes; }
+
+    /* ------------------------------------------------ */
+}
@@ -0,0 +1,524 @@
+package tile;
+
+import entity.Player;
+import game_logic.AssetSetter;
+import game_logic.GamePanel;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Checks that the objects of a map can be reached: flood-fills the walkable cells from the spawn tiles
+ * with the player hitbox (see Player.COLLISION_BOX_WIDTH), then reports unreachable objects,
+ * objects sharing a tile and the number of reachable keys (see Player.REQUIRED_KEYS).
+ * Walkable and reached cells are bitsets (one bit per cell, 64 cells per word): a row is filled a word at a time
+ * (carry propagation along walkable runs), and bands of rows are flooded in parallel, exchanging their boundary rows
+ * between rounds until nothing changes.
+ * Runs at build time over the compiled maps, following doors from the start map (import-maps profile),
+ * and in the map editor (see MapEditor).
+ * Usage: MapValidator &lt;maps directory&gt;
+ * @author LC
+ */
+public class MapValidator {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // PARALLEL FLOOD
+    private static final int BAND_ROWS = 64;                                    // rows flooded by a task
+    private static final int SPLIT_THRESHOLD = 4;                               // bands per task
+
+    // OBJECTS
+    public static final String KEY_OBJECT_TYPE = "key";
+
+    /* ------------------------------------------- */
+
+    /**
+     * Validation result of a single map
+     */
+    public static class Report {
+        private final int cols, stride;
+        private final long[] reached;                   // anchor cells reached by the player hitbox (bitset rows)
+        private final int walkableCells, reachedCells;
+        private final List<MapObject> reachableObjects = new ArrayList<>();
+        private final List<MapObject> unreachableObjects = new ArrayList<>();
+        private final List<MapObject> overlappingObjects = new ArrayList<>();
+        private int reachableKeys = 0;
+        private long elapsedNanos;
+
+        private Report(int cols, int stride, long[] reached, int walkableCells) {
+            this.cols = cols;
+            this.stride = stride;
+            this.reached = reached;
+            this.walkableCells = walkableCells;
+            this.reachedCells = countBits(reached);
+        }
+
+        /**
+         * Checks if the player hitbox can stand with its top-left corner in the given cell
+         * @param col The cell column
+         * @param row The cell row
+         * @return true if the cell was reached, false otherwise (or outside the map)
+         */
+        public boolean isReached(int col, int row) {
+            if (col < 0 || col >= cols || row < 0 || row >= reached.length / stride) return false;
+            return (reached[row * stride + (col >>> 6)] & (1L << col)) != 0;
+        }
+
+        /**
+         * Prints the report: unreachable objects are errors, objects sharing a tile are warnings
+         * @param mapName The map name
+         */
+        public void print(String mapName) {
+            System.out.printf("Map %s: %d/%d walkable tiles reachable, %d/%d objects reachable, %d keys (%.2f ms)%n",
+                    mapName, reachedCells, walkableCells, reachableObjects.size(),
+                    reachableObjects.size() + unreachableObjects.size(), reachableKeys, elapsedNanos / 1_000_000.0);
+
+            for (MapObject mapObject : unreachableObjects) {
+                System.err.println("  Unreachable " + describe(mapObject));
+            }
+            for (MapObject mapObject : overlappingObjects) {
+                System.out.println("  Warning: " + describe(mapObject) + " shares its tile with another object");
+            }
+        }
+
+        private static String describe(MapObject mapObject) {
+            return mapObject.getType() + " at (" + mapObject.getWorldCol() + "," + mapObject.getWorldRow() + ")";
+        }
+
+
+        /* --------------- [GETTER METHODS] --------------- */
+
+        public int getWalkableCells() { return walkableCells; }
+        public int getReachedCells() { return reachedCells; }
+        public List<MapObject> getReachableObjects() { return reachableObjects; }
+        public List<MapObject> getUnreachableObjects() { return unreachableObjects; }
+        public List<MapObject> getOverlappingObjects() { return overlappingObjects; }
+        public int getReachableKeys() { return reachableKeys; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /* ------------------------------------------------ */
+    }
+
+    // Runs an action for a range of row bands, splitting it in halves
+    @SuppressWarnings("serial")                 // never serialized
+    private static class BandTask extends RecursiveAction {
+        private final IntConsumer action;
+        private final int from, to;
+
+        BandTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int band = from; band < to; band++) {
+                    action.accept(band);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new BandTask(action, from, middle), new BandTask(action, middle, to));
+        }
+    }
+
+    private final boolean[] solidTiles;
+    private final int hitboxCols, hitboxRows;                   // hitbox size (in tiles, rounded up)
+    private final ForkJoinPool pool;
+
+
+    /**
+     * Creates a validator running on the common fork/join pool
+     * @param solidTiles The solid flag of each tile ID (see TileManager.getSolidTiles)
+     * @param hitboxWidth The player hitbox width (in pixels)
+     * @param hitboxHeight The player hitbox height (in pixels)
+     */
+    public MapValidator(boolean[] solidTiles, int hitboxWidth, int hitboxHeight) {
+        this(solidTiles, hitboxWidth, hitboxHeight, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a validator running on the given fork/join pool
+     * @param solidTiles The solid flag of each tile ID (see TileManager.getSolidTiles)
+     * @param hitboxWidth The player hitbox width (in pixels)
+     * @param hitboxHeight The player hitbox height (in pixels)
+     * @param pool The pool flooding row bands
+     */
+    public MapValidator(boolean[] solidTiles, int hitboxWidth, int hitboxHeight, ForkJoinPool pool) {
+        this.solidTiles = solidTiles;
+        this.hitboxCols = Math.max(1, (hitboxWidth + GamePanel.TILE_SIZE - 1) / GamePanel.TILE_SIZE);
+        this.hitboxRows = Math.max(1, (hitboxHeight + GamePanel.TILE_SIZE - 1) / GamePanel.TILE_SIZE);
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: MapValidator <maps directory>");
+            System.exit(1);
+        }
+
+        MapValidator validator = new MapValidator(TileManager.getSolidTiles(),
+                Player.COLLISION_BOX_WIDTH, Player.COLLISION_BOX_HEIGHT);
+        try {
+            if (!validator.validateWorld(Path.of(args[0]), TileManager.START_MAP)) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Error validating maps:\n" + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Validates the maps of a world: the start map from the player spawn, then every map behind a reachable door
+     * from its arrival tiles. Keys are counted over all the reachable maps
+     * @param mapsDir The directory of the compiled maps (.jtm)
+     * @param startMap The start map name (e.g. "world01")
+     * @return true if every object is reachable and enough keys can be collected, false otherwise
+     * @throws IOException if a map cannot be read
+     */
+    public boolean validateWorld(Path mapsDir, String startMap) throws IOException {
+        Map<String, List<Point>> spawns = new HashMap<>();
+        spawns.put(startMap, new ArrayList<>(List.of(new Point(Player.SPAWN_COL, Player.SPAWN_ROW))));
+        Map<String, Report> reports = new LinkedHashMap<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(startMap));
+
+        while (!pending.isEmpty()) {
+            String mapName = pending.poll();
+            Report report = validate(BinaryMapFormat.open(mapsDir.resolve(mapName + BinaryMapFormat.FILE_EXTENSION)),
+                    spawns.get(mapName));
+            reports.put(mapName, report);
+
+            // Arrival tiles of the reachable doors are spawn tiles of their target maps
+            for (MapObject door : report.getReachableObjects()) {
+                String targetMap = door.getProperty(TileManager.DOOR_TARGET_MAP);
+                if (!door.getType().equals(TileManager.DOOR_OBJECT_TYPE) || targetMap == null) continue;
+
+                Point arrival = new Point(door.getIntProperty(TileManager.DOOR_TARGET_COL, -1),
+                        door.getIntProperty(TileManager.DOOR_TARGET_ROW, -1));
+                List<Point> targetSpawns = spawns.computeIfAbsent(targetMap, name -> new ArrayList<>());
+                if (!targetSpawns.contains(arrival)) {
+                    targetSpawns.add(arrival);
+                    if (!pending.contains(targetMap)) pending.add(targetMap);
+                }
+            }
+        }
+
+        boolean valid = true;
+        int reachableKeys = 0;
+        for (Map.Entry<String, Report> entry : reports.entrySet()) {
+            entry.getValue().print(entry.getKey());
+            valid &= entry.getValue().getUnreachableObjects().isEmpty();
+            reachableKeys += entry.getValue().getReachableKeys();
+        }
+
+        try (Stream<Path> files = Files.list(mapsDir)) {
+            files.map(file -> file.getFileName().toString())
+                 .filter(fileName -> fileName.endsWith(BinaryMapFormat.FILE_EXTENSION))
+                 .map(fileName -> fileName.substring(0, fileName.length() - BinaryMapFormat.FILE_EXTENSION.length()))
+                 .filter(mapName -> !reports.containsKey(mapName))
+                 .sorted()
+                 .forEach(mapName -> System.out.println("Warning: map " + mapName + " cannot be reached from " + startMap));
+        }
+
+        if (reachableKeys < Player.REQUIRED_KEYS) {
+            System.err.println("Only " + reachableKeys + " reachable keys, " + Player.REQUIRED_KEYS + " required");
+            valid = false;
+        } else {
+            System.out.println(reachableKeys + " reachable keys, " + Player.REQUIRED_KEYS + " required");
+        }
+        return valid;
+    }
+
+    /**
+     * Validates a single map
+     * @param mapData The map (layers and object placements)
+     * @param spawns The tiles the player starts from (tiles outside the map or blocked are ignored)
+     * @return The validation report
+     */
+    public Report validate(MapData mapData, List<Point> spawns) {
+        long start = System.nanoTime();
+        int cols = mapData.getCols();
+        int rows = mapData.getRows();
+        int stride = (cols + Long.SIZE - 1) / Long.SIZE;
+        int bandCount = (rows + BAND_ROWS - 1) / BAND_ROWS;
+
+        // WALKABLE CELLS (solid objects block their tile)
+        long[] walkable = new long[rows * stride];
+        pool.invoke(new BandTask(band -> buildWalkable(mapData, walkable, stride, band), 0, bandCount));
+        int walkableCells = countBits(walkable);
+
+        for (MapObject mapObject : mapData.getObjects()) {
+            if (AssetSetter.SOLID_OBJECT_TYPES.contains(mapObject.getType()) && isInside(mapObject, cols, rows)) {
+                walkable[mapObject.getWorldRow() * stride + (mapObject.getWorldCol() >>> 6)] &= ~(1L << mapObject.getWorldCol());
+            }
+        }
+        erode(walkable, stride, rows);
+
+        // REACHED CELLS
+        long[] reached = flood(walkable, stride, rows, cols, spawns);
+        Report report = new Report(cols, stride, reached, walkableCells);
+
+        // OBJECTS
+        Map<Long, MapObject> objectCells = new HashMap<>();
+        for (MapObject mapObject : mapData.getObjects()) {
+            long cell = ((long) mapObject.getWorldCol() << 32) | (mapObject.getWorldRow() & 0xFFFFFFFFL);
+            if (objectCells.putIfAbsent(cell, mapObject) != null) {
+                report.overlappingObjects.add(mapObject);
+            }
+
+            boolean solid = AssetSetter.SOLID_OBJECT_TYPES.contains(mapObject.getType());
+            if (isInside(mapObject, cols, rows) && isTouched(report, mapObject.getWorldCol(), mapObject.getWorldRow(), solid)) {
+                report.reachableObjects.add(mapObject);
+                if (mapObject.getType().equals(KEY_OBJECT_TYPE)) report.reachableKeys++;
+            } else {
+                report.unreachableObjects.add(mapObject);
+            }
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /*
+     * Sets the walkable bits of a band of rows: ground and decoration tiles are stacked,
+     * the collision layer overrides them where set (see MapChunk)
+     */
+    private void buildWalkable(MapData mapData, long[] walkable, int stride, int band) {
+        int cols = mapData.getCols();
+        ShortBuffer ground = mapData.getLayer(MapData.LAYER_GROUND);
+        ShortBuffer decoration = mapData.getLayer(MapData.LAYER_DECORATION);
+        ShortBuffer collision = mapData.getLayer(MapData.LAYER_COLLISION);
+
+        short[] groundRow = new short[cols];
+        short[] decorationRow = new short[cols];
+        short[] collisionRow = new short[cols];
+
+        for (int row = band * BAND_ROWS; row < Math.min(mapData.getRows(), (band + 1) * BAND_ROWS); row++) {
+            // Absolute bulk gets: no shared buffer position, safe for concurrent readers
+            ground.get(row * cols, groundRow);
+            if (decoration != null) decoration.get(row * cols, decorationRow);
+            if (collision != null) collision.get(row * cols, collisionRow);
+
+            for (int col = 0; col < cols; col++) {
+                boolean solid = isSolidTile(groundRow[col]);
+                if (decoration != null) solid |= isSolidTile(decorationRow[col]);
+                if (collision != null && collisionRow[col] != MapData.EMPTY_TILE) {
+                    solid = collisionRow[col] == MapData.COLLISION_SOLID;
+                }
+
+                if (!solid) walkable[row * stride + (col >>> 6)] |= 1L << col;
+            }
+        }
+    }
+
+    private boolean isSolidTile(int tileId) {
+        return tileId >= 0 && tileId < solidTiles.length && solidTiles[tileId];
+    }
+
+    /*
+     * Keeps the cells where the whole hitbox fits (hitbox top-left corner cells): each cell is combined
+     * with the cells on its right and below it, once per extra hitbox tile
+     */
+    private void erode(long[] walkable, int stride, int rows) {
+        for (int i = 1; i < hitboxCols; i++) {
+            for (int row = 0; row < rows; row++) {
+                int offset = row * stride;
+                for (int w = 0; w < stride; w++) {
+                    long next = w + 1 < stride ? walkable[offset + w + 1] << 63 : 0;
+                    walkable[offset + w] &= (walkable[offset + w] >>> 1) | next;
+                }
+            }
+        }
+        for (int i = 1; i < hitboxRows; i++) {
+            for (int row = 0; row < rows; row++) {
+                for (int w = 0; w < stride; w++) {
+                    walkable[row * stride + w] &= row + 1 < rows ? walkable[(row + 1) * stride + w] : 0;
+                }
+            }
+        }
+    }
+
+    /*
+     * Floods the walkable cells from the spawn tiles. Every round floods the bands that may have changed
+     * in parallel, each one seeing the boundary rows of its neighbours as they were at the start of the round
+     * @return The reached cells
+     */
+    private long[] flood(long[] walkable, int stride, int rows, int cols, List<Point> spawns) {
+        long[] reached = new long[walkable.length];
+        int bandCount = (rows + BAND_ROWS - 1) / BAND_ROWS;
+        boolean[] dirty = new boolean[bandCount];
+
+        for (Point spawn : spawns) {
+            if (spawn.x < 0 || spawn.x >= cols || spawn.y < 0 || spawn.y >= rows) continue;
+            int word = spawn.y * stride + (spawn.x >>> 6);
+            reached[word] |= walkable[word] & (1L << spawn.x);
+            dirty[spawn.y / BAND_ROWS] = true;
+        }
+
+        // Boundary rows of every band (as seen by its neighbours)
+        long[][] firstRows = new long[bandCount][stride];
+        long[][] lastRows = new long[bandCount][stride];
+
+        boolean anyDirty = true;
+        while (anyDirty) {
+            boolean[] flooded = dirty.clone();
+            Arrays.fill(dirty, false);
+
+            pool.invoke(new BandTask(band -> {
+                if (!flooded[band]) return;
+
+                int firstRow = band * BAND_ROWS;
+                int endRow = Math.min(rows, firstRow + BAND_ROWS);
+                floodBand(walkable, reached, stride, firstRow, endRow,
+                        band > 0 ? lastRows[band - 1] : null, band + 1 < bandCount ? firstRows[band + 1] : null);
+            }, 0, bandCount));
+
+            // Bands whose boundary rows changed wake up their neighbours
+            anyDirty = false;
+            for (int band = 0; band < bandCount; band++) {
+                if (!flooded[band]) continue;
+
+                int firstRow = band * BAND_ROWS;
+                int lastRow = Math.min(rows, firstRow + BAND_ROWS) - 1;
+                if (band > 0 && updateRow(reached, firstRow * stride, firstRows[band])) {
+                    dirty[band - 1] = anyDirty = true;
+                }
+                if (band + 1 < bandCount && updateRow(reached, lastRow * stride, lastRows[band])) {
+                    dirty[band + 1] = anyDirty = true;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /*
+     * Copies a row of the reached cells into its boundary copy
+     * @return true if the row changed since the last copy
+     */
+    private static boolean updateRow(long[] reached, int offset, long[] copy) {
+        boolean changed = false;
+        for (int w = 0; w < copy.length; w++) {
+            if (copy[w] != reached[offset + w]) {
+                copy[w] = reached[offset + w];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /*
+     * Floods a band of rows until it is stable, sweeping down and up.
+     * The rows above and below the band are read from their boundary copies (null at the map edges)
+     */
+    private static void floodBand(long[] walkable, long[] reached, int stride, int firstRow, int endRow,
+                                  long[] rowAbove, long[] rowBelow) {
+        long[] forward = new long[stride];
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+            for (int row = firstRow; row < endRow; row++) {
+                changed |= spreadRow(walkable, reached, stride, row, forward,
+                        row > firstRow ? reached : rowAbove, row > firstRow ? (row - 1) * stride : 0,
+                        row + 1 < endRow ? reached : rowBelow, row + 1 < endRow ? (row + 1) * stride : 0);
+            }
+            for (int row = endRow - 1; row >= firstRow; row--) {
+                changed |= spreadRow(walkable, reached, stride, row, forward,
+                        row > firstRow ? reached : rowAbove, row > firstRow ? (row - 1) * stride : 0,
+                        row + 1 < endRow ? reached : rowBelow, row + 1 < endRow ? (row + 1) * stride : 0);
+            }
+        }
+    }
+
+    /*
+     * Reaches the walkable runs of a row touching a reached cell of the row or of the rows above and below.
+     * Adding the seeds to a walkable run carries through it towards the high bits, so a forward pass spreads
+     * seeds up (carry into the next word), and a backward pass on bit-reversed words spreads them down
+     * @return true if the row changed
+     */
+    private static boolean spreadRow(long[] walkable, long[] reached, int stride, int row, long[] forward,
+                                     long[] above, int aboveOffset, long[] below, int belowOffset) {
+        int offset = row * stride;
+
+        long carry = 0;
+        for (int w = 0; w < stride; w++) {
+            long walk = walkable[offset + w];
+            long seeds = reached[offset + w] | carry;
+            if (above != null) seeds |= above[aboveOffset + w];
+            if (below != null) seeds |= below[belowOffset + w];
+            seeds &= walk;
+
+            forward[w] = (((walk + seeds) ^ walk) & walk) | seeds;
+            carry = forward[w] >>> 63;
+        }
+
+        boolean changed = false;
+        carry = 0;
+        for (int w = stride - 1; w >= 0; w--) {
+            long walk = Long.reverse(walkable[offset + w]);
+            long seeds = Long.reverse(forward[w] | carry) & walk;
+            long filled = Long.reverse((((walk + seeds) ^ walk) & walk) | seeds);
+            carry = filled << 63;
+
+            if (filled != reached[offset + w]) {
+                reached[offset + w] = filled;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /*
+     * Checks if the player can pick up (or touch, if solid) an object at the given tile:
+     * a reached hitbox position overlaps the tile, or is next to it for solid objects
+     */
+    private boolean isTouched(Report report, int col, int row, boolean solid) {
+        for (int x = col - hitboxCols + 1; x <= col; x++) {
+            if (solid) {
+                if (report.isReached(x, row - hitboxRows) || report.isReached(x, row + 1)) return true;
+            } else {
+                for (int y = row - hitboxRows + 1; y <= row; y++) {
+                    if (report.isReached(x, y)) return true;
+                }
+            }
+        }
+        if (solid) {
+            for (int y = row - hitboxRows + 1; y <= row; y++) {
+                if (report.isReached(col - hitboxCols, y) || report.isReached(col + 1, y)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInside(MapObject mapObject, int cols, int rows) {
+        return mapObject.getWorldCol() >= 0 && mapObject.getWorldCol() < cols
+                && mapObject.getWorldRow() >= 0 && mapObject.getWorldRow() < rows;
+    }
+
+    private static int countBits(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
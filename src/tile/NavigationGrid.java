@@ -0,0 +1,456 @@
+package tile;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable snapshot of the walkable cells of a map, for pathfinding.
+ * Each cell keeps the movement cost of entering it (0: solid, see TileAttributes) and its clearance:
+ * the side of the largest free square having the cell as top-left corner, so an entity whose hitbox
+ * spans k x k tiles fits at a cell if its clearance is at least k. Cells are primitive arrays indexed
+ * by row * cols + col, never modified once built, so any number of threads can search the grid at once.
+ * Connected regions are labelled on first use for each footprint, so unreachable goals are rejected at once:
+ * blocks of 32x32 cells are labelled on their own, then their components are joined across block edges.
+ * A grid reflects a revision of the chunk store: tile changes are applied to a copy of the grid,
+ * re-reading only the changed chunks (see update). Its regions relabel only the blocks around the changes,
+ * sharing the others with the earlier grid. Searches limited to an area can use a grid
+ * of that area only (see buildRegion)
+ * @author LC
+ */
+public final class NavigationGrid {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final int MAX_CLEARANCE = 15;                                 // larger squares are stored as 15
+
+    // REGION BLOCKS (square blocks of cells labelled on their own)
+    private static final int REGION_BLOCK_SHIFT = 5;
+    private static final int REGION_BLOCK_SIDE = 1 << REGION_BLOCK_SHIFT;
+    private static final int REGION_BLOCK_MASK = REGION_BLOCK_SIDE - 1;
+    private static final short[] EMPTY_BLOCK_LABELS = new short[REGION_BLOCK_SIDE * REGION_BLOCK_SIDE];
+
+    /* ------------------------------------------- */
+
+    // SIZE
+    private final int cols, rows;
+
+    // CELLS (row-major)
+    private final byte[] costs;                 // movement cost of entering the cell, 0 if solid
+    private final byte[] clearances;            // free square side from the cell towards the bottom right
+    private final int minCost;                  // cheapest walkable cell (keeps the A* heuristic admissible)
+
+    // REGIONS OF EACH FOOTPRINT (computed on first use)
+    private final AtomicReferenceArray<Regions> regionsByFootprint = new AtomicReferenceArray<>(MAX_CLEARANCE + 1);
+    private final AtomicReferenceArray<RegionSource> regionSources;     // earlier regions to relabel from, if any
+
+    /*
+     * Connected regions of a footprint: component labels of each block (0: the footprint does not fit),
+     * first component of each block and the region of each component
+     */
+    private record Regions(short[][] blockLabels, int[] blockBases, int[] roots) {}
+
+    /*
+     * Regions of an earlier grid, with the blocks whose clearances changed since (inclusive, in blocks)
+     */
+    private record RegionSource(Regions regions, int minBlockCol, int minBlockRow, int maxBlockCol, int maxBlockRow) {
+
+        boolean isChanged(int blockCol, int blockRow) {
+            return blockCol >= minBlockCol && blockCol <= maxBlockCol && blockRow >= minBlockRow && blockRow <= maxBlockRow;
+        }
+    }
+
+    // SOURCE
+    private final int revision;
+
+
+    private NavigationGrid(int cols, int rows, byte[] costs, byte[] clearances, int minCost, int revision,
+                           AtomicReferenceArray<RegionSource> regionSources) {
+        this.cols = cols;
+        this.rows = rows;
+        this.costs = costs;
+        this.clearances = clearances;
+        this.minCost = minCost;
+        this.revision = revision;
+        this.regionSources = regionSources;
+    }
+
+    /**
+     * Builds the grid of the current map of a chunk store. Runs on the calling thread
+     * without holding the store lock (see ChunkStore.copyAttributes)
+     * @param chunkStore The chunk store
+     * @return The navigation grid
+     */
+    public static NavigationGrid build(ChunkStore chunkStore) {
+        int cols = chunkStore.getWorldCols();
+        int rows = chunkStore.getWorldRows();
+        int[] attributes = new int[cols * rows];
+        int revision = chunkStore.copyAttributes(attributes);
+
+        byte[] costs = new byte[cols * rows];
+        int minCost = Integer.MAX_VALUE;
+        for (int i = 0; i < attributes.length; i++) {
+            if (TileAttributes.isSolid(attributes[i])) continue;
+
+            int cost = Math.max(1, TileAttributes.getMovementCost(attributes[i]));
+            costs[i] = (byte) cost;
+            minCost = Math.min(minCost, cost);
+        }
+
+        byte[] clearances = new byte[cols * rows];
+        computeClearances(costs, clearances, cols, rows, 0, 0, cols - 1, rows - 1);
+
+        return new NavigationGrid(cols, rows, costs, clearances, minCost == Integer.MAX_VALUE ? 1 : minCost, revision,
+                new AtomicReferenceArray<>(MAX_CLEARANCE + 1));
+    }
+
+    /**
+     * Builds the grid of a rectangle of the current map of a chunk store, reading only the chunks it overlaps.
+     * Cell (0, 0) of the grid is the top-left corner of the rectangle, cells outside the map are solid
+     * @param chunkStore The chunk store
+     * @param minCol The rectangle first column
+     * @param minRow The rectangle first row
+     * @param cols The rectangle width (in tiles)
+     * @param rows The rectangle height (in tiles)
+     * @return The navigation grid of the rectangle
+     */
+    public static NavigationGrid buildRegion(ChunkStore chunkStore, int minCol, int minRow, int cols, int rows) {
+        int revision = chunkStore.getRevision();          // changes made while copying are caught by the next build
+        int firstCol = Math.max(0, minCol);
+        int firstRow = Math.max(0, minRow);
+        int lastCol = Math.min(chunkStore.getWorldCols(), minCol + cols) - 1;
+        int lastRow = Math.min(chunkStore.getWorldRows(), minRow + rows) - 1;
+
+        byte[] costs = new byte[cols * rows];
+        int minCost = Integer.MAX_VALUE;
+        int chunkSize = ChunkStore.CHUNK_SIZE;
+        int[] chunkAttributes = new int[chunkSize * chunkSize];
+        for (int chunkRow = firstRow / chunkSize; chunkRow * chunkSize <= lastRow; chunkRow++) {
+            for (int chunkCol = firstCol / chunkSize; chunkCol * chunkSize <= lastCol; chunkCol++) {
+                chunkStore.copyChunkAttributes(chunkCol, chunkRow, chunkAttributes);
+
+                int chunkFirstCol = chunkCol * chunkSize;
+                int chunkFirstRow = chunkRow * chunkSize;
+                for (int row = Math.max(firstRow, chunkFirstRow); row <= Math.min(lastRow, chunkFirstRow + chunkSize - 1); row++) {
+                    for (int col = Math.max(firstCol, chunkFirstCol); col <= Math.min(lastCol, chunkFirstCol + chunkSize - 1); col++) {
+                        int attributes = chunkAttributes[(row - chunkFirstRow) * chunkSize + col - chunkFirstCol];
+                        if (TileAttributes.isSolid(attributes)) continue;
+
+                        int cost = Math.max(1, TileAttributes.getMovementCost(attributes));
+                        costs[(row - minRow) * cols + col - minCol] = (byte) cost;
+                        minCost = Math.min(minCost, cost);
+                    }
+                }
+            }
+        }
+
+        byte[] clearances = new byte[cols * rows];
+        computeClearances(costs, clearances, cols, rows, 0, 0, cols - 1, rows - 1);
+
+        return new NavigationGrid(cols, rows, costs, clearances, minCost == Integer.MAX_VALUE ? 1 : minCost, revision,
+                new AtomicReferenceArray<>(MAX_CLEARANCE + 1));
+    }
+
+    /**
+     * Returns a grid of the current map of a chunk store, copying a previous grid and re-reading
+     * only the chunks changed since it was built. The whole grid is rebuilt if the map itself changed
+     * @param previous The grid built from an earlier revision
+     * @param chunkStore The chunk store
+     * @return The navigation grid (previous if nothing changed)
+     */
+    public static NavigationGrid update(NavigationGrid previous, ChunkStore chunkStore) {
+        List<Point> changedChunks = new ArrayList<>();
+        int revision = chunkStore.getChangedChunks(previous.revision, changedChunks);
+        if (revision < 0) return build(chunkStore);
+        if (revision == previous.revision) return previous;
+
+        int cols = previous.cols;
+        int rows = previous.rows;
+        byte[] costs = previous.costs.clone();
+        byte[] clearances = previous.clearances.clone();
+        int minCost = previous.minCost;
+
+        int[] chunkAttributes = new int[ChunkStore.CHUNK_SIZE * ChunkStore.CHUNK_SIZE];
+        int minCol = cols, minRow = rows, maxCol = -1, maxRow = -1;
+        for (Point chunk : changedChunks) {
+            chunkStore.copyChunkAttributes(chunk.x, chunk.y, chunkAttributes);
+
+            int firstCol = chunk.x * ChunkStore.CHUNK_SIZE;
+            int firstRow = chunk.y * ChunkStore.CHUNK_SIZE;
+            int lastCol = Math.min(cols, firstCol + ChunkStore.CHUNK_SIZE) - 1;
+            int lastRow = Math.min(rows, firstRow + ChunkStore.CHUNK_SIZE) - 1;
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    int attributes = chunkAttributes[(row - firstRow) * ChunkStore.CHUNK_SIZE + col - firstCol];
+                    int cost = TileAttributes.isSolid(attributes) ? 0 : Math.max(1, TileAttributes.getMovementCost(attributes));
+                    costs[row * cols + col] = (byte) cost;
+                    if (cost > 0) minCost = Math.min(minCost, cost);
+                }
+            }
+
+            minCol = Math.min(minCol, firstCol);
+            minRow = Math.min(minRow, firstRow);
+            maxCol = Math.max(maxCol, lastCol);
+            maxRow = Math.max(maxRow, lastRow);
+        }
+
+        // A cell clearance only depends on the cells up to MAX_CLEARANCE to its right and below
+        minCol = Math.max(0, minCol - MAX_CLEARANCE);
+        minRow = Math.max(0, minRow - MAX_CLEARANCE);
+        computeClearances(costs, clearances, cols, rows, minCol, minRow, maxCol, maxRow);
+
+        // Regions are relabelled from the earlier ones, in the blocks whose clearances changed only
+        AtomicReferenceArray<RegionSource> regionSources = new AtomicReferenceArray<>(MAX_CLEARANCE + 1);
+        for (int footprint = 1; footprint <= MAX_CLEARANCE; footprint++) {
+            RegionSource pending = previous.regionSources.get(footprint);
+            Regions labelled = previous.regionsByFootprint.get(footprint);
+            if (labelled != null) {
+                regionSources.set(footprint, new RegionSource(labelled, minCol >> REGION_BLOCK_SHIFT, minRow >> REGION_BLOCK_SHIFT,
+                        maxCol >> REGION_BLOCK_SHIFT, maxRow >> REGION_BLOCK_SHIFT));
+            } else if (pending != null) {
+                // Never labelled since: the changes of both revisions
+                regionSources.set(footprint, new RegionSource(pending.regions(),
+                        Math.min(pending.minBlockCol(), minCol >> REGION_BLOCK_SHIFT), Math.min(pending.minBlockRow(), minRow >> REGION_BLOCK_SHIFT),
+                        Math.max(pending.maxBlockCol(), maxCol >> REGION_BLOCK_SHIFT), Math.max(pending.maxBlockRow(), maxRow >> REGION_BLOCK_SHIFT)));
+            }
+        }
+
+        return new NavigationGrid(cols, rows, costs, clearances, minCost, revision, regionSources);
+    }
+
+    /*
+     * Computes the clearance of the cells of a rectangle from the bottom right:
+     * a free cell extends the smallest square of its right, lower and diagonal neighbours
+     */
+    private static void computeClearances(byte[] costs, byte[] clearances, int cols, int rows,
+                                          int minCol, int minRow, int maxCol, int maxRow) {
+        for (int row = maxRow; row >= minRow; row--) {
+            for (int col = maxCol; col >= minCol; col--) {
+                int index = row * cols + col;
+                if (costs[index] == 0) {
+                    clearances[index] = 0;
+                    continue;
+                }
+
+                int right = col + 1 < cols ? clearances[index + 1] : 0;
+                int down = row + 1 < rows ? clearances[index + cols] : 0;
+                int diagonal = col + 1 < cols && row + 1 < rows ? clearances[index + cols + 1] : 0;
+                clearances[index] = (byte) Math.min(MAX_CLEARANCE, 1 + Math.min(right, Math.min(down, diagonal)));
+            }
+        }
+    }
+
+    /**
+     * Checks if an entity of the given footprint fits at a cell
+     * @param col The cell column
+     * @param row The cell row
+     * @param footprint The entity hitbox side (in tiles, 1 to MAX_CLEARANCE)
+     * @return true if inside the map and the footprint is free, false otherwise
+     */
+    public boolean isWalkable(int col, int row, int footprint) {
+        return col >= 0 && col < cols && row >= 0 && row < rows && clearances[row * cols + col] >= footprint;
+    }
+
+    /**
+     * Checks if an entity of the given footprint fits at a cell, without bounds checks
+     * @param index The cell index (row * cols + col)
+     * @param footprint The entity hitbox side (in tiles)
+     * @return true if the footprint is free, false otherwise
+     */
+    public boolean isWalkableUnchecked(int index, int footprint) {
+        return clearances[index] >= footprint;
+    }
+
+    /**
+     * Checks if an entity of the given footprint can walk between two cells
+     * @param from The first cell index (row * cols + col)
+     * @param to The second cell index
+     * @param footprint The entity hitbox side (in tiles)
+     * @return true if both cells fit the footprint and are connected, false otherwise
+     */
+    public boolean isConnected(int from, int to, int footprint) {
+        Regions regions = getRegions(footprint);
+        int fromRegion = regionOf(regions, from % cols, from / cols);
+        return fromRegion >= 0 && fromRegion == regionOf(regions, to % cols, to / cols);
+    }
+
+    /*
+     * Returns the region of a cell, -1 if the footprint does not fit
+     */
+    private int regionOf(Regions regions, int col, int row) {
+        int component = componentOf(regions, col, row);
+        return component >= 0 ? regions.roots()[component] : -1;
+    }
+
+    /*
+     * Returns the block component of a cell, -1 if the footprint does not fit
+     */
+    private int componentOf(Regions regions, int col, int row) {
+        int block = (row >> REGION_BLOCK_SHIFT) * blockCols() + (col >> REGION_BLOCK_SHIFT);
+        int label = regions.blockLabels()[block][((row & REGION_BLOCK_MASK) << REGION_BLOCK_SHIFT) | (col & REGION_BLOCK_MASK)];
+        return label == 0 ? -1 : regions.blockBases()[block] + label - 1;
+    }
+
+    /*
+     * Returns the regions of a footprint, labelling them on first use
+     */
+    private Regions getRegions(int footprint) {
+        Regions regions = regionsByFootprint.get(footprint);
+        if (regions != null) return regions;
+
+        synchronized (regionsByFootprint) {
+            regions = regionsByFootprint.get(footprint);
+            if (regions == null) {
+                regions = labelRegions(footprint, regionSources.get(footprint));
+                regionsByFootprint.set(footprint, regions);
+                regionSources.set(footprint, null);             // the earlier regions can be collected
+            }
+            return regions;
+        }
+    }
+
+    /*
+     * Labels the blocks changed since the source regions (every block without source), then joins
+     * the components of neighbour blocks touching across their edge
+     */
+    private Regions labelRegions(int footprint, RegionSource source) {
+        int blockCols = blockCols();
+        int blockRows = (rows + REGION_BLOCK_MASK) >> REGION_BLOCK_SHIFT;
+        int blockCount = blockCols * blockRows;
+        short[][] blockLabels = new short[blockCount][];
+        int[] blockBases = new int[blockCount + 1];
+        int[] queue = new int[REGION_BLOCK_SIDE * REGION_BLOCK_SIDE];
+
+        for (int blockRow = 0; blockRow < blockRows; blockRow++) {
+            for (int blockCol = 0; blockCol < blockCols; blockCol++) {
+                int block = blockRow * blockCols + blockCol;
+                int componentCount;
+                if (source != null && !source.isChanged(blockCol, blockRow)) {
+                    Regions sourceRegions = source.regions();
+                    blockLabels[block] = sourceRegions.blockLabels()[block];
+                    componentCount = sourceRegions.blockBases()[block + 1] - sourceRegions.blockBases()[block];
+                } else {
+                    short[] labels = new short[REGION_BLOCK_SIDE * REGION_BLOCK_SIDE];
+                    componentCount = labelBlock(blockCol, blockRow, footprint, labels, queue);
+                    blockLabels[block] = componentCount > 0 ? labels : EMPTY_BLOCK_LABELS;
+                }
+                blockBases[block + 1] = blockBases[block] + componentCount;
+            }
+        }
+
+        // Union-find over the block components
+        int[] parents = new int[blockBases[blockCount]];
+        for (int i = 0; i < parents.length; i++) parents[i] = i;
+
+        Regions regions = new Regions(blockLabels, blockBases, parents);
+        for (int blockRow = 0; blockRow < blockRows; blockRow++) {
+            for (int blockCol = 0; blockCol < blockCols; blockCol++) {
+                int firstCol = blockCol << REGION_BLOCK_SHIFT;
+                int firstRow = blockRow << REGION_BLOCK_SHIFT;
+                int lastCol = Math.min(cols, firstCol + REGION_BLOCK_SIDE) - 1;
+                int lastRow = Math.min(rows, firstRow + REGION_BLOCK_SIDE) - 1;
+
+                // Right and bottom edges (the other ones are joined by the neighbour blocks)
+                if (lastCol + 1 < cols) {
+                    for (int row = firstRow; row <= lastRow; row++) {
+                        union(parents, componentOf(regions, lastCol, row), componentOf(regions, lastCol + 1, row));
+                    }
+                }
+                if (lastRow + 1 < rows) {
+                    for (int col = firstCol; col <= lastCol; col++) {
+                        union(parents, componentOf(regions, col, lastRow), componentOf(regions, col, lastRow + 1));
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < parents.length; i++) parents[i] = find(parents, i);
+        return regions;
+    }
+
+    /*
+     * Flood fills the cells of a block fitting the footprint, without leaving the block.
+     * Diagonal moves need both orthogonal neighbours free, so cells connected by 8-directional moves
+     * are connected by orthogonal moves too
+     * @return The number of components (labelled from 1)
+     */
+    private int labelBlock(int blockCol, int blockRow, int footprint, short[] labels, int[] queue) {
+        int firstCol = blockCol << REGION_BLOCK_SHIFT;
+        int firstRow = blockRow << REGION_BLOCK_SHIFT;
+        int width = Math.min(REGION_BLOCK_SIDE, cols - firstCol);
+        int height = Math.min(REGION_BLOCK_SIDE, rows - firstRow);
+        short label = 0;
+
+        for (int seedRow = 0; seedRow < height; seedRow++) {
+            for (int seedCol = 0; seedCol < width; seedCol++) {
+                int seed = (seedRow << REGION_BLOCK_SHIFT) | seedCol;
+                if (labels[seed] != 0 || clearances[(firstRow + seedRow) * cols + firstCol + seedCol] < footprint) continue;
+
+                label++;
+                labels[seed] = label;
+                int head = 0, tail = 0;
+                queue[tail++] = seed;
+                while (head < tail) {
+                    int local = queue[head++];
+                    int col = local & REGION_BLOCK_MASK;
+                    int row = local >> REGION_BLOCK_SHIFT;
+                    if (col > 0) tail = visit(firstCol, firstRow, col - 1, row, footprint, label, labels, queue, tail);
+                    if (col < width - 1) tail = visit(firstCol, firstRow, col + 1, row, footprint, label, labels, queue, tail);
+                    if (row > 0) tail = visit(firstCol, firstRow, col, row - 1, footprint, label, labels, queue, tail);
+                    if (row < height - 1) tail = visit(firstCol, firstRow, col, row + 1, footprint, label, labels, queue, tail);
+                }
+            }
+        }
+        return label;
+    }
+
+    private int visit(int firstCol, int firstRow, int col, int row, int footprint, short label, short[] labels, int[] queue, int tail) {
+        int local = (row << REGION_BLOCK_SHIFT) | col;
+        if (labels[local] != 0 || clearances[(firstRow + row) * cols + firstCol + col] < footprint) return tail;
+
+        labels[local] = label;
+        queue[tail] = local;
+        return tail + 1;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        if (a < 0 || b < 0) return;
+
+        int rootA = find(parents, a);
+        int rootB = find(parents, b);
+        if (rootA != rootB) parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+    }
+
+    private static int find(int[] parents, int component) {
+        while (parents[component] != component) {
+            parents[component] = parents[parents[component]];          // path halving
+            component = parents[component];
+        }
+        return component;
+    }
+
+    private int blockCols() {
+        return (cols + REGION_BLOCK_MASK) >> REGION_BLOCK_SHIFT;
+    }
+
+    /**
+     * Returns the movement cost of entering a cell, without bounds checks
+     * @param index The cell index (row * cols + col)
+     * @return The movement cost, 0 if solid
+     */
+    public int getCostUnchecked(int index) {
+        return costs[index] & 0xFF;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public int getCellCount() { return costs.length; }
+    public int getMinCost() { return minCost; }
+    public int getRevision() { return revision; }
+
+    /* ------------------------------------------------ */
+}
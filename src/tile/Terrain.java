@@ -0,0 +1,74 @@
+package tile;
+
+/**
+ * Terrain types resolved to ground tiles by the Autotiler.
+ * Terrains with an edge sheet are drawn with the edge/corner variant matching their neighbours,
+ * the others use a single tile (existing variants, e.g. bridge rails, are kept)
+ * @author LC
+ */
+public enum Terrain {
+    GRASS(null, TileSet.GRASS.getFirstId()),
+    TREE(null, TileSet.TREE.getFirstId()),
+    WATER(TileSet.WATER, -1),                   // water on grass
+    BEACH(TileSet.BEACH, -1),                   // sand on water
+    PATH(TileSet.PATH, -1),                     // path on grass
+    CLIFF(TileSet.GRASS_EDGES, -1),             // raised grass with cliff edges
+    BRIDGE(null, TileSet.BRIDGE.getFirstId() + 4);      // plank, placed bridges keep their rails
+
+    // EDGE SHEET CELLS (3x3 ring, then inner corners and center variants)
+    static final int SHEET_CENTER = 4;
+    static final int[] SHEET_CENTER_VARIANTS = {4, 11, 14};
+
+    private final TileSet edgeSheet;
+    private final int defaultTile;
+
+
+    Terrain(TileSet edgeSheet, int defaultTile) {
+        this.edgeSheet = edgeSheet;
+        this.defaultTile = defaultTile;
+    }
+
+    /**
+     * Returns the terrain drawn by the given ground tile
+     * @param tileId The tile ID
+     * @return The terrain, GRASS for unknown tiles
+     */
+    public static Terrain fromTile(int tileId) {
+        if (TileSet.TREE.contains(tileId)) return TREE;
+        if (TileSet.WATER.contains(tileId)) return WATER;
+        if (TileSet.BEACH.contains(tileId)) return BEACH;
+        if (TileSet.PATH.contains(tileId)) return PATH;
+        if (TileSet.BRIDGE.contains(tileId)) return BRIDGE;
+
+        // Grass edge sheet center (and its variants) is plain grass, the rest is cliff edges
+        if (TileSet.GRASS_EDGES.contains(tileId)) {
+            for (int cell : SHEET_CENTER_VARIANTS) {
+                if (TileSet.GRASS_EDGES.fromSheetCell(cell) == tileId) return GRASS;
+            }
+            return CLIFF;
+        }
+        return GRASS;
+    }
+
+    /**
+     * Checks if the given tile is a center tile (or center variant) of this terrain
+     * @param tileId The tile ID
+     * @return true if the tile is a center tile of this terrain edge sheet, or any tile of a terrain without edges
+     */
+    public boolean isCenterTile(int tileId) {
+        if (edgeSheet == null) return fromTile(tileId) == this;
+
+        for (int cell : SHEET_CENTER_VARIANTS) {
+            if (edgeSheet.fromSheetCell(cell) == tileId) return true;
+        }
+        return false;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public TileSet getEdgeSheet() { return edgeSheet; }
+    public int getDefaultTile() { return defaultTile; }
+
+    /* ------------------------------------------------ */
+}
@@ -0,0 +1,125 @@
+package tile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Hand-written text map format (.txt): one line per map row, whitespace separated tile IDs.
+ * Kept as an import path, maps are compiled to the binary format (see MapConverter)
+ * @author LC
+ */
+public class TextMapFormat {
+
+    /**
+     * Reads a text map from the given classpath resource path
+     * @param resourcePath The classpath resource path (e.g. "maps/world01.txt")
+     * @return The map data (ground layer only)
+     * @throws IOException if the map cannot be read or is invalid
+     */
+    public static MapData openResource(String resourcePath) throws IOException {
+        InputStream is = TextMapFormat.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (is == null) {
+            throw new IOException("File not found: " + resourcePath);
+        }
+
+        try (is) {
+            return read(is);
+        }
+    }
+
+    /**
+     * Reads a text map from the given stream.
+     * Map width is the number of tile IDs in the first row, map height is the number of non-empty rows
+     * @param is The input stream
+     * @return The map data (ground layer only)
+     * @throws IOException if the map cannot be read or is invalid
+     */
+    public static MapData read(InputStream is) throws IOException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(is));
+        ArrayList<short[]> rows = new ArrayList<>();
+        int cols = -1;
+
+        String line;
+        while ((line = br.readLine()) != null) {
+            if (line.isBlank()) continue;
+
+            short[] row = parseRow(line, cols, rows.size());
+            if (cols == -1) cols = row.length;
+            rows.add(row);
+        }
+
+        if (rows.isEmpty()) {
+            throw new IOException("Empty map file");
+        }
+
+        ShortBuffer cells = ShortBuffer.allocate(cols * rows.size());
+        for (short[] row : rows) {
+            cells.put(row);
+        }
+        cells.flip();
+
+        MapData mapData = new MapData(cols, rows.size());
+        mapData.setLayer(MapData.LAYER_GROUND, cells);
+        return mapData;
+    }
+
+    /**
+     * Parses a row of whitespace separated tile IDs (without splitting it into strings)
+     * @param line The row line
+     * @param expectedCols The expected number of tile IDs, -1 if unknown
+     * @param rowIndex The row index (for error messages)
+     * @return The tile IDs of the row
+     * @throws IOException if the row is invalid
+     */
+    public static short[] parseRow(String line, int expectedCols, int rowIndex) throws IOException {
+        short[] row = new short[expectedCols == -1 ? line.length() / 2 + 1 : expectedCols];
+        int count = 0;
+        int i = 0;
+        int length = line.length();
+
+        while (i < length) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            boolean negative = c == '-';
+            if (negative) i++;
+
+            int value = 0;
+            int digits = 0;
+            while (i < length && (c = line.charAt(i)) >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > Short.MAX_VALUE) {
+                    throw new IOException("Tile ID out of range at row " + rowIndex + ", column " + count);
+                }
+                digits++;
+                i++;
+            }
+
+            if (digits == 0 || (i < length && !Character.isWhitespace(line.charAt(i)))) {
+                throw new IOException("Invalid tile ID at row " + rowIndex + ", column " + count);
+            }
+            if (count == row.length) {
+                throw new IOException("Too many tile IDs at row " + rowIndex + " (expected " + expectedCols + ")");
+            }
+
+            row[count++] = (short) (negative ? -value : value);
+        }
+
+        if (expectedCols == -1) {
+            return Arrays.copyOf(row, count);
+        }
+        if (count != expectedCols) {
+            throw new IOException("Unexpected number of tile IDs at row " + rowIndex + ": " + count
+                    + " (expected " + expectedCols + ")");
+        }
+        return row;
+    }
+}
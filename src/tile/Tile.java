@@ -4,22 +4,50 @@ import java.awt.image.BufferedImage;
 
 public class Tile {
 
+    public static final int DEFAULT_MOVEMENT_COST = 1;
+
     // TILE IMAGE
     private BufferedImage image;
+    private BufferedImage nativeImage;                  // unscaled image (ORIGINAL_TILE_SIZE)
 
     // COLLISION
     private boolean hasCollision;
 
+    // GAMEPLAY ATTRIBUTES (see TileAttributes)
+    private int movementCost = DEFAULT_MOVEMENT_COST;
+    private int triggerId = TileAttributes.NO_TRIGGER;
+    private boolean animated = false;
+    private boolean blocksLight = false;
+
     public Tile(BufferedImage image, boolean hasCollision) {
+        this(image, image, hasCollision);
+    }
+
+    public Tile(BufferedImage image, BufferedImage nativeImage, boolean hasCollision) {
         this.image = image;
+        this.nativeImage = nativeImage;
         this.hasCollision = hasCollision;
     }
 
 
+    /**
+     * Returns the packed attribute word of this tile
+     * @return The tile attributes (see TileAttributes)
+     */
+    public int getAttributes() {
+        return TileAttributes.pack(hasCollision, movementCost, triggerId, animated, blocksLight);
+    }
+
+
     /* --------------- [GETTER METHODS] --------------- */
 
     public boolean isCollidable() { return hasCollision; }
+    public int getMovementCost() { return movementCost; }
+    public int getTriggerId() { return triggerId; }
+    public boolean isAnimated() { return animated; }
+    public boolean blocksLight() { return blocksLight; }
     public BufferedImage getImage() { return image; }
+    public BufferedImage getNativeImage() { return nativeImage; }
 
     /* ------------------------------------------------ */
 
@@ -28,6 +56,10 @@ public class Tile {
 
     public void setCollision(boolean hasCollision) { this.hasCollision = hasCollision; }
     public void setImage(BufferedImage image) { this.image = image; }
+    public void setMovementCost(int movementCost) { this.movementCost = movementCost; }
+    public void setTriggerId(int triggerId) { this.triggerId = triggerId; }
+    public void setAnimated(boolean animated) { this.animated = animated; }
+    public void setBlocksLight(boolean blocksLight) { this.blocksLight = blocksLight; }
 
     /* ------------------------------------------------ */
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package tile;
+
+/**
+ * Packed per-cell attribute word, precomputed from the tile definitions of every layer of a map cell,
+ * so gameplay queries (collision, pathfinding, lighting, triggers) take a single array read:
+ * <pre>
+ * bit  0       solid
+ * bit  1       animated
+ * bit  2       blocks light
+ * bits 8..15   movement cost (0..255)
+ * bits 16..31  trigger ID (0 = no trigger)
+ * </pre>
+ * @author LC
+ */
+public final class TileAttributes {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // FLAGS
+    public static final int SOLID = 1;
+    public static final int ANIMATED = 1 << 1;
+    public static final int BLOCKS_LIGHT = 1 << 2;
+
+    // MOVEMENT COST
+    private static final int MOVEMENT_COST_SHIFT = 8;
+    private static final int MOVEMENT_COST_MASK = 0xFF;
+    public static final int MAX_MOVEMENT_COST = MOVEMENT_COST_MASK;
+
+    // TRIGGER ID
+    private static final int TRIGGER_ID_SHIFT = 16;
+    private static final int TRIGGER_ID_MASK = 0xFFFF;
+    public static final int NO_TRIGGER = 0;
+
+    // ATTRIBUTES OF AN EMPTY (OR MISSING) CELL
+    public static final int NONE = 0;
+
+    /* ------------------------------------------- */
+
+    private TileAttributes() {}
+
+    /**
+     * Packs the given attributes in a single attribute word
+     * @param solid true if the cell blocks movement
+     * @param movementCost The cost of moving through the cell (clamped to 0..MAX_MOVEMENT_COST)
+     * @param triggerId The trigger ID (NO_TRIGGER if none)
+     * @param animated true if the cell is animated
+     * @param blocksLight true if the cell blocks light
+     * @return The attribute word
+     */
+    public static int pack(boolean solid, int movementCost, int triggerId, boolean animated, boolean blocksLight) {
+        int attributes = Math.max(0, Math.min(movementCost, MAX_MOVEMENT_COST)) << MOVEMENT_COST_SHIFT;
+        attributes |= (triggerId & TRIGGER_ID_MASK) << TRIGGER_ID_SHIFT;
+        if (solid) attributes |= SOLID;
+        if (animated) attributes |= ANIMATED;
+        if (blocksLight) attributes |= BLOCKS_LIGHT;
+        return attributes;
+    }
+
+    /**
+     * Combines the attributes of two stacked tiles (e.g. ground and decoration):
+     * flags are merged, the highest movement cost wins, the top trigger wins if set
+     * @param bottom The bottom tile attributes
+     * @param top The top tile attributes
+     * @return The combined attribute word
+     */
+    public static int stack(int bottom, int top) {
+        int flags = (bottom | top) & (SOLID | ANIMATED | BLOCKS_LIGHT);
+        int movementCost = Math.max(getMovementCost(bottom), getMovementCost(top));
+        int triggerId = getTriggerId(top) != NO_TRIGGER ? getTriggerId(top) : getTriggerId(bottom);
+        return flags | movementCost << MOVEMENT_COST_SHIFT | triggerId << TRIGGER_ID_SHIFT;
+    }
+
+    /**
+     * Returns the given attribute word with the solid flag set or cleared
+     * @param attributes The attribute word
+     * @param solid true to set the solid flag, false to clear it
+     * @return The updated attribute word
+     */
+    public static int withSolid(int attributes, boolean solid) {
+        return solid ? attributes | SOLID : attributes & ~SOLID;
+    }
+
+    public static boolean isSolid(int attributes) { return (attributes & SOLID) != 0; }
+    public static boolean isAnimated(int attributes) { return (attributes & ANIMATED) != 0; }
+    public static boolean blocksLight(int attributes) { return (attributes & BLOCKS_LIGHT) != 0; }
+    public static int getMovementCost(int attributes) { return (attributes >>> MOVEMENT_COST_SHIFT) & MOVEMENT_COST_MASK; }
+    public static int getTriggerId(int attributes) { return (attributes >>> TRIGGER_ID_SHIFT) & TRIGGER_ID_MASK; }
+}
@@ -0,0 +1,30 @@
+package tile;
+
+/**
+ * A single map cell change: the new tile of a layer at a world tile
+ * @author LC
+ */
+public class TileChange {
+
+    private final int layerType;
+    private final int worldCol, worldRow;
+    private final int tileNum;
+
+
+    public TileChange(int layerType, int worldCol, int worldRow, int tileNum) {
+        this.layerType = layerType;
+        this.worldCol = worldCol;
+        this.worldRow = worldRow;
+        this.tileNum = tileNum;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getLayerType() { return layerType; }
+    public int getWorldCol() { return worldCol; }
+    public int getWorldRow() { return worldRow; }
+    public int getTileNum() { return tileNum; }
+
+    /* ------------------------------------------------ */
+}
@@ -0,0 +1,181 @@
+package tile;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed size grid of tile IDs, stored in a single flat array in row-major order (index = row * cols + col),
+ * so row scans walk contiguous memory.
+ * Cells take one byte when the tile set is small enough (IDs below 255), two bytes otherwise.
+ * Checked accessors validate coordinates, unchecked accessors are meant for loops already clamped to the grid
+ * @author LC
+ */
+public class TileGrid {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    public static final int EMPTY_TILE = -1;
+    private static final int MAX_BYTE_TILE_COUNT = 0xFF;            // 0xFF is reserved for EMPTY_TILE
+    private static final byte EMPTY_BYTE = (byte) 0xFF;
+
+    /* ------------------------------------------- */
+
+    // GRID SIZE (in tiles)
+    private final int cols, rows;
+
+    // CELLS (only one of the two is used)
+    private final byte[] byteCells;
+    private final short[] shortCells;
+
+
+    /**
+     * Creates a grid filled with EMPTY_TILE
+     * @param cols The grid width (in tiles)
+     * @param rows The grid height (in tiles)
+     * @param tileCount The number of tile IDs the grid must hold, picks the cell size
+     */
+    public TileGrid(int cols, int rows, int tileCount) {
+        this.cols = cols;
+        this.rows = rows;
+
+        int size = Math.multiplyExact(cols, rows);
+        if (tileCount <= MAX_BYTE_TILE_COUNT) {
+            this.byteCells = new byte[size];
+            this.shortCells = null;
+        } else {
+            this.byteCells = null;
+            this.shortCells = new short[size];
+        }
+        fill(EMPTY_TILE);
+    }
+
+    /**
+     * Creates a copy of the given grid
+     * @param source The grid to copy
+     */
+    public TileGrid(TileGrid source) {
+        this.cols = source.cols;
+        this.rows = source.rows;
+        this.byteCells = source.byteCells != null ? source.byteCells.clone() : null;
+        this.shortCells = source.shortCells != null ? source.shortCells.clone() : null;
+    }
+
+    /**
+     * Returns the tile ID of the given cell
+     * @param col The cell column
+     * @param row The cell row
+     * @return The tile ID, EMPTY_TILE if the cell is empty or outside the grid
+     */
+    public int get(int col, int row) {
+        if (!isInside(col, row)) return EMPTY_TILE;
+        return getUnchecked(col, row);
+    }
+
+    /**
+     * Returns the tile ID of the given cell, without bounds checks
+     * @param col The cell column (0 <= col < cols)
+     * @param row The cell row (0 <= row < rows)
+     * @return The tile ID, EMPTY_TILE if the cell is empty
+     */
+    public int getUnchecked(int col, int row) {
+        int index = row * cols + col;
+        if (byteCells != null) {
+            byte cell = byteCells[index];
+            return cell == EMPTY_BYTE ? EMPTY_TILE : cell & 0xFF;
+        }
+        return shortCells[index];
+    }
+
+    /**
+     * Sets the tile ID of the given cell
+     * @param col The cell column
+     * @param row The cell row
+     * @param tileId The tile ID (EMPTY_TILE to clear the cell)
+     * @throws IndexOutOfBoundsException if the cell is outside the grid
+     */
+    public void set(int col, int row, int tileId) {
+        if (!isInside(col, row)) {
+            throw new IndexOutOfBoundsException("Cell (" + col + "," + row + ") outside " + cols + "x" + rows + " grid");
+        }
+        setUnchecked(col, row, tileId);
+    }
+
+    /**
+     * Sets the tile ID of the given cell, without bounds checks
+     * @param col The cell column (0 <= col < cols)
+     * @param row The cell row (0 <= row < rows)
+     * @param tileId The tile ID (EMPTY_TILE to clear the cell)
+     */
+    public void setUnchecked(int col, int row, int tileId) {
+        int index = row * cols + col;
+        if (byteCells != null) {
+            byteCells[index] = tileId == EMPTY_TILE ? EMPTY_BYTE : (byte) tileId;
+        } else {
+            shortCells[index] = (short) tileId;
+        }
+    }
+
+    /**
+     * Copies a run of tile IDs from a map layer into the given grid row.
+     * IDs outside [0, tileCount) are replaced by the given tile (EMPTY_TILE is kept as is)
+     * @param source The map layer (row-major tile IDs), read with absolute gets (position is untouched)
+     * @param sourceIndex The index of the first tile ID to copy
+     * @param col The first grid column to write
+     * @param row The grid row to write
+     * @param length The number of tile IDs to copy
+     * @param tileCount The number of valid tile IDs
+     * @param invalidReplacement The tile ID used in place of invalid IDs
+     * @return The number of replaced tile IDs
+     */
+    public int copyRow(ShortBuffer source, int sourceIndex, int col, int row, int length, int tileCount, int invalidReplacement) {
+        int invalidTiles = 0;
+        int index = row * cols + col;
+
+        for (int i = 0; i < length; i++) {
+            int tileId = source.get(sourceIndex + i);
+
+            if (tileId != EMPTY_TILE && (tileId < 0 || tileId >= tileCount)) {
+                tileId = invalidReplacement;
+                invalidTiles++;
+            }
+
+            if (byteCells != null) {
+                byteCells[index + i] = tileId == EMPTY_TILE ? EMPTY_BYTE : (byte) tileId;
+            } else {
+                shortCells[index + i] = (short) tileId;
+            }
+        }
+
+        return invalidTiles;
+    }
+
+    /**
+     * Sets every cell to the given tile ID
+     * @param tileId The tile ID (EMPTY_TILE to clear the grid)
+     */
+    public void fill(int tileId) {
+        if (byteCells != null) {
+            Arrays.fill(byteCells, tileId == EMPTY_TILE ? EMPTY_BYTE : (byte) tileId);
+        } else {
+            Arrays.fill(shortCells, (short) tileId);
+        }
+    }
+
+    /**
+     * Checks if the given cell is within the grid
+     * @param col The cell column
+     * @param row The cell row
+     * @return true if inside the grid, false otherwise
+     */
+    public boolean isInside(int col, int row) {
+        return col >= 0 && col < cols && row >= 0 && row < rows;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+
+    /* ------------------------------------------------ */
+}
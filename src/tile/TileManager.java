@@ -1,6 +1,7 @@
 package tile;
 
-import entity.Player;
+import entity.Entity;
+import game_logic.Camera;
 import game_logic.GamePanel;
 import utils.GameUtils;
 
@@ -8,6 +9,8 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class TileManager {
 
@@ -62,57 +65,143 @@ public class TileManager {
             SOLID, NON_SOLID, SOLID
     };
 
+    // TILE ATTRIBUTES
+    private static final int OFF_PATH_MOVEMENT_COST = 2;                       // paths and bridges cost 1
+
+    // RENDER LAYERS (static layers composited in cached chunks)
+    private static final int[] BELOW_ENTITIES_LAYERS = {MapData.LAYER_GROUND, MapData.LAYER_DECORATION};
+    private static final int[] ABOVE_ENTITIES_LAYERS = {MapData.LAYER_OVERHEAD};
+
+    // MAPS
+    public static final String START_MAP = "world01";
+    private static final String MAPS_DIR = "maps/";
+
+    // DOORS (map objects leading to another map: target map name and arrival tile)
+    public static final String DOOR_OBJECT_TYPE = "door";
+    public static final String DOOR_TARGET_MAP = "map";
+    public static final String DOOR_TARGET_COL = "col";
+    public static final String DOOR_TARGET_ROW = "row";
+
     /* ------------------------------------------- */
 
     private final GamePanel gamePanel;
 
     // TILE LIST
     private final ArrayList<Tile> tiles;
+    private int[] tileAttributes;                       // packed attributes of each tile (see TileAttributes)
+
+    // TILE INDEXES MAP (streamed in chunks)
+    private final ChunkStore chunkStore;
+
+    // LOADED MAP (classpath path)
+    private String mapPath;
+    private MapData mapData;
+    private List<MapObject> mapObjects = List.of();
+    private final List<MapObject> doors = new ArrayList<>();
 
-    // TILE INDEXES MAP
-    private final int[][] mapTileNum;
+    // NEIGHBOUR MAPS (preloaded while the players are in the loaded map)
+    private final MapPreloader mapPreloader = new MapPreloader(MapPreloader.DEFAULT_MAX_PRELOADED_BYTES);
+
+    // RENDER CACHES (shared by all viewports)
+    private final ChunkRenderCache belowEntitiesCache;
+    private final ChunkRenderCache aboveEntitiesCache;
+
+    // MAP LISTENERS (notified after a map is swapped in)
+    private final List<Runnable> mapListeners = new CopyOnWriteArrayList<>();
 
 
     public TileManager(GamePanel gamePanel) {
         this.gamePanel = gamePanel;
         this.tiles = new ArrayList<>();
-        this.mapTileNum = new int[GamePanel.MAX_WORLD_COL][GamePanel.MAX_WORLD_ROW];
+        this.chunkStore = new ChunkStore(ChunkStore.DEFAULT_MAX_RESIDENT_CHUNKS);
+        this.belowEntitiesCache = new ChunkRenderCache(this, BELOW_ENTITIES_LAYERS, false);
+        this.aboveEntitiesCache = new ChunkRenderCache(this, ABOVE_ENTITIES_LAYERS, true);
 
         loadTiles();
-        loadTileMap("maps/world01.txt");
+        loadTileMap(resolveMapPath(START_MAP));
     }
 
     /**
-     * Loads tiles from tiles dir in res folder
+     * Loads tiles from tiles dir in res folder.
+     * Tile IDs are stable: each tile set fills its own TileSet ID range
      */
     public void loadTiles() {
 
         // [0 -> 1]
-        loadTile("/tiles/grass_01.png", false);
-        loadTile("/tiles/tree_01.png", true);
+        loadTile(TileSet.GRASS, NON_SOLID);
+        loadTile(TileSet.TREE, SOLID);
 
         // [2 -> 16 (15)]
-        loadTilesFromSpriteSheet("/tiles/grass_tiles_01.png", GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, GRASS_FLAGS);
+        loadTilesFromSpriteSheet(TileSet.GRASS_EDGES, GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, GRASS_FLAGS);
         // [17 -> 31 (15)]
-        loadTilesFromSpriteSheet("/tiles/water_tiles_01.png", GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, WATER_FLAGS);
+        loadTilesFromSpriteSheet(TileSet.WATER, GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, WATER_FLAGS);
         // [32 -> 46 (15)]
-        loadTilesFromSpriteSheet("/tiles/path_tiles_01.png", GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, PATH_FLAGS);
-        // [47 -> 58 (12)]
-        loadTilesFromSpriteSheet("/tiles/beach_tiles_01.png", GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, BEACH_FLAGS);
-        // [59 -> 76 (18)]
-        loadTilesFromSpriteSheet("/tiles/bridge_tiles_01.png", GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, 6, BRIDGE_FLAGS);
+        loadTilesFromSpriteSheet(TileSet.PATH, GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, PATH_FLAGS);
+        // [47 -> 59 (13)]
+        loadTilesFromSpriteSheet(TileSet.BEACH, GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, DEFAULT_SHEET_ROWS, BEACH_FLAGS);
+        // [60 -> 77 (18)]
+        loadTilesFromSpriteSheet(TileSet.BRIDGE, GamePanel.ORIGINAL_TILE_SIZE, DEFAULT_SHEET_COLS, 6, BRIDGE_FLAGS);
+
+        setupTileAttributes();
+    }
+
+    /**
+     * Returns the collision flag of every tile ID (as set by loadTiles), without loading tile images
+     * (e.g. build-time map validation, see MapValidator)
+     * @return The solid flag of each tile ID
+     */
+    public static boolean[] getSolidTiles() {
+        boolean[] solidTiles = new boolean[TileSet.TILE_COUNT];
+        solidTiles[TileSet.GRASS.getFirstId()] = NON_SOLID;
+        solidTiles[TileSet.TREE.getFirstId()] = SOLID;
+        copyCollisionFlags(solidTiles, TileSet.GRASS_EDGES, GRASS_FLAGS);
+        copyCollisionFlags(solidTiles, TileSet.WATER, WATER_FLAGS);
+        copyCollisionFlags(solidTiles, TileSet.PATH, PATH_FLAGS);
+        copyCollisionFlags(solidTiles, TileSet.BEACH, BEACH_FLAGS);
+        copyCollisionFlags(solidTiles, TileSet.BRIDGE, BRIDGE_FLAGS);
+        return solidTiles;
+    }
+
+    private static void copyCollisionFlags(boolean[] solidTiles, TileSet tileSet, boolean[] collisionFlags) {
+        for (int i = 0; i < Math.min(tileSet.getTileCount(), collisionFlags.length); i++) {
+            solidTiles[tileSet.getFirstId() + i] = collisionFlags[i];
+        }
+    }
+
+    /*
+     * Sets gameplay attributes of loaded tiles and packs them for map cells lookups:
+     * walking off paths and bridges costs more, trees block light
+     */
+    private void setupTileAttributes() {
+        tileAttributes = new int[tiles.size()];
+
+        for (int tileNum = 0; tileNum < tiles.size(); tileNum++) {
+            Tile tile = tiles.get(tileNum);
+
+            if (!TileSet.PATH.contains(tileNum) && !TileSet.BRIDGE.contains(tileNum)) {
+                tile.setMovementCost(OFF_PATH_MOVEMENT_COST);
+            }
+            if (TileSet.TREE.contains(tileNum)) {
+                tile.setBlocksLight(true);
+            }
+
+            tileAttributes[tileNum] = tile.getAttributes();
+        }
     }
 
     // Load single tile, setting up image and collision properties
-    private void loadTile(String path, boolean collision) {
+    private void loadTile(TileSet tileSet, boolean collision) {
+        String path = tileSet.getPath();
         Tile tile;
         try {
+            BufferedImage nativeImage = GameUtils.loadImageSafe(path);
             tile = new Tile(
                     GameUtils.scaleImage(
-                            GameUtils.loadImageSafe(path),
+                            nativeImage,
                             GamePanel.TILE_SIZE,
                             GamePanel.TILE_SIZE
                     ),
+                    nativeImage,
                     collision
             );
 
@@ -130,14 +219,16 @@ public class TileManager {
     /*
      * Loads multiple tiles from a sprite sheet located at the specified path.
      * Each tile is sliced, scaled to the game's tile size, and assigned a collision flag.
-     * @param path The file path to the sprite sheet image
+     * Missing tiles are replaced by placeholders, so that following tile sets keep their IDs
+     * @param tileSet The tile set to load
      * @param tileSize The size (in pixels) of each tile in the sprite sheet
      * @param cols The number of columns in the sprite sheet
      * @param rows The number of rows in the sprite sheet
      * @param collisionFlags An array indicating which tiles have collision.
      *                       If null or shorter than tile count, remaining tiles are set by default to having no collision
      */
-    private void loadTilesFromSpriteSheet(String path, int tileSize, int cols, int rows, boolean[] collisionFlags) {
+    private void loadTilesFromSpriteSheet(TileSet tileSet, int tileSize, int cols, int rows, boolean[] collisionFlags) {
+        String path = tileSet.getPath();
         try {
             BufferedImage spriteSheet = GameUtils.loadImageSafe(path);
             ArrayList<BufferedImage> slicedTiles = GameUtils.sliceSpriteSheet(spriteSheet, tileSize, rows, cols);
@@ -146,7 +237,7 @@ public class TileManager {
                 BufferedImage scaledTile = GameUtils.scaleImage(slicedTiles.get(i), GamePanel.TILE_SIZE, GamePanel.TILE_SIZE);
                 boolean hasCollision = collisionFlags != null && i < collisionFlags.length && collisionFlags[i];            // short circuit
 
-                tiles.add(new Tile(scaledTile, hasCollision));
+                tiles.add(new Tile(scaledTile, slicedTiles.get(i), hasCollision));
             }
 
             System.out.println("Loaded " + slicedTiles.size() + " tiles from " + path);
@@ -154,121 +245,272 @@ public class TileManager {
         } catch (IOException e) {
             System.err.println("Error loading sprite sheet:\n" + e.getMessage());
         }
+
+        // Keep tile IDs stable
+        while (tiles.size() < tileSet.getFirstId() + tileSet.getTileCount()) {
+            tiles.add(new Tile(GameUtils.getPlaceholderImage(GamePanel.TILE_SIZE, GamePanel.TILE_SIZE, Color.GRAY), false));
+        }
     }
 
     /**
-     * Loads tiles ID map into a 2D array
-     * @param path file path of the world map (.txt) to load
+     * Loads tiles ID map into the chunk store. World size is taken from the map.
+     * Binary maps (.jtm) are memory-mapped and streamed in chunks, any other map is imported from the text format.
+     * Invalid tile indexes are replaced by a placeholder tile [ID = 0] when their chunk is decoded.
+     * Maps already preloaded (see MapPreloader) are swapped in without loading, then the maps
+     * behind the doors of the new map are preloaded in the background
+     * @param path classpath path of the world map to load
+     * @return true if the map was loaded, false if it cannot be read (the current map is kept)
      */
-    public void loadTileMap(String path) {
+    public boolean loadTileMap(String path) {
+        MapData newMapData;
         try {
-            InputStream is = getClass().getClassLoader().getResourceAsStream(path);
-            if (is == null) {
-                throw new IOException("File not found: " + path);
-            }
+            // Reloading the current map always reads it again
+            newMapData = path.equals(mapPath) ? MapPreloader.load(path) : mapPreloader.take(path);
+        } catch (IOException e) {
+            System.err.println("Error loading map:\n" + e.getMessage());
+            return false;
+        }
 
-            BufferedReader br = new BufferedReader(new InputStreamReader(is));
+        setMap(path, newMapData);
+        return true;
+    }
 
-            for (int worldRow = 0; worldRow < GamePanel.MAX_WORLD_ROW; worldRow++) {
-                String line = br.readLine();
-                if (line == null) {
-                    throw new IOException("Unexpected end of file at row " + worldRow);
-                }
+    /**
+     * Swaps in the given map (e.g. a generated world, see WorldGenerator), then preloads the maps behind its doors
+     * @param path The map path (classpath path of map files, any unique name for generated maps)
+     * @param newMapData The map data
+     */
+    public void setMap(String path, MapData newMapData) {
+        // The map being left is the most likely next destination
+        if (mapData != null && !path.equals(mapPath)) {
+            mapPreloader.put(mapPath, mapData);
+        }
 
-                String[] rowTilesID = line.trim().split("\\s+");
+        chunkStore.setMap(newMapData, tileAttributes);
+        mapPath = path;
+        mapData = newMapData;
+        mapObjects = List.copyOf(newMapData.getObjects());
+        belowEntitiesCache.clear();
+        aboveEntitiesCache.clear();
 
-                for (int worldCol = 0; worldCol < GamePanel.MAX_WORLD_COL; worldCol++) {
-                    int tileID = Integer.parseInt(rowTilesID[worldCol]);
+        doors.clear();
+        for (MapObject mapObject : mapObjects) {
+            if (!mapObject.getType().equals(DOOR_OBJECT_TYPE)) continue;
 
-                    // If tile is invalid, add placeholder tile [ID = 0] instead
-                    if (tileID < 0 || tileID >= tiles.size()) {
-                        System.err.println("Invalid tile index at (" + worldCol + "," + worldRow + "): " + tileID);
-                        System.err.println("Added placeholder tile instead...");
-                        mapTileNum[worldCol][worldRow] = 0;
-                    } else {
-                        mapTileNum[worldCol][worldRow] = tileID;
-                    }
-                }
+            if (mapObject.getProperty(DOOR_TARGET_MAP) == null) {
+                System.err.println("Door at (" + mapObject.getWorldCol() + "," + mapObject.getWorldRow() + ") has no target map");
+                continue;
             }
+            doors.add(mapObject);
+            mapPreloader.preload(resolveMapPath(mapObject.getProperty(DOOR_TARGET_MAP)));
+        }
 
-            System.out.println("Loaded map from " + path);
+        System.out.println("Loaded map from " + path + " (" + newMapData.getCols() + "x" + newMapData.getRows() + ", "
+                + doors.size() + " doors)");
 
-            br.close();
-        } catch (Exception e) {
-            System.err.println(e.getMessage());
+        for (Runnable mapListener : mapListeners) {
+            mapListener.run();
         }
     }
 
-    /*
-     * Checks if tile is within the player's visible area.
-     * @param tileWorldX The tile's world X coordinate
-     * @param tileWorldY The tile's world Y coordinate
-     * @param playerWorldX The player's world X coordinate
-     * @param playerWorldY The player's world Y coordinate
-     * @param playerScreenX The player's screen X coordinate
-     * @param playerScreenY The player's screen Y coordinate
-     * @return true if tile is inside the boundaries,
-     *         false otherwise
+    /**
+     * Registers a listener notified every time a map is swapped in (loaded, reloaded, generated)
+     * @param mapListener The listener, run by the thread swapping the map
+     */
+    public void addMapListener(Runnable mapListener) {
+        mapListeners.add(mapListener);
+    }
+
+    /**
+     * Returns the classpath path of the given map
+     * @param mapName The map name (e.g. "world01")
+     * @return The map path (e.g. "maps/world01.jtm")
+     */
+    public static String resolveMapPath(String mapName) {
+        return MAPS_DIR + mapName + BinaryMapFormat.FILE_EXTENSION;
+    }
+
+    /**
+     * Returns the door of the loaded map at the given tile
+     * @param worldCol The tile world column
+     * @param worldRow The tile world row
+     * @return The door map object, null if there is no door at the given tile
+     */
+    public MapObject getDoorAt(int worldCol, int worldRow) {
+        for (MapObject door : doors) {
+            if (door.getWorldCol() == worldCol && door.getWorldRow() == worldRow) return door;
+        }
+        return null;
+    }
+
+    /**
+     * Draws the game's tile map layers below entities (ground, decoration) visible by the given camera to the screen
+     * @param g2 Graphics context used for drawing (relative to the camera viewport)
+     * @param camera The camera viewing the map
      */
-    private boolean isTileVisible(int tileWorldX, int tileWorldY,
-                                  int playerWorldX, int playerWorldY,
-                                  int playerScreenX, int playerScreenY) {
-        int leftBound = playerWorldX - playerScreenX;
-        int rightBound = playerWorldX + playerScreenX;
-        int upperBound = playerWorldY - playerScreenY;
-        int lowerBound = playerWorldY + playerScreenY;
-
-        return  (tileWorldX + GamePanel.TILE_SIZE) > leftBound &&
-                (tileWorldX - GamePanel.TILE_SIZE) < rightBound &&
-                (tileWorldY + GamePanel.TILE_SIZE) > upperBound &&
-                (tileWorldY - GamePanel.TILE_SIZE) < lowerBound;
+    public void draw(Graphics2D g2, Camera camera) {
+        renderTileMap(g2, camera, belowEntitiesCache);
     }
 
     /**
-     * Draws the game's tile map area visible by the player to the screen
-     * @param g2 Graphics context used for drawing
+     * Draws the game's tile map layers above entities (overhead) visible by the given camera to the screen.
+     * Does nothing if the map has no overhead layer
+     * @param g2 Graphics context used for drawing (relative to the camera viewport)
+     * @param camera The camera viewing the map
      */
-    public void draw(Graphics2D g2) {
-        renderTileMap(g2);
+    public void drawOverhead(Graphics2D g2, Camera camera) {
+        if (!chunkStore.hasLayer(MapData.LAYER_OVERHEAD)) return;
+        renderTileMap(g2, camera, aboveEntitiesCache);
     }
 
     /*
-     * Renders the game's tile map relative to player position.
-     * Only tiles within the visible screen area are drawn.
+     * Renders the game's tile map relative to camera position.
+     * Only cached chunks within the visible viewport area are drawn.
      * @param g2  Graphics context used for drawing
+     * @param camera The camera viewing the map
+     * @param renderCache The render cache of the layers to draw
      */
-    private void renderTileMap(Graphics2D g2) {
-        Player player = gamePanel.getPlayer();
-        int playerWorldX = player.getWorldX();
-        int playerWorldY = player.getWorldY();
-        int playerScreenX = player.getScreenX();
-        int playerScreenY = player.getScreenY();
-
-        for (int worldRow = 0; worldRow < GamePanel.MAX_WORLD_ROW; worldRow++) {
-            for (int worldCol = 0; worldCol < GamePanel.MAX_WORLD_COL; worldCol++) {
-                int tileNum = mapTileNum[worldCol][worldRow];
-
-                // Skip invalid tile indexes
-                if (tileNum < 0 || tileNum >= tiles.size()) {
-                    continue;
-                }
-
-                int worldX = worldCol * GamePanel.TILE_SIZE;
-                int worldY = worldRow * GamePanel.TILE_SIZE;
-
-                if (isTileVisible(worldX, worldY, playerWorldX, playerWorldY, playerScreenX, playerScreenY)) {
-                    int screenX = worldX - playerWorldX + playerScreenX;
-                    int screenY = worldY - playerWorldY + playerScreenY;
-
-                    g2.drawImage(tiles.get(tileNum).getImage(), screenX, screenY, null);
-                }
+    private void renderTileMap(Graphics2D g2, Camera camera, ChunkRenderCache renderCache) {
+        // Native resolution chunks are cheaper to render and cache, and upscaled when drawn
+        renderCache.setNativeResolution(gamePanel.getQualityGovernor().getLevel().isNativeTileRendering());
+
+        int chunkSize = ChunkRenderCache.CHUNK_PIXEL_SIZE;
+        int maxChunkCol = (chunkStore.getWorldCols() - 1) / ChunkRenderCache.CHUNK_SIZE;
+        int maxChunkRow = (chunkStore.getWorldRows() - 1) / ChunkRenderCache.CHUNK_SIZE;
+
+        // Visible chunks range, clamped to world boundaries
+        int firstChunkCol = Math.max(0, Math.floorDiv(camera.getWorldX(), chunkSize));
+        int firstChunkRow = Math.max(0, Math.floorDiv(camera.getWorldY(), chunkSize));
+        int lastChunkCol = Math.min(maxChunkCol, Math.floorDiv(camera.getWorldX() + camera.getWidth() - 1, chunkSize));
+        int lastChunkRow = Math.min(maxChunkRow, Math.floorDiv(camera.getWorldY() + camera.getHeight() - 1, chunkSize));
+
+        for (int chunkRow = firstChunkRow; chunkRow <= lastChunkRow; chunkRow++) {
+            for (int chunkCol = firstChunkCol; chunkCol <= lastChunkCol; chunkCol++) {
+                int viewX = camera.toViewX(chunkCol * chunkSize);
+                int viewY = camera.toViewY(chunkRow * chunkSize);
+
+                g2.drawImage(renderCache.getChunk(chunkCol, chunkRow), viewX, viewY, chunkSize, chunkSize, null);
             }
         }
     }
 
+    /**
+     * Returns the ground tile index at the given world tile
+     * @param worldCol The tile world column
+     * @param worldRow The tile world row
+     * @return The tile index, -1 if outside the world
+     */
+    public int getTile(int worldCol, int worldRow) {
+        return chunkStore.getTile(MapData.LAYER_GROUND, worldCol, worldRow);
+    }
+
+    /**
+     * Returns the tile index of the given layer at the given world tile, without bounds checks
+     * @param layerType The map layer type (see MapData)
+     * @param worldCol The tile world column (0 <= worldCol < world cols)
+     * @param worldRow The tile world row (0 <= worldRow < world rows)
+     * @return The tile index, -1 if the cell is empty
+     */
+    public int getTileUnchecked(int layerType, int worldCol, int worldRow) {
+        return chunkStore.getTileUnchecked(layerType, worldCol, worldRow);
+    }
+
+    /**
+     * Checks if the given world tile blocks movement, without bounds checks (single bitset read).
+     * The collision layer, where set, overrides the collision flags of the ground and decoration tiles
+     * @param worldCol The tile world column (0 <= worldCol < world cols)
+     * @param worldRow The tile world row (0 <= worldRow < world rows)
+     * @return true if the tile is solid, false otherwise
+     */
+    public boolean isSolidUnchecked(int worldCol, int worldRow) {
+        return chunkStore.isSolidUnchecked(worldCol, worldRow);
+    }
+
+    /**
+     * Returns the packed attributes of the given world tile (solid, movement cost, trigger, animated, light blocking),
+     * without bounds checks
+     * @param worldCol The tile world column (0 <= worldCol < world cols)
+     * @param worldRow The tile world row (0 <= worldRow < world rows)
+     * @return The cell attributes (see TileAttributes)
+     */
+    public int getAttributesUnchecked(int worldCol, int worldRow) {
+        return chunkStore.getAttributesUnchecked(worldCol, worldRow);
+    }
+
+    /**
+     * Changes the tile of the given layer at the given world tile.
+     * Only the cell attributes and the render chunk containing the tile are rebuilt
+     * @param layerType The map layer type (see MapData)
+     * @param worldCol The tile world column
+     * @param worldRow The tile world row
+     * @param tileNum The tile index (TileGrid.EMPTY_TILE to clear the cell)
+     */
+    public void setTile(int layerType, int worldCol, int worldRow, int tileNum) {
+        chunkStore.setTile(layerType, worldCol, worldRow, tileNum);
+        invalidateRenderedTile(layerType, worldCol, worldRow);
+    }
+
+    /**
+     * Applies a batch of tile changes atomically (e.g. a map hot reload).
+     * Only the cell attributes and the render chunks of the changed tiles are rebuilt
+     * @param changes The tile changes to apply
+     */
+    public void setTiles(List<TileChange> changes) {
+        chunkStore.setTiles(changes);
+
+        for (TileChange change : changes) {
+            invalidateRenderedTile(change.getLayerType(), change.getWorldCol(), change.getWorldRow());
+        }
+    }
+
+    /*
+     * Drops the cached render chunk showing the given tile of the given layer
+     */
+    private void invalidateRenderedTile(int layerType, int worldCol, int worldRow) {
+        if (layerType == MapData.LAYER_OVERHEAD) {
+            aboveEntitiesCache.invalidateTile(worldCol, worldRow);
+        } else if (layerType != MapData.LAYER_COLLISION) {
+            belowEntitiesCache.invalidateTile(worldCol, worldRow);
+        }
+    }
+
+    /**
+     * Streams map chunks around the given entities (see ChunkStore)
+     * @param entities The entities streaming the map (players)
+     */
+    public void update(List<? extends Entity> entities) {
+        chunkStore.update(entities);
+    }
+
+    /**
+     * Returns the image of the tile with the given index
+     * @param tileNum The tile index
+     * @return The tile image, null if index is invalid
+     */
+    public BufferedImage getTileImage(int tileNum) {
+        if (tileNum < 0 || tileNum >= tiles.size()) return null;
+        return tiles.get(tileNum).getImage();
+    }
+
+    /**
+     * Returns the unscaled (native resolution) image of the tile with the given index
+     * @param tileNum The tile index
+     * @return The native tile image, null if index is invalid
+     */
+    public BufferedImage getNativeTileImage(int tileNum) {
+        if (tileNum < 0 || tileNum >= tiles.size()) return null;
+        return tiles.get(tileNum).getNativeImage();
+    }
+
     /* --------------- [GETTER METHODS] --------------- */
 
-    public int[][] getMapTileNum() { return mapTileNum; }
+    public ChunkStore getChunkStore() { return chunkStore; }
+    public String getMapPath() { return mapPath; }
+    public MapData getMapData() { return mapData; }
+    public List<MapObject> getMapObjects() { return mapObjects; }
+    public MapPreloader getMapPreloader() { return mapPreloader; }
+    public int getWorldCols() { return chunkStore.getWorldCols(); }
+    public int getWorldRows() { return chunkStore.getWorldRows(); }
     public ArrayList<Tile> getTiles() { return tiles; }
 
     /* ------------------------------------------------ */
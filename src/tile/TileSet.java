@@ -0,0 +1,82 @@
+package tile;
+
+/**
+ * Tile sets loaded by the TileManager, in load order.
+ * Each tile set owns a stable range of tile IDs [firstId, firstId + tileCount),
+ * referenced by map files and tools.
+ * Fully transparent sheet cells are skipped by the loader, so they have no tile ID
+ * @author LC
+ */
+public enum TileSet {
+    GRASS("/tiles/grass_01.png", 0, 1),
+    TREE("/tiles/tree_01.png", 1, 1),
+    GRASS_EDGES("/tiles/grass_tiles_01.png", 2, 15),
+    WATER("/tiles/water_tiles_01.png", 17, 15),
+    PATH("/tiles/path_tiles_01.png", 32, 15),
+    BEACH("/tiles/beach_tiles_01.png", 47, 13, 11, 14),
+    BRIDGE("/tiles/bridge_tiles_01.png", 60, 18);
+
+    // TOTAL NUMBER OF TILE IDS
+    public static final int TILE_COUNT = 78;
+
+    private final String path;
+    private final String name;
+    private final int firstId;
+    private final int tileCount;
+    private final int[] blankCells;             // sheet cells (row-major) without a tile, ascending
+
+    TileSet(String path, int firstId, int tileCount, int... blankCells) {
+        this.path = path;
+        this.name = path.substring(path.lastIndexOf('/') + 1, path.lastIndexOf('.'));
+        this.firstId = firstId;
+        this.tileCount = tileCount;
+        this.blankCells = blankCells;
+    }
+
+    /**
+     * Returns the tile ID of the given sheet cell (e.g. a Tiled local tile ID)
+     * @param cell The sheet cell index (row-major)
+     * @return The tile ID, -1 if the cell is blank or outside the tile set
+     */
+    public int fromSheetCell(int cell) {
+        int skipped = 0;
+        for (int blankCell : blankCells) {
+            if (blankCell == cell) return -1;
+            if (blankCell < cell) skipped++;
+        }
+
+        int index = cell - skipped;
+        return index >= 0 && index < tileCount ? firstId + index : -1;
+    }
+
+    /**
+     * Checks if the given tile ID belongs to this tile set
+     * @param tileId The tile ID
+     * @return true if the ID is in this tile set range, false otherwise
+     */
+    public boolean contains(int tileId) {
+        return tileId >= firstId && tileId < firstId + tileCount;
+    }
+
+    /**
+     * Returns the tile set with the given name
+     * @param name The tile set name (image file name without extension)
+     * @return The tile set, null if there is no tile set with the given name
+     */
+    public static TileSet fromName(String name) {
+        for (TileSet tileSet : values()) {
+            if (tileSet.name.equals(name)) return tileSet;
+        }
+        return null;
+    }
+
+
+    /* --------------- [GETTER METHODS] --------------- */
+
+    public String getPath() { return path; }
+    public String getName() { return name; }
+    public int getFirstId() { return firstId; }
+    public int getTileCount() { return tileCount; }
+
+    /* ------------------------------------------------ */
+}
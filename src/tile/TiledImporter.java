@@ -0,0 +1,579 @@
+package tile;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import utils.JsonParser;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Build-time importer from Tiled maps (.tmx XML or .tmj/.json JSON) to compiled binary maps (.jtm).
+ * <ul>
+ *     <li>Tile layers are matched to map layers by name (ground, decoration, overhead, collision).
+ *     Any non-empty cell of the collision layer is solid</li>
+ *     <li>Tiled tile sets (embedded or external .tsx/.tsj) are matched to runtime tile sets by name
+ *     or image file name, and Tiled tile IDs are remapped to the stable TileSet IDs</li>
+ *     <li>Object layers become object placements (type from the object class/type, or its name),
+ *     custom object properties are kept as strings (e.g. door target map and tile)</li>
+ * </ul>
+ * Runs as a Maven build step (import-maps profile), the game itself only reads binary maps.
+ * Usage: TiledImporter &lt;map file or directory&gt; &lt;output directory&gt;...
+ * @author LC
+ */
+public class TiledImporter {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // GID FLAGS (flips and rotations, not supported by the runtime)
+    private static final int GID_FLAGS_MASK = 0xF0000000;
+
+    /* ------------------------------------------- */
+
+    // Tiled tile set reference: first global tile ID and matching runtime tile set
+    private record TileSetRef(int firstGid, TileSet tileSet) {}
+
+    // Tiled tile layer: name and global tile IDs (row-major)
+    private record TiledLayer(String name, int[] gids) {}
+
+    // Tiled object: type, pixel bounds (tile objects are anchored bottom-left) and custom properties
+    private record TiledObject(String type, double x, double y, double height, boolean tileObject,
+                               Map<String, String> properties) {}
+
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: TiledImporter <map file or directory> <output directory>...");
+            System.exit(1);
+        }
+
+        try {
+            List<Path> inputs;
+            Path input = Path.of(args[0]);
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> files = Files.list(input)) {
+                    inputs = files.filter(TiledImporter::isTiledMap).sorted().toList();
+                }
+            } else {
+                inputs = List.of(input);
+            }
+
+            for (Path mapFile : inputs) {
+                MapData mapData = importMap(mapFile);
+
+                for (int i = 1; i < args.length; i++) {
+                    Path outputDir = Path.of(args[i]);
+                    Files.createDirectories(outputDir);
+                    Path output = outputDir.resolve(baseName(mapFile) + BinaryMapFormat.FILE_EXTENSION);
+                    BinaryMapFormat.write(mapData, output);
+                    System.out.println("Imported " + mapFile + " (" + mapData.getCols() + "x" + mapData.getRows() + ", "
+                            + mapData.getObjects().size() + " objects) to " + output);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error importing Tiled map:\n" + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Imports the given Tiled map
+     * @param mapFile The Tiled map file (.tmx, .tmj or .json)
+     * @return The map data
+     * @throws IOException if the map cannot be read, or uses unsupported features or unknown tile sets
+     */
+    public static MapData importMap(Path mapFile) throws IOException {
+        String fileName = mapFile.getFileName().toString().toLowerCase(Locale.ROOT);
+        return fileName.endsWith(".tmx") ? importTmx(mapFile) : importJson(mapFile);
+    }
+
+    /* --------------- [TMX] --------------- */
+
+    /*
+     * Imports a Tiled XML map
+     */
+    private static MapData importTmx(Path mapFile) throws IOException {
+        Element map = readXml(mapFile);
+        if (!"orthogonal".equals(map.getAttribute("orientation"))) {
+            throw new IOException(mapFile + ": only orthogonal maps are supported");
+        }
+        if ("1".equals(map.getAttribute("infinite"))) {
+            throw new IOException(mapFile + ": infinite maps are not supported");
+        }
+
+        int cols = Integer.parseInt(map.getAttribute("width"));
+        int rows = Integer.parseInt(map.getAttribute("height"));
+        int tileWidth = Integer.parseInt(map.getAttribute("tilewidth"));
+        int tileHeight = Integer.parseInt(map.getAttribute("tileheight"));
+
+        List<TileSetRef> tileSets = new ArrayList<>();
+        List<TiledLayer> layers = new ArrayList<>();
+        List<TiledObject> objects = new ArrayList<>();
+
+        for (Element child : childElements(map)) {
+            switch (child.getTagName()) {
+                case "tileset" -> tileSets.add(readTmxTileSet(child, mapFile));
+                case "layer" -> layers.add(new TiledLayer(child.getAttribute("name"), readTmxData(child, cols * rows, mapFile)));
+                case "objectgroup" -> {
+                    for (Element object : childElements(child)) {
+                        if (!object.getTagName().equals("object")) continue;
+
+                        String type = firstNonEmpty(object.getAttribute("class"), object.getAttribute("type"), object.getAttribute("name"));
+                        objects.add(new TiledObject(type,
+                                parseDouble(object.getAttribute("x")),
+                                parseDouble(object.getAttribute("y")),
+                                parseDouble(object.getAttribute("height")),
+                                !object.getAttribute("gid").isEmpty(),
+                                readTmxProperties(object)));
+                    }
+                }
+            }
+        }
+
+        return buildMap(mapFile, cols, rows, tileWidth, tileHeight, tileSets, layers, objects);
+    }
+
+    /*
+     * Reads the custom properties of a TMX element (multi-line values are stored as text content)
+     */
+    private static Map<String, String> readTmxProperties(Element element) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (Element child : childElements(element)) {
+            if (!child.getTagName().equals("properties")) continue;
+
+            for (Element property : childElements(child)) {
+                String value = property.hasAttribute("value") ? property.getAttribute("value") : property.getTextContent();
+                properties.put(property.getAttribute("name"), value);
+            }
+        }
+        return properties;
+    }
+
+    /*
+     * Reads an embedded or external (.tsx/.tsj) tile set reference
+     */
+    private static TileSetRef readTmxTileSet(Element tileSet, Path mapFile) throws IOException {
+        int firstGid = Integer.parseInt(tileSet.getAttribute("firstgid"));
+        String source = tileSet.getAttribute("source");
+
+        if (!source.isEmpty()) {
+            return readExternalTileSet(firstGid, mapFile.resolveSibling(source));
+        }
+        return new TileSetRef(firstGid, resolveTileSet(tileSet.getAttribute("name"), tmxImageSource(tileSet), mapFile));
+    }
+
+    /*
+     * Returns the image source of a TMX/TSX tile set element, empty if none
+     */
+    private static String tmxImageSource(Element tileSet) {
+        for (Element child : childElements(tileSet)) {
+            if (child.getTagName().equals("image")) return child.getAttribute("source");
+        }
+        return "";
+    }
+
+    /*
+     * Decodes the global tile IDs of a TMX tile layer (CSV, base64 with optional zlib/gzip compression, or XML)
+     */
+    private static int[] readTmxData(Element layer, int expectedCells, Path mapFile) throws IOException {
+        Element data = null;
+        for (Element child : childElements(layer)) {
+            if (child.getTagName().equals("data")) data = child;
+        }
+        if (data == null) throw new IOException(mapFile + ": layer '" + layer.getAttribute("name") + "' has no data");
+
+        String encoding = data.getAttribute("encoding");
+        int[] gids;
+
+        switch (encoding) {
+            case "csv" -> {
+                String[] values = data.getTextContent().trim().split("\\s*,\\s*");
+                gids = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    gids[i] = Integer.parseUnsignedInt(values[i].trim());
+                }
+            }
+            case "base64" -> gids = decodeBase64(data.getTextContent().trim(), data.getAttribute("compression"), mapFile);
+            case "" -> {
+                List<Element> tiles = childElements(data);
+                gids = new int[tiles.size()];
+                for (int i = 0; i < gids.length; i++) {
+                    String gid = tiles.get(i).getAttribute("gid");
+                    gids[i] = gid.isEmpty() ? 0 : Integer.parseUnsignedInt(gid);
+                }
+            }
+            default -> throw new IOException(mapFile + ": unsupported layer encoding '" + encoding + "'");
+        }
+
+        if (gids.length != expectedCells) {
+            throw new IOException(mapFile + ": layer '" + layer.getAttribute("name") + "' has " + gids.length
+                    + " cells (expected " + expectedCells + ")");
+        }
+        return gids;
+    }
+
+    /* --------------- [JSON] --------------- */
+
+    /*
+     * Imports a Tiled JSON map
+     */
+    private static MapData importJson(Path mapFile) throws IOException {
+        Map<String, Object> map = readJson(mapFile);
+        if (!"orthogonal".equals(map.get("orientation"))) {
+            throw new IOException(mapFile + ": only orthogonal maps are supported");
+        }
+        if (Boolean.TRUE.equals(map.get("infinite"))) {
+            throw new IOException(mapFile + ": infinite maps are not supported");
+        }
+
+        int cols = getInt(map, "width");
+        int rows = getInt(map, "height");
+        int tileWidth = getInt(map, "tilewidth");
+        int tileHeight = getInt(map, "tileheight");
+
+        List<TileSetRef> tileSets = new ArrayList<>();
+        for (Map<String, Object> tileSet : getObjectList(map, "tilesets")) {
+            int firstGid = getInt(tileSet, "firstgid");
+            Object source = tileSet.get("source");
+
+            if (source instanceof String sourcePath) {
+                tileSets.add(readExternalTileSet(firstGid, mapFile.resolveSibling(sourcePath)));
+            } else {
+                tileSets.add(new TileSetRef(firstGid,
+                        resolveTileSet(getString(tileSet, "name"), getString(tileSet, "image"), mapFile)));
+            }
+        }
+
+        List<TiledLayer> layers = new ArrayList<>();
+        List<TiledObject> objects = new ArrayList<>();
+        collectJsonLayers(getObjectList(map, "layers"), cols * rows, mapFile, layers, objects);
+
+        return buildMap(mapFile, cols, rows, tileWidth, tileHeight, tileSets, layers, objects);
+    }
+
+    /*
+     * Collects tile and object layers, flattening layer groups
+     */
+    private static void collectJsonLayers(List<Map<String, Object>> jsonLayers, int expectedCells, Path mapFile,
+                                          List<TiledLayer> layers, List<TiledObject> objects) throws IOException {
+        for (Map<String, Object> layer : jsonLayers) {
+            String name = getString(layer, "name");
+
+            switch (getString(layer, "type")) {
+                case "tilelayer" -> {
+                    int[] gids = readJsonData(layer, mapFile);
+                    if (gids.length != expectedCells) {
+                        throw new IOException(mapFile + ": layer '" + name + "' has " + gids.length
+                                + " cells (expected " + expectedCells + ")");
+                    }
+                    layers.add(new TiledLayer(name, gids));
+                }
+                case "objectgroup" -> {
+                    for (Map<String, Object> object : getObjectList(layer, "objects")) {
+                        String type = firstNonEmpty(getString(object, "class"), getString(object, "type"), getString(object, "name"));
+                        objects.add(new TiledObject(type,
+                                getDouble(object, "x"),
+                                getDouble(object, "y"),
+                                getDouble(object, "height"),
+                                object.containsKey("gid"),
+                                readJsonProperties(object)));
+                    }
+                }
+                case "group" -> collectJsonLayers(getObjectList(layer, "layers"), expectedCells, mapFile, layers, objects);
+            }
+        }
+    }
+
+    /*
+     * Reads the custom properties of a JSON object (numbers without fraction are written as integers)
+     */
+    private static Map<String, String> readJsonProperties(Map<String, Object> object) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (Map<String, Object> property : getObjectList(object, "properties")) {
+            Object value = property.get("value");
+            String text = value instanceof Double number && number == Math.rint(number)
+                    ? Long.toString(number.longValue())
+                    : String.valueOf(value);
+            properties.put(getString(property, "name"), text);
+        }
+        return properties;
+    }
+
+    /*
+     * Decodes the global tile IDs of a JSON tile layer (array, or base64 with optional zlib/gzip compression)
+     */
+    private static int[] readJsonData(Map<String, Object> layer, Path mapFile) throws IOException {
+        Object data = layer.get("data");
+
+        if (data instanceof String base64) {
+            return decodeBase64(base64, getString(layer, "compression"), mapFile);
+        }
+        if (data instanceof List<?> values) {
+            int[] gids = new int[values.size()];
+            for (int i = 0; i < gids.length; i++) {
+                gids[i] = (int) ((Number) values.get(i)).longValue();        // gids above 2^31 keep their flag bits
+            }
+            return gids;
+        }
+        throw new IOException(mapFile + ": layer '" + getString(layer, "name") + "' has no data");
+    }
+
+    /* --------------- [SHARED] --------------- */
+
+    /*
+     * Reads an external tile set file (.tsx or .tsj/.json)
+     */
+    private static TileSetRef readExternalTileSet(int firstGid, Path tileSetFile) throws IOException {
+        String fileName = tileSetFile.getFileName().toString().toLowerCase(Locale.ROOT);
+
+        if (fileName.endsWith(".tsx")) {
+            Element tileSet = readXml(tileSetFile);
+            return new TileSetRef(firstGid, resolveTileSet(tileSet.getAttribute("name"), tmxImageSource(tileSet), tileSetFile));
+        }
+
+        Map<String, Object> tileSet = readJson(tileSetFile);
+        return new TileSetRef(firstGid, resolveTileSet(getString(tileSet, "name"), getString(tileSet, "image"), tileSetFile));
+    }
+
+    /*
+     * Matches a Tiled tile set to a runtime tile set, by name or by image file name
+     */
+    private static TileSet resolveTileSet(String name, String imageSource, Path source) throws IOException {
+        TileSet tileSet = TileSet.fromName(name);
+        if (tileSet == null && !imageSource.isEmpty()) {
+            tileSet = TileSet.fromName(baseName(Path.of(imageSource)));
+        }
+        if (tileSet == null) {
+            throw new IOException(source + ": tile set '" + name + "' (" + imageSource + ") does not match any runtime tile set");
+        }
+        return tileSet;
+    }
+
+    /*
+     * Builds the map data: remaps global tile IDs to runtime tile IDs and converts object positions to tiles
+     */
+    private static MapData buildMap(Path mapFile, int cols, int rows, int tileWidth, int tileHeight,
+                                    List<TileSetRef> tileSets, List<TiledLayer> layers, List<TiledObject> objects) throws IOException {
+        // Tile sets sorted by first gid, to find the tile set owning a gid
+        List<TileSetRef> sortedTileSets = new ArrayList<>(tileSets);
+        sortedTileSets.sort((a, b) -> Integer.compare(a.firstGid(), b.firstGid()));
+
+        MapData mapData = new MapData(cols, rows);
+
+        for (TiledLayer layer : layers) {
+            int layerType = layerTypeOf(layer.name());
+            if (layerType == -1) {
+                System.err.println(mapFile + ": skipped tile layer '" + layer.name() + "' (not a map layer name)");
+                continue;
+            }
+            if (mapData.hasLayer(layerType)) {
+                throw new IOException(mapFile + ": more than one '" + layer.name() + "' layer");
+            }
+
+            ShortBuffer cells = ShortBuffer.allocate(cols * rows);
+            for (int i = 0; i < layer.gids().length; i++) {
+                cells.put(toTileId(layerType, layer.gids()[i], sortedTileSets, mapFile, i % cols, i / cols));
+            }
+            cells.flip();
+            mapData.setLayer(layerType, cells);
+        }
+
+        if (!mapData.hasLayer(MapData.LAYER_GROUND)) {
+            throw new IOException(mapFile + ": no '" + MapData.LAYER_NAMES[MapData.LAYER_GROUND] + "' tile layer");
+        }
+
+        for (TiledObject object : objects) {
+            if (object.type().isEmpty()) {
+                System.err.println(mapFile + ": skipped object without class/type/name");
+                continue;
+            }
+
+            // Tile objects are anchored at their bottom-left corner, other objects at their top-left corner
+            double top = object.tileObject() ? object.y() - object.height() : object.y();
+            int col = (int) Math.floor(object.x() / tileWidth);
+            int row = (int) Math.floor(top / tileHeight);
+
+            if (col < 0 || col >= cols || row < 0 || row >= rows) {
+                System.err.println(mapFile + ": skipped '" + object.type() + "' object outside the map (" + col + "," + row + ")");
+                continue;
+            }
+            mapData.getObjects().add(new MapObject(object.type().toLowerCase(Locale.ROOT), col, row, object.properties()));
+        }
+
+        return mapData;
+    }
+
+    /*
+     * Converts a Tiled global tile ID to the runtime tile ID of the given layer
+     */
+    private static short toTileId(int layerType, int gid, List<TileSetRef> tileSets, Path mapFile, int col, int row) throws IOException {
+        if ((gid & GID_FLAGS_MASK) != 0) {
+            System.err.println(mapFile + ": flipped/rotated tile at (" + col + "," + row + ") imported unflipped");
+            gid &= ~GID_FLAGS_MASK;
+        }
+
+        if (gid == 0) return MapData.EMPTY_TILE;
+        if (layerType == MapData.LAYER_COLLISION) return MapData.COLLISION_SOLID;
+
+        TileSetRef owner = null;
+        for (TileSetRef tileSet : tileSets) {
+            if (tileSet.firstGid() <= gid) owner = tileSet;
+        }
+
+        int tileId = owner == null ? -1 : owner.tileSet().fromSheetCell(gid - owner.firstGid());
+        if (tileId == -1) {
+            throw new IOException(mapFile + ": tile " + gid + " at (" + col + "," + row + ") is not in a runtime tile set");
+        }
+        return (short) tileId;
+    }
+
+    /*
+     * Returns the map layer type with the given name, -1 if none
+     */
+    private static int layerTypeOf(String name) {
+        for (int layerType = 0; layerType < MapData.MAX_LAYERS; layerType++) {
+            if (MapData.LAYER_NAMES[layerType].equalsIgnoreCase(name.trim())) return layerType;
+        }
+        return -1;
+    }
+
+    /*
+     * Decodes base64 layer data (little-endian unsigned 32-bit gids), with optional zlib/gzip compression
+     */
+    private static int[] decodeBase64(String base64, String compression, Path mapFile) throws IOException {
+        byte[] bytes = Base64.getMimeDecoder().decode(base64);
+
+        switch (compression) {
+            case "" -> { }
+            case "zlib" -> bytes = readAll(new InflaterInputStream(new ByteArrayInputStream(bytes)));
+            case "gzip" -> bytes = readAll(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+            default -> throw new IOException(mapFile + ": unsupported layer compression '" + compression + "'");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int[] gids = new int[bytes.length / Integer.BYTES];
+        buffer.asIntBuffer().get(gids);
+        return gids;
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        try (is; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            is.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+
+    /*
+     * Parses an XML file, returning its root element
+     */
+    private static Element readXml(Path file) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setExpandEntityReferences(false);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+
+            Document document = factory.newDocumentBuilder().parse(file.toFile());
+            return document.getDocumentElement();
+
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException(file + ": invalid XML (" + e.getMessage() + ")", e);
+        }
+    }
+
+    /*
+     * Returns the child elements of the given element
+     */
+    private static List<Element> childElements(Element element) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = element.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                children.add((Element) nodes.item(i));
+            }
+        }
+        return children;
+    }
+
+    /*
+     * Parses a JSON file whose root is an object
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readJson(Path file) throws IOException {
+        Object root;
+        try {
+            root = JsonParser.parse(Files.readString(file));
+        } catch (IOException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+        if (!(root instanceof Map)) throw new IOException(file + ": root is not a JSON object");
+        return (Map<String, Object>) root;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> getObjectList(Map<String, Object> object, String key) {
+        Object value = object.get(key);
+        if (!(value instanceof List<?> list)) return List.of();
+
+        List<Map<String, Object>> objects = new ArrayList<>();
+        for (Object element : list) {
+            if (element instanceof Map) objects.add((Map<String, Object>) element);
+        }
+        return objects;
+    }
+
+    private static String getString(Map<String, Object> object, String key) {
+        return object.get(key) instanceof String value ? value : "";
+    }
+
+    private static double getDouble(Map<String, Object> object, String key) {
+        return object.get(key) instanceof Number value ? value.doubleValue() : 0;
+    }
+
+    private static int getInt(Map<String, Object> object, String key) throws IOException {
+        if (!(object.get(key) instanceof Number value)) throw new IOException("Missing '" + key + "' property");
+        return value.intValue();
+    }
+
+    private static double parseDouble(String value) {
+        return value.isEmpty() ? 0 : Double.parseDouble(value);
+    }
+
+    private static String firstNonEmpty(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isEmpty()) return value;
+        }
+        return "";
+    }
+
+    private static boolean isTiledMap(Path file) {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return fileName.endsWith(".tmx") || fileName.endsWith(".tmj") || fileName.endsWith(".json");
+    }
+
+    private static String baseName(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot == -1 ? name : name.substring(0, dot);
+    }
+}
@@ -0,0 +1,342 @@
+package tile;
+
+import game_logic.GamePanel;
+
+import java.nio.ShortBuffer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Procedural world generator.
+ * Terrain (water, beach, grass, trees) comes from seeded fractal value noise, and a grid of roads
+ * (paths, bridges over water) runs through the default player spawn tile. Terrain edges are resolved by the Autotiler.
+ * Every cell is a pure function of the seed and of its world position, so chunks are generated
+ * independently in parallel (fork/join) and the result is bit-identical for any thread count or order.
+ * Objects are placed on road center lines: roads are walkable and connected everywhere,
+ * so every object is reachable from the spawn
+ * @author LC
+ */
+public class WorldGenerator {
+
+    /* --------------- [CONSTANTS] --------------- */
+
+    // GENERATION UNIT (chunks of the chunk store)
+    private static final int CHUNK_SIZE = ChunkStore.CHUNK_SIZE;
+    private static final int SPLIT_THRESHOLD = 4;                               // chunks generated per task
+    public static final int MIN_WORLD_SIZE = 64;                                // in tiles, contains the spawn roads
+
+    // TERRAIN NOISE (octave scales are powers of 2, in tiles)
+    private static final int[] HEIGHT_SCALES = {128, 64, 32, 16};
+    private static final double[] HEIGHT_AMPLITUDES = {0.5, 0.25, 0.15, 0.1};
+    private static final int[] FOREST_SCALES = {32, 16};
+    private static final double[] FOREST_AMPLITUDES = {0.7, 0.3};
+    private static final double WATER_LEVEL = 0.44;
+    private static final double BEACH_LEVEL = 0.47;
+    private static final double FOREST_LEVEL = 0.55;
+    private static final int TREE_DENSITY = 45;                                 // % of forest cells with a tree
+
+    // NOISE SALTS (independent noise fields from the same seed)
+    private static final long HEIGHT_SALT = 0x48454947L;
+    private static final long FOREST_SALT = 0x464F5245L;
+    private static final long TREE_SALT = 0x54524545L;
+    private static final long OBJECT_SALT = 0x4F424A53L;
+
+    // ROADS (3 tiles wide, centered on the default player spawn tile)
+    private static final int ROAD_SPACING = 64;
+    private static final int ROAD_HALF_WIDTH = 1;
+    private static final int ROAD_ORIGIN_COL = GamePanel.MAX_WORLD_COL / 2;
+    private static final int ROAD_ORIGIN_ROW = GamePanel.MAX_WORLD_ROW / 2;
+    private static final int NO_ROAD = Integer.MIN_VALUE;
+
+    // OBJECTS (placed near the spawn, whatever the world size)
+    private static final int OBJECT_AREA_SIZE = 256;                            // in tiles
+    private static final int MAX_PLACEMENT_ATTEMPTS = 1000;
+
+    // BRIDGE TILE IDS (see TileManager.loadTiles), other terrains are autotiled
+    private static final byte BRIDGE = (byte) Terrain.BRIDGE.ordinal();
+    private static final short BRIDGE_H = (short) TileSet.BRIDGE.getFirstId();             // 3x3: top, middle, bottom rows
+    private static final short BRIDGE_V = (short) (TileSet.BRIDGE.getFirstId() + 9);       // 3x3: left, middle, right cols
+    private static final short BRIDGE_PLANK = (short) (BRIDGE_H + 4);                      // road crossings over water
+
+    /* ------------------------------------------- */
+
+    private final long seed;
+
+
+    public WorldGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates a world on the common fork/join pool
+     * @param cols The world width (in tiles, at least MIN_WORLD_SIZE)
+     * @param rows The world height (in tiles, at least MIN_WORLD_SIZE)
+     * @param objectCounts The number of objects of each type to place (e.g. "key" -> 10), in placement order
+     * @return The generated map (ground layer and object placements)
+     */
+    public MapData generate(int cols, int rows, Map<String, Integer> objectCounts) {
+        return generate(cols, rows, objectCounts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generates a world on the given fork/join pool
+     * @param cols The world width (in tiles, at least MIN_WORLD_SIZE)
+     * @param rows The world height (in tiles, at least MIN_WORLD_SIZE)
+     * @param objectCounts The number of objects of each type to place (e.g. "key" -> 10), in placement order
+     * @param pool The pool generating chunks
+     * @return The generated map (ground layer and object placements)
+     */
+    public MapData generate(int cols, int rows, Map<String, Integer> objectCounts, ForkJoinPool pool) {
+        if (cols < MIN_WORLD_SIZE || rows < MIN_WORLD_SIZE) {
+            throw new IllegalArgumentException("World size must be at least " + MIN_WORLD_SIZE + "x" + MIN_WORLD_SIZE
+                    + " (" + cols + "x" + rows + ")");
+        }
+
+        short[] cells = new short[Math.multiplyExact(cols, rows)];
+        int chunkCols = (cols + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int chunkRows = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        pool.invoke(new GenerateChunks(cells, cols, rows, chunkCols, 0, chunkCols * chunkRows));
+
+        MapData mapData = new MapData(cols, rows);
+        mapData.setLayer(MapData.LAYER_GROUND, ShortBuffer.wrap(cells));
+        placeObjects(mapData, objectCounts);
+        return mapData;
+    }
+
+    /*
+     * Generates a range of chunks (row-major chunk indexes), splitting it in halves
+     */
+    @SuppressWarnings("serial")                 // never serialized
+    private class GenerateChunks extends RecursiveAction {
+        private final short[] cells;
+        private final int cols, rows, chunkCols, from, to;
+
+        GenerateChunks(short[] cells, int cols, int rows, int chunkCols, int from, int to) {
+            this.cells = cells;
+            this.cols = cols;
+            this.rows = rows;
+            this.chunkCols = chunkCols;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int chunk = from; chunk < to; chunk++) {
+                    generateChunk(cells, cols, rows, chunk % chunkCols, chunk / chunkCols);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new GenerateChunks(cells, cols, rows, chunkCols, from, middle),
+                      new GenerateChunks(cells, cols, rows, chunkCols, middle, to));
+        }
+    }
+
+    /*
+     * Generates the cells of one chunk. Noise and terrain are sampled with a 1 tile border,
+     * so edge tiles (see Autotiler) and bridge ends can look at their neighbours without leaving the chunk
+     */
+    private void generateChunk(short[] cells, int cols, int rows, int chunkCol, int chunkRow) {
+        int x0 = chunkCol * CHUNK_SIZE;
+        int y0 = chunkRow * CHUNK_SIZE;
+        int width = Math.min(CHUNK_SIZE, cols - x0);
+        int height = Math.min(CHUNK_SIZE, rows - y0);
+
+        // Sampled area: chunk plus border (stride = CHUNK_SIZE + 2)
+        int stride = CHUNK_SIZE + 2;
+        double[] heights = new double[stride * stride];
+        double[] forest = new double[stride * stride];
+        for (int octave = 0; octave < HEIGHT_SCALES.length; octave++) {
+            addNoise(heights, stride, x0 - 1, y0 - 1, HEIGHT_SCALES[octave], HEIGHT_AMPLITUDES[octave], HEIGHT_SALT + octave);
+        }
+        for (int octave = 0; octave < FOREST_SCALES.length; octave++) {
+            addNoise(forest, stride, x0 - 1, y0 - 1, FOREST_SCALES[octave], FOREST_AMPLITUDES[octave], FOREST_SALT + octave);
+        }
+
+        // Terrain of the sampled area
+        byte[] terrain = new byte[stride * stride];
+        for (int y = 0, sample = 0; y < stride; y++) {
+            int worldRow = y0 - 1 + y;
+            boolean onRoadRow = roadOffset(worldRow, ROAD_ORIGIN_ROW) != NO_ROAD;
+
+            for (int x = 0; x < stride; x++, sample++) {
+                int worldCol = x0 - 1 + x;
+                boolean onRoad = onRoadRow || roadOffset(worldCol, ROAD_ORIGIN_COL) != NO_ROAD;
+                double h = heights[sample];
+                Terrain cellTerrain;
+
+                if (onRoad) {
+                    cellTerrain = h < WATER_LEVEL ? Terrain.BRIDGE : Terrain.PATH;
+                } else if (h < WATER_LEVEL) {
+                    cellTerrain = Terrain.WATER;
+                } else if (h < BEACH_LEVEL) {
+                    cellTerrain = Terrain.BEACH;
+                } else if (forest[sample] > FOREST_LEVEL && Math.floorMod(hash(TREE_SALT, worldCol, worldRow), 100) < TREE_DENSITY) {
+                    cellTerrain = Terrain.TREE;
+                } else {
+                    cellTerrain = Terrain.GRASS;
+                }
+
+                terrain[sample] = (byte) cellTerrain.ordinal();
+            }
+        }
+
+        // Tiles of the chunk cells: bridges from the road layout, anything else autotiled
+        for (int y = 0; y < height; y++) {
+            int worldRow = y0 + y;
+            int roadRow = roadOffset(worldRow, ROAD_ORIGIN_ROW);
+            int rowStart = worldRow * cols + x0;
+            int sample = (y + 1) * stride + 1;
+
+            for (int x = 0; x < width; x++, sample++) {
+                if (terrain[sample] == BRIDGE) {
+                    cells[rowStart + x] = bridgeTile(roadRow, roadOffset(x0 + x, ROAD_ORIGIN_COL),
+                            heights[sample - 1] < WATER_LEVEL, heights[sample + 1] < WATER_LEVEL,
+                            heights[sample - stride] < WATER_LEVEL, heights[sample + stride] < WATER_LEVEL);
+                } else {
+                    cells[rowStart + x] = Autotiler.resolveInner(terrain, stride, sample);
+                }
+            }
+        }
+    }
+
+    /*
+     * Returns the bridge tile of a road cell over water
+     * @param roadRow The cell offset from the center of a horizontal road (NO_ROAD if none)
+     * @param roadCol The cell offset from the center of a vertical road (NO_ROAD if none)
+     * @param waterWest, waterEast, waterNorth, waterSouth true if the neighbour cell is water
+     */
+    private static short bridgeTile(int roadRow, int roadCol, boolean waterWest, boolean waterEast,
+                                    boolean waterNorth, boolean waterSouth) {
+        if (roadRow != NO_ROAD && roadCol != NO_ROAD) return BRIDGE_PLANK;
+
+        if (roadRow != NO_ROAD) {
+            // Horizontal bridge: rail rows from the road offset, ends where the water ends
+            int col = !waterWest ? 0 : !waterEast ? 2 : 1;
+            return (short) (BRIDGE_H + (roadRow + 1) * 3 + col);
+        }
+
+        // Vertical bridge: rail cols from the road offset, ends where the water ends
+        int row = !waterNorth ? 0 : !waterSouth ? 2 : 1;
+        return (short) (BRIDGE_V + row * 3 + roadCol + 1);
+    }
+
+    /*
+     * Returns the offset of the given coordinate from the nearest road center line, NO_ROAD if not on a road
+     */
+    private static int roadOffset(int coordinate, int origin) {
+        int offset = Math.floorMod(coordinate - origin + ROAD_HALF_WIDTH, ROAD_SPACING) - ROAD_HALF_WIDTH;
+        return offset <= ROAD_HALF_WIDTH ? offset : NO_ROAD;
+    }
+
+    /*
+     * Adds one octave of value noise to the sampled area: lattice values are hashed once per lattice point,
+     * then interpolated per cell with a smoothstep
+     */
+    private void addNoise(double[] values, int stride, int x0, int y0, int scale, double amplitude, long salt) {
+        int size = values.length / stride;
+        int latticeX0 = Math.floorDiv(x0, scale);
+        int latticeY0 = Math.floorDiv(y0, scale);
+        int latticeCols = Math.floorDiv(x0 + size - 1, scale) - latticeX0 + 2;
+        int latticeRows = Math.floorDiv(y0 + size - 1, scale) - latticeY0 + 2;
+
+        double[] lattice = new double[latticeCols * latticeRows];
+        for (int j = 0; j < latticeRows; j++) {
+            for (int i = 0; i < latticeCols; i++) {
+                lattice[j * latticeCols + i] = toUnit(hash(salt, latticeX0 + i, latticeY0 + j)) * amplitude;
+            }
+        }
+
+        // Lattice column and interpolation weight of each sampled column (same for every row)
+        int[] latticeX = new int[size];
+        double[] weightX = new double[size];
+        for (int x = 0; x < size; x++) {
+            latticeX[x] = Math.floorDiv(x0 + x, scale) - latticeX0;
+            weightX[x] = smoothstep(Math.floorMod(x0 + x, scale) / (double) scale);
+        }
+
+        for (int y = 0; y < size; y++) {
+            int worldY = y0 + y;
+            int rowCorner = (Math.floorDiv(worldY, scale) - latticeY0) * latticeCols;
+            double ty = smoothstep(Math.floorMod(worldY, scale) / (double) scale);
+
+            for (int x = 0; x < size; x++) {
+                double tx = weightX[x];
+                int corner = rowCorner + latticeX[x];
+                double top = lattice[corner] + (lattice[corner + 1] - lattice[corner]) * tx;
+                double bottom = lattice[corner + latticeCols] + (lattice[corner + latticeCols + 1] - lattice[corner + latticeCols]) * tx;
+                values[y * stride + x] += top + (bottom - top) * ty;
+            }
+        }
+    }
+
+    /*
+     * Places objects on road center lines within OBJECT_AREA_SIZE of the world origin.
+     * Candidate positions are hashed from the seed, so placements are deterministic
+     */
+    private void placeObjects(MapData mapData, Map<String, Integer> objectCounts) {
+        int areaCols = Math.min(mapData.getCols(), OBJECT_AREA_SIZE);
+        int areaRows = Math.min(mapData.getRows(), OBJECT_AREA_SIZE);
+
+        Set<Long> usedCells = new HashSet<>();
+        usedCells.add(cellKey(ROAD_ORIGIN_COL, ROAD_ORIGIN_ROW));          // player spawn
+        long attempt = 0;
+
+        for (Map.Entry<String, Integer> entry : objectCounts.entrySet()) {
+            for (int placed = 0; placed < entry.getValue(); ) {
+                if (attempt >= MAX_PLACEMENT_ATTEMPTS * (long) (usedCells.size() + 1)) {
+                    System.err.println("World generator: no room left for '" + entry.getKey() + "' objects");
+                    return;
+                }
+
+                long h = hash(OBJECT_SALT, (int) attempt, (int) (attempt >>> 32));
+                attempt++;
+
+                // Random road center line (horizontal or vertical), random position along it
+                boolean horizontal = (h & 1) == 0;
+                int origin = horizontal ? ROAD_ORIGIN_ROW : ROAD_ORIGIN_COL;
+                int lineCount = ((horizontal ? areaRows : areaCols) - 1 - origin) / ROAD_SPACING + 1;
+                int line = origin + Math.floorMod(h >>> 33, lineCount) * ROAD_SPACING;
+                int along = Math.floorMod(h >>> 1, horizontal ? areaCols : areaRows);
+
+                int col = horizontal ? along : line;
+                int row = horizontal ? line : along;
+                if (!usedCells.add(cellKey(col, row))) continue;
+
+                mapData.getObjects().add(new MapObject(entry.getKey(), col, row));
+                placed++;
+            }
+        }
+    }
+
+    /*
+     * Hashes the seed, a salt and a world position (SplitMix64 finalizer)
+     */
+    private long hash(long salt, int x, int y) {
+        long h = seed ^ salt * 0x9E3779B97F4A7C15L;
+        h ^= (x & 0xFFFFFFFFL) * 0xBF58476D1CE4E5B9L;
+        h ^= (y & 0xFFFFFFFFL) * 0x94D049BB133111EBL;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    // Maps a hash to [0, 1)
+    private static double toUnit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    private static double smoothstep(double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static long cellKey(int col, int row) {
+        return ((long) col << 32) | (row & 0xFFFFFFFFL);
+    }
+}
@@ -7,12 +7,16 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides utility methods for common game-related operations.
  */
 public class GameUtils {
 
+    // SCALED IMAGES CACHE (shared by every instance using the same image)
+    private static final ConcurrentHashMap<String, BufferedImage> scaledImageCache = new ConcurrentHashMap<>();
+
     /**
      * Loads image safely from given path
      * @param path The file path from which to open image
@@ -133,6 +137,28 @@ public class GameUtils {
         return scaledImage;
     }
 
+    /**
+     * Loads image from given path scaled to the given size.
+     * Images are loaded and scaled only once, then shared by every caller
+     * @param path The file path from which to open image
+     * @param width The scaled image width
+     * @param height The scaled image height
+     * @return The scaled image
+     * @throws FileNotFoundException if file was not found
+     * @throws IOException if image format is invalid
+     */
+    public static BufferedImage loadScaledImageCached(String path, int width, int height) throws IOException {
+        String key = path + "@" + width + "x" + height;
+
+        BufferedImage image = scaledImageCache.get(key);
+        if (image == null) {
+            image = scaleImage(loadImageSafe(path), width, height);
+            scaledImageCache.putIfAbsent(key, image);
+        }
+
+        return image;
+    }
+
     /**
      * Returns a solid color placeholder image of the specified size.
      * This method generates a BufferedImage filled entirely with the given color.
@@ -0,0 +1,199 @@
+package utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON parser for build-time tools (e.g. Tiled map import).
+ * Objects are parsed to Map&lt;String, Object&gt;, arrays to List&lt;Object&gt;, numbers to Double,
+ * strings to String, booleans to Boolean and null to null
+ * @author LC
+ */
+public class JsonParser {
+
+    private final String text;
+    private int pos = 0;
+
+
+    private JsonParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses the given JSON document
+     * @param text The JSON text
+     * @return The parsed value
+     * @throws IOException if the text is not valid JSON
+     */
+    public static Object parse(String text) throws IOException {
+        JsonParser parser = new JsonParser(text);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+
+    /*
+     * Reads any JSON value at the current position
+     */
+    private Object readValue() throws IOException {
+        skipWhitespace();
+        if (pos >= text.length()) throw error("Unexpected end of input");
+
+        char c = text.charAt(pos);
+        return switch (c) {
+            case '{' -> readObject();
+            case '[' -> readArray();
+            case '"' -> readString();
+            case 't' -> readLiteral("true", Boolean.TRUE);
+            case 'f' -> readLiteral("false", Boolean.FALSE);
+            case 'n' -> readLiteral("null", null);
+            default -> readNumber();
+        };
+    }
+
+    /*
+     * Reads a JSON object (keys keep document order)
+     */
+    private Map<String, Object> readObject() throws IOException {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++;                                  // '{'
+
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return object;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') throw error("Expected object key");
+            String key = readString();
+
+            skipWhitespace();
+            expect(':');
+            object.put(key, readValue());
+
+            skipWhitespace();
+            char c = next();
+            if (c == '}') return object;
+            if (c != ',') throw error("Expected ',' or '}'");
+        }
+    }
+
+    /*
+     * Reads a JSON array
+     */
+    private List<Object> readArray() throws IOException {
+        List<Object> array = new ArrayList<>();
+        pos++;                                  // '['
+
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return array;
+        }
+
+        while (true) {
+            array.add(readValue());
+
+            skipWhitespace();
+            char c = next();
+            if (c == ']') return array;
+            if (c != ',') throw error("Expected ',' or ']'");
+        }
+    }
+
+    /*
+     * Reads a JSON string, decoding escape sequences
+     */
+    private String readString() throws IOException {
+        pos++;                                  // '"'
+        StringBuilder sb = new StringBuilder();
+
+        while (true) {
+            char c = next();
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            char escape = next();
+            switch (escape) {
+                case '"', '\\', '/' -> sb.append(escape);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) throw error("Invalid unicode escape");
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("Invalid escape sequence");
+            }
+        }
+    }
+
+    /*
+     * Reads a JSON number
+     */
+    private Double readNumber() throws IOException {
+        int start = pos;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) != -1) {
+            pos++;
+        }
+
+        try {
+            return Double.parseDouble(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Invalid value");
+        }
+    }
+
+    /*
+     * Reads the given literal (true, false, null)
+     */
+    private Object readLiteral(String literal, Object value) throws IOException {
+        if (!text.startsWith(literal, pos)) throw error("Invalid value");
+        pos += literal.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() throws IOException {
+        if (pos >= text.length()) throw error("Unexpected end of input");
+        return text.charAt(pos);
+    }
+
+    private char next() throws IOException {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (next() != expected) throw error("Expected '" + expected + "'");
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at position " + pos);
+    }
+}